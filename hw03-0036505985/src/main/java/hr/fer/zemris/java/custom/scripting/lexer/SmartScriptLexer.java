@@ -78,6 +78,17 @@ public class SmartScriptLexer {
 		this.state = Util.validateNotNull(state, "state");
 	}
 
+	/**
+	 * Returns index of the first character that was not yet tokenized. Before the
+	 * first call to {@link #nextToken()} that is <code>0</code>, after each
+	 * extracted token it points right behind that token.
+	 * 
+	 * @return index of first unused character
+	 */
+	public int getCurrentIndex() {
+		return currentIndex;
+	}
+
 	/**
 	 * Returns last generated token. It can be called as many times as wanted since
 	 * it does not trigger generation of next token.
@@ -268,7 +279,9 @@ public class SmartScriptLexer {
 	 * @throws SmartScriptLexerException if name cannot be extracted
 	 */
 	private String extractName() {
-		if (!isCurrentPositionLegal() || !Character.isLetter(data[currentIndex])) {
+		if (!isCurrentPositionLegal()) {
+			throw new SmartScriptLexerException("Expected a name, but reached end of input.");
+		} else if (!Character.isLetter(data[currentIndex])) {
 			throw new SmartScriptLexerException("First letter of name is not valid: " + data[currentIndex]);
 		}
 
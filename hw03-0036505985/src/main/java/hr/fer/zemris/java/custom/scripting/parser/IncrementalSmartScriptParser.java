@@ -0,0 +1,277 @@
+package hr.fer.zemris.java.custom.scripting.parser;
+
+import hr.fer.zemris.java.custom.collections.Util;
+import hr.fer.zemris.java.custom.scripting.nodes.DocumentNode;
+import hr.fer.zemris.java.custom.scripting.nodes.ForLoopNode;
+import hr.fer.zemris.java.custom.scripting.nodes.Node;
+import hr.fer.zemris.java.custom.scripting.nodes.TextNode;
+
+/**
+ * Parser which keeps a document and its tree, and re-parses only the part of
+ * document affected by an edit.
+ * <p>
+ * For every edit, the deepest <code>FOR</code> tag whose body contains the
+ * whole edit is found. Only the children of that body which touch the edited
+ * range (extended by neighbouring text, which could merge with new text) are
+ * re-lexed and re-parsed. All other subtrees are reused as they are, and only
+ * nodes on the path from the document root to the edited body are recreated.
+ * If the re-parsed part cannot be parsed on its own (e.g. an edit added or
+ * removed an <code>END</code> tag), the whole document is parsed again.
+ * </p>
+ * Resulting tree is always equal to the tree which {@link SmartScriptParser}
+ * would produce for the edited document.
+ * 
+ * @author Luka Mesaric
+ * 
+ * @see SmartScriptParser
+ */
+public class IncrementalSmartScriptParser {
+
+	/**
+	 * Current document body.
+	 */
+	private final StringBuilder text;
+
+	/**
+	 * Source span of current document node, root of span tree.
+	 */
+	private SourceSpan documentSpan;
+
+	/**
+	 * Default constructor. Parses entire input as soon as it is instantiated.
+	 * 
+	 * @param documentBody document to parse
+	 * 
+	 * @throws NullPointerException       if <code>documentBody</code> is
+	 *                                    <code>null</code>
+	 * @throws SmartScriptParserException if <code>documentBody</code> cannot be
+	 *                                    correctly parsed for any reason
+	 */
+	public IncrementalSmartScriptParser(String documentBody) {
+		Util.validateNotNull(documentBody, "documentBody");
+		documentSpan = new SmartScriptParser(documentBody, true).getDocumentSpan();
+		text = new StringBuilder(documentBody);
+	}
+
+	/**
+	 * Returns document node of current document.
+	 *
+	 * @return document node, never <code>null</code>
+	 */
+	public DocumentNode getDocumentNode() {
+		return (DocumentNode) documentSpan.getNode();
+	}
+
+	/**
+	 * Returns current document body, with all edits applied.
+	 * 
+	 * @return document body
+	 */
+	public String getDocumentBody() {
+		return text.toString();
+	}
+
+	/**
+	 * Replaces characters from <code>start</code> (inclusive) to <code>end</code>
+	 * (exclusive) of current document body with <code>replacement</code>, and
+	 * re-parses the affected part of document.<br>
+	 * If the edited document cannot be parsed, an exception is thrown and this
+	 * parser is left unchanged, i.e. the edit is not applied.
+	 * 
+	 * @param previous    document node returned by the last successful parse of
+	 *                    this parser
+	 * @param start       index of first replaced character
+	 * @param end         index after last replaced character
+	 * @param replacement text to insert instead of replaced characters
+	 * @return document node of edited document
+	 * 
+	 * @throws NullPointerException       if <code>previous</code> or
+	 *                                    <code>replacement</code> is
+	 *                                    <code>null</code>
+	 * @throws IllegalArgumentException   if <code>previous</code> is not the
+	 *                                    current document node of this parser
+	 * @throws IndexOutOfBoundsException  if range is not valid for current
+	 *                                    document body
+	 * @throws SmartScriptParserException if edited document cannot be correctly
+	 *                                    parsed for any reason
+	 */
+	public DocumentNode reparse(DocumentNode previous, int start, int end, String replacement) {
+		Util.validateNotNull(previous, "previous");
+		Util.validateNotNull(replacement, "replacement");
+		if (previous != documentSpan.getNode()) {
+			throw new IllegalArgumentException("Given document node is not the current document of this parser.");
+		}
+		if (start < 0 || end < start || end > text.length()) {
+			throw new IndexOutOfBoundsException(
+					"Invalid range [" + start + ", " + end + ") for length " + text.length() + ".");
+		}
+
+		String removed = text.substring(start, end);
+		text.replace(start, end, replacement);
+		try {
+			documentSpan = reparse(start, end, replacement.length() - removed.length());
+		} catch (SmartScriptParserException e) {
+			text.replace(start, start + replacement.length(), removed);
+			throw e;
+		}
+		return getDocumentNode();
+	}
+
+	/**
+	 * Re-parses the part of already edited document affected by the edit.
+	 * Parses the whole document if the affected part cannot be parsed on its
+	 * own.
+	 * 
+	 * @param start index of first replaced character
+	 * @param end   index after last replaced character, before the edit
+	 * @param delta change of document length
+	 * @return source span of new document node
+	 * 
+	 * @throws SmartScriptParserException if edited document cannot be correctly
+	 *                                    parsed for any reason
+	 */
+	private SourceSpan reparse(int start, int end, int delta) {
+		try {
+			return rebuild(documentSpan, 0, start, end, delta);
+		} catch (SmartScriptParserException e) {
+			// affected part is not valid on its own, but the whole document may be
+			return new SmartScriptParser(text.toString(), true).getDocumentSpan();
+		}
+	}
+
+	/**
+	 * Rebuilds <code>container</code> so that it reflects the edit. Descends into
+	 * a child <code>FOR</code> tag if its body contains the whole edit, otherwise
+	 * re-parses the children of <code>container</code> which touch the edit.
+	 * 
+	 * @param container span of node whose body contains the edit
+	 * @param bodyStart index of first character of container body
+	 * @param start     index of first replaced character
+	 * @param end       index after last replaced character, before the edit
+	 * @param delta     change of document length
+	 * @return new span of container
+	 * 
+	 * @throws SmartScriptParserException if affected children cannot be parsed
+	 *                                    on their own
+	 */
+	private SourceSpan rebuild(SourceSpan container, int bodyStart, int start, int end, int delta) {
+		int count = container.numberOfChildren();
+
+		// first child which ends after start, and last child which starts before
+		// end; if first > last, edit is a pure insertion between two children
+		int first = count;
+		int last = -1;
+		int firstStart = start;
+		int lastEnd = end;
+
+		int childStart = bodyStart;
+		for (int i = 0; i < count; i++) {
+			if (childStart >= end && first < count) {
+				break;
+			}
+			int childEnd = childStart + container.getChild(i).getLength();
+			if (first == count && childEnd > start) {
+				first = i;
+				firstStart = childStart;
+			}
+			if (childStart < end) {
+				last = i;
+				lastEnd = childEnd;
+			}
+			childStart = childEnd;
+		}
+
+		if (first == last) {
+			SourceSpan child = container.getChild(first);
+			int childBodyStart = firstStart + child.getHeaderLength();
+			int childBodyEnd = lastEnd - child.getFooterLength();
+			if (child.isContainer() && childBodyStart <= start && end <= childBodyEnd) {
+				SourceSpan newChild = rebuild(child, childBodyStart, start, end, delta);
+				return splice(container, first, last, newChild);
+			}
+		}
+
+		// neighbouring text would merge with text at the edges of the edit
+		if (first > 0 && container.getChild(first - 1).getNode() instanceof TextNode) {
+			first--;
+			firstStart -= container.getChild(first).getLength();
+		}
+		if (last + 1 < count && container.getChild(last + 1).getNode() instanceof TextNode) {
+			last++;
+			lastEnd += container.getChild(last).getLength();
+		}
+
+		String region = text.substring(firstStart, lastEnd + delta);
+		SourceSpan parsed = new SmartScriptParser(region, true).getDocumentSpan();
+		return splice(container, first, last, parsed);
+	}
+
+	/**
+	 * Creates a new container span (and node) equal to <code>container</code>,
+	 * except that children from <code>from</code> to <code>to</code> (both
+	 * inclusive) are replaced. If <code>replacement</code> is a document span,
+	 * all its children are inserted, otherwise <code>replacement</code> itself is
+	 * inserted.
+	 * 
+	 * @param container   span to copy
+	 * @param from        index of first replaced child
+	 * @param to          index of last replaced child
+	 * @param replacement span of document whose children are inserted, or span
+	 *                    of a single node to insert
+	 * @return new container span
+	 */
+	private static SourceSpan splice(SourceSpan container, int from, int to, SourceSpan replacement) {
+		Node node = copyWithoutChildren(container.getNode());
+		SourceSpan span = SourceSpan.container(node, container.getHeaderLength());
+
+		for (int i = 0; i < from; i++) {
+			addChild(span, container.getChild(i));
+		}
+		if (replacement.getNode() instanceof DocumentNode) {
+			for (int i = 0, size = replacement.numberOfChildren(); i < size; i++) {
+				addChild(span, replacement.getChild(i));
+			}
+		} else {
+			addChild(span, replacement);
+		}
+		for (int i = to + 1, size = container.numberOfChildren(); i < size; i++) {
+			addChild(span, container.getChild(i));
+		}
+
+		span.close(container.getFooterLength());
+		return span;
+	}
+
+	/**
+	 * Adds <code>child</code> both to children of <code>parent</code> span and to
+	 * children of its node.
+	 * 
+	 * @param parent span to add to
+	 * @param child  span to add
+	 */
+	private static void addChild(SourceSpan parent, SourceSpan child) {
+		parent.getNode().addChildNode(child.getNode());
+		parent.addChild(child);
+	}
+
+	/**
+	 * Creates a node equal to <code>node</code>, but without any children.
+	 * 
+	 * @param node node to copy, <code>DocumentNode</code> or
+	 *             <code>ForLoopNode</code>
+	 * @return created node
+	 * 
+	 * @throws IllegalArgumentException if <code>node</code> cannot have children
+	 */
+	private static Node copyWithoutChildren(Node node) {
+		if (node instanceof DocumentNode) {
+			return new DocumentNode();
+		} else if (node instanceof ForLoopNode) {
+			ForLoopNode forLoop = (ForLoopNode) node;
+			return new ForLoopNode(forLoop.getVariable(), forLoop.getStartExpression(),
+					forLoop.getEndExpression(), forLoop.getStepExpression());
+		}
+		throw new IllegalArgumentException("Node cannot have children: " + node.getClass());
+	}
+
+}
@@ -50,6 +50,18 @@ public class SmartScriptParser {
 	 */
 	private ObjectStack stack;
 
+	/**
+	 * Stack used for building source span tree, parallel to <code>stack</code>.
+	 * Contains only objects of type 'SourceSpan'. <code>null</code> if spans are
+	 * not recorded.
+	 */
+	private ObjectStack spanStack;
+
+	/**
+	 * Source span of document node. <code>null</code> if spans are not recorded.
+	 */
+	private SourceSpan documentSpan = null;
+
 	/**
 	 * Default constructor. Parses entire input as soon as it is instantiated.
 	 * 
@@ -59,8 +71,29 @@ public class SmartScriptParser {
 	 *                                    correctly parsed for any reason
 	 */
 	public SmartScriptParser(String documentBody) {
+		this(documentBody, false);
+	}
+
+	/**
+	 * Parses entire input as soon as it is instantiated, optionally recording
+	 * source spans of all nodes.
+	 * 
+	 * @param documentBody document to parse
+	 * @param recordSpans  <code>true</code> if source spans should be recorded
+	 * 
+	 * @throws NullPointerException       if <code>documentBody</code> is
+	 *                                    <code>null</code>
+	 * @throws SmartScriptParserException if <code>documentBody</code> cannot be
+	 *                                    correctly parsed for any reason
+	 * 
+	 * @see #getDocumentSpan()
+	 */
+	SmartScriptParser(String documentBody, boolean recordSpans) {
 		Util.validateNotNull(documentBody, "documentBody");
 		lexer = new SmartScriptLexer(documentBody);
+		if (recordSpans) {
+			spanStack = new ObjectStack();
+		}
 
 		// keep document node set to null until everything is completed without
 		// exception
@@ -76,6 +109,16 @@ public class SmartScriptParser {
 		return documentNode;
 	}
 
+	/**
+	 * Getter for <code>documentSpan</code>.
+	 *
+	 * @return source span of document node; <code>null</code> if spans were not
+	 *         recorded
+	 */
+	SourceSpan getDocumentSpan() {
+		return documentSpan;
+	}
+
 	/**
 	 * Recreates source code from which <code>document</code> was original parsed.
 	 * 
@@ -119,47 +162,62 @@ public class SmartScriptParser {
 	 */
 	private DocumentNode parseDocument() {
 		stack = new ObjectStack();
-		stack.push(new DocumentNode());
+		DocumentNode document = new DocumentNode();
+		stack.push(document);
+		if (spanStack != null) {
+			spanStack.push(SourceSpan.container(document, 0));
+		}
 
 		parseText();
 
 		if (stack.size() != 1) {
 			throw new SmartScriptParserException("Missing {$END$} tags.");
 		}
+		if (spanStack != null) {
+			documentSpan = (SourceSpan) spanStack.pop();
+		}
 		return (DocumentNode) stack.pop();
 	}
 
 	/**
 	 * Parses text outside of tags. Continues parsing tags when they are
-	 * encountered.
+	 * encountered, until the end of input.
 	 * 
 	 * @throws SmartScriptParserException if input cannot be correctly parsed for
 	 *                                    any reason
 	 * @throws SmartScriptLexerException  if any needed token could not be extracted
 	 */
 	private void parseText() {
-		SmartScriptToken token = lexer.nextToken();
-		switch (token.getType()) {
-		case EOF:
-			return;
-		case PLAIN_TEXT:
-			TextNode textNode = new TextNode((String) token.getValue());
-			addNodeToChildrenOfLast(textNode);
-			parseText();
-			return;
-		case OPEN_TAG:
-			lexer.setState(SmartScriptLexerState.TAG_NAME);
-			parseEntireTag();
-			return;
-		default:
-			// If this executes, lexer needs to be fixed
-			throw new SmartScriptParserException("Unexpected token type: " + token.getType());
+		// Iterative, so that the depth of the call stack does not depend on the
+		// number of tokens in document.
+		while (true) {
+			int start = lexer.getCurrentIndex();
+			SmartScriptToken token = lexer.nextToken();
+			switch (token.getType()) {
+			case EOF:
+				return;
+			case PLAIN_TEXT:
+				TextNode textNode = new TextNode((String) token.getValue());
+				addNodeToChildrenOfLast(textNode);
+				recordLeafSpan(textNode, start);
+				break;
+			case OPEN_TAG:
+				lexer.setState(SmartScriptLexerState.TAG_NAME);
+				parseEntireTag(start);
+				lexer.setState(SmartScriptLexerState.TEXT);
+				break;
+			default:
+				// If this executes, lexer needs to be fixed
+				throw new SmartScriptParserException("Unexpected token type: " + token.getType());
+			}
 		}
 	}
 
 	/**
 	 * Parses entire tag. Adds created node to children of last node on stack.
 	 * 
+	 * @param tagStart index of first character of tag opening
+	 * 
 	 * @throws SmartScriptParserException if tag name is incorrect, or tag body is
 	 *                                    not correctly formatted (e.g. arguments
 	 *                                    are incorrect, tag is never closed,
@@ -168,7 +226,7 @@ public class SmartScriptParser {
 	 *                                    matching non-empty tag
 	 * @throws SmartScriptLexerException  if any needed token could not be extracted
 	 */
-	private void parseEntireTag() {
+	private void parseEntireTag(int tagStart) {
 		SmartScriptToken token = lexer.nextToken();
 
 		if (token.getType() == SmartScriptTokenType.EOF) {
@@ -185,11 +243,15 @@ public class SmartScriptParser {
 		case "=":
 			EchoNode echoNode = completeEqualsTagBody();
 			addNodeToChildrenOfLast(echoNode);
+			recordLeafSpan(echoNode, tagStart);
 			break;
 		case "FOR":
 			ForLoopNode forLoopNode = completeForTagBody();
 			addNodeToChildrenOfLast(forLoopNode);
 			stack.push(forLoopNode);
+			if (spanStack != null) {
+				spanStack.push(SourceSpan.container(forLoopNode, lexer.getCurrentIndex() - tagStart));
+			}
 			break;
 		case "END":
 			SmartScriptToken closeTag = lexer.nextToken();
@@ -200,13 +262,29 @@ public class SmartScriptParser {
 			if (stack.size() == 0) {
 				throw new SmartScriptParserException("There are more {$END$} tags than opened non-empty tags.");
 			}
+			if (spanStack != null) {
+				SourceSpan forLoopSpan = (SourceSpan) spanStack.pop();
+				forLoopSpan.close(lexer.getCurrentIndex() - tagStart);
+				((SourceSpan) spanStack.peek()).addChild(forLoopSpan);
+			}
 			break;
 		default:
 			throw new SmartScriptParserException("Invalid tag name: '" + tagName + "'.");
 		}
+	}
 
-		lexer.setState(SmartScriptLexerState.TEXT);
-		parseText();
+	/**
+	 * Records source span of a node without children, if spans are being
+	 * recorded. Span ends at current position of lexer.
+	 * 
+	 * @param node  parsed node
+	 * @param start index of first character node was parsed from
+	 */
+	private void recordLeafSpan(Node node, int start) {
+		if (spanStack != null) {
+			SourceSpan span = SourceSpan.leaf(node, lexer.getCurrentIndex() - start);
+			((SourceSpan) spanStack.peek()).addChild(span);
+		}
 	}
 
 	/**
@@ -0,0 +1,190 @@
+package hr.fer.zemris.java.custom.scripting.parser;
+
+import hr.fer.zemris.java.custom.collections.ArrayIndexedCollection;
+import hr.fer.zemris.java.custom.collections.List;
+import hr.fer.zemris.java.custom.collections.Util;
+import hr.fer.zemris.java.custom.scripting.nodes.Node;
+
+/**
+ * Records how many characters of source code a single {@link Node} was parsed
+ * from. Spans form a tree parallel to the document tree. Only lengths are
+ * stored, never absolute positions, so an edit changes only spans on the path
+ * from the document root to the edited node.
+ * <p>
+ * Container spans (for <code>DocumentNode</code> and <code>ForLoopNode</code>)
+ * additionally record the length of the opening tag (header) and the
+ * <code>END</code> tag (footer), and hold spans of all child nodes.
+ * </p>
+ * 
+ * @author Luka Mesaric
+ * 
+ * @see IncrementalSmartScriptParser
+ */
+class SourceSpan {
+
+	/**
+	 * Node parsed from this span.
+	 */
+	private final Node node;
+
+	/**
+	 * Total number of characters, including header, children and footer.
+	 */
+	private int length;
+
+	/**
+	 * Length of opening tag. <code>0</code> for leaves and documents.
+	 */
+	private final int headerLength;
+
+	/**
+	 * Length of <code>END</code> tag. <code>0</code> for leaves and documents.
+	 */
+	private int footerLength;
+
+	/**
+	 * Spans of child nodes, <code>null</code> for leaves. Contains only objects
+	 * of type <code>SourceSpan</code>.
+	 */
+	private final List children;
+
+	/**
+	 * Default constructor.
+	 * 
+	 * @param node         parsed node
+	 * @param length       initial length
+	 * @param headerLength length of opening tag
+	 * @param container    <code>true</code> if node can have children
+	 * 
+	 * @throws NullPointerException if <code>node</code> is <code>null</code>
+	 */
+	private SourceSpan(Node node, int length, int headerLength, boolean container) {
+		this.node = Util.validateNotNull(node, "node");
+		this.length = length;
+		this.headerLength = headerLength;
+		this.children = container ? new ArrayIndexedCollection() : null;
+	}
+
+	/**
+	 * Creates a span of a node without children (text or echo tag).
+	 * 
+	 * @param node   parsed node
+	 * @param length number of characters node was parsed from
+	 * @return created span
+	 * 
+	 * @throws NullPointerException if <code>node</code> is <code>null</code>
+	 */
+	static SourceSpan leaf(Node node, int length) {
+		return new SourceSpan(node, length, 0, false);
+	}
+
+	/**
+	 * Creates an open span of a node with children. Children should be added
+	 * using {@link #addChild(SourceSpan)}, and then the span should be closed
+	 * using {@link #close(int)}.
+	 * 
+	 * @param node         parsed node
+	 * @param headerLength length of opening tag
+	 * @return created span
+	 * 
+	 * @throws NullPointerException if <code>node</code> is <code>null</code>
+	 */
+	static SourceSpan container(Node node, int headerLength) {
+		return new SourceSpan(node, headerLength, headerLength, true);
+	}
+
+	/**
+	 * Appends <code>child</code> to children of this span and increases length.
+	 * Does not change the node.
+	 * 
+	 * @param child span to append
+	 * 
+	 * @throws NullPointerException if <code>child</code> is <code>null</code>
+	 */
+	void addChild(SourceSpan child) {
+		children.add(Util.validateNotNull(child, "child"));
+		length += child.length;
+	}
+
+	/**
+	 * Records length of <code>END</code> tag.
+	 * 
+	 * @param footerLength length of <code>END</code> tag
+	 */
+	void close(int footerLength) {
+		this.footerLength = footerLength;
+		length += footerLength;
+	}
+
+	/**
+	 * Getter for <code>node</code>.
+	 *
+	 * @return <code>node</code>
+	 */
+	Node getNode() {
+		return node;
+	}
+
+	/**
+	 * Getter for <code>length</code>.
+	 *
+	 * @return <code>length</code>
+	 */
+	int getLength() {
+		return length;
+	}
+
+	/**
+	 * Getter for <code>headerLength</code>.
+	 *
+	 * @return <code>headerLength</code>
+	 */
+	int getHeaderLength() {
+		return headerLength;
+	}
+
+	/**
+	 * Getter for <code>footerLength</code>.
+	 *
+	 * @return <code>footerLength</code>
+	 */
+	int getFooterLength() {
+		return footerLength;
+	}
+
+	/**
+	 * Checks if this span can have children.
+	 * 
+	 * @return <code>true</code> if node can have children, <code>false</code>
+	 *         otherwise
+	 */
+	boolean isContainer() {
+		return children != null;
+	}
+
+	/**
+	 * Returns number of child spans.
+	 * 
+	 * @return number of children, <code>0</code> for leaves
+	 */
+	int numberOfChildren() {
+		return children == null ? 0 : children.size();
+	}
+
+	/**
+	 * Returns child span stored at <code>index</code>.
+	 * 
+	 * @param index index of child
+	 * @return child span
+	 * 
+	 * @throws IndexOutOfBoundsException if child at <code>index</code> does not
+	 *                                   exist
+	 */
+	SourceSpan getChild(int index) {
+		if (children == null) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return (SourceSpan) children.get(index);
+	}
+
+}
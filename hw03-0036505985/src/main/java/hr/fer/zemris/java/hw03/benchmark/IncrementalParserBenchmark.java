@@ -0,0 +1,99 @@
+package hr.fer.zemris.java.hw03.benchmark;
+
+import java.util.Random;
+
+import hr.fer.zemris.java.custom.scripting.nodes.DocumentNode;
+import hr.fer.zemris.java.custom.scripting.parser.IncrementalSmartScriptParser;
+import hr.fer.zemris.java.custom.scripting.parser.SmartScriptParser;
+import hr.fer.zemris.java.custom.scripting.parser.SmartScriptParserException;
+
+/**
+ * Benchmark of single-character edits using {@link IncrementalSmartScriptParser},
+ * compared with parsing the whole document again using
+ * {@link SmartScriptParser}. Document is generated by
+ * {@link LexerCorpusGenerator}.
+ * <p>
+ * Every edit either inserts or deletes a single character at a random
+ * position. Edits which make document invalid are rejected by the parser and
+ * are reported separately.
+ * </p>
+ * Accepts up to three optional command-line arguments: document size in
+ * characters (default {@value #DEFAULT_SIZE}), tag density (default
+ * {@value #DEFAULT_TAG_DENSITY}) and number of edits (default
+ * {@value #DEFAULT_EDITS}).
+ * 
+ * @author Luka Mesaric
+ */
+public class IncrementalParserBenchmark {
+
+	/**
+	 * Default size of generated document, 10 MB.
+	 */
+	private static final int DEFAULT_SIZE = 10_000_000;
+
+	/**
+	 * Default tag density of generated document.
+	 */
+	private static final double DEFAULT_TAG_DENSITY = 0.3;
+
+	/**
+	 * Default number of edits.
+	 */
+	private static final int DEFAULT_EDITS = 10_000;
+
+	/**
+	 * Number of full parses used for comparison.
+	 */
+	private static final int FULL_PARSES = 5;
+
+	/**
+	 * Characters inserted by edits.
+	 */
+	private static final String INSERTED = "abc xyz019.{}$\"\\-@=";
+
+	/**
+	 * Program entry point.
+	 * 
+	 * @param args optional size, tag density and number of edits
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		double tagDensity = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_TAG_DENSITY;
+		int edits = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_EDITS;
+
+		String document = new LexerCorpusGenerator(42L).smartScriptDocument(size, tagDensity);
+		System.out.format("size=%d, tagDensity=%.2f, edits=%d%n", document.length(), tagDensity, edits);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < FULL_PARSES; i++) {
+			new SmartScriptParser(document);
+		}
+		double fullMillis = (System.nanoTime() - start) / 1e6 / FULL_PARSES;
+		System.out.format("Full parse:         %10.3f ms%n", fullMillis);
+
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser(document);
+		Random random = new Random(42L);
+		int rejected = 0;
+
+		start = System.nanoTime();
+		for (int i = 0; i < edits; i++) {
+			DocumentNode previous = parser.getDocumentNode();
+			int length = parser.getDocumentBody().length();
+			int position = random.nextInt(length);
+			try {
+				if (random.nextBoolean()) {
+					String inserted = String.valueOf(INSERTED.charAt(random.nextInt(INSERTED.length())));
+					parser.reparse(previous, position, position, inserted);
+				} else {
+					parser.reparse(previous, position, position + 1, "");
+				}
+			} catch (SmartScriptParserException e) {
+				rejected++;
+			}
+		}
+		double editMillis = (System.nanoTime() - start) / 1e6 / edits;
+		System.out.format("Incremental edit:   %10.3f ms (%d of %d edits rejected)%n", editMillis, rejected, edits);
+		System.out.format("Speedup:            %10.1fx%n", fullMillis / editMillis);
+	}
+
+}
@@ -0,0 +1,199 @@
+package hr.fer.zemris.java.hw03.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.ToIntFunction;
+
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptLexer;
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptLexerState;
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptToken;
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptTokenType;
+import hr.fer.zemris.java.hw03.prob1.Lexer;
+import hr.fer.zemris.java.hw03.prob1.LexerState;
+import hr.fer.zemris.java.hw03.prob1.TokenType;
+
+/**
+ * Throughput benchmark for {@link Lexer} and {@link SmartScriptLexer}. Each
+ * lexer is measured in each of its states on a document generated by
+ * {@link LexerCorpusGenerator}, and {@link SmartScriptLexer} is additionally
+ * measured on a complete document, switching states the same way the parser
+ * does.
+ * <p>
+ * Reported are tokens per second, bytes (characters of the ASCII-only corpus)
+ * per second and bytes allocated per token. Allocation is measured only if the
+ * JVM supports per-thread allocation counters.
+ * </p>
+ * Accepts up to three optional command-line arguments: document size in
+ * characters (default {@value #DEFAULT_SIZE}), tag density (default
+ * {@value #DEFAULT_TAG_DENSITY}) and seed (default {@value #DEFAULT_SEED}).
+ * 
+ * @author Luka Mesaric
+ */
+public class LexerBenchmark {
+
+	/**
+	 * Default size of generated documents.
+	 */
+	private static final int DEFAULT_SIZE = 1_000_000;
+
+	/**
+	 * Default tag density of generated documents.
+	 */
+	private static final double DEFAULT_TAG_DENSITY = 0.3;
+
+	/**
+	 * Default seed of generator.
+	 */
+	private static final long DEFAULT_SEED = 42L;
+
+	/**
+	 * Number of warmup runs, results of which are not reported.
+	 */
+	private static final int WARMUP_RUNS = 5;
+
+	/**
+	 * Number of measured runs.
+	 */
+	private static final int MEASURED_RUNS = 10;
+
+	/**
+	 * Program entry point.
+	 * 
+	 * @param args optional size, tag density and seed
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+		double tagDensity = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_TAG_DENSITY;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+		LexerCorpusGenerator generator = new LexerCorpusGenerator(seed);
+		System.out.format("size=%d, tagDensity=%.2f, seed=%d%n%n", size, tagDensity, seed);
+		System.out.format("%-28s %12s %12s %12s%n", "benchmark", "tokens/s", "MB/s", "B/token");
+
+		measure("Lexer BASIC", generator.basicDocument(size),
+				text -> countTokens(text, LexerState.BASIC));
+		measure("Lexer EXTENDED", generator.extendedDocument(size),
+				text -> countTokens(text, LexerState.EXTENDED));
+		measure("SmartScriptLexer TEXT", generator.textDocument(size, tagDensity),
+				text -> countTokens(text, SmartScriptLexerState.TEXT));
+		measure("SmartScriptLexer TAG_NAME", generator.tagNameDocument(size),
+				text -> countTokens(text, SmartScriptLexerState.TAG_NAME));
+		measure("SmartScriptLexer TAG_BODY", generator.tagBodyDocument(size),
+				text -> countTokens(text, SmartScriptLexerState.TAG_BODY));
+		measure("SmartScriptLexer document", generator.smartScriptDocument(size, tagDensity),
+				LexerBenchmark::countDocumentTokens);
+	}
+
+	/**
+	 * Measures given lexing procedure on given document and prints results.
+	 * 
+	 * @param name  name of benchmark
+	 * @param text  document to tokenize
+	 * @param lexer procedure which tokenizes the whole document and returns
+	 *              number of extracted tokens
+	 */
+	private static void measure(String name, String text, ToIntFunction<String> lexer) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			lexer.applyAsInt(text);
+		}
+
+		long tokens = 0;
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			tokens += lexer.applyAsInt(text);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long allocated = allocatedBytes() - allocatedBefore;
+
+		double tokensPerSecond = tokens / seconds;
+		double megabytesPerSecond = (double) text.length() * MEASURED_RUNS / seconds / 1e6;
+		String perToken = allocatedBefore < 0
+				? "n/a"
+				: String.format("%.1f", (double) allocated / tokens);
+		System.out.format("%-28s %12.0f %12.2f %12s%n", name, tokensPerSecond, megabytesPerSecond, perToken);
+	}
+
+	/**
+	 * Tokenizes <code>text</code> with {@link Lexer} in given state.
+	 * 
+	 * @param text  text to tokenize
+	 * @param state state of lexer
+	 * @return number of extracted tokens, excluding EOF
+	 */
+	private static int countTokens(String text, LexerState state) {
+		Lexer lexer = new Lexer(text);
+		lexer.setState(state);
+		int count = 0;
+		while (lexer.nextToken().getType() != TokenType.EOF) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Tokenizes <code>text</code> with {@link SmartScriptLexer} in given state.
+	 * 
+	 * @param text  text to tokenize
+	 * @param state state of lexer
+	 * @return number of extracted tokens, excluding EOF
+	 */
+	private static int countTokens(String text, SmartScriptLexerState state) {
+		SmartScriptLexer lexer = new SmartScriptLexer(text);
+		lexer.setState(state);
+		int count = 0;
+		while (lexer.nextToken().getType() != SmartScriptTokenType.EOF) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Tokenizes a complete SmartScript document with {@link SmartScriptLexer},
+	 * changing lexer state the same way the parser does.
+	 * 
+	 * @param text text to tokenize
+	 * @return number of extracted tokens, excluding EOF
+	 */
+	private static int countDocumentTokens(String text) {
+		SmartScriptLexer lexer = new SmartScriptLexer(text);
+		int count = 0;
+		while (true) {
+			SmartScriptToken token = lexer.nextToken();
+			switch (token.getType()) {
+			case EOF:
+				return count;
+			case OPEN_TAG:
+				lexer.setState(SmartScriptLexerState.TAG_NAME);
+				break;
+			case TAG_NAME:
+				lexer.setState(SmartScriptLexerState.TAG_BODY);
+				break;
+			case CLOSE_TAG:
+				lexer.setState(SmartScriptLexerState.TEXT);
+				break;
+			default:
+				break;
+			}
+			count++;
+		}
+	}
+
+	/**
+	 * Returns total number of bytes allocated by current thread, if supported by
+	 * the JVM.
+	 * 
+	 * @return allocated bytes, or <code>-1</code> if not supported
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+}
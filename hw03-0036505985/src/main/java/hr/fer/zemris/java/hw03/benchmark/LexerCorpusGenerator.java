@@ -0,0 +1,416 @@
+package hr.fer.zemris.java.hw03.benchmark;
+
+import java.util.Random;
+
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptLexer;
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptLexerState;
+import hr.fer.zemris.java.hw03.prob1.Lexer;
+import hr.fer.zemris.java.hw03.prob1.LexerState;
+
+/**
+ * Generator of synthetic, deterministic inputs for {@link Lexer} and
+ * {@link SmartScriptLexer}. The same seed always produces the same documents,
+ * so results of benchmarks on different versions of a lexer are comparable.
+ * <p>
+ * Every generated document is valid input for the lexer state it is meant
+ * for. Documents generated by {@link #smartScriptDocument(int, double)} can
+ * also be parsed by the SmartScript parser.
+ * </p>
+ * 
+ * @author Luka Mesaric
+ */
+public class LexerCorpusGenerator {
+
+	/**
+	 * Source of randomness. Seeded, never shared.
+	 */
+	private final Random random;
+
+	/**
+	 * Letters used in words and names.
+	 */
+	private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	/**
+	 * Symbols used in {@link LexerState#BASIC} documents.
+	 */
+	private static final String SYMBOLS = "+-*/.,;:!?()[]<>=#";
+
+	/**
+	 * Operators valid in SmartScript tags.
+	 */
+	private static final String OPERATORS = "+-*/^";
+
+	/**
+	 * Whitespace characters used as separators.
+	 */
+	private static final String WHITESPACE = "   \t\n\r";
+
+	/**
+	 * Function names used in SmartScript tags.
+	 */
+	private static final String[] FUNCTIONS = { "sin", "decfmt", "dup", "swap", "setMimeType", "paramGet" };
+
+	/**
+	 * Maximal nesting depth of <code>FOR</code> loops. Value is {@value}.
+	 */
+	private static final int MAX_DEPTH = 8;
+
+	/**
+	 * Creates a generator with given seed.
+	 * 
+	 * @param seed seed of random number generator
+	 */
+	public LexerCorpusGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Generates a document for {@link Lexer} in state {@link LexerState#BASIC}.
+	 * Contains words (some with escaped digits and backslashes), numbers which fit
+	 * into a <code>long</code>, and symbols, separated by whitespace.
+	 * 
+	 * @param size approximate number of characters
+	 * @return generated document
+	 */
+	public String basicDocument(int size) {
+		StringBuilder sb = new StringBuilder(size + 64);
+		while (sb.length() < size) {
+			int choice = random.nextInt(10);
+			if (choice < 5) {
+				appendWord(sb, 1 + random.nextInt(10));
+				if (random.nextInt(8) == 0) {
+					sb.append('\\').append(random.nextBoolean() ? '\\' : (char) ('0' + random.nextInt(10)));
+					appendWord(sb, 1 + random.nextInt(4));
+				}
+			} else if (choice < 8) {
+				appendDigits(sb, 1 + random.nextInt(18));
+			} else {
+				sb.append(SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+			}
+			appendWhitespace(sb);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates a document for {@link Lexer} in state {@link LexerState#EXTENDED}.
+	 * Contains runs of arbitrary printable characters separated by whitespace and
+	 * by state change delimiters.
+	 * 
+	 * @param size approximate number of characters
+	 * @return generated document
+	 */
+	public String extendedDocument(int size) {
+		StringBuilder sb = new StringBuilder(size + 64);
+		while (sb.length() < size) {
+			if (random.nextInt(10) == 0) {
+				sb.append(Lexer.STATE_CHANGE_DELIMITER);
+			} else {
+				for (int i = 0, len = 1 + random.nextInt(12); i < len; i++) {
+					char ch = (char) ('!' + random.nextInt('~' - '!' + 1));
+					sb.append(ch == Lexer.STATE_CHANGE_DELIMITER ? '_' : ch);
+				}
+			}
+			appendWhitespace(sb);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates a document for {@link SmartScriptLexer} in state
+	 * {@link SmartScriptLexerState#TEXT}. Contains runs of plain text (with
+	 * escaped backslashes and braces) separated by tag openings. Lexer is not
+	 * expected to change its state while processing this document.
+	 * 
+	 * @param size       approximate number of characters
+	 * @param tagDensity probability that a text run is followed by a tag opening,
+	 *                   from <code>0</code> to <code>1</code>
+	 * @return generated document
+	 * 
+	 * @throws IllegalArgumentException if <code>tagDensity</code> is not in range
+	 *                                  from <code>0</code> to <code>1</code>
+	 */
+	public String textDocument(int size, double tagDensity) {
+		validateDensity(tagDensity);
+		StringBuilder sb = new StringBuilder(size + 64);
+		while (sb.length() < size) {
+			appendText(sb, 8 + random.nextInt(32));
+			if (random.nextDouble() < tagDensity) {
+				sb.append(SmartScriptLexer.TAG_OPENING_SEQUENCE);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates a document for {@link SmartScriptLexer} in state
+	 * {@link SmartScriptLexerState#TAG_NAME}. Contains tag names separated by
+	 * whitespace.
+	 * 
+	 * @param size approximate number of characters
+	 * @return generated document
+	 */
+	public String tagNameDocument(int size) {
+		StringBuilder sb = new StringBuilder(size + 64);
+		while (sb.length() < size) {
+			int choice = random.nextInt(4);
+			if (choice == 0) {
+				sb.append('=');
+			} else if (choice == 1) {
+				sb.append(random.nextBoolean() ? "FOR" : "END");
+			} else {
+				appendName(sb);
+			}
+			appendWhitespace(sb);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates a document for {@link SmartScriptLexer} in state
+	 * {@link SmartScriptLexerState#TAG_BODY}. Contains variables, functions,
+	 * strings, integers, doubles and operators, with an occasional tag closing.
+	 * 
+	 * @param size approximate number of characters
+	 * @return generated document
+	 */
+	public String tagBodyDocument(int size) {
+		StringBuilder sb = new StringBuilder(size + 64);
+		while (sb.length() < size) {
+			appendTagElement(sb);
+			appendWhitespace(sb);
+			if (random.nextInt(16) == 0) {
+				sb.append(SmartScriptLexer.TAG_CLOSING_SEQUENCE);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates a valid SmartScript document, made of text, echo tags and
+	 * <code>FOR</code> loops nested at most {@value #MAX_DEPTH} levels deep.
+	 * 
+	 * @param size       approximate number of characters
+	 * @param tagDensity probability that the next segment of document is a tag
+	 *                   rather than text, from <code>0</code> to <code>1</code>
+	 * @return generated document
+	 * 
+	 * @throws IllegalArgumentException if <code>tagDensity</code> is not in range
+	 *                                  from <code>0</code> to <code>1</code>
+	 */
+	public String smartScriptDocument(int size, double tagDensity) {
+		validateDensity(tagDensity);
+		StringBuilder sb = new StringBuilder(size + 256);
+		int depth = 0;
+		while (sb.length() < size) {
+			if (random.nextDouble() >= tagDensity) {
+				appendText(sb, 8 + random.nextInt(64));
+				continue;
+			}
+			int choice = random.nextInt(8);
+			if (choice < 5) {
+				appendEchoTag(sb);
+			} else if (depth == 0 || (choice == 5 && depth < MAX_DEPTH)) {
+				appendForTag(sb);
+				depth++;
+			} else {
+				sb.append("{$END$}");
+				depth--;
+			}
+		}
+		for (; depth > 0; depth--) {
+			sb.append("{$END$}");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Appends an echo tag with one to six elements.
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendEchoTag(StringBuilder sb) {
+		sb.append("{$=");
+		for (int i = 0, count = 1 + random.nextInt(6); i < count; i++) {
+			sb.append(' ');
+			appendTagElement(sb);
+		}
+		sb.append(random.nextBoolean() ? " $}" : "$}");
+	}
+
+	/**
+	 * Appends a <code>FOR</code> tag with three or four arguments.
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendForTag(StringBuilder sb) {
+		sb.append(random.nextBoolean() ? "{$ FOR " : "{$for ");
+		appendName(sb);
+		for (int i = 0, count = 2 + random.nextInt(2); i < count; i++) {
+			sb.append(' ');
+			int choice = random.nextInt(4);
+			if (choice == 0) {
+				appendName(sb);
+			} else if (choice == 1) {
+				appendString(sb);
+			} else if (choice == 2) {
+				appendDigits(sb, 1 + random.nextInt(5));
+			} else {
+				appendDouble(sb);
+			}
+		}
+		sb.append(" $}");
+	}
+
+	/**
+	 * Appends a single element of a tag body (variable, function, string,
+	 * integer, double or operator).
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendTagElement(StringBuilder sb) {
+		switch (random.nextInt(6)) {
+		case 0:
+			appendName(sb);
+			break;
+		case 1:
+			sb.append('@').append(FUNCTIONS[random.nextInt(FUNCTIONS.length)]);
+			break;
+		case 2:
+			appendString(sb);
+			break;
+		case 3:
+			if (random.nextInt(4) == 0) {
+				sb.append('-');
+			}
+			appendDigits(sb, 1 + random.nextInt(8));
+			break;
+		case 4:
+			appendDouble(sb);
+			break;
+		default:
+			sb.append(OPERATORS.charAt(random.nextInt(OPERATORS.length())));
+			break;
+		}
+	}
+
+	/**
+	 * Appends a quoted string, possibly containing escape sequences.
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendString(StringBuilder sb) {
+		sb.append('"');
+		for (int i = 0, len = random.nextInt(16); i < len; i++) {
+			if (random.nextInt(10) == 0) {
+				sb.append('\\').append("\\\"nrt".charAt(random.nextInt(5)));
+			} else {
+				sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+			}
+		}
+		sb.append('"');
+	}
+
+	/**
+	 * Appends plain text outside of tags, containing escaped backslashes and
+	 * escaped tag openings.
+	 * 
+	 * @param sb     builder to append to
+	 * @param length approximate length of text
+	 */
+	private void appendText(StringBuilder sb, int length) {
+		for (int i = 0; i < length; i++) {
+			int choice = random.nextInt(40);
+			if (choice == 0) {
+				sb.append("\\\\");
+			} else if (choice == 1) {
+				sb.append("\\{$");
+			} else if (choice < 8) {
+				sb.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length())));
+			} else {
+				sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+			}
+		}
+	}
+
+	/**
+	 * Appends a double value with one to four decimals.
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendDouble(StringBuilder sb) {
+		appendDigits(sb, 1 + random.nextInt(4));
+		sb.append('.');
+		appendDigits(sb, 1 + random.nextInt(4));
+	}
+
+	/**
+	 * Appends a valid name: letter followed by letters, digits and underscores.
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendName(StringBuilder sb) {
+		sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+		for (int i = 0, len = random.nextInt(8); i < len; i++) {
+			int choice = random.nextInt(10);
+			if (choice == 0) {
+				sb.append('_');
+			} else if (choice < 3) {
+				sb.append((char) ('0' + random.nextInt(10)));
+			} else {
+				sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+			}
+		}
+	}
+
+	/**
+	 * Appends a word made only of letters.
+	 * 
+	 * @param sb     builder to append to
+	 * @param length length of word
+	 */
+	private void appendWord(StringBuilder sb, int length) {
+		for (int i = 0; i < length; i++) {
+			sb.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+		}
+	}
+
+	/**
+	 * Appends a sequence of digits which does not start with zero, unless it is
+	 * a single digit.
+	 * 
+	 * @param sb    builder to append to
+	 * @param count number of digits
+	 */
+	private void appendDigits(StringBuilder sb, int count) {
+		sb.append((char) ((count == 1 ? '0' : '1') + random.nextInt(count == 1 ? 10 : 9)));
+		for (int i = 1; i < count; i++) {
+			sb.append((char) ('0' + random.nextInt(10)));
+		}
+	}
+
+	/**
+	 * Appends one whitespace character.
+	 * 
+	 * @param sb builder to append to
+	 */
+	private void appendWhitespace(StringBuilder sb) {
+		sb.append(WHITESPACE.charAt(random.nextInt(WHITESPACE.length())));
+	}
+
+	/**
+	 * Checks that <code>tagDensity</code> is a valid probability.
+	 * 
+	 * @param tagDensity value to check
+	 * 
+	 * @throws IllegalArgumentException if <code>tagDensity</code> is not in range
+	 *                                  from <code>0</code> to <code>1</code>
+	 */
+	private static void validateDensity(double tagDensity) {
+		if (!(tagDensity >= 0 && tagDensity <= 1)) {
+			throw new IllegalArgumentException("Tag density must be in range [0, 1], was: " + tagDensity);
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+package hr.fer.zemris.java.custom.scripting.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.java.custom.scripting.nodes.DocumentNode;
+import hr.fer.zemris.java.custom.scripting.nodes.ForLoopNode;
+import hr.fer.zemris.java.hw03.benchmark.LexerCorpusGenerator;
+
+/**
+ * @author Luka Mesaric
+ */
+class IncrementalSmartScriptParserTest {
+
+	/**
+	 * Snippets inserted by random edits. Some of them make document invalid.
+	 */
+	private static final String[] SNIPPETS = {
+			"a", " ", "\\", "{", "$", "}", "{$", "$}", "\\{$", "\"", "{$END$}",
+			"{$= i 1 $}", "{$ FOR x 1 2 $}", "text {$ FOR y 0 1 $}more{$END$} text"
+	};
+
+	/**
+	 * Helper method which applies an edit both incrementally and to a copy of
+	 * document body, and checks that the result is the same as when the edited
+	 * body is parsed from scratch.
+	 * 
+	 * @param parser      incremental parser
+	 * @param start       start of edit
+	 * @param end         end of edit
+	 * @param replacement inserted text
+	 */
+	private void checkEdit(IncrementalSmartScriptParser parser, int start, int end, String replacement) {
+		String before = parser.getDocumentBody();
+		DocumentNode previous = parser.getDocumentNode();
+		String after = before.substring(0, start) + replacement + before.substring(end);
+
+		DocumentNode expected;
+		try {
+			expected = new SmartScriptParser(after).getDocumentNode();
+		} catch (SmartScriptParserException e) {
+			assertThrows(SmartScriptParserException.class, () -> parser.reparse(previous, start, end, replacement));
+			assertEquals(before, parser.getDocumentBody());
+			assertSame(previous, parser.getDocumentNode());
+			return;
+		}
+
+		DocumentNode actual = parser.reparse(previous, start, end, replacement);
+		assertEquals(expected, actual);
+		assertEquals(after, parser.getDocumentBody());
+	}
+
+	@Test
+	void testInvalidArguments() {
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser("abc");
+		DocumentNode document = parser.getDocumentNode();
+
+		assertThrows(NullPointerException.class, () -> new IncrementalSmartScriptParser(null));
+		assertThrows(NullPointerException.class, () -> parser.reparse(null, 0, 0, ""));
+		assertThrows(NullPointerException.class, () -> parser.reparse(document, 0, 0, null));
+		assertThrows(IllegalArgumentException.class, () -> parser.reparse(new DocumentNode(), 0, 0, ""));
+		assertThrows(IndexOutOfBoundsException.class, () -> parser.reparse(document, -1, 0, ""));
+		assertThrows(IndexOutOfBoundsException.class, () -> parser.reparse(document, 2, 1, ""));
+		assertThrows(IndexOutOfBoundsException.class, () -> parser.reparse(document, 0, 4, ""));
+	}
+
+	@Test
+	void testEditInsideText() {
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser("Hello {$= name $} world");
+		checkEdit(parser, 5, 5, ",");
+		assertEquals("Hello, {$= name $} world", parser.getDocumentBody());
+		checkEdit(parser, 0, 0, "");
+		checkEdit(parser, 19, 24, "");
+		checkEdit(parser, parser.getDocumentBody().length(), parser.getDocumentBody().length(), "!");
+	}
+
+	@Test
+	void testRemovingTagMergesText() {
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser("left{$= x $}right");
+		checkEdit(parser, 4, 12, "");
+		assertEquals(1, parser.getDocumentNode().numberOfChildren());
+	}
+
+	@Test
+	void testEditInsideLoopReusesSiblings() {
+		String body = "a{$= 1 $}b{$ FOR i 1 10 $}x{$= i $}y{$END$}c{$= 2 $}d";
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser(body);
+		DocumentNode before = parser.getDocumentNode();
+
+		int index = body.indexOf('y');
+		checkEdit(parser, index, index + 1, "yy");
+		DocumentNode after = parser.getDocumentNode();
+
+		assertSame(before.getChild(0), after.getChild(0));
+		assertSame(before.getChild(1), after.getChild(1));
+		assertSame(before.getChild(4), after.getChild(4));
+		ForLoopNode loop = (ForLoopNode) after.getChild(3);
+		assertSame(((ForLoopNode) before.getChild(3)).getChild(0), loop.getChild(0));
+	}
+
+	@Test
+	void testUnbalancingEditsFallBackToFullParse() {
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser("{$ FOR i 1 2 $}a{$END$}");
+		checkEdit(parser, 16, 16, "{$END$}");
+		assertEquals("{$ FOR i 1 2 $}a{$END$}", parser.getDocumentBody());
+
+		// re-parsed loop body is unbalanced, but the whole document is valid
+		checkEdit(parser, 15, 16, "a{$END$}b{$ FOR k 1 2 $}c");
+		assertEquals("{$ FOR i 1 2 $}a{$END$}b{$ FOR k 1 2 $}c{$END$}", parser.getDocumentBody());
+		assertEquals(3, parser.getDocumentNode().numberOfChildren());
+	}
+
+	@Test
+	void testRandomEditsMatchFullParse() {
+		Random random = new Random(2019);
+		String body = new LexerCorpusGenerator(11).smartScriptDocument(5_000, 0.4);
+		IncrementalSmartScriptParser parser = new IncrementalSmartScriptParser(body);
+
+		for (int i = 0; i < 2_000; i++) {
+			int length = parser.getDocumentBody().length();
+			int start = random.nextInt(length + 1);
+			int end = Math.min(length, start + (random.nextInt(3) == 0 ? random.nextInt(20) : 0));
+			String replacement = random.nextInt(4) == 0 ? "" : SNIPPETS[random.nextInt(SNIPPETS.length)];
+			checkEdit(parser, start, end, replacement);
+		}
+	}
+
+}
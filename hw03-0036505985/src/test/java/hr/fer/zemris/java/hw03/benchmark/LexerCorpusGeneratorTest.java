@@ -0,0 +1,88 @@
+package hr.fer.zemris.java.hw03.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptLexer;
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptLexerState;
+import hr.fer.zemris.java.custom.scripting.lexer.SmartScriptTokenType;
+import hr.fer.zemris.java.custom.scripting.parser.SmartScriptParser;
+import hr.fer.zemris.java.hw03.prob1.Lexer;
+import hr.fer.zemris.java.hw03.prob1.LexerState;
+import hr.fer.zemris.java.hw03.prob1.TokenType;
+
+/**
+ * @author Luka Mesaric
+ */
+class LexerCorpusGeneratorTest {
+
+	private static final int SIZE = 20_000;
+
+	@Test
+	void testDeterminism() {
+		assertEquals(new LexerCorpusGenerator(7).smartScriptDocument(SIZE, 0.5),
+				new LexerCorpusGenerator(7).smartScriptDocument(SIZE, 0.5));
+		assertNotEquals(new LexerCorpusGenerator(7).smartScriptDocument(SIZE, 0.5),
+				new LexerCorpusGenerator(8).smartScriptDocument(SIZE, 0.5));
+	}
+
+	@Test
+	void testSize() {
+		String document = new LexerCorpusGenerator(1).basicDocument(SIZE);
+		assertTrue(document.length() >= SIZE);
+		assertTrue(document.length() < SIZE + 100);
+	}
+
+	@Test
+	void testInvalidDensity() {
+		LexerCorpusGenerator generator = new LexerCorpusGenerator(1);
+		assertThrows(IllegalArgumentException.class, () -> generator.textDocument(SIZE, -0.1));
+		assertThrows(IllegalArgumentException.class, () -> generator.smartScriptDocument(SIZE, 1.1));
+		assertThrows(IllegalArgumentException.class, () -> generator.smartScriptDocument(SIZE, Double.NaN));
+	}
+
+	@Test
+	void testProb1Documents() {
+		LexerCorpusGenerator generator = new LexerCorpusGenerator(3);
+		assertDoesNotThrow(() -> tokenize(generator.basicDocument(SIZE), LexerState.BASIC));
+		assertDoesNotThrow(() -> tokenize(generator.extendedDocument(SIZE), LexerState.EXTENDED));
+	}
+
+	@Test
+	void testSmartScriptStateDocuments() {
+		LexerCorpusGenerator generator = new LexerCorpusGenerator(3);
+		assertDoesNotThrow(() -> tokenize(generator.textDocument(SIZE, 0.3), SmartScriptLexerState.TEXT));
+		assertDoesNotThrow(() -> tokenize(generator.tagNameDocument(SIZE), SmartScriptLexerState.TAG_NAME));
+		assertDoesNotThrow(() -> tokenize(generator.tagBodyDocument(SIZE), SmartScriptLexerState.TAG_BODY));
+	}
+
+	@Test
+	void testSmartScriptDocumentIsParsable() {
+		String document = new LexerCorpusGenerator(5).smartScriptDocument(SIZE, 0.4);
+		SmartScriptParser parser = new SmartScriptParser(document);
+		String recreated = SmartScriptParser.createOriginalDocumentBody(parser.getDocumentNode());
+		assertEquals(parser.getDocumentNode(), new SmartScriptParser(recreated).getDocumentNode());
+	}
+
+	private static void tokenize(String text, LexerState state) {
+		Lexer lexer = new Lexer(text);
+		lexer.setState(state);
+		while (lexer.nextToken().getType() != TokenType.EOF) {
+			// just consume tokens
+		}
+	}
+
+	private static void tokenize(String text, SmartScriptLexerState state) {
+		SmartScriptLexer lexer = new SmartScriptLexer(text);
+		lexer.setState(state);
+		while (lexer.nextToken().getType() != SmartScriptTokenType.EOF) {
+			// just consume tokens
+		}
+	}
+
+}
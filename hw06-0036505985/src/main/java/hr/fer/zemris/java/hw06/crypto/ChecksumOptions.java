@@ -0,0 +1,155 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Options of file digest calculation, shared by <code>Crypto checksha</code>
+ * and the <code>checksum</code> shell command.
+ * <p>
+ * Arguments are options, in any order, followed by one or more files. Supported
+ * options are:
+ * <ul>
+ * <li><code>--algorithm=NAME</code>: SHA-256 (default), SHA-512, MD5 or CRC32C,
+ * see {@link DigestAlgorithm#forName(String)}</li>
+ * <li><code>--threads=N</code>: number of worker threads (default is number of
+ * processors)</li>
+ * <li><code>--merkle[=CHUNK_SIZE]</code>: calculate Merkle-tree digests in
+ * parallel chunks of given size (default is
+ * {@value FileHasher#DEFAULT_CHUNK_SIZE} bytes), see {@link FileHasher}</li>
+ * </ul>
+ *
+ * @author Luka Mesaric
+ */
+public final class ChecksumOptions {
+
+	/** Prefix of the algorithm option. */
+	private static final String ALGORITHM = "--algorithm=";
+
+	/** Prefix of the threads option. */
+	private static final String THREADS = "--threads=";
+
+	/** Merkle-tree option. */
+	private static final String MERKLE = "--merkle";
+
+	/** Digest algorithm. */
+	private DigestAlgorithm algorithm = DigestAlgorithm.SHA_256;
+
+	/** Number of worker threads. */
+	private int threads = FileHasher.DEFAULT_THREADS;
+
+	/** Size of Merkle-tree chunks, <code>0</code> for plain digests. */
+	private long chunkSize;
+
+	/** Files to digest. */
+	private final List<String> files = new ArrayList<>();
+
+	/**
+	 * Default (private) constructor.
+	 */
+	private ChecksumOptions() {}
+
+	/**
+	 * Parses given arguments.
+	 *
+	 * @param  args                     options and files
+	 * @return                          parsed options, never <code>null</code>
+	 * @throws NullPointerException     if <code>args</code> is <code>null</code>
+	 * @throws IllegalArgumentException if an option is not supported or has an
+	 *                                  invalid value, or no files are given
+	 */
+	public static ChecksumOptions parse(List<String> args) {
+		ExceptionUtil.validateNotNull(args, "args");
+
+		ChecksumOptions options = new ChecksumOptions();
+		for (String arg : args) {
+			if (!options.files.isEmpty() || !arg.startsWith("--")) {
+				options.files.add(arg);
+			} else if (arg.startsWith(ALGORITHM)) {
+				options.algorithm = DigestAlgorithm.forName(arg.substring(ALGORITHM.length()));
+			} else if (arg.startsWith(THREADS)) {
+				options.threads = parsePositive(arg.substring(THREADS.length()), arg);
+			} else if (arg.equals(MERKLE)) {
+				options.chunkSize = FileHasher.DEFAULT_CHUNK_SIZE;
+			} else if (arg.startsWith(MERKLE + "=")) {
+				options.chunkSize = parsePositive(arg.substring(MERKLE.length() + 1), arg);
+			} else {
+				throw new IllegalArgumentException("Unsupported option: " + arg);
+			}
+		}
+		if (options.files.isEmpty()) {
+			throw new IllegalArgumentException("At least one file must be given.");
+		}
+		return options;
+	}
+
+	/**
+	 * Parses a positive number, which may be given in decimal, hexadecimal or
+	 * octal notation.
+	 *
+	 * @param  value                    value to parse
+	 * @param  option                   whole option, used in error message
+	 * @return                          parsed value
+	 * @throws IllegalArgumentException if value is not a positive number
+	 */
+	private static int parsePositive(String value, String option) {
+		try {
+			int parsed = Integer.decode(value);
+			if (parsed > 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// handled below
+		}
+		throw new IllegalArgumentException("Expected a positive number: " + option);
+	}
+
+	/**
+	 * Getter for <code>algorithm</code>.
+	 *
+	 * @return <code>algorithm</code>, never <code>null</code>
+	 */
+	public DigestAlgorithm getAlgorithm() { return algorithm; }
+
+	/**
+	 * Getter for <code>threads</code>.
+	 *
+	 * @return number of worker threads, always positive
+	 */
+	public int getThreads() { return threads; }
+
+	/**
+	 * Checks whether Merkle-tree digests should be calculated.
+	 *
+	 * @return <code>true</code> if Merkle-tree digests should be calculated
+	 */
+	public boolean isMerkle() { return chunkSize > 0; }
+
+	/**
+	 * Getter for <code>chunkSize</code>.
+	 *
+	 * @return size of Merkle-tree chunks, <code>0</code> for plain digests
+	 */
+	public long getChunkSize() { return chunkSize; }
+
+	/**
+	 * Getter for <code>files</code>.
+	 *
+	 * @return unmodifiable list of files, never empty
+	 */
+	public List<String> getFiles() { return Collections.unmodifiableList(files); }
+
+	/**
+	 * Returns a human-readable name of the calculated digest, e.g.
+	 * <code>sha-256</code> or <code>sha-256 Merkle-tree</code>.
+	 *
+	 * @return name of the calculated digest
+	 */
+	public String getDigestName() {
+		return algorithm.getStandardName().toLowerCase() + (isMerkle() ? " Merkle-tree" : "");
+	}
+
+}
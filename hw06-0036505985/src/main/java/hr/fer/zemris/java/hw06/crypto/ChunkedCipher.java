@@ -0,0 +1,567 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Encrypts and decrypts files using AES-GCM in independent chunks, so that
+ * chunks can be processed concurrently and any part of an encrypted file can
+ * be decrypted without decrypting the rest.
+ * <p>
+ * Encrypted file (container) starts with a header of {@value #HEADER_SIZE}
+ * bytes, all numbers in big-endian order:
+ * <ul>
+ * <li>magic bytes <code>HW6C</code></li>
+ * <li>format version (1 byte, currently <code>1</code>) and 3 reserved bytes
+ * (zeros)</li>
+ * <li>size of plaintext chunks (4 bytes)</li>
+ * <li>size of plaintext (8 bytes)</li>
+ * <li>random file nonce (8 bytes)</li>
+ * </ul>
+ * Header is followed by encrypted chunks, each immediately followed by its
+ * {@value #TAG_SIZE}-byte authentication tag. All chunks except the last one
+ * contain exactly <code>chunk size</code> bytes of plaintext; an empty file is
+ * stored as a single empty chunk. Chunk <code>i</code> is encrypted with nonce
+ * <code>file nonce || i</code> (<code>i</code> as 4 bytes), and the whole
+ * header is authenticated with every chunk, so modified, reordered, truncated or
+ * extended containers are detected.
+ * <p>
+ * The random file nonce is generated for every encryption; a key may be reused
+ * for about 2<sup>32</sup> files before nonce collisions become likely.
+ *
+ * @author Luka Mesaric
+ */
+public final class ChunkedCipher implements AutoCloseable {
+
+	/** Default size of plaintext chunks, in bytes. */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	/** Size of container header, in bytes. */
+	public static final int HEADER_SIZE = 28;
+
+	/** Size of authentication tag of each chunk, in bytes. */
+	public static final int TAG_SIZE = 16;
+
+	/** Magic bytes at the start of every container. */
+	private static final int MAGIC = 0x48573643; // "HW6C"
+
+	/** Current format version. */
+	private static final byte VERSION = 1;
+
+	/** Size of random file nonce, in bytes. */
+	private static final int FILE_NONCE_SIZE = 8;
+
+	/** Maximal number of chunks, limited by the 4-byte chunk index in nonces. */
+	private static final long MAX_CHUNK_COUNT = 1L << 32;
+
+	/** Name of the cipher transformation. */
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	/** Maximal number of chunks in memory, per worker thread. */
+	private static final int PENDING_CHUNKS_PER_THREAD = 2;
+
+	/** Source of file nonces. */
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/** Pool executing encryption and decryption of chunks. */
+	private final ExecutorService pool;
+
+	/** Maximal number of chunks submitted, but not yet finished. */
+	private final int maxPending;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  threads                  number of worker threads
+	 * @throws IllegalArgumentException if <code>threads</code> is less than
+	 *                                  <code>1</code>
+	 */
+	public ChunkedCipher(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"Number of threads must be positive, received: " + threads);
+		}
+		this.maxPending = threads * PENDING_CHUNKS_PER_THREAD;
+		this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "cipher-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Encrypts <code>source</code> into a new container <code>destination</code>.
+	 * If encryption fails after <code>destination</code> was opened, it is
+	 * deleted.
+	 *
+	 * @param  source                   file to encrypt
+	 * @param  destination              container to create or overwrite
+	 * @param  key                      AES key (16, 24 or 32 bytes)
+	 * @param  chunkSize                size of plaintext chunks, in bytes
+	 * @throws IOException              if files cannot be read or written
+	 * @throws GeneralSecurityException if key is invalid, or encryption fails
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if <code>chunkSize</code> is not positive,
+	 *                                  or is too large, or is so small that
+	 *                                  <code>source</code> would be split into
+	 *                                  more than 2<sup>32</sup> chunks, or both
+	 *                                  paths denote the same file
+	 */
+	public void encrypt(Path source, Path destination, byte[] key, int chunkSize)
+			throws IOException, GeneralSecurityException {
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(destination, "destination");
+		ExceptionUtil.validateNotNull(key, "key");
+		if (chunkSize < 1 || chunkSize > Integer.MAX_VALUE - TAG_SIZE) {
+			throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+		}
+		SecretKeySpec keySpec = new SecretKeySpec(key, "AES");
+		validateDifferentFiles(source, destination);
+
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+			byte[] nonce = new byte[FILE_NONCE_SIZE];
+			RANDOM.nextBytes(nonce);
+			Header header = new Header(chunkSize, in.size(), nonce);
+			if (header.chunkCount() > MAX_CHUNK_COUNT) {
+				// chunk indices would wrap, reusing nonces
+				throw new IllegalArgumentException("Chunk size " + chunkSize
+						+ " is too small for a file of " + in.size() + " bytes.");
+			}
+
+			try (FileChannel out = openDestination(destination)) {
+				writeFully(out, ByteBuffer.wrap(header.bytes), 0);
+				processChunks(header, index -> {
+					int length = header.plaintextLength(index);
+					ByteBuffer plaintext = ByteBuffer.allocate(length);
+					readFully(in, plaintext, index * chunkSize);
+					ByteBuffer ciphertext = ByteBuffer.allocate(length + TAG_SIZE);
+					newCipher(Cipher.ENCRYPT_MODE, keySpec, header, index)
+							.doFinal(plaintext.flip(), ciphertext);
+					writeFully(out, ciphertext.flip(), header.chunkOffset(index));
+				});
+			} catch (IOException | GeneralSecurityException | RuntimeException e) {
+				Files.deleteIfExists(destination);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Decrypts container <code>source</code> into <code>destination</code>. If
+	 * decryption fails after <code>destination</code> was opened (e.g. a chunk
+	 * was modified), it is deleted, so no unauthenticated plaintext is left
+	 * behind.
+	 *
+	 * @param  source                   container to decrypt
+	 * @param  destination              file to create or overwrite
+	 * @param  key                      AES key used for encryption
+	 * @throws IOException              if files cannot be read or written, or
+	 *                                  <code>source</code> is not a valid
+	 *                                  container
+	 * @throws GeneralSecurityException if key is invalid, or authentication of
+	 *                                  any chunk fails
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if both paths denote the same file
+	 */
+	public void decrypt(Path source, Path destination, byte[] key)
+			throws IOException, GeneralSecurityException {
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(destination, "destination");
+		ExceptionUtil.validateNotNull(key, "key");
+		SecretKeySpec keySpec = new SecretKeySpec(key, "AES");
+		validateDifferentFiles(source, destination);
+
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+			Header header = Header.read(in);
+
+			try (FileChannel out = openDestination(destination)) {
+				processChunks(header, index -> {
+					ByteBuffer plaintext = decryptChunk(in, keySpec, header, index);
+					writeFully(out, plaintext, index * header.chunkSize);
+				});
+			} catch (IOException | GeneralSecurityException | RuntimeException e) {
+				Files.deleteIfExists(destination);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Decrypts <code>length</code> bytes of plaintext starting at
+	 * <code>position</code>, decrypting only chunks which contain them. Runs on
+	 * the calling thread.
+	 *
+	 * @param  source                   container to read from
+	 * @param  key                      AES key used for encryption
+	 * @param  position                 position in plaintext
+	 * @param  length                   number of bytes to decrypt; fewer are
+	 *                                  returned if plaintext ends sooner
+	 * @return                          decrypted bytes
+	 * @throws IOException              if container cannot be read, or is not
+	 *                                  valid
+	 * @throws GeneralSecurityException if key is invalid, or authentication of
+	 *                                  any of the chunks fails
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if <code>position</code> or
+	 *                                  <code>length</code> is negative
+	 */
+	public static byte[] decryptRange(Path source, byte[] key, long position, int length)
+			throws IOException, GeneralSecurityException {
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(key, "key");
+		if (position < 0 || length < 0) {
+			throw new IllegalArgumentException(
+					"Invalid range: " + position + ", length " + length);
+		}
+		SecretKeySpec keySpec = new SecretKeySpec(key, "AES");
+
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+			Header header = Header.read(in);
+			long end = Math.min(header.length, position + length);
+			if (position >= end) {
+				return new byte[0];
+			}
+			ByteBuffer result = ByteBuffer.allocate((int) (end - position));
+			for (long index = position / header.chunkSize; result.hasRemaining(); index++) {
+				ByteBuffer plaintext = decryptChunk(in, keySpec, header, index);
+				long chunkStart = index * header.chunkSize;
+				plaintext.position((int) Math.max(0, position - chunkStart));
+				plaintext.limit((int) Math.min(plaintext.limit(), end - chunkStart));
+				result.put(plaintext);
+			}
+			return result.array();
+		}
+	}
+
+	/**
+	 * Shuts down the worker threads, interrupting unfinished work.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Processes all chunks of a container on worker threads, limiting number of
+	 * chunks held in memory. Waits until all chunks are processed.
+	 *
+	 * @param  header                   container header
+	 * @param  action                   action processing a single chunk
+	 * @throws IOException              if any chunk cannot be read or written
+	 * @throws GeneralSecurityException if processing of any chunk fails
+	 */
+	private void processChunks(Header header, ChunkAction action)
+			throws IOException, GeneralSecurityException {
+		Deque<Future<Void>> pending = new ArrayDeque<>();
+		try {
+			for (long index = 0, count = header.chunkCount(); index < count; index++) {
+				long chunk = index;
+				pending.addLast(pool.submit(() -> {
+					action.process(chunk);
+					return null;
+				}));
+				if (pending.size() >= maxPending) {
+					await(pending.removeFirst());
+				}
+			}
+			while (!pending.isEmpty()) {
+				await(pending.removeFirst());
+			}
+		} finally {
+			pending.forEach(future -> future.cancel(false));
+		}
+	}
+
+	/**
+	 * Waits for processing of a single chunk.
+	 *
+	 * @param  future                   result of processing
+	 * @throws IOException              if chunk could not be read or written, or
+	 *                                  waiting was interrupted
+	 * @throws GeneralSecurityException if processing failed
+	 */
+	private static void await(Future<Void> future)
+			throws IOException, GeneralSecurityException {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while processing chunks.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof GeneralSecurityException) {
+				throw (GeneralSecurityException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Reads and decrypts a single chunk.
+	 *
+	 * @param  in                       container
+	 * @param  keySpec                  AES key
+	 * @param  header                   container header
+	 * @param  index                    index of the chunk
+	 * @return                          decrypted chunk, ready to be read
+	 * @throws IOException              if chunk cannot be read
+	 * @throws GeneralSecurityException if authentication fails
+	 */
+	private static ByteBuffer decryptChunk(FileChannel in, SecretKeySpec keySpec,
+			Header header, long index) throws IOException, GeneralSecurityException {
+		int length = header.plaintextLength(index);
+		ByteBuffer ciphertext = ByteBuffer.allocate(length + TAG_SIZE);
+		readFully(in, ciphertext, header.chunkOffset(index));
+		ByteBuffer plaintext = ByteBuffer.allocate(length);
+		newCipher(Cipher.DECRYPT_MODE, keySpec, header, index)
+				.doFinal(ciphertext.flip(), plaintext);
+		return plaintext.flip();
+	}
+
+	/**
+	 * Creates a cipher for a single chunk, with header as additional
+	 * authenticated data.
+	 *
+	 * @param  mode                     {@link Cipher#ENCRYPT_MODE} or
+	 *                                  {@link Cipher#DECRYPT_MODE}
+	 * @param  keySpec                  AES key
+	 * @param  header                   container header
+	 * @param  index                    index of the chunk
+	 * @return                          initialized cipher
+	 * @throws GeneralSecurityException if key is invalid
+	 */
+	private static Cipher newCipher(int mode, SecretKeySpec keySpec, Header header,
+			long index) throws GeneralSecurityException {
+		byte[] iv = ByteBuffer.allocate(FILE_NONCE_SIZE + Integer.BYTES)
+				.put(header.nonce).putInt((int) index).array();
+		Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		cipher.init(mode, keySpec, new GCMParameterSpec(TAG_SIZE * Byte.SIZE, iv));
+		cipher.updateAAD(header.bytes);
+		return cipher;
+	}
+
+	/**
+	 * Checks that <code>source</code> and <code>destination</code> are not the
+	 * same file, since <code>destination</code> is truncated before
+	 * <code>source</code> is read.
+	 *
+	 * @param  source                   file to read
+	 * @param  destination              file to write
+	 * @throws IOException              if files cannot be compared
+	 * @throws IllegalArgumentException if both paths denote the same file
+	 */
+	private static void validateDifferentFiles(Path source, Path destination)
+			throws IOException {
+		if (Files.exists(destination) && Files.isSameFile(source, destination)) {
+			throw new IllegalArgumentException(
+					"Source and destination must be different files.");
+		}
+	}
+
+	/**
+	 * Opens <code>destination</code> for writing, creating or truncating it.
+	 *
+	 * @param  destination file to open
+	 * @return             opened channel
+	 * @throws IOException if file cannot be opened
+	 */
+	private static FileChannel openDestination(Path destination) throws IOException {
+		return FileChannel.open(destination, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Reads from <code>channel</code> until <code>buffer</code> is full.
+	 *
+	 * @param  channel     channel to read from
+	 * @param  buffer      buffer to fill
+	 * @param  position    position of the first byte
+	 * @throws IOException if channel cannot be read, or ends too soon
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of file at position " + position);
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 * Writes all remaining bytes of <code>buffer</code> to <code>channel</code>.
+	 *
+	 * @param  channel     channel to write to
+	 * @param  buffer      buffer to write
+	 * @param  position    position of the first byte
+	 * @throws IOException if channel cannot be written
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Processing of a single chunk.
+	 *
+	 * @author Luka Mesaric
+	 */
+	@FunctionalInterface
+	private interface ChunkAction {
+
+		/**
+		 * Processes chunk with the given index.
+		 *
+		 * @param  index                    index of the chunk
+		 * @throws IOException              if chunk cannot be read or written
+		 * @throws GeneralSecurityException if encryption or decryption fails
+		 */
+		void process(long index) throws IOException, GeneralSecurityException;
+	}
+
+	/**
+	 * Container header.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static final class Header {
+
+		/** Size of plaintext chunks. */
+		private final int chunkSize;
+
+		/** Size of plaintext. */
+		private final long length;
+
+		/** Random file nonce. */
+		private final byte[] nonce;
+
+		/** Serialized header. */
+		private final byte[] bytes;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param chunkSize size of plaintext chunks
+		 * @param length    size of plaintext
+		 * @param nonce     random file nonce
+		 */
+		private Header(int chunkSize, long length, byte[] nonce) {
+			this.chunkSize = chunkSize;
+			this.length = length;
+			this.nonce = nonce;
+			this.bytes = ByteBuffer.allocate(HEADER_SIZE)
+					.putInt(MAGIC)
+					.put(VERSION).put(new byte[3])
+					.putInt(chunkSize)
+					.putLong(length)
+					.put(nonce)
+					.array();
+		}
+
+		/**
+		 * Reads and validates header of a container.
+		 *
+		 * @param  in          container
+		 * @return             header, never <code>null</code>
+		 * @throws IOException if header cannot be read or is not valid, or size
+		 *                     of container does not match the header
+		 */
+		private static Header read(FileChannel in) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+			if (in.size() < HEADER_SIZE) {
+				throw new IOException("File is not an encrypted container.");
+			}
+			readFully(in, buffer, 0);
+			buffer.flip();
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("File is not an encrypted container.");
+			} else if (buffer.get() != VERSION) {
+				throw new IOException("Unsupported container version.");
+			}
+			buffer.position(buffer.position() + 3);
+			int chunkSize = buffer.getInt();
+			long length = buffer.getLong();
+			byte[] nonce = new byte[FILE_NONCE_SIZE];
+			buffer.get(nonce);
+
+			if (chunkSize < 1 || chunkSize > Integer.MAX_VALUE - TAG_SIZE || length < 0) {
+				throw new IOException("Container header is corrupted.");
+			}
+			Header header = new Header(chunkSize, length, nonce);
+			if (!Arrays.equals(header.bytes, buffer.array())) {
+				throw new IOException("Container header is corrupted.");
+			} else if (header.chunkCount() > MAX_CHUNK_COUNT
+					|| in.size() != header.containerSize()) {
+				throw new IOException("Container size does not match its header.");
+			}
+			return header;
+		}
+
+		/**
+		 * Returns number of chunks; an empty plaintext has a single chunk.
+		 *
+		 * @return number of chunks
+		 */
+		private long chunkCount() {
+			return Math.max(1, (length + chunkSize - 1) / chunkSize);
+		}
+
+		/**
+		 * Returns size of plaintext of the given chunk.
+		 *
+		 * @param  index index of the chunk
+		 * @return       size of plaintext
+		 */
+		private int plaintextLength(long index) {
+			return (int) Math.min(chunkSize, length - index * chunkSize);
+		}
+
+		/**
+		 * Returns position of the given chunk in the container.
+		 *
+		 * @param  index index of the chunk
+		 * @return       position of the chunk
+		 */
+		private long chunkOffset(long index) {
+			return HEADER_SIZE + index * (chunkSize + (long) TAG_SIZE);
+		}
+
+		/**
+		 * Returns expected size of the whole container.
+		 *
+		 * @return size of the container
+		 */
+		private long containerSize() {
+			return HEADER_SIZE + length + chunkCount() * TAG_SIZE;
+		}
+	}
+
+}
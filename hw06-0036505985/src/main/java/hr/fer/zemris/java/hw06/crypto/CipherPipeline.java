@@ -0,0 +1,160 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm.Hasher;
+
+/**
+ * Streams a file through an initialized {@link Cipher} using
+ * {@link FileChannel}s and two reusable {@link ByteBuffer}s, so that no arrays
+ * are allocated per block of data. Input and output can also be digested in
+ * the same pass (e.g. digest of plaintext while encrypting), without reading
+ * any file twice.
+ * <p>
+ * Heap buffers are used by default: {@link Cipher} and
+ * {@link java.security.MessageDigest} process array-backed buffers in place,
+ * but copy direct buffers through small temporary arrays. Direct buffers avoid
+ * the copy which {@link FileChannel} makes for heap buffers instead, so which
+ * one is faster depends on the platform; both are supported.
+ * <p>
+ * Meant for ciphers which produce output while data is processed (e.g. CBC or
+ * CTR); AEAD decryption (e.g. GCM) holds back all output until the end, so it
+ * is not supported. Instances are not thread-safe; buffers are kept between
+ * calls.
+ *
+ * @author Luka Mesaric
+ */
+public final class CipherPipeline {
+
+	/** Default size of input buffer, in bytes. */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/** Size of input buffer. */
+	private final int bufferSize;
+
+	/** Whether direct buffers are used. */
+	private final boolean direct;
+
+	/** Input buffer, allocated on first use. */
+	private ByteBuffer input;
+
+	/** Output buffer, allocated on first use and grown if needed. */
+	private ByteBuffer output;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  bufferSize               size of input buffer, in bytes
+	 * @param  direct                   whether direct buffers should be used
+	 * @throws IllegalArgumentException if <code>bufferSize</code> is not
+	 *                                  positive
+	 */
+	public CipherPipeline(int bufferSize, boolean direct) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException(
+					"Buffer size must be positive, received: " + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+		this.direct = direct;
+	}
+
+	/**
+	 * Reads <code>source</code>, processes it with <code>cipher</code> and writes
+	 * the result to <code>destination</code>, which is created or truncated.
+	 * Cipher must already be initialized, and is finished by this method.
+	 *
+	 * @param  cipher                   initialized cipher
+	 * @param  source                   file to read
+	 * @param  destination              file to write
+	 * @param  inputHasher              hasher updated with all bytes of
+	 *                                  <code>source</code>, may be
+	 *                                  <code>null</code>
+	 * @param  outputHasher             hasher updated with all bytes written to
+	 *                                  <code>destination</code>, may be
+	 *                                  <code>null</code>
+	 * @return                          number of bytes written
+	 * @throws IOException              if files cannot be read or written
+	 * @throws GeneralSecurityException if cipher fails (e.g. padding of
+	 *                                  decrypted data is invalid), or holds back
+	 *                                  more output than fits into the buffer
+	 * @throws NullPointerException     if <code>cipher</code>,
+	 *                                  <code>source</code> or
+	 *                                  <code>destination</code> is
+	 *                                  <code>null</code>
+	 */
+	public long process(Cipher cipher, Path source, Path destination,
+			Hasher inputHasher, Hasher outputHasher)
+			throws IOException, GeneralSecurityException {
+		ExceptionUtil.validateNotNull(cipher, "cipher");
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(destination, "destination");
+
+		if (input == null) {
+			input = allocate(bufferSize);
+		}
+		// cipher may hold back up to a block between calls, e.g. for padding
+		int outputSize = cipher.getOutputSize(bufferSize)
+				+ 2 * Math.max(cipher.getBlockSize(), 16);
+		if (output == null || output.capacity() < outputSize) {
+			output = allocate(outputSize);
+		}
+
+		long written = 0;
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(destination, StandardOpenOption.WRITE,
+						StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (in.read(input.clear()) >= 0) {
+				input.flip();
+				if (inputHasher != null) {
+					inputHasher.update(input.duplicate());
+				}
+				cipher.update(input, output.clear());
+				written += write(out, output.flip(), outputHasher);
+			}
+			cipher.doFinal(input.clear().flip(), output.clear());
+			written += write(out, output.flip(), outputHasher);
+		}
+		return written;
+	}
+
+	/**
+	 * Allocates a buffer of the configured kind.
+	 *
+	 * @param  capacity capacity of the buffer
+	 * @return          new buffer
+	 */
+	private ByteBuffer allocate(int capacity) {
+		return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+
+	/**
+	 * Writes all remaining bytes of <code>buffer</code> to <code>channel</code>,
+	 * and updates <code>hasher</code> with them.
+	 *
+	 * @param  channel     channel to write to
+	 * @param  buffer      buffer to write
+	 * @param  hasher      hasher to update, may be <code>null</code>
+	 * @return             number of written bytes
+	 * @throws IOException if channel cannot be written
+	 */
+	private static int write(FileChannel channel, ByteBuffer buffer, Hasher hasher)
+			throws IOException {
+		int length = buffer.remaining();
+		if (hasher != null) {
+			hasher.update(buffer.duplicate());
+		}
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		return length;
+	}
+
+}
@@ -1,33 +1,30 @@
 package hr.fer.zemris.java.hw06.crypto;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
-import javax.crypto.BadPaddingException;
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import hr.fer.zemris.java.hw06.ExceptionUtil;
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm.Hasher;
 
 /**
  * Command-line program that allows the user to encrypt/decrypt given file using
  * the AES crypto-algorithm and the 128-bit encryption key or calculate and
- * check the SHA-256 file digest.
+ * check file digests (SHA-256 by default).<br>
+ * Encryption streams files through {@link CipherPipeline}, optionally digesting
+ * plaintext in the same pass. Encryption with option <code>--chunked</code> uses
+ * {@link ChunkedCipher}, which encrypts chunks of large files concurrently.
  * 
  * @author Luka Mesaric
  */
@@ -47,7 +44,7 @@ public class Crypto {
 		try (Scanner sc = new Scanner(System.in)) {
 			switch (args[0]) {
 			case "checksha":
-				chechSha256Helper(Paths.get(args[1]), sc);
+				checkShaHelper(Arrays.asList(args).subList(1, args.length), sc);
 				break;
 			case "encrypt": // fall through
 			case "decrypt":
@@ -61,9 +58,7 @@ public class Crypto {
 		} catch (IOException e) {
 			System.out.println(
 					"Error while reading or writing to file: " + e.getMessage());
-		} catch (NoSuchAlgorithmException | InvalidKeyException
-				| NoSuchPaddingException | InvalidAlgorithmParameterException
-				| IllegalBlockSizeException | BadPaddingException e) {
+		} catch (GeneralSecurityException e) {
 			System.out.println(e.getMessage());
 		}
 	}
@@ -71,47 +66,43 @@ public class Crypto {
 	/**
 	 * Helper method for communicating with the user through standard output and by
 	 * using provided scanner. Encrypts or decrypts wanted file using key and vector
-	 * supplied by user.
+	 * supplied by user; see {@link EncryptionOptions} for supported options. With
+	 * option <code>--hash</code>, digest of plaintext is calculated in the same
+	 * pass and written after the result.
 	 * 
-	 * @param  args                               array of arguments - keyword
-	 *                                            (encrypt/decrypt), path to source
-	 *                                            file, and path to destination file
-	 * @param  sc                                 scanner
-	 * @throws NullPointerException               if any argument is
-	 *                                            <code>null</code>
-	 * @throws IOException                        if arguments represent files that
-	 *                                            do not exist on disk, or it was
-	 *                                            not possible to read or write to
-	 *                                            files for any reason
-	 * @throws BadPaddingException                if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws IllegalBlockSizeException          if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws InvalidAlgorithmParameterException if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws NoSuchPaddingException             if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws NoSuchAlgorithmException           if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws InvalidKeyException                if there is an issue with
-	 *                                            encryption or decryption
+	 * @param  args                     array of arguments - keyword
+	 *                                  (encrypt/decrypt), options, path to source
+	 *                                  file, and path to destination file
+	 * @param  sc                       scanner
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IOException              if arguments represent files that do not
+	 *                                  exist on disk, or it was not possible to
+	 *                                  read or write to files for any reason
+	 * @throws GeneralSecurityException if there is an issue with encryption or
+	 *                                  decryption
 	 */
 	private static void encryptionCommonHelper(String[] args, Scanner sc)
-			throws IOException, InvalidKeyException, NoSuchAlgorithmException,
-			NoSuchPaddingException, InvalidAlgorithmParameterException,
-			IllegalBlockSizeException, BadPaddingException {
+			throws IOException, GeneralSecurityException {
 		ExceptionUtil.validateNotNull(args, "args");
 		ExceptionUtil.validateNotNull(sc, "sc");
 
-		if (args.length != 3) {
-			System.out.println(
-					"For encryption and decrypt exactly 2 arguments are needed.");
+		boolean encrypt = args[0].equals("encrypt");
+		EncryptionOptions options;
+		Path source;
+		Path destination;
+		try {
+			options = EncryptionOptions.parse(Arrays.asList(args).subList(1, args.length));
+			source = Paths.get(options.getSource());
+			destination = Paths.get(options.getDestination());
+		} catch (IllegalArgumentException e) {
+			// InvalidPathException is an IllegalArgumentException
+			System.out.println(e.getMessage());
 			return;
 		}
 
-		boolean encrypt = true;
-		if (args[0].equals("decrypt")) {
-			encrypt = false;
+		if (options.isChunked()) {
+			chunkedEncryptionHelper(options, source, destination, encrypt, sc);
+			return;
 		}
 
 		System.out.format("Please provide password as hex-encoded text "
@@ -122,11 +113,11 @@ public class Crypto {
 				+ "hex-encoded text (32 hex-digits):%n> ");
 		String initializationVector = sc.nextLine().strip();
 
-		Path source = Paths.get(args[1]);
-		Path destination = Paths.get(args[2]);
-
+		DigestAlgorithm algorithm = options.getHashAlgorithm();
+		Hasher hasher = algorithm == null ? null : algorithm.newHasher();
 		try {
-			encryption(source, destination, password, initializationVector, encrypt);
+			encryption(source, destination, password, initializationVector, encrypt,
+					options.getBufferSize(), hasher);
 		} catch (IllegalArgumentException e) {
 			System.out.println(e.getMessage());
 			return;
@@ -135,117 +126,166 @@ public class Crypto {
 		System.out.format("%s completed. Generated file %s based on file %s.%n",
 				encrypt ? "Encryption" : "Decryption",
 				destination, source);
+		if (hasher != null) {
+			System.out.format("%s digest of plaintext: %s%n",
+					algorithm.getStandardName(), Util.bytetohex(hasher.digest()));
+		}
 	}
 
 	/**
 	 * Helper method for communicating with the user through standard output and by
-	 * using provided scanner. Calculates SHA-256 file digest.
+	 * using provided scanner. Encrypts or decrypts wanted file using AES-GCM in
+	 * independent chunks, which are processed concurrently (see
+	 * {@link ChunkedCipher}). Only the key is requested from user; a random nonce
+	 * is generated and stored in the encrypted file.
 	 * 
-	 * @param  path                     path to file whose digest is to be
-	 *                                  calculated
-	 * @param  sc                       scanner
-	 * @throws NullPointerException     if any argument is <code>null</code>
-	 * @throws IOException              if <code>path</code> does not exist, or it
-	 *                                  was not possible to read <code>path</code>
-	 *                                  for any reason
-	 * @throws NoSuchAlgorithmException if SHA-256 algorithm does not exist on the
-	 *                                  running computer
+	 * @param  options              parsed options, with <code>--chunked</code>
+	 * @param  source               file to be encrypted/decrypted
+	 * @param  destination          where the result will be written
+	 * @param  encrypt              <code>true</code> if file should be encrypted,
+	 *                              <code>false</code> if it should be decrypted
+	 * @param  sc                   scanner
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 * @throws IOException          if source does not exist or is not a valid
+	 *                              encrypted file, or it was not possible to read
+	 *                              or write to files for any reason
 	 */
-	private static void chechSha256Helper(Path path, Scanner sc)
-			throws NoSuchAlgorithmException, IOException {
-		ExceptionUtil.validateNotNull(path, "path");
+	private static void chunkedEncryptionHelper(EncryptionOptions options,
+			Path source, Path destination, boolean encrypt, Scanner sc)
+			throws IOException {
+		ExceptionUtil.validateNotNull(options, "options");
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(destination, "destination");
 		ExceptionUtil.validateNotNull(sc, "sc");
 
-		System.out.format("Please provide expected sha-256 digest for %s:%n> ", path);
-		String expectedDigest = sc.nextLine().strip();
-		String calculatedDigest = calculateSha256(path);
+		System.out.format("Please provide password as hex-encoded text "
+				+ "(16, 24 or 32 bytes, i.e. 32, 48 or 64 hex-digits):%n> ");
+		String password = sc.nextLine().strip();
 
-		if (expectedDigest.equals(calculatedDigest)) {
-			System.out.format(
-					"Digesting completed. Digest of %s matches expected digest.%n",
-					path.toString());
-		} else {
-			System.out.format("Digesting completed. Digest of %s does not match "
-					+ "the expected digest. Digest was: %s%n",
-					path.toString(), calculatedDigest);
+		try (ChunkedCipher cipher = new ChunkedCipher(options.getThreads())) {
+			byte[] key = Util.hextobyte(password);
+			if (encrypt) {
+				cipher.encrypt(source, destination, key, options.getChunkSize());
+			} else {
+				cipher.decrypt(source, destination, key);
+			}
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			return;
+		} catch (AEADBadTagException e) {
+			System.out.println("Decryption failed: file was modified, "
+					+ "or the password is wrong.");
+			return;
+		} catch (GeneralSecurityException e) {
+			System.out.println(e.getMessage());
+			return;
 		}
+
+		System.out.format("%s completed. Generated file %s based on file %s.%n",
+				encrypt ? "Encryption" : "Decryption",
+				destination, source);
 	}
 
 	/**
-	 * Calculates the SHA-256 file digest.
+	 * Helper method for communicating with the user through standard output and by
+	 * using provided scanner. Calculates file digests; see
+	 * {@link ChecksumOptions} for supported arguments.
+	 * <p>
+	 * For a single file, user is asked for the expected digest, which is then
+	 * compared to the calculated one. For multiple files, digests are calculated
+	 * concurrently and written in order of the arguments, in the same format as
+	 * <code>sha256sum</code> writes them.
 	 * 
-	 * @param  file                     path to file whose digest is to be
-	 *                                  calculated
-	 * @return                          hex-encoding of the SHA-256 file digest,
-	 *                                  never <code>null</code>
-	 * @throws NullPointerException     if <code>file</code> is <code>null</code>
-	 * @throws IOException              if <code>file</code> does not exist, or it
-	 *                                  was not possible to read <code>file</code>
-	 *                                  for any reason
-	 * @throws NoSuchAlgorithmException if SHA-256 algorithm does not exist on the
-	 *                                  running computer
+	 * @param  args                 options and files
+	 * @param  sc                   scanner
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 * @throws IOException          if a single file is given and it does not
+	 *                              exist, or it was not possible to read it for
+	 *                              any reason
 	 */
-	private static String calculateSha256(Path file)
-			throws NoSuchAlgorithmException, IOException {
-		ExceptionUtil.validateNotNull(file, "file");
-		MessageDigest sha = MessageDigest.getInstance("SHA-256");
+	private static void checkShaHelper(List<String> args, Scanner sc) throws IOException {
+		ExceptionUtil.validateNotNull(args, "args");
+		ExceptionUtil.validateNotNull(sc, "sc");
 
-		try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
-			byte[] buff = new byte[8192]; // 8 KB
-			while (true) {
-				int r = is.read(buff);
-				if (r < 1) {
-					break;
-				}
-				sha.update(buff, 0, r);
+		ChecksumOptions options;
+		List<Path> files = new ArrayList<>();
+		try {
+			options = ChecksumOptions.parse(args);
+			for (String file : options.getFiles()) {
+				files.add(Paths.get(file));
+			}
+		} catch (IllegalArgumentException e) {
+			// InvalidPathException is an IllegalArgumentException
+			System.out.println(e.getMessage());
+			return;
+		}
+
+		DigestAlgorithm algorithm = options.getAlgorithm();
+		try (FileHasher hasher = new FileHasher(options.getThreads())) {
+			if (files.size() > 1) {
+				hasher.hashAll(files, algorithm, options.getChunkSize(),
+						(path, digest) -> System.out.format("%s  %s%n",
+								Util.bytetohex(digest), path),
+						(path, e) -> System.out.println(
+								"Error while reading from file: " + e.getMessage()));
+				return;
+			}
+
+			Path path = files.get(0);
+			System.out.format("Please provide expected %s digest for %s:%n> ",
+					options.getDigestName(), path);
+			String expectedDigest = sc.nextLine().strip();
+			String calculatedDigest = Util.bytetohex(options.isMerkle()
+					? hasher.merkleHash(path, algorithm, options.getChunkSize())
+					: FileHasher.hash(path, algorithm));
+
+			if (expectedDigest.equals(calculatedDigest)) {
+				System.out.format(
+						"Digesting completed. Digest of %s matches expected digest.%n",
+						path.toString());
+			} else {
+				System.out.format("Digesting completed. Digest of %s does not match "
+						+ "the expected digest. Digest was: %s%n",
+						path.toString(), calculatedDigest);
 			}
 		}
-		return Util.bytetohex(sha.digest());
 	}
 
 	/**
 	 * Encrypts or decrypts file with path <code>source</code> by using symmetric
-	 * crypto-algorithm <code>AES</code> and 128-bit encryption key.
+	 * crypto-algorithm <code>AES</code> and 128-bit encryption key. File is
+	 * streamed through {@link CipherPipeline}.
 	 * 
-	 * @param  source                             file to be encrypted/decrypted
-	 * @param  destination                        where the result will be written
-	 * @param  keyText                            password for encryption/decryption
-	 * @param  ivText                             initialization vector
-	 * @param  encrypt                            <code>true</code> if file should
-	 *                                            be encrypted, <code>false</code>
-	 *                                            if it should be decrypted
-	 * @throws NullPointerException               if any argument is
-	 *                                            <code>null</code>
-	 * @throws IllegalArgumentException           if number of characters in
-	 *                                            <code>keyText</code> or
-	 *                                            <code>ivText</code> is not even,
-	 *                                            or any character does not
-	 *                                            represent a valid hexadecimal
-	 *                                            digit
-	 * @throws IOException                        if <code>source</code> does not
-	 *                                            exist, or <code>destination</code>
-	 *                                            does not represent a valid path on
-	 *                                            disk, or it was not possible to
-	 *                                            read or write to files for any
-	 *                                            reason
-	 * @throws NoSuchPaddingException             if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws NoSuchAlgorithmException           if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws InvalidAlgorithmParameterException if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws InvalidKeyException                if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws BadPaddingException                if there is an issue with
-	 *                                            encryption or decryption
-	 * @throws IllegalBlockSizeException          if there is an issue with
-	 *                                            encryption or decryption
+	 * @param  source                   file to be encrypted/decrypted
+	 * @param  destination              where the result will be written
+	 * @param  keyText                  password for encryption/decryption
+	 * @param  ivText                   initialization vector
+	 * @param  encrypt                  <code>true</code> if file should be
+	 *                                  encrypted, <code>false</code> if it should
+	 *                                  be decrypted
+	 * @param  bufferSize               size of I/O buffer, in bytes
+	 * @param  plaintextHasher          hasher updated with plaintext, may be
+	 *                                  <code>null</code>
+	 * @throws NullPointerException     if any argument except
+	 *                                  <code>plaintextHasher</code> is
+	 *                                  <code>null</code>
+	 * @throws IllegalArgumentException if number of characters in
+	 *                                  <code>keyText</code> or <code>ivText</code>
+	 *                                  is not even, or any character does not
+	 *                                  represent a valid hexadecimal digit, or
+	 *                                  <code>bufferSize</code> is not positive
+	 * @throws IOException              if <code>source</code> does not exist, or
+	 *                                  <code>destination</code> does not
+	 *                                  represent a valid path on disk, or it was
+	 *                                  not possible to read or write to files for
+	 *                                  any reason
+	 * @throws GeneralSecurityException if there is an issue with encryption or
+	 *                                  decryption
 	 */
 	private static void encryption(Path source, Path destination,
-			String keyText, String ivText, boolean encrypt)
-			throws NoSuchAlgorithmException, NoSuchPaddingException,
-			InvalidKeyException, InvalidAlgorithmParameterException,
-			IllegalBlockSizeException, BadPaddingException, IOException {
+			String keyText, String ivText, boolean encrypt,
+			int bufferSize, Hasher plaintextHasher)
+			throws GeneralSecurityException, IOException {
 
 		ExceptionUtil.validateNotNull(source, "source");
 		ExceptionUtil.validateNotNull(destination, "destination");
@@ -259,19 +299,8 @@ public class Crypto {
 		cipher.init(encrypt ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE,
 				keySpec, paramSpec);
 
-		try (InputStream is = new BufferedInputStream(Files.newInputStream(source));
-				OutputStream os = new BufferedOutputStream(
-						Files.newOutputStream(destination))) {
-			byte[] buff = new byte[8192]; // 8 KB
-			while (true) {
-				int r = is.read(buff);
-				if (r < 1) {
-					os.write(cipher.doFinal());
-					break;
-				}
-				os.write(cipher.update(buff, 0, r));
-			}
-		}
+		new CipherPipeline(bufferSize, false).process(cipher, source, destination,
+				encrypt ? plaintextHasher : null, encrypt ? null : plaintextHasher);
 	}
 
 }
@@ -0,0 +1,182 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Algorithms which can be used for calculating file digests.
+ *
+ * @author Luka Mesaric
+ */
+public enum DigestAlgorithm {
+
+	/** SHA-256 message digest. */
+	SHA_256("SHA-256"),
+
+	/** SHA-512 message digest. */
+	SHA_512("SHA-512"),
+
+	/** MD5 message digest. Not secure, but fast and widely used. */
+	MD5("MD5"),
+
+	/**
+	 * CRC32C checksum. Not a cryptographic digest, only detects accidental
+	 * changes. Digest is written as 4 bytes, in big-endian order.
+	 */
+	CRC32C("CRC32C");
+
+	/**
+	 * Incremental digest calculation. Instances are not thread-safe.
+	 *
+	 * @author Luka Mesaric
+	 */
+	public interface Hasher {
+
+		/**
+		 * Updates the digest with all remaining bytes of <code>data</code>.
+		 * Position of <code>data</code> is moved to its limit.
+		 *
+		 * @param  data                 bytes to digest
+		 * @throws NullPointerException if <code>data</code> is <code>null</code>
+		 */
+		void update(ByteBuffer data);
+
+		/**
+		 * Completes the calculation. Hasher must not be used afterwards.
+		 *
+		 * @return calculated digest, never <code>null</code>
+		 */
+		byte[] digest();
+	}
+
+	/** Standard name of this algorithm. */
+	private final String standardName;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param standardName standard name of this algorithm
+	 */
+	private DigestAlgorithm(String standardName) {
+		this.standardName = standardName;
+	}
+
+	/**
+	 * Getter for <code>standardName</code>.
+	 *
+	 * @return standard name of this algorithm, e.g. <code>SHA-256</code>
+	 */
+	public String getStandardName() { return standardName; }
+
+	/**
+	 * Creates a new hasher which calculates digests using this algorithm.
+	 *
+	 * @return new hasher, never <code>null</code>
+	 * @throws IllegalStateException if algorithm is not available on the running
+	 *                               computer
+	 */
+	public Hasher newHasher() {
+		if (this == CRC32C) {
+			return new ChecksumHasher(new CRC32C());
+		}
+		try {
+			return new MessageDigestHasher(MessageDigest.getInstance(standardName));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns algorithm with the given name. Case of letters, dashes and
+	 * underscores are ignored, so <code>sha256</code> and <code>SHA-256</code>
+	 * are the same.
+	 *
+	 * @param  name                     name of the algorithm
+	 * @return                          algorithm, never <code>null</code>
+	 * @throws NullPointerException     if <code>name</code> is <code>null</code>
+	 * @throws IllegalArgumentException if algorithm is not supported
+	 */
+	public static DigestAlgorithm forName(String name) {
+		ExceptionUtil.validateNotNull(name, "name");
+		String normalized = normalize(name);
+		for (DigestAlgorithm algorithm : values()) {
+			if (normalize(algorithm.standardName).equals(normalized)) {
+				return algorithm;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported digest algorithm: " + name);
+	}
+
+	/**
+	 * Removes dashes and underscores from <code>name</code> and converts it to
+	 * upper case.
+	 *
+	 * @param  name name to normalize
+	 * @return      normalized name
+	 */
+	private static String normalize(String name) {
+		return name.replace("-", "").replace("_", "").toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * Hasher backed by a {@link MessageDigest}.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class MessageDigestHasher implements Hasher {
+
+		/** Digest which does the calculation. */
+		private final MessageDigest digest;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param digest digest which does the calculation
+		 */
+		private MessageDigestHasher(MessageDigest digest) {
+			this.digest = digest;
+		}
+
+		@Override
+		public void update(ByteBuffer data) { digest.update(data); }
+
+		@Override
+		public byte[] digest() { return digest.digest(); }
+	}
+
+	/**
+	 * Hasher backed by a {@link Checksum}.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class ChecksumHasher implements Hasher {
+
+		/** Checksum which does the calculation. */
+		private final Checksum checksum;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param checksum checksum which does the calculation
+		 */
+		private ChecksumHasher(Checksum checksum) {
+			this.checksum = checksum;
+		}
+
+		@Override
+		public void update(ByteBuffer data) { checksum.update(data); }
+
+		@Override
+		public byte[] digest() {
+			return ByteBuffer.allocate(Integer.BYTES)
+					.putInt((int) checksum.getValue()).array();
+		}
+	}
+
+}
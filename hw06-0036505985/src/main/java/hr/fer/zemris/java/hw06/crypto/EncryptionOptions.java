@@ -0,0 +1,189 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Options of <code>Crypto encrypt</code> and <code>Crypto decrypt</code>.
+ * <p>
+ * Arguments are options, in any order, followed by source and destination
+ * file. Supported options are:
+ * <ul>
+ * <li><code>--buffer=SIZE</code>: size of I/O buffer for AES/CBC, in bytes
+ * (default is {@value CipherPipeline#DEFAULT_BUFFER_SIZE})</li>
+ * <li><code>--hash[=ALGORITHM]</code>: digest plaintext while encrypting or
+ * decrypting, see {@link DigestAlgorithm#forName(String)} (default is
+ * SHA-256)</li>
+ * <li><code>--chunked[=CHUNK_SIZE]</code>: use {@link ChunkedCipher} instead
+ * of AES/CBC (default chunk size is {@value ChunkedCipher#DEFAULT_CHUNK_SIZE}
+ * bytes)</li>
+ * <li><code>--threads=N</code>: number of worker threads for
+ * <code>--chunked</code> (default is number of processors)</li>
+ * </ul>
+ *
+ * @author Luka Mesaric
+ */
+public final class EncryptionOptions {
+
+	/** Prefix of the buffer option. */
+	private static final String BUFFER = "--buffer=";
+
+	/** Hash option. */
+	private static final String HASH = "--hash";
+
+	/** Chunked option. */
+	private static final String CHUNKED = "--chunked";
+
+	/** Prefix of the threads option. */
+	private static final String THREADS = "--threads=";
+
+	/** Size of I/O buffer. */
+	private int bufferSize = CipherPipeline.DEFAULT_BUFFER_SIZE;
+
+	/** Algorithm used for digesting plaintext, <code>null</code> if none. */
+	private DigestAlgorithm hashAlgorithm;
+
+	/** Size of chunks, <code>0</code> if not chunked. */
+	private int chunkSize;
+
+	/** Number of worker threads, <code>0</code> if not given. */
+	private int threads;
+
+	/** Source file. */
+	private String source;
+
+	/** Destination file. */
+	private String destination;
+
+	/**
+	 * Default (private) constructor.
+	 */
+	private EncryptionOptions() {}
+
+	/**
+	 * Parses given arguments.
+	 *
+	 * @param  args                     options, source and destination
+	 * @return                          parsed options, never <code>null</code>
+	 * @throws NullPointerException     if <code>args</code> is <code>null</code>
+	 * @throws IllegalArgumentException if an option is not supported or has an
+	 *                                  invalid value, options cannot be
+	 *                                  combined, or there are not exactly two
+	 *                                  files
+	 */
+	public static EncryptionOptions parse(List<String> args) {
+		ExceptionUtil.validateNotNull(args, "args");
+
+		EncryptionOptions options = new EncryptionOptions();
+		boolean buffer = false;
+		List<String> files = new ArrayList<>();
+		for (String arg : args) {
+			if (!files.isEmpty() || !arg.startsWith("--")) {
+				files.add(arg);
+			} else if (arg.startsWith(BUFFER)) {
+				options.bufferSize = parsePositive(arg.substring(BUFFER.length()), arg);
+				buffer = true;
+			} else if (arg.equals(HASH)) {
+				options.hashAlgorithm = DigestAlgorithm.SHA_256;
+			} else if (arg.startsWith(HASH + "=")) {
+				options.hashAlgorithm = DigestAlgorithm.forName(
+						arg.substring(HASH.length() + 1));
+			} else if (arg.equals(CHUNKED)) {
+				options.chunkSize = ChunkedCipher.DEFAULT_CHUNK_SIZE;
+			} else if (arg.startsWith(CHUNKED + "=")) {
+				options.chunkSize = parsePositive(arg.substring(CHUNKED.length() + 1), arg);
+			} else if (arg.startsWith(THREADS)) {
+				options.threads = parsePositive(arg.substring(THREADS.length()), arg);
+			} else {
+				throw new IllegalArgumentException("Unsupported option: " + arg);
+			}
+		}
+
+		if (files.size() != 2) {
+			throw new IllegalArgumentException(
+					"Exactly 2 files are needed. Received: " + files.size());
+		} else if (options.isChunked() && (buffer || options.hashAlgorithm != null)) {
+			throw new IllegalArgumentException(
+					"Options --buffer and --hash cannot be used with --chunked.");
+		} else if (!options.isChunked() && options.threads != 0) {
+			throw new IllegalArgumentException("Option --threads requires --chunked.");
+		}
+		options.source = files.get(0);
+		options.destination = files.get(1);
+		return options;
+	}
+
+	/**
+	 * Parses a positive number, which may be given in decimal, hexadecimal or
+	 * octal notation.
+	 *
+	 * @param  value                    value to parse
+	 * @param  option                   whole option, used in error message
+	 * @return                          parsed value
+	 * @throws IllegalArgumentException if value is not a positive number
+	 */
+	private static int parsePositive(String value, String option) {
+		try {
+			int parsed = Integer.decode(value);
+			if (parsed > 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// handled below
+		}
+		throw new IllegalArgumentException("Expected a positive number: " + option);
+	}
+
+	/**
+	 * Getter for <code>bufferSize</code>.
+	 *
+	 * @return size of I/O buffer, in bytes
+	 */
+	public int getBufferSize() { return bufferSize; }
+
+	/**
+	 * Getter for <code>hashAlgorithm</code>.
+	 *
+	 * @return algorithm used for digesting plaintext, <code>null</code> if
+	 *         plaintext should not be digested
+	 */
+	public DigestAlgorithm getHashAlgorithm() { return hashAlgorithm; }
+
+	/**
+	 * Checks whether {@link ChunkedCipher} should be used.
+	 *
+	 * @return <code>true</code> if chunked encryption should be used
+	 */
+	public boolean isChunked() { return chunkSize > 0; }
+
+	/**
+	 * Getter for <code>chunkSize</code>.
+	 *
+	 * @return size of chunks, <code>0</code> if not chunked
+	 */
+	public int getChunkSize() { return chunkSize; }
+
+	/**
+	 * Getter for <code>threads</code>.
+	 *
+	 * @return number of worker threads, always positive
+	 */
+	public int getThreads() { return threads > 0 ? threads : FileHasher.DEFAULT_THREADS; }
+
+	/**
+	 * Getter for <code>source</code>.
+	 *
+	 * @return source file, never <code>null</code>
+	 */
+	public String getSource() { return source; }
+
+	/**
+	 * Getter for <code>destination</code>.
+	 *
+	 * @return destination file, never <code>null</code>
+	 */
+	public String getDestination() { return destination; }
+
+}
@@ -0,0 +1,309 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm.Hasher;
+
+/**
+ * Calculates file digests, on the calling thread or concurrently on a pool of
+ * worker threads.
+ * <p>
+ * Files of at least {@value #MAPPING_THRESHOLD} bytes are memory-mapped in
+ * windows of {@value #MAPPING_WINDOW} bytes, so their content is digested
+ * without copying it through a buffer. Smaller files are read into a heap
+ * buffer of {@value #BUFFER_SIZE} bytes: {@link java.security.MessageDigest}
+ * digests heap buffers directly, while direct buffers are first copied into an
+ * internal array.
+ * <p>
+ * A Merkle-tree digest of a single large file can also be calculated in
+ * parallel chunks. Leaves are digests of <code>0x00 || chunk</code>, inner
+ * nodes are digests of <code>0x01 || left || right</code>, and the last node of
+ * a level with an odd number of nodes is moved one level up unchanged (an empty
+ * file has a single, empty chunk). The result depends on the chunk size, so it
+ * is not comparable to a plain digest of the same file.
+ *
+ * @author Luka Mesaric
+ */
+public final class FileHasher implements AutoCloseable {
+
+	/** Files of at least this many bytes are memory-mapped. */
+	public static final long MAPPING_THRESHOLD = 1 << 20;
+
+	/** Default size of Merkle-tree chunks, in bytes. */
+	public static final long DEFAULT_CHUNK_SIZE = 4 << 20;
+
+	/** Default number of worker threads. */
+	public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/** Size of mapped windows, in bytes. */
+	private static final long MAPPING_WINDOW = 64 << 20;
+
+	/** Size of buffer used for reading small files, in bytes. */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/** Prefix of digested Merkle-tree leaves. */
+	private static final byte LEAF_PREFIX = 0;
+
+	/** Prefix of digested Merkle-tree inner nodes. */
+	private static final byte NODE_PREFIX = 1;
+
+	/** Pool executing digest calculations. */
+	private final ExecutorService pool;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  threads                  number of worker threads
+	 * @throws IllegalArgumentException if <code>threads</code> is less than
+	 *                                  <code>1</code>
+	 */
+	public FileHasher(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"Number of threads must be positive, received: " + threads);
+		}
+		this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "hash-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Calculates digest of <code>file</code> on the calling thread.
+	 *
+	 * @param  file                 file to digest
+	 * @param  algorithm            digest algorithm
+	 * @return                      calculated digest
+	 * @throws IOException          if file cannot be read
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static byte[] hash(Path file, DigestAlgorithm algorithm) throws IOException {
+		ExceptionUtil.validateNotNull(file, "file");
+		ExceptionUtil.validateNotNull(algorithm, "algorithm");
+
+		Hasher hasher = algorithm.newHasher();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			update(hasher, channel, 0, channel.size());
+		}
+		return hasher.digest();
+	}
+
+	/**
+	 * Submits calculation of digest of <code>file</code> to worker threads.
+	 *
+	 * @param  file                 file to digest
+	 * @param  algorithm            digest algorithm
+	 * @return                      future result, see {@link #await(Future)}
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public Future<byte[]> submit(Path file, DigestAlgorithm algorithm) {
+		ExceptionUtil.validateNotNull(file, "file");
+		ExceptionUtil.validateNotNull(algorithm, "algorithm");
+
+		return pool.submit(() -> hash(file, algorithm));
+	}
+
+	/**
+	 * Calculates Merkle-tree digest of <code>file</code>. Chunks are digested
+	 * concurrently by worker threads; the calling thread waits for the result.
+	 *
+	 * @param  file                     file to digest
+	 * @param  algorithm                digest algorithm
+	 * @param  chunkSize                size of chunks (leaves), in bytes
+	 * @return                          calculated digest
+	 * @throws IOException              if file cannot be read
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if <code>chunkSize</code> is not positive
+	 */
+	public byte[] merkleHash(Path file, DigestAlgorithm algorithm, long chunkSize)
+			throws IOException {
+		ExceptionUtil.validateNotNull(file, "file");
+		ExceptionUtil.validateNotNull(algorithm, "algorithm");
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException(
+					"Chunk size must be positive, received: " + chunkSize);
+		}
+
+		List<Future<byte[]>> leaves = new ArrayList<>();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			do {
+				long start = position;
+				long length = Math.min(chunkSize, size - start);
+				leaves.add(pool.submit(() -> {
+					Hasher hasher = algorithm.newHasher();
+					hasher.update(ByteBuffer.wrap(new byte[] { LEAF_PREFIX }));
+					update(hasher, channel, start, length);
+					return hasher.digest();
+				}));
+				position += length;
+			} while (position < size);
+
+			List<byte[]> level = new ArrayList<>(leaves.size());
+			for (Future<byte[]> leaf : leaves) {
+				level.add(await(leaf));
+			}
+			return combine(level, algorithm);
+		} finally {
+			leaves.forEach(leaf -> leaf.cancel(true));
+		}
+	}
+
+	/**
+	 * Calculates digests of all <code>files</code> and reports them in order of
+	 * the list. Plain digests of different files are calculated concurrently;
+	 * Merkle-tree digests are calculated one file at a time, each in parallel
+	 * chunks. Callbacks are invoked on the calling thread.
+	 *
+	 * @param  files                    files to digest
+	 * @param  algorithm                digest algorithm
+	 * @param  chunkSize                size of Merkle-tree chunks, or
+	 *                                  <code>0</code> for plain digests
+	 * @param  onDigest                 called with each calculated digest
+	 * @param  onError                  called for each file which cannot be read
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if <code>chunkSize</code> is negative
+	 */
+	public void hashAll(List<Path> files, DigestAlgorithm algorithm, long chunkSize,
+			BiConsumer<Path, byte[]> onDigest, BiConsumer<Path, IOException> onError) {
+		ExceptionUtil.validateNotNull(files, "files");
+		ExceptionUtil.validateNotNull(algorithm, "algorithm");
+		ExceptionUtil.validateNotNull(onDigest, "onDigest");
+		ExceptionUtil.validateNotNull(onError, "onError");
+		if (chunkSize < 0) {
+			throw new IllegalArgumentException(
+					"Chunk size must not be negative, received: " + chunkSize);
+		}
+
+		List<Future<byte[]>> digests = new ArrayList<>();
+		try {
+			if (chunkSize == 0) {
+				files.forEach(file -> digests.add(submit(file, algorithm)));
+			}
+			for (int i = 0; i < files.size(); i++) {
+				Path file = files.get(i);
+				byte[] digest;
+				try {
+					digest = chunkSize == 0
+							? await(digests.get(i))
+							: merkleHash(file, algorithm, chunkSize);
+				} catch (IOException e) {
+					onError.accept(file, e);
+					continue;
+				}
+				onDigest.accept(file, digest);
+			}
+		} finally {
+			digests.forEach(digest -> digest.cancel(true));
+		}
+	}
+
+	/**
+	 * Waits for a digest submitted to worker threads.
+	 *
+	 * @param  future      result of {@link #submit(Path, DigestAlgorithm)}
+	 * @return             calculated digest
+	 * @throws IOException if file could not be read, or waiting was interrupted
+	 */
+	public static byte[] await(Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for digest.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Shuts down the worker threads, interrupting unfinished calculations.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Combines Merkle-tree leaves into the root digest.
+	 *
+	 * @param  level     digests of leaves, modified by this method
+	 * @param  algorithm digest algorithm
+	 * @return           root digest
+	 */
+	private static byte[] combine(List<byte[]> level, DigestAlgorithm algorithm) {
+		while (level.size() > 1) {
+			int parents = 0;
+			for (int i = 0; i < level.size(); i += 2) {
+				byte[] node = level.get(i);
+				if (i + 1 < level.size()) {
+					Hasher hasher = algorithm.newHasher();
+					hasher.update(ByteBuffer.wrap(new byte[] { NODE_PREFIX }));
+					hasher.update(ByteBuffer.wrap(node));
+					hasher.update(ByteBuffer.wrap(level.get(i + 1)));
+					node = hasher.digest();
+				}
+				level.set(parents++, node);
+			}
+			level.subList(parents, level.size()).clear();
+		}
+		return level.get(0);
+	}
+
+	/**
+	 * Updates <code>hasher</code> with <code>length</code> bytes of
+	 * <code>channel</code>, starting from <code>position</code>. Uses only
+	 * positional operations, so the channel may be shared between threads.
+	 *
+	 * @param  hasher      hasher to update
+	 * @param  channel     channel to read from
+	 * @param  position    position of the first byte
+	 * @param  length      number of bytes
+	 * @throws IOException if channel cannot be read, or ends too soon
+	 */
+	private static void update(Hasher hasher, FileChannel channel,
+			long position, long length) throws IOException {
+		long end = position + length;
+		if (length >= MAPPING_THRESHOLD) {
+			for (long start = position; start < end; start += MAPPING_WINDOW) {
+				hasher.update(channel.map(FileChannel.MapMode.READ_ONLY,
+						start, Math.min(MAPPING_WINDOW, end - start)));
+			}
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, length));
+		for (long current = position; current < end;) {
+			buffer.clear().limit((int) Math.min(buffer.capacity(), end - current));
+			int read = channel.read(buffer, current);
+			if (read < 0) {
+				throw new IOException("Unexpected end of file at position " + current);
+			}
+			current += read;
+			hasher.update(buffer.flip());
+		}
+	}
+
+}
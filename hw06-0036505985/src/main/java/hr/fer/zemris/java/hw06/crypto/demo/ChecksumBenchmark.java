@@ -0,0 +1,145 @@
+package hr.fer.zemris.java.hw06.crypto.demo;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm;
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm.Hasher;
+import hr.fer.zemris.java.hw06.crypto.FileHasher;
+
+/**
+ * Measures digest throughput of every {@link DigestAlgorithm}: reading through
+ * an 8 KB buffer the way <code>Crypto checksha</code> used to, memory-mapped
+ * reading with {@link FileHasher#hash(Path, DigestAlgorithm)}, and parallel
+ * Merkle-tree digests. Concurrent digesting of many small files is measured
+ * separately.
+ * <p>
+ * Arguments (all optional): size of the large file in MiB (default
+ * <code>256</code>), number of small files (default <code>2000</code>) and
+ * number of threads (default is number of processors). All files are
+ * temporary and are deleted afterwards. Results depend heavily on whether the
+ * files are in the page cache; the first run is usually slower.
+ *
+ * @author Luka Mesaric
+ */
+public class ChecksumBenchmark {
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args        file size in MiB, number of small files, threads
+	 * @throws IOException if files cannot be created or read
+	 */
+	public static void main(String[] args) throws IOException {
+		int mebibytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+		int smallFiles = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : FileHasher.DEFAULT_THREADS;
+		Path dir = Files.createTempDirectory("checksum-benchmark");
+
+		try (FileHasher hasher = new FileHasher(threads)) {
+			Path large = dir.resolve("large.bin");
+			Random random = new Random(mebibytes);
+			byte[] block = new byte[1 << 20];
+			try (OutputStream os = Files.newOutputStream(large)) {
+				for (int i = 0; i < mebibytes; i++) {
+					random.nextBytes(block);
+					os.write(block);
+				}
+			}
+			long bytes = Files.size(large);
+			System.out.format("Large file: %d MiB, %d thread(s)%n", mebibytes, threads);
+
+			for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+				for (int run = 0; run < 2; run++) {
+					long start = System.nanoTime();
+					legacyHash(large, algorithm);
+					report(algorithm.getStandardName() + ", 8 KB stream", start, bytes);
+
+					start = System.nanoTime();
+					FileHasher.hash(large, algorithm);
+					report(algorithm.getStandardName() + ", mapped", start, bytes);
+
+					start = System.nanoTime();
+					hasher.merkleHash(large, algorithm, FileHasher.DEFAULT_CHUNK_SIZE);
+					report(algorithm.getStandardName() + ", Merkle-tree", start, bytes);
+				}
+				System.out.println();
+			}
+
+			List<Path> files = new ArrayList<>();
+			long smallBytes = 0;
+			for (int i = 0; i < smallFiles; i++) {
+				byte[] data = new byte[random.nextInt(64 << 10)];
+				random.nextBytes(data);
+				files.add(Files.write(dir.resolve("small" + i + ".bin"), data));
+				smallBytes += data.length;
+			}
+			System.out.format("Small files: %d, %.1f MiB%n", smallFiles, smallBytes / 1048576.0);
+			for (int run = 0; run < 2; run++) {
+				long start = System.nanoTime();
+				for (Path file : files) {
+					legacyHash(file, DigestAlgorithm.SHA_256);
+				}
+				report("SHA-256, sequential stream", start, smallBytes);
+
+				start = System.nanoTime();
+				hasher.hashAll(files, DigestAlgorithm.SHA_256, 0, (f, d) -> {}, (f, e) -> {
+					throw new IllegalStateException(e);
+				});
+				report("SHA-256, concurrent", start, smallBytes);
+			}
+		} finally {
+			try (Stream<Path> walk = Files.walk(dir)) {
+				walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	/**
+	 * Prints duration and throughput of one measurement.
+	 *
+	 * @param name  name of the measurement
+	 * @param start start time, in nanoseconds
+	 * @param bytes number of digested bytes
+	 */
+	private static void report(String name, long start, long bytes) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-28s %8.3f s %9.1f MiB/s%n",
+				name, seconds, bytes / seconds / 1048576);
+	}
+
+	/**
+	 * Digests <code>file</code> the way <code>Crypto checksha</code> used to,
+	 * through an 8 KB buffer.
+	 *
+	 * @param  file        file to digest
+	 * @param  algorithm   digest algorithm
+	 * @return             calculated digest
+	 * @throws IOException if file cannot be read
+	 */
+	private static byte[] legacyHash(Path file, DigestAlgorithm algorithm) throws IOException {
+		Hasher hasher = algorithm.newHasher();
+		try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+			byte[] buff = new byte[8192]; // 8 KB
+			while (true) {
+				int r = is.read(buff);
+				if (r < 1) {
+					break;
+				}
+				hasher.update(ByteBuffer.wrap(buff, 0, r));
+			}
+		}
+		return hasher.digest();
+	}
+
+}
@@ -0,0 +1,147 @@
+package hr.fer.zemris.java.hw06.crypto.demo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import hr.fer.zemris.java.hw06.crypto.ChunkedCipher;
+import hr.fer.zemris.java.hw06.crypto.FileHasher;
+import hr.fer.zemris.java.hw06.crypto.Util;
+
+/**
+ * Compares the sequential AES/CBC encryption which <code>Crypto</code> uses by
+ * default (8 KB stream loop) with {@link ChunkedCipher}, for increasing numbers
+ * of threads, and measures random access to small parts of an encrypted file.
+ * <p>
+ * Arguments (all optional): file size in MiB (default <code>256</code>) and
+ * maximal number of threads (default is number of processors). All files are
+ * temporary and are deleted afterwards.
+ *
+ * @author Luka Mesaric
+ */
+public class CryptoBenchmark {
+
+	/** Key used in all measurements. */
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	/** Initialization vector used for CBC. */
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0d0e0f");
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args                     file size in MiB, maximal number of threads
+	 * @throws IOException              if files cannot be created or read
+	 * @throws GeneralSecurityException if encryption fails
+	 */
+	public static void main(String[] args) throws IOException, GeneralSecurityException {
+		int mebibytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : FileHasher.DEFAULT_THREADS;
+		Path dir = Files.createTempDirectory("crypto-benchmark");
+
+		try {
+			Path plain = dir.resolve("plain.bin");
+			Path encrypted = dir.resolve("encrypted.bin");
+			Path decrypted = dir.resolve("decrypted.bin");
+			Random random = new Random(mebibytes);
+			byte[] block = new byte[1 << 20];
+			try (OutputStream os = Files.newOutputStream(plain)) {
+				for (int i = 0; i < mebibytes; i++) {
+					random.nextBytes(block);
+					os.write(block);
+				}
+			}
+			long bytes = Files.size(plain);
+			System.out.format("File: %d MiB%n", mebibytes);
+
+			for (int run = 0; run < 2; run++) {
+				long start = System.nanoTime();
+				legacyCbc(plain, encrypted, Cipher.ENCRYPT_MODE);
+				report("CBC encrypt, 8 KB stream", start, bytes);
+				start = System.nanoTime();
+				legacyCbc(encrypted, decrypted, Cipher.DECRYPT_MODE);
+				report("CBC decrypt, 8 KB stream", start, bytes);
+
+				for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+					try (ChunkedCipher cipher = new ChunkedCipher(threads)) {
+						start = System.nanoTime();
+						cipher.encrypt(plain, encrypted, KEY, ChunkedCipher.DEFAULT_CHUNK_SIZE);
+						report("GCM encrypt, " + threads + " thread(s)", start, bytes);
+						start = System.nanoTime();
+						cipher.decrypt(encrypted, decrypted, KEY);
+						report("GCM decrypt, " + threads + " thread(s)", start, bytes);
+					}
+				}
+
+				int reads = 1000;
+				start = System.nanoTime();
+				for (int i = 0; i < reads; i++) {
+					long position = (long) (random.nextDouble() * (bytes - 4096));
+					ChunkedCipher.decryptRange(encrypted, KEY, position, 4096);
+				}
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.format("%-28s %8.3f s %9.2f ms/read%n%n",
+						"GCM random 4 KiB reads", seconds, seconds * 1000 / reads);
+			}
+		} finally {
+			try (Stream<Path> walk = Files.walk(dir)) {
+				walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	/**
+	 * Prints duration and throughput of one measurement.
+	 *
+	 * @param name  name of the measurement
+	 * @param start start time, in nanoseconds
+	 * @param bytes number of processed bytes
+	 */
+	private static void report(String name, long start, long bytes) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-28s %8.3f s %9.1f MiB/s%n",
+				name, seconds, bytes / seconds / 1048576);
+	}
+
+	/**
+	 * Encrypts or decrypts a file with AES/CBC the way <code>Crypto</code> does
+	 * without <code>--chunked</code>.
+	 *
+	 * @param  source                   file to read
+	 * @param  destination              file to write
+	 * @param  mode                     {@link Cipher#ENCRYPT_MODE} or
+	 *                                  {@link Cipher#DECRYPT_MODE}
+	 * @throws IOException              if files cannot be read or written
+	 * @throws GeneralSecurityException if encryption fails
+	 */
+	private static void legacyCbc(Path source, Path destination, int mode)
+			throws IOException, GeneralSecurityException {
+		Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		cipher.init(mode, new SecretKeySpec(KEY, "AES"), new IvParameterSpec(IV));
+		try (InputStream is = new BufferedInputStream(Files.newInputStream(source));
+				OutputStream os = new BufferedOutputStream(Files.newOutputStream(destination))) {
+			byte[] buff = new byte[8192]; // 8 KB
+			while (true) {
+				int r = is.read(buff);
+				if (r < 1) {
+					os.write(cipher.doFinal());
+					break;
+				}
+				os.write(cipher.update(buff, 0, r));
+			}
+		}
+	}
+
+}
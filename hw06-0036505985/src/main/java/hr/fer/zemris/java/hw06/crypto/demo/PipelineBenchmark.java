@@ -0,0 +1,180 @@
+package hr.fer.zemris.java.hw06.crypto.demo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import hr.fer.zemris.java.hw06.crypto.CipherPipeline;
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm;
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm.Hasher;
+import hr.fer.zemris.java.hw06.crypto.FileHasher;
+import hr.fer.zemris.java.hw06.crypto.Util;
+
+/**
+ * Compares the 8 KB stream loop which <code>Crypto</code> used for AES/CBC with
+ * {@link CipherPipeline}, for heap and direct buffers of several sizes, and
+ * encryption followed by a separate digest of the plaintext with encryption and
+ * digest in a single pass. Throughput and number of bytes allocated by the
+ * measuring thread are written for each measurement.
+ * <p>
+ * Argument (optional): file size in MiB (default <code>256</code>). All files
+ * are temporary and are deleted afterwards.
+ *
+ * @author Luka Mesaric
+ */
+public class PipelineBenchmark {
+
+	/** Key used in all measurements. */
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	/** Initialization vector used in all measurements. */
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0d0e0f");
+
+	/** Buffer sizes which are measured. */
+	private static final int[] BUFFER_SIZES = { 8 << 10, 64 << 10, 1 << 20 };
+
+	/** Used for measuring allocations of the current thread. */
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args                     file size in MiB
+	 * @throws IOException              if files cannot be created or read
+	 * @throws GeneralSecurityException if encryption fails
+	 */
+	public static void main(String[] args) throws IOException, GeneralSecurityException {
+		int mebibytes = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+		Path dir = Files.createTempDirectory("pipeline-benchmark");
+
+		try {
+			Path plain = dir.resolve("plain.bin");
+			Path encrypted = dir.resolve("encrypted.bin");
+			Random random = new Random(mebibytes);
+			byte[] block = new byte[1 << 20];
+			try (OutputStream os = Files.newOutputStream(plain)) {
+				for (int i = 0; i < mebibytes; i++) {
+					random.nextBytes(block);
+					os.write(block);
+				}
+			}
+			long bytes = Files.size(plain);
+			System.out.format("File: %d MiB%n", mebibytes);
+
+			for (int run = 0; run < 2; run++) {
+				long start = System.nanoTime();
+				long allocated = allocatedBytes();
+				legacyCbc(plain, encrypted);
+				report("8 KB stream", start, allocated, bytes);
+
+				for (int bufferSize : BUFFER_SIZES) {
+					for (boolean direct : new boolean[] { false, true }) {
+						CipherPipeline pipeline = new CipherPipeline(bufferSize, direct);
+						start = System.nanoTime();
+						allocated = allocatedBytes();
+						pipeline.process(cipher(), plain, encrypted, null, null);
+						report(String.format("pipeline %4d KiB %s", bufferSize >> 10,
+								direct ? "direct" : "heap"), start, allocated, bytes);
+					}
+				}
+
+				CipherPipeline pipeline = new CipherPipeline(
+						CipherPipeline.DEFAULT_BUFFER_SIZE, false);
+				start = System.nanoTime();
+				allocated = allocatedBytes();
+				pipeline.process(cipher(), plain, encrypted, null, null);
+				FileHasher.hash(plain, DigestAlgorithm.SHA_256);
+				report("encrypt, then SHA-256", start, allocated, bytes);
+
+				start = System.nanoTime();
+				allocated = allocatedBytes();
+				Hasher hasher = DigestAlgorithm.SHA_256.newHasher();
+				pipeline.process(cipher(), plain, encrypted, hasher, null);
+				hasher.digest();
+				report("encrypt + SHA-256, one pass", start, allocated, bytes);
+				System.out.println();
+			}
+		} finally {
+			try (Stream<Path> walk = Files.walk(dir)) {
+				walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	/**
+	 * Returns number of bytes allocated by the current thread so far.
+	 *
+	 * @return number of allocated bytes
+	 */
+	private static long allocatedBytes() {
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Prints duration, throughput and allocations of one measurement.
+	 *
+	 * @param name      name of the measurement
+	 * @param start     start time, in nanoseconds
+	 * @param allocated bytes allocated by the current thread before the start
+	 * @param bytes     number of processed bytes
+	 */
+	private static void report(String name, long start, long allocated, long bytes) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double allocatedKiB = (allocatedBytes() - allocated) / 1024.0;
+		System.out.format("%-30s %8.3f s %9.1f MiB/s %12.1f KiB allocated%n",
+				name, seconds, bytes / seconds / 1048576, allocatedKiB);
+	}
+
+	/**
+	 * Creates an AES/CBC cipher initialized for encryption.
+	 *
+	 * @return                          initialized cipher
+	 * @throws GeneralSecurityException if cipher cannot be created
+	 */
+	private static Cipher cipher() throws GeneralSecurityException {
+		Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"), new IvParameterSpec(IV));
+		return cipher;
+	}
+
+	/**
+	 * Encrypts a file the way <code>Crypto</code> did before
+	 * {@link CipherPipeline}: a new array is allocated for every 8 KB.
+	 *
+	 * @param  source                   file to read
+	 * @param  destination              file to write
+	 * @throws IOException              if files cannot be read or written
+	 * @throws GeneralSecurityException if encryption fails
+	 */
+	private static void legacyCbc(Path source, Path destination)
+			throws IOException, GeneralSecurityException {
+		Cipher cipher = cipher();
+		try (InputStream is = new BufferedInputStream(Files.newInputStream(source));
+				OutputStream os = new BufferedOutputStream(Files.newOutputStream(destination))) {
+			byte[] buff = new byte[8192]; // 8 KB
+			while (true) {
+				int r = is.read(buff);
+				if (r < 1) {
+					os.write(cipher.doFinal());
+					break;
+				}
+				os.write(cipher.update(buff, 0, r));
+			}
+		}
+	}
+
+}
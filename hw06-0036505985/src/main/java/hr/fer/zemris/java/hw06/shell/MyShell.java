@@ -9,6 +9,7 @@ import java.util.TreeMap;
 import hr.fer.zemris.java.hw06.ExceptionUtil;
 import hr.fer.zemris.java.hw06.shell.commands.CatShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CharsetsShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.ChecksumShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CopyShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.ExitShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HelpShellCommand;
@@ -81,6 +82,7 @@ public class MyShell implements Environment {
 		registerShellCommands(
 				new CatShellCommand(),
 				new CharsetsShellCommand(),
+				new ChecksumShellCommand(),
 				new CopyShellCommand(),
 				new ExitShellCommand(),
 				new HelpShellCommand(),
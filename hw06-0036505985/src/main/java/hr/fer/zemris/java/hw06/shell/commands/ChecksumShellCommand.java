@@ -0,0 +1,92 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+import hr.fer.zemris.java.hw06.crypto.ChecksumOptions;
+import hr.fer.zemris.java.hw06.crypto.FileHasher;
+import hr.fer.zemris.java.hw06.crypto.Util;
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+
+/**
+ * Calculates digests of one or more files, concurrently, and writes them in
+ * order of the arguments.<br>
+ * Options are described in {@link ChecksumOptions}.
+ *
+ * @author Luka Mesaric
+ */
+public class ChecksumShellCommand implements ShellCommand {
+
+	/** Name of this command. */
+	private static final String COMMAND_NAME = "checksum";
+
+	/** Description of this command. */
+	private static final List<String> COMMAND_DESCRIPTION = Arrays.asList(
+			"Calculates digests of one or more files.",
+			"Usage: checksum [--algorithm=NAME] [--threads=N] "
+					+ "[--merkle[=CHUNK_SIZE]] FILE...",
+			"Supported algorithms are SHA-256 (default), SHA-512, MD5 and CRC32C.",
+			"Files are digested concurrently, by N threads "
+					+ "(default is number of processors).",
+			"Option --merkle calculates a Merkle-tree digest of each file,",
+			"digesting chunks of the file in parallel "
+					+ "(default chunk size is 4 MiB).",
+			"Merkle-tree digests depend on the chunk size.");
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		ExceptionUtil.validateNotNull(env, "env");
+		ExceptionUtil.validateNotNull(arguments, "arguments");
+
+		List<String> strings = ArgumentChecker.safeParseStrings(arguments, env);
+		if (strings == null) {
+			return ShellStatus.CONTINUE;
+		}
+
+		ChecksumOptions options;
+		List<Path> files = new ArrayList<>();
+		try {
+			options = ChecksumOptions.parse(strings);
+			for (String file : options.getFiles()) {
+				files.add(Paths.get(file));
+			}
+		} catch (InvalidPathException e) {
+			env.writeln("Invalid path: " + e.getMessage());
+			return ShellStatus.CONTINUE;
+		} catch (IllegalArgumentException e) {
+			env.writeln(e.getMessage());
+			return ShellStatus.CONTINUE;
+		}
+
+		try (FileHasher hasher = new FileHasher(options.getThreads())) {
+			hasher.hashAll(files, options.getAlgorithm(), options.getChunkSize(),
+					(file, digest) -> env.writeln(Util.bytetohex(digest) + "  " + file),
+					(file, e) -> env.writeln(
+							"Exception occured while reading from file: " + e.getMessage()));
+		}
+		return ShellStatus.CONTINUE;
+	}
+
+	@Override
+	public String getCommandName() { return COMMAND_NAME; }
+
+	@Override
+	public List<String> getCommandDescription() {
+		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
+	}
+
+}
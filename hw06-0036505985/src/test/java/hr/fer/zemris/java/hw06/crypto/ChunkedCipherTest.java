@@ -0,0 +1,120 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.crypto.AEADBadTagException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Luka Mesaric
+ */
+class ChunkedCipherTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testRoundTrip() throws Exception {
+		try (ChunkedCipher cipher = new ChunkedCipher(3)) {
+			for (int size : new int[] { 0, 1, 999, 1000, 1001, 25_000 }) {
+				byte[] data = TestData.randomBytes(size);
+				Path plain = Files.write(dir.resolve("plain"), data);
+				Path encrypted = dir.resolve("encrypted");
+				Path decrypted = dir.resolve("decrypted");
+
+				cipher.encrypt(plain, encrypted, KEY, 1000);
+				long chunks = Math.max(1, (size + 999) / 1000);
+				assertEquals(ChunkedCipher.HEADER_SIZE + size + chunks * ChunkedCipher.TAG_SIZE,
+						Files.size(encrypted));
+				cipher.decrypt(encrypted, decrypted, KEY);
+				assertArrayEquals(data, Files.readAllBytes(decrypted), "size " + size);
+			}
+		}
+	}
+
+	@Test
+	void testDecryptRange() throws Exception {
+		byte[] data = TestData.randomBytes(10_000);
+		Path plain = Files.write(dir.resolve("plain"), data);
+		Path encrypted = dir.resolve("encrypted");
+		try (ChunkedCipher cipher = new ChunkedCipher(2)) {
+			cipher.encrypt(plain, encrypted, KEY, 777);
+		}
+
+		assertArrayEquals(Arrays.copyOfRange(data, 0, 10),
+				ChunkedCipher.decryptRange(encrypted, KEY, 0, 10));
+		assertArrayEquals(Arrays.copyOfRange(data, 770, 2400),
+				ChunkedCipher.decryptRange(encrypted, KEY, 770, 1630));
+		assertArrayEquals(Arrays.copyOfRange(data, 9990, 10_000),
+				ChunkedCipher.decryptRange(encrypted, KEY, 9990, 100));
+		assertArrayEquals(new byte[0], ChunkedCipher.decryptRange(encrypted, KEY, 20_000, 5));
+	}
+
+	@Test
+	void testTamperingIsDetected() throws Exception {
+		Path plain = Files.write(dir.resolve("plain"), TestData.randomBytes(5000));
+		Path encrypted = dir.resolve("encrypted");
+		Path decrypted = dir.resolve("decrypted");
+		try (ChunkedCipher cipher = new ChunkedCipher(2)) {
+			cipher.encrypt(plain, encrypted, KEY, 1000);
+			byte[] original = Files.readAllBytes(encrypted);
+
+			byte[] modified = original.clone();
+			modified[ChunkedCipher.HEADER_SIZE + 3000] ^= 1;
+			Files.write(encrypted, modified);
+			assertThrows(AEADBadTagException.class,
+					() -> cipher.decrypt(encrypted, decrypted, KEY));
+			assertFalse(Files.exists(decrypted));
+
+			// swap first two chunks
+			byte[] swapped = original.clone();
+			int chunk = 1000 + ChunkedCipher.TAG_SIZE;
+			System.arraycopy(original, ChunkedCipher.HEADER_SIZE, swapped,
+					ChunkedCipher.HEADER_SIZE + chunk, chunk);
+			System.arraycopy(original, ChunkedCipher.HEADER_SIZE + chunk, swapped,
+					ChunkedCipher.HEADER_SIZE, chunk);
+			Files.write(encrypted, swapped);
+			assertThrows(AEADBadTagException.class,
+					() -> cipher.decrypt(encrypted, decrypted, KEY));
+
+			Files.write(encrypted, Arrays.copyOf(original, original.length - 1));
+			assertThrows(IOException.class, () -> cipher.decrypt(encrypted, decrypted, KEY));
+
+			Files.write(encrypted, original);
+			byte[] wrongKey = KEY.clone();
+			wrongKey[0] ^= 1;
+			assertThrows(AEADBadTagException.class,
+					() -> cipher.decrypt(encrypted, decrypted, wrongKey));
+			assertThrows(IllegalArgumentException.class,
+					() -> cipher.decrypt(encrypted, encrypted, KEY));
+		}
+	}
+
+	@Test
+	void testTooManyChunksAreRejected() throws Exception {
+		Path plain = dir.resolve("plain");
+		try (RandomAccessFile file = new RandomAccessFile(plain.toFile(), "rw")) {
+			file.setLength((1L << 32) + 1);	// sparse, nothing is read
+		}
+		Path encrypted = dir.resolve("encrypted");
+		try (ChunkedCipher cipher = new ChunkedCipher(1)) {
+			assertThrows(IllegalArgumentException.class,
+					() -> cipher.encrypt(plain, encrypted, KEY, 1));
+		}
+		assertFalse(Files.exists(encrypted));
+	}
+
+}
@@ -0,0 +1,135 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.hw06.crypto.DigestAlgorithm.Hasher;
+
+/**
+ * @author Luka Mesaric
+ */
+class CipherPipelineTest {
+
+	private static final byte[] KEY = Util.hextobyte("a52217e3ee213ef1ffdee3a192e2ac7e");
+	private static final byte[] IV = Util.hextobyte("000102030405060708090a0b0c0d0e0f");
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testRoundTripMatchesDoFinal() throws Exception {
+		Path plain = dir.resolve("plain");
+		Path encrypted = dir.resolve("encrypted");
+		Path decrypted = dir.resolve("decrypted");
+		for (boolean direct : new boolean[] { false, true }) {
+			for (int bufferSize : new int[] { 1, 15, 16, 17, 4096 }) {
+				CipherPipeline pipeline = new CipherPipeline(bufferSize, direct);
+				for (int size : new int[] { 0, 1, 16, 100, 10_000 }) {
+					byte[] data = TestData.randomBytes(size);
+					Files.write(plain, data);
+					String message = "buffer " + bufferSize + ", size " + size;
+
+					long written = pipeline.process(cipher(Cipher.ENCRYPT_MODE),
+							plain, encrypted, null, null);
+					byte[] expected = cipher(Cipher.ENCRYPT_MODE).doFinal(data);
+					assertEquals(expected.length, written, message);
+					assertArrayEquals(expected, Files.readAllBytes(encrypted), message);
+
+					pipeline.process(cipher(Cipher.DECRYPT_MODE),
+							encrypted, decrypted, null, null);
+					assertArrayEquals(data, Files.readAllBytes(decrypted), message);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testHashesInSamePass() throws Exception {
+		byte[] data = TestData.randomBytes(50_000);
+		Path plain = Files.write(dir.resolve("plain"), data);
+		Path encrypted = dir.resolve("encrypted");
+		Path decrypted = dir.resolve("decrypted");
+		byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+		CipherPipeline pipeline = new CipherPipeline(1000, false);
+
+		Hasher plainHasher = DigestAlgorithm.SHA_256.newHasher();
+		Hasher cipherHasher = DigestAlgorithm.SHA_256.newHasher();
+		pipeline.process(cipher(Cipher.ENCRYPT_MODE), plain, encrypted,
+				plainHasher, cipherHasher);
+		assertArrayEquals(expected, plainHasher.digest());
+		assertArrayEquals(MessageDigest.getInstance("SHA-256")
+				.digest(Files.readAllBytes(encrypted)), cipherHasher.digest());
+
+		Hasher decryptedHasher = DigestAlgorithm.SHA_256.newHasher();
+		pipeline.process(cipher(Cipher.DECRYPT_MODE), encrypted, decrypted,
+				null, decryptedHasher);
+		assertArrayEquals(expected, decryptedHasher.digest());
+	}
+
+	@Test
+	void testInvalidInput() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> new CipherPipeline(0, false));
+
+		byte[] encrypted = cipher(Cipher.ENCRYPT_MODE).doFinal(TestData.randomBytes(100));
+		Path truncated = Files.write(dir.resolve("truncated"),
+				Arrays.copyOf(encrypted, encrypted.length - 1));
+		assertThrows(IllegalBlockSizeException.class, () -> new CipherPipeline(64, false)
+				.process(cipher(Cipher.DECRYPT_MODE), truncated, dir.resolve("out"), null, null));
+
+		byte[] wrongKey = KEY.clone();
+		wrongKey[0] ^= 1;
+		Path valid = Files.write(dir.resolve("valid"), encrypted);
+		Cipher wrong = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		wrong.init(Cipher.DECRYPT_MODE, new SecretKeySpec(wrongKey, "AES"),
+				new IvParameterSpec(IV));
+		assertThrows(BadPaddingException.class, () -> new CipherPipeline(64, false)
+				.process(wrong, valid, dir.resolve("out"), null, null));
+	}
+
+	@Test
+	void testEncryptionOptions() {
+		EncryptionOptions options = EncryptionOptions.parse(List.of("a", "b"));
+		assertEquals(CipherPipeline.DEFAULT_BUFFER_SIZE, options.getBufferSize());
+		assertEquals(null, options.getHashAlgorithm());
+		assertEquals("a", options.getSource());
+		assertEquals("b", options.getDestination());
+
+		options = EncryptionOptions.parse(List.of("--buffer=0x100", "--hash=md5", "a", "b"));
+		assertEquals(256, options.getBufferSize());
+		assertEquals(DigestAlgorithm.MD5, options.getHashAlgorithm());
+
+		options = EncryptionOptions.parse(List.of("--chunked=1000", "--threads=3", "a", "b"));
+		assertEquals(1000, options.getChunkSize());
+		assertEquals(3, options.getThreads());
+
+		for (List<String> invalid : List.of(List.of("a"), List.of("a", "b", "c"),
+				List.of("--buffer=0", "a", "b"), List.of("--unknown", "a", "b"),
+				List.of("--chunked", "--hash", "a", "b"), List.of("--threads=2", "a", "b"))) {
+			assertThrows(IllegalArgumentException.class,
+					() -> EncryptionOptions.parse(invalid), invalid.toString());
+		}
+	}
+
+	private static Cipher cipher(int mode) throws Exception {
+		Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		cipher.init(mode, new SecretKeySpec(KEY, "AES"), new IvParameterSpec(IV));
+		return cipher;
+	}
+
+}
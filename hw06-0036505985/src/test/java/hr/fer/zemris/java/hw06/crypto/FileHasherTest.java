@@ -0,0 +1,131 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Luka Mesaric
+ */
+class FileHasherTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testForName() {
+		assertEquals(DigestAlgorithm.SHA_256, DigestAlgorithm.forName("sha256"));
+		assertEquals(DigestAlgorithm.SHA_512, DigestAlgorithm.forName("SHA-512"));
+		assertEquals(DigestAlgorithm.MD5, DigestAlgorithm.forName("md5"));
+		assertEquals(DigestAlgorithm.CRC32C, DigestAlgorithm.forName("crc32c"));
+		assertThrows(IllegalArgumentException.class, () -> DigestAlgorithm.forName("sha1"));
+	}
+
+	@Test
+	void testHashMatchesMessageDigest() throws Exception {
+		// below and above mapping threshold, and across mapping windows
+		for (int size : new int[] { 0, 1, 100_000, 3 << 20, (64 << 20) + 17 }) {
+			byte[] data = TestData.randomBytes(size);
+			Path file = Files.write(dir.resolve("file" + size), data);
+			for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+				assertArrayEquals(expected(algorithm, data),
+						FileHasher.hash(file, algorithm), algorithm + ", " + size);
+			}
+		}
+	}
+
+	@Test
+	void testHashAllKeepsOrder() throws IOException {
+		List<Path> files = new ArrayList<>();
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			byte[] data = TestData.randomBytes(i * 1000);
+			files.add(Files.write(dir.resolve("f" + i), data));
+			expected.add(Util.bytetohex(FileHasher.hash(files.get(i), DigestAlgorithm.MD5)));
+		}
+		files.add(dir.resolve("missing"));
+
+		List<String> actual = new ArrayList<>();
+		try (FileHasher hasher = new FileHasher(4)) {
+			hasher.hashAll(files, DigestAlgorithm.MD5, 0,
+					(file, digest) -> actual.add(Util.bytetohex(digest)),
+					(file, e) -> actual.add("error " + file.getFileName()));
+		}
+		expected.add("error missing");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void testMerkleHash() throws Exception {
+		byte[] data = TestData.randomBytes(2500);
+		Path file = Files.write(dir.resolve("merkle"), data);
+		DigestAlgorithm algorithm = DigestAlgorithm.SHA_256;
+
+		// chunks of 1000 bytes: leaves a, b, c; root is H(1 || H(1 || a || b) || c)
+		byte[] a = digest(new byte[] { 0 }, Arrays.copyOfRange(data, 0, 1000));
+		byte[] b = digest(new byte[] { 0 }, Arrays.copyOfRange(data, 1000, 2000));
+		byte[] c = digest(new byte[] { 0 }, Arrays.copyOfRange(data, 2000, 2500));
+		byte[] root = digest(new byte[] { 1 }, digest(new byte[] { 1 }, a, b), c);
+
+		try (FileHasher hasher = new FileHasher(3)) {
+			assertArrayEquals(root, hasher.merkleHash(file, algorithm, 1000));
+			assertArrayEquals(digest(new byte[] { 0 }, data),
+					hasher.merkleHash(file, algorithm, data.length));
+			assertArrayEquals(digest(new byte[] { 0 }),
+					hasher.merkleHash(Files.createFile(dir.resolve("empty")), algorithm, 10));
+			assertThrows(IllegalArgumentException.class,
+					() -> hasher.merkleHash(file, algorithm, 0));
+		}
+	}
+
+	@Test
+	void testOptions() {
+		ChecksumOptions options = ChecksumOptions.parse(
+				Arrays.asList("--algorithm=md5", "--merkle=0x100", "a", "--b"));
+		assertEquals(DigestAlgorithm.MD5, options.getAlgorithm());
+		assertEquals(256, options.getChunkSize());
+		assertEquals(Arrays.asList("a", "--b"), options.getFiles());
+		assertEquals("md5 Merkle-tree", options.getDigestName());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> ChecksumOptions.parse(Arrays.asList("--threads=0", "a")));
+		assertThrows(IllegalArgumentException.class,
+				() -> ChecksumOptions.parse(Arrays.asList("--unknown", "a")));
+		assertThrows(IllegalArgumentException.class,
+				() -> ChecksumOptions.parse(Arrays.asList("--merkle")));
+	}
+
+
+	private static byte[] expected(DigestAlgorithm algorithm, byte[] data)
+			throws NoSuchAlgorithmException {
+		if (algorithm == DigestAlgorithm.CRC32C) {
+			CRC32C crc = new CRC32C();
+			crc.update(data);
+			return ByteBuffer.allocate(4).putInt((int) crc.getValue()).array();
+		}
+		return MessageDigest.getInstance(algorithm.getStandardName()).digest(data);
+	}
+
+	private static byte[] digest(byte[]... parts) throws NoSuchAlgorithmException {
+		MessageDigest sha = MessageDigest.getInstance("SHA-256");
+		for (byte[] part : parts) {
+			sha.update(part);
+		}
+		return sha.digest();
+	}
+
+}
@@ -0,0 +1,28 @@
+package hr.fer.zemris.java.hw06.crypto;
+
+import java.util.Random;
+
+/**
+ * Data shared by tests of this package.
+ *
+ * @author Luka Mesaric
+ */
+final class TestData {
+
+	/**
+	 * Returns <code>size</code> pseudo-random bytes. Generator is seeded with
+	 * <code>size</code>, so equal sizes always give equal data.
+	 *
+	 * @param  size number of bytes
+	 * @return      generated bytes
+	 */
+	static byte[] randomBytes(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+
+	/** Disable creating instances. */
+	private TestData() {}
+
+}
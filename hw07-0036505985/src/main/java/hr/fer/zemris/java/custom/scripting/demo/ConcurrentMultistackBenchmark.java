@@ -0,0 +1,83 @@
+package hr.fer.zemris.java.custom.scripting.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import hr.fer.zemris.java.custom.scripting.exec.ConcurrentObjectMultistack;
+import hr.fer.zemris.java.custom.scripting.exec.ValueWrapper;
+
+/**
+ * Contention benchmark for {@link ConcurrentObjectMultistack}. For every
+ * thread count from <code>1</code> to the number of available processors,
+ * all threads repeatedly push and pop values on the same shared stack, and
+ * total throughput is reported.
+ * 
+ * @author Luka Mesaric
+ */
+public class ConcurrentMultistackBenchmark {
+
+	/**
+	 * Number of push-pop pairs performed by each thread.
+	 */
+	private static final int OPERATIONS_PER_THREAD = 1_000_000;
+
+	/**
+	 * Program entry point.
+	 * 
+	 * @param  args                 optional maximal number of threads
+	 * @throws InterruptedException if interrupted while waiting for threads
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int maxThreads = args.length > 0
+				? Integer.parseInt(args[0])
+				: Runtime.getRuntime().availableProcessors();
+
+		run(maxThreads);	// warmup
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			long nanos = run(threads);
+			double opsPerSecond = 2.0 * threads * OPERATIONS_PER_THREAD / (nanos / 1e9);
+			System.out.format("%2d thread(s): %8.3f ms, %12.0f ops/s%n",
+					threads, nanos / 1e6, opsPerSecond);
+		}
+	}
+
+	/**
+	 * Runs benchmark with given number of threads.
+	 * 
+	 * @param  threadCount          number of threads
+	 * @return                      elapsed time in nanoseconds
+	 * @throws InterruptedException if interrupted while waiting for threads
+	 */
+	private static long run(int threadCount) throws InterruptedException {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>(threadCount);
+		ValueWrapper value = new ValueWrapper(null);
+
+		for (int t = 0; t < threadCount; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					startSignal.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+					multistack.push("shared", value);
+					multistack.pop("shared");
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		long start = System.nanoTime();
+		startSignal.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return System.nanoTime() - start;
+	}
+
+}
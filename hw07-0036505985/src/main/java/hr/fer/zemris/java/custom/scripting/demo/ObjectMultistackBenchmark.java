@@ -0,0 +1,134 @@
+package hr.fer.zemris.java.custom.scripting.demo;
+
+import hr.fer.zemris.java.custom.scripting.exec.IndexedObjectMultistack;
+import hr.fer.zemris.java.custom.scripting.exec.ObjectMultistack;
+import hr.fer.zemris.java.custom.scripting.exec.ValueWrapper;
+
+/**
+ * Simple benchmark which compares {@link ObjectMultistack} with
+ * {@link IndexedObjectMultistack}. Simulates execution of nested
+ * <code>FOR</code> loops: every iteration of the outer loop pushes a new
+ * counter for the inner loop, and the inner loop peeks its counter on every
+ * step.
+ * 
+ * @author Luka Mesaric
+ */
+public class ObjectMultistackBenchmark {
+
+	/**
+	 * Number of iterations of the outer loop.
+	 */
+	private static final int OUTER = 1_000;
+
+	/**
+	 * Number of iterations of the inner loop.
+	 */
+	private static final int INNER = 1_000;
+
+	/**
+	 * Number of warmup runs, results of which are not reported.
+	 */
+	private static final int WARMUP_RUNS = 10;
+
+	/**
+	 * Number of measured runs.
+	 */
+	private static final int MEASURED_RUNS = 10;
+
+	/**
+	 * Program entry point.
+	 * 
+	 * @param args ignored
+	 */
+	public static void main(String[] args) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			runHashed();
+			runIndexed();
+		}
+
+		long hashed = 0;
+		long indexed = 0;
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			hashed += runHashed();
+			indexed += runIndexed();
+		}
+		report("ObjectMultistack", hashed);
+		report("IndexedObjectMultistack", indexed);
+	}
+
+	/**
+	 * Runs nested loops using {@link ObjectMultistack}.
+	 * 
+	 * @return elapsed time in nanoseconds
+	 */
+	private static long runHashed() {
+		ObjectMultistack multistack = new ObjectMultistack();
+		long start = System.nanoTime();
+
+		multistack.push("i", new ValueWrapper(0));
+		while (multistack.peek("i").numCompare(OUTER) < 0) {
+			multistack.push("j", new ValueWrapper(0));
+			while (multistack.peek("j").numCompare(INNER) < 0) {
+				multistack.peek("j").add(1);
+			}
+			multistack.pop("j");
+			multistack.peek("i").add(1);
+		}
+
+		long elapsed = System.nanoTime() - start;
+		check(multistack.pop("i"));
+		return elapsed;
+	}
+
+	/**
+	 * Runs nested loops using {@link IndexedObjectMultistack}. Names are interned
+	 * before the loops, as they would be when a script is compiled.
+	 * 
+	 * @return elapsed time in nanoseconds
+	 */
+	private static long runIndexed() {
+		IndexedObjectMultistack multistack = new IndexedObjectMultistack();
+		long start = System.nanoTime();
+
+		int i = multistack.intern("i");
+		int j = multistack.intern("j");
+		multistack.push(i, new ValueWrapper(0));
+		while (multistack.peek(i).numCompare(OUTER) < 0) {
+			multistack.push(j, new ValueWrapper(0));
+			while (multistack.peek(j).numCompare(INNER) < 0) {
+				multistack.peek(j).add(1);
+			}
+			multistack.pop(j);
+			multistack.peek(i).add(1);
+		}
+
+		long elapsed = System.nanoTime() - start;
+		check(multistack.pop(i));
+		return elapsed;
+	}
+
+	/**
+	 * Checks that the outer loop counter reached its final value, which also
+	 * prevents the loops from being optimised away.
+	 * 
+	 * @param  counter               outer loop counter
+	 * @throws IllegalStateException if final value is wrong
+	 */
+	private static void check(ValueWrapper counter) {
+		if (counter.numCompare(OUTER) != 0) {
+			throw new IllegalStateException("Unexpected counter value: " + counter.getValue());
+		}
+	}
+
+	/**
+	 * Prints average time of one run.
+	 * 
+	 * @param name       name of benchmarked implementation
+	 * @param totalNanos total time of all measured runs
+	 */
+	private static void report(String name, long totalNanos) {
+		double millis = totalNanos / 1e6 / MEASURED_RUNS;
+		System.out.format("%-25s %8.3f ms per %d steps%n", name, millis, OUTER * INNER);
+	}
+
+}
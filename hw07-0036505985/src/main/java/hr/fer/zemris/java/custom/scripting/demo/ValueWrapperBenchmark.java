@@ -0,0 +1,117 @@
+package hr.fer.zemris.java.custom.scripting.demo;
+
+import hr.fer.zemris.java.custom.scripting.exec.ObjectMultistack;
+import hr.fer.zemris.java.custom.scripting.exec.ValueWrapper;
+
+/**
+ * Simple benchmark of a <code>FOR</code> loop counter kept in
+ * {@link ObjectMultistack}. Compares the generic {@link ValueWrapper} API,
+ * which accepts any <code>Object</code>, with the in-place primitive API.
+ * 
+ * @author Luka Mesaric
+ */
+public class ValueWrapperBenchmark {
+
+	/**
+	 * Number of loop steps in one run.
+	 */
+	private static final int STEPS = 1_000_000;
+
+	/**
+	 * Number of warmup runs, results of which are not reported.
+	 */
+	private static final int WARMUP_RUNS = 10;
+
+	/**
+	 * Number of measured runs.
+	 */
+	private static final int MEASURED_RUNS = 10;
+
+	/**
+	 * Program entry point.
+	 * 
+	 * @param args ignored
+	 */
+	public static void main(String[] args) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			runGeneric();
+			runInPlace();
+		}
+
+		long generic = 0;
+		long inPlace = 0;
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			generic += runGeneric();
+			inPlace += runInPlace();
+		}
+		report("Generic (Object) API", generic);
+		report("In-place (primitive) API", inPlace);
+	}
+
+	/**
+	 * Runs the loop <code>{$ FOR i "0" STEPS "1" $}</code> using methods which
+	 * accept <code>Object</code> arguments.
+	 * 
+	 * @return elapsed time in nanoseconds
+	 */
+	private static long runGeneric() {
+		ObjectMultistack multistack = new ObjectMultistack();
+		Object end = String.valueOf(STEPS);
+		Object step = "1";
+
+		long start = System.nanoTime();
+		multistack.push("i", new ValueWrapper("0"));
+		while (multistack.peek("i").numCompare(end) < 0) {
+			multistack.peek("i").add(step);
+		}
+		long elapsed = System.nanoTime() - start;
+		check(multistack.pop("i"));
+		return elapsed;
+	}
+
+	/**
+	 * Runs the same loop as {@link #runGeneric()}, using in-place methods which
+	 * accept primitive arguments.
+	 * 
+	 * @return elapsed time in nanoseconds
+	 */
+	private static long runInPlace() {
+		ObjectMultistack multistack = new ObjectMultistack();
+		int end = STEPS;
+		int step = 1;
+
+		long start = System.nanoTime();
+		multistack.push("i", new ValueWrapper("0"));
+		while (multistack.peek("i").numCompare(end) < 0) {
+			multistack.peek("i").add(step);
+		}
+		long elapsed = System.nanoTime() - start;
+		check(multistack.pop("i"));
+		return elapsed;
+	}
+
+	/**
+	 * Checks that the loop counter reached its final value, which also prevents
+	 * the loop from being optimised away.
+	 * 
+	 * @param  counter               loop counter
+	 * @throws IllegalStateException if final value is wrong
+	 */
+	private static void check(ValueWrapper counter) {
+		if (counter.numCompare(STEPS) != 0) {
+			throw new IllegalStateException("Unexpected counter value: " + counter.getValue());
+		}
+	}
+
+	/**
+	 * Prints average time of one run.
+	 * 
+	 * @param name       name of benchmarked API
+	 * @param totalNanos total time of all measured runs
+	 */
+	private static void report(String name, long totalNanos) {
+		double millis = totalNanos / 1e6 / MEASURED_RUNS;
+		System.out.format("%-25s %8.3f ms per %d steps%n", name, millis, STEPS);
+	}
+
+}
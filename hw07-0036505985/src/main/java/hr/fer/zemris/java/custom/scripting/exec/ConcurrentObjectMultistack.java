@@ -0,0 +1,289 @@
+package hr.fer.zemris.java.custom.scripting.exec;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import hr.fer.zemris.java.hw07.ExceptionUtil;
+
+/**
+ * Thread-safe variant of {@link ObjectMultistack}. Stacks are stored in a
+ * {@link ConcurrentHashMap} and each stack is a lock-free Treiber stack built
+ * from immutable {@link MultistackEntry} nodes, so concurrent pushes and pops
+ * never block each other.
+ * <p>
+ * A thread can open a {@link LocalScope} (e.g. for the duration of one script
+ * rendering). While the scope is open, values pushed by that thread are stored
+ * in a private overlay which is not visible to other threads. Peeking looks
+ * at the overlay first and falls back to the shared stacks when the overlay
+ * stack is empty, so shared (global) values remain readable. Popping inside a
+ * local scope only removes values from the overlay, so one thread cannot
+ * remove a shared value which other threads are still using.
+ * </p>
+ * Keys are Strings and must not be <code>null</code>. Stored values are never
+ * <code>null</code>. Note that {@link ValueWrapper} itself is not thread-safe,
+ * so a shared value must not be mutated by multiple threads without external
+ * synchronisation.
+ * 
+ * @author Luka Mesaric
+ */
+public class ConcurrentObjectMultistack {
+
+	/**
+	 * Maps names of stacks to shared lock-free stacks.
+	 */
+	private final ConcurrentMap<String, TreiberStack> map = new ConcurrentHashMap<>();
+
+	/**
+	 * Thread-local overlay, <code>null</code> if current thread has no open
+	 * {@link LocalScope}.
+	 */
+	private final ThreadLocal<ObjectMultistack> overlay = new ThreadLocal<>();
+
+	/**
+	 * Opens a local scope for the current thread. Until the returned scope is
+	 * closed, values pushed by this thread are visible only to this thread.
+	 * Values left in the overlay are discarded when the scope is closed.
+	 * 
+	 * @return                       opened scope, should be used in a
+	 *                               <code>try</code>-with-resources statement
+	 * @throws IllegalStateException if current thread already has an open scope
+	 */
+	public LocalScope openLocalScope() {
+		if (overlay.get() != null) {
+			throw new IllegalStateException("Local scope is already open in this thread.");
+		}
+		LocalScope scope = new LocalScope();
+		overlay.set(scope.values);
+		return scope;
+	}
+
+	/**
+	 * Pushes the given <code>valueWrapper</code> on top of the stack mapped to
+	 * <code>keyName</code>. If current thread has an open local scope, value is
+	 * pushed to the overlay, otherwise to the shared stack.<br>
+	 * Pushes value in <code>O(1)</code>, without locking.
+	 * 
+	 * @param  keyName              name of stack
+	 * @param  valueWrapper         value to push to stack
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public void push(String keyName, ValueWrapper valueWrapper) {
+		ExceptionUtil.validateNotNull(keyName, "keyName");
+		ExceptionUtil.validateNotNull(valueWrapper, "valueWrapper");
+
+		ObjectMultistack local = overlay.get();
+		if (local != null) {
+			local.push(keyName, valueWrapper);
+		} else {
+			map.computeIfAbsent(keyName, k -> new TreiberStack()).push(valueWrapper);
+		}
+	}
+
+	/**
+	 * Returns the last value pushed on stack mapped to <code>keyName</code> and
+	 * removes it from stack. If current thread has an open local scope, value is
+	 * popped from the overlay, and shared stacks are never modified. If the
+	 * stack is empty when method <code>pop</code> is called,
+	 * {@link EmptyStackException} is thrown.<br>
+	 * Returns and removes value in <code>O(1)</code>, without locking.
+	 * 
+	 * @param  keyName             name of stack
+	 * @return                     last object pushed on stack mapped to
+	 *                             <code>keyName</code>, never <code>null</code>
+	 * @throws EmptyStackException if stack is empty, or if current thread has an
+	 *                             open local scope and overlay stack is empty
+	 */
+	public ValueWrapper pop(String keyName) {
+		ObjectMultistack local = overlay.get();
+		if (local != null) {
+			if (local.isEmpty(keyName)) {
+				throw new EmptyStackException("Cannot pop shared value in a local scope. Key: "
+						+ keyName);
+			}
+			return local.pop(keyName);
+		}
+		// Empty stacks are intentionally left in the map. Removing them would
+		// race with concurrent pushes to the same stack.
+		ValueWrapper value = sharedStack(keyName).pop();
+		if (value == null) {
+			throw emptyStack(keyName);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the last value pushed on stack mapped to <code>keyName</code>, but
+	 * does not remove it. Overlay of an open local scope is consulted first. If
+	 * the stack is empty when method <code>peek</code> is called,
+	 * {@link EmptyStackException} is thrown.<br>
+	 * Returns value in <code>O(1)</code>, without locking.
+	 * 
+	 * @param  keyName             name of stack
+	 * @return                     last object pushed on stack mapped to
+	 *                             <code>keyName</code>, never <code>null</code>
+	 * @throws EmptyStackException if stack is empty
+	 */
+	public ValueWrapper peek(String keyName) {
+		ObjectMultistack local = overlay.get();
+		if (local != null && !local.isEmpty(keyName)) {
+			return local.peek(keyName);
+		}
+		ValueWrapper value = sharedStack(keyName).peek();
+		if (value == null) {
+			throw emptyStack(keyName);
+		}
+		return value;
+	}
+
+	/**
+	 * Checks if stack mapped to <code>keyName</code> is empty, both in overlay of
+	 * an open local scope and in shared stacks. Result may be outdated as soon
+	 * as it is returned if other threads modify the same stack.
+	 * 
+	 * @param  keyName name of stack
+	 * @return         <code>true</code> if stack contains no objects,
+	 *                 <code>false</code> otherwise
+	 */
+	public boolean isEmpty(String keyName) {
+		ObjectMultistack local = overlay.get();
+		if (local != null && !local.isEmpty(keyName)) {
+			return false;
+		}
+		return sharedStack(keyName).peek() == null;
+	}
+
+	/**
+	 * Returns the shared stack mapped to <code>keyName</code>, or an empty stack
+	 * if there is no such mapping. Never creates new mappings.
+	 * 
+	 * @param  keyName name of stack, can be <code>null</code>
+	 * @return         mapped stack, never <code>null</code>
+	 */
+	private TreiberStack sharedStack(String keyName) {
+		if (keyName == null) {
+			return TreiberStack.EMPTY;
+		}
+		return map.getOrDefault(keyName, TreiberStack.EMPTY);
+	}
+
+	/**
+	 * Creates an exception thrown on access to an empty stack.
+	 * 
+	 * @param  keyName name of stack
+	 * @return         created exception
+	 */
+	private static EmptyStackException emptyStack(String keyName) {
+		return new EmptyStackException(
+				"Cannot return value from empty stack. Key: " + keyName);
+	}
+
+	/**
+	 * Thread-local scope opened by {@link ConcurrentObjectMultistack#openLocalScope()}.
+	 * Must be closed by the thread which opened it.
+	 * 
+	 * @author Luka Mesaric
+	 */
+	public class LocalScope implements AutoCloseable {
+
+		/**
+		 * Thread which opened this scope.
+		 */
+		private final Thread owner = Thread.currentThread();
+
+		/**
+		 * Overlay of this scope.
+		 */
+		private final ObjectMultistack values = new ObjectMultistack();
+
+		/**
+		 * Whether this scope was closed.
+		 */
+		private boolean closed;
+
+		/**
+		 * Closes this scope and discards all values left in the overlay.
+		 * Closing an already closed scope has no effect, even if the owner
+		 * thread has opened a new scope in the meantime.
+		 * 
+		 * @throws IllegalStateException if called from a thread which did not
+		 *                               open this scope
+		 */
+		@Override
+		public void close() {
+			if (Thread.currentThread() != owner) {
+				throw new IllegalStateException("Local scope must be closed by its owner thread.");
+			}
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (overlay.get() == values) {
+				overlay.remove();
+			}
+		}
+
+	}
+
+	/**
+	 * Lock-free stack of {@link ValueWrapper} objects, implemented as a Treiber
+	 * stack. Head node is replaced using compare-and-set, nodes are immutable.
+	 * 
+	 * @author Luka Mesaric
+	 */
+	private static class TreiberStack {
+
+		/**
+		 * Shared empty stack, used for lookups of unmapped keys. Nothing is ever
+		 * pushed to it.
+		 */
+		private static final TreiberStack EMPTY = new TreiberStack();
+
+		/**
+		 * Top of stack, <code>null</code> if stack is empty.
+		 */
+		private final AtomicReference<MultistackEntry> head = new AtomicReference<>();
+
+		/**
+		 * Pushes <code>value</code> on top of this stack.
+		 * 
+		 * @param value value to push, never <code>null</code>
+		 */
+		void push(ValueWrapper value) {
+			MultistackEntry oldHead;
+			MultistackEntry newHead;
+			do {
+				oldHead = head.get();
+				newHead = new MultistackEntry(value, oldHead);
+			} while (!head.compareAndSet(oldHead, newHead));
+		}
+
+		/**
+		 * Removes and returns value from top of this stack.
+		 * 
+		 * @return removed value, or <code>null</code> if stack is empty
+		 */
+		ValueWrapper pop() {
+			MultistackEntry oldHead;
+			do {
+				oldHead = head.get();
+				if (oldHead == null) {
+					return null;
+				}
+			} while (!head.compareAndSet(oldHead, oldHead.next));
+			return oldHead.value;
+		}
+
+		/**
+		 * Returns value from top of this stack without removing it.
+		 * 
+		 * @return top value, or <code>null</code> if stack is empty
+		 */
+		ValueWrapper peek() {
+			MultistackEntry top = head.get();
+			return top == null ? null : top.value;
+		}
+
+	}
+
+}
@@ -0,0 +1,268 @@
+package hr.fer.zemris.java.custom.scripting.exec;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import hr.fer.zemris.java.hw07.ExceptionUtil;
+
+/**
+ * Variant of {@link ObjectMultistack} where names of stacks are interned to
+ * integer slots. Name is hashed only once, in {@link #intern(String)} (e.g.
+ * when a script is compiled), and all further operations use the returned
+ * slot. Each slot is a growable array-backed stack, so pushing and popping
+ * neither allocates nor hashes, except when a stack must grow.<br>
+ * Stored values are instances of {@link ValueWrapper} and are never
+ * <code>null</code>. All slot operations are performed in <code>O(1)</code>
+ * (amortised for {@link #push(int, ValueWrapper)}).
+ * 
+ * @author Luka Mesaric
+ */
+public class IndexedObjectMultistack {
+
+	/**
+	 * Maps names of stacks to their slots.
+	 */
+	private final Map<String, Integer> slots = new HashMap<>();
+
+	/**
+	 * Stacks, indexed by slot. Stack at index <code>i</code> contains
+	 * <code>sizes[i]</code> values, top of stack is the last one.
+	 */
+	private ValueWrapper[][] stacks;
+
+	/**
+	 * Number of values in each stack, indexed by slot.
+	 */
+	private int[] sizes;
+
+	/**
+	 * Number of interned names. Slots <code>0</code> to
+	 * <code>slotCount - 1</code> are in use.
+	 */
+	private int slotCount;
+
+	/**
+	 * Initial number of slots. Value is {@value}.
+	 */
+	private static final int DEFAULT_SLOT_CAPACITY = 8;
+
+	/**
+	 * Initial capacity of each stack. Value is {@value}.
+	 */
+	private static final int DEFAULT_STACK_CAPACITY = 4;
+
+	/**
+	 * Factor by which arrays are increased when they are full. Value is
+	 * {@value}.
+	 */
+	private static final int RESIZE_FACTOR = 2;
+
+	/**
+	 * Default constructor.
+	 */
+	public IndexedObjectMultistack() {
+		stacks = new ValueWrapper[DEFAULT_SLOT_CAPACITY][];
+		sizes = new int[DEFAULT_SLOT_CAPACITY];
+	}
+
+	/**
+	 * Returns the slot of stack named <code>keyName</code>. If the name was not
+	 * interned before, a new empty stack is created for it. The same name always
+	 * maps to the same slot.
+	 * 
+	 * @param  keyName              name of stack
+	 * @return                      slot of stack, never negative
+	 * @throws NullPointerException if <code>keyName</code> is <code>null</code>
+	 */
+	public int intern(String keyName) {
+		ExceptionUtil.validateNotNull(keyName, "keyName");
+		Integer slot = slots.get(keyName);
+		if (slot != null) {
+			return slot;
+		}
+
+		if (slotCount == stacks.length) {
+			int newCapacity = stacks.length * RESIZE_FACTOR;
+			stacks = Arrays.copyOf(stacks, newCapacity);
+			sizes = Arrays.copyOf(sizes, newCapacity);
+		}
+		stacks[slotCount] = new ValueWrapper[DEFAULT_STACK_CAPACITY];
+		slots.put(keyName, slotCount);
+		return slotCount++;
+	}
+
+	/**
+	 * Returns the number of interned names.
+	 * 
+	 * @return number of slots in use
+	 */
+	public int slotCount() {
+		return slotCount;
+	}
+
+	/**
+	 * Pushes the given <code>valueWrapper</code> on top of the stack at
+	 * <code>slot</code>. Pushing <code>null</code> is forbidden.<br>
+	 * Pushes value in amortised <code>O(1)</code>.
+	 * 
+	 * @param  slot                      slot of stack, as returned by
+	 *                                   {@link #intern(String)}
+	 * @param  valueWrapper              value to push to stack
+	 * @throws NullPointerException      if <code>valueWrapper</code> is
+	 *                                   <code>null</code>
+	 * @throws IndexOutOfBoundsException if <code>slot</code> was not interned
+	 */
+	public void push(int slot, ValueWrapper valueWrapper) {
+		ExceptionUtil.validateNotNull(valueWrapper, "valueWrapper");
+		validateSlot(slot);
+
+		ValueWrapper[] stack = stacks[slot];
+		int size = sizes[slot];
+		if (size == stack.length) {
+			stack = Arrays.copyOf(stack, stack.length * RESIZE_FACTOR);
+			stacks[slot] = stack;
+		}
+		stack[size] = valueWrapper;
+		sizes[slot] = size + 1;
+	}
+
+	/**
+	 * Returns the last value pushed on stack at <code>slot</code> and removes it
+	 * from stack. If the stack is empty when method <code>pop</code> is called,
+	 * {@link EmptyStackException} is thrown.<br>
+	 * Returns and removes value in <code>O(1)</code>.
+	 * 
+	 * @param  slot                      slot of stack, as returned by
+	 *                                   {@link #intern(String)}
+	 * @return                           last object pushed on stack, never
+	 *                                   <code>null</code>
+	 * @throws EmptyStackException       if stack is empty
+	 * @throws IndexOutOfBoundsException if <code>slot</code> was not interned
+	 */
+	public ValueWrapper pop(int slot) {
+		ValueWrapper value = peek(slot);
+		int top = --sizes[slot];
+		stacks[slot][top] = null;	// let GC do its work
+		return value;
+	}
+
+	/**
+	 * Returns the last value pushed on stack at <code>slot</code>, but does not
+	 * remove it. If the stack is empty when method <code>peek</code> is called,
+	 * {@link EmptyStackException} is thrown.<br>
+	 * Returns value in <code>O(1)</code>.
+	 * 
+	 * @param  slot                      slot of stack, as returned by
+	 *                                   {@link #intern(String)}
+	 * @return                           last object pushed on stack, never
+	 *                                   <code>null</code>
+	 * @throws EmptyStackException       if stack is empty
+	 * @throws IndexOutOfBoundsException if <code>slot</code> was not interned
+	 */
+	public ValueWrapper peek(int slot) {
+		validateSlot(slot);
+		int size = sizes[slot];
+		if (size == 0) {
+			throw new EmptyStackException(
+					"Cannot return value from empty stack. Slot: " + slot);
+		}
+		return stacks[slot][size - 1];
+	}
+
+	/**
+	 * Checks if stack at <code>slot</code> is empty.
+	 * 
+	 * @param  slot                      slot of stack, as returned by
+	 *                                   {@link #intern(String)}
+	 * @return                           <code>true</code> if stack contains no
+	 *                                   objects, <code>false</code> otherwise
+	 * @throws IndexOutOfBoundsException if <code>slot</code> was not interned
+	 */
+	public boolean isEmpty(int slot) {
+		validateSlot(slot);
+		return sizes[slot] == 0;
+	}
+
+	/**
+	 * Pushes value on stack named <code>keyName</code>. Convenience method which
+	 * interns the name on every call.
+	 * 
+	 * @param  keyName              name of stack
+	 * @param  valueWrapper         value to push to stack
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 * @see                         #push(int, ValueWrapper)
+	 */
+	public void push(String keyName, ValueWrapper valueWrapper) {
+		push(intern(keyName), valueWrapper);
+	}
+
+	/**
+	 * Pops value from stack named <code>keyName</code>.
+	 * 
+	 * @param  keyName             name of stack
+	 * @return                     last object pushed on stack mapped to
+	 *                             <code>keyName</code>, never <code>null</code>
+	 * @throws EmptyStackException if stack is empty
+	 * @see                        #pop(int)
+	 */
+	public ValueWrapper pop(String keyName) {
+		return pop(existingSlot(keyName));
+	}
+
+	/**
+	 * Peeks value from stack named <code>keyName</code>.
+	 * 
+	 * @param  keyName             name of stack
+	 * @return                     last object pushed on stack mapped to
+	 *                             <code>keyName</code>, never <code>null</code>
+	 * @throws EmptyStackException if stack is empty
+	 * @see                        #peek(int)
+	 */
+	public ValueWrapper peek(String keyName) {
+		return peek(existingSlot(keyName));
+	}
+
+	/**
+	 * Checks if stack named <code>keyName</code> is empty.
+	 * 
+	 * @param  keyName name of stack
+	 * @return         <code>true</code> if stack contains no objects,
+	 *                 <code>false</code> otherwise
+	 */
+	public boolean isEmpty(String keyName) {
+		Integer slot = slots.get(keyName);
+		return slot == null || sizes[slot] == 0;
+	}
+
+	/**
+	 * Returns the slot of stack named <code>keyName</code>, without interning it.
+	 * 
+	 * @param  keyName             name of stack
+	 * @return                     slot of stack
+	 * @throws EmptyStackException if <code>keyName</code> was never interned,
+	 *                             meaning its stack is empty
+	 */
+	private int existingSlot(String keyName) {
+		Integer slot = slots.get(keyName);
+		if (slot == null) {
+			throw new EmptyStackException(
+					"Cannot return value from empty stack. Key: " + keyName);
+		}
+		return slot;
+	}
+
+	/**
+	 * Checks if <code>slot</code> was returned by {@link #intern(String)}.
+	 * 
+	 * @param  slot                      slot to check
+	 * @throws IndexOutOfBoundsException if <code>slot</code> was not interned
+	 */
+	private void validateSlot(int slot) {
+		if (slot < 0 || slot >= slotCount) {
+			throw new IndexOutOfBoundsException(
+					"Slot " + slot + " is not interned. Slot count: " + slotCount);
+		}
+	}
+
+}
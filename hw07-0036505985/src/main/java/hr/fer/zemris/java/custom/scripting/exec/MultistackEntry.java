@@ -0,0 +1,35 @@
+package hr.fer.zemris.java.custom.scripting.exec;
+
+import hr.fer.zemris.java.hw07.ExceptionUtil;
+
+/**
+ * Models an immutable node of a single-linked list used to simulate a stack in
+ * {@link ObjectMultistack} and {@link ConcurrentObjectMultistack}.
+ * 
+ * @author Luka Mesaric
+ */
+class MultistackEntry {
+
+	/**
+	 * Value stored in this node. Never <code>null</code>.
+	 */
+	final ValueWrapper value;
+
+	/**
+	 * Reference to next node in stack. Can be <code>null</code>.
+	 */
+	final MultistackEntry next;
+
+	/**
+	 * Default constructor.
+	 * 
+	 * @param  value                stored value, never <code>null</code>
+	 * @param  next                 next node, may be <code>null</code>
+	 * @throws NullPointerException if <code>value</code> is <code>null</code>
+	 */
+	MultistackEntry(ValueWrapper value, MultistackEntry next) {
+		this.value = ExceptionUtil.validateNotNull(value, "value");
+		this.next = next;
+	}
+
+}
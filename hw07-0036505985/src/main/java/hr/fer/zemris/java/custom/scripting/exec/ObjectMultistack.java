@@ -93,36 +93,4 @@ public class ObjectMultistack {
 		return map.get(keyName) == null;
 	}
 
-	/**
-	 * Models a node of a single-linked list used to simulate a stack in
-	 * {@link ObjectMultistack}.
-	 * 
-	 * @author Luka Mesaric
-	 */
-	private static class MultistackEntry {
-
-		/**
-		 * Value stored in this node. Never <code>null</code>.
-		 */
-		private final ValueWrapper value;
-
-		/**
-		 * Reference to next node in stack. Can be <code>null</code>.
-		 */
-		private final MultistackEntry next;
-
-		/**
-		 * Default constructor.
-		 * 
-		 * @param  value                stored value, never <code>null</code>
-		 * @param  next                 next node, may be <code>null</code>
-		 * @throws NullPointerException if <code>value</code> is <code>null</code>
-		 */
-		public MultistackEntry(ValueWrapper value, MultistackEntry next) {
-			this.value = ExceptionUtil.validateNotNull(value, "value");
-			this.next = next;
-		}
-
-	}
-
 }
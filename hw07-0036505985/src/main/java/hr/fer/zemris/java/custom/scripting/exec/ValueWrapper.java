@@ -6,17 +6,58 @@ import java.util.function.IntBinaryOperator;
 
 /**
  * Mutable wrapper for a single <code>Object</code>. Enables simple mathematical
- * operations on the stored object, as long as types are compatible.
+ * operations on the stored object, as long as types are compatible.<br>
+ * Numerical value of the stored object is kept in primitive slots, so repeated
+ * arithmetic (e.g. incrementing a loop counter) does not allocate a new
+ * <code>Integer</code> or <code>Double</code> on every operation. Boxed value
+ * is created lazily, only when requested through {@link #getValue()}.
  * 
  * @author Luka Mesaric
  */
 public class ValueWrapper {
 
 	/**
-	 * Value stored by this wrapper. Can be <code>null</code>.
+	 * Value stored by this wrapper. Can be <code>null</code>. Not up to date if
+	 * {@link #valueStale} is <code>true</code>.
 	 */
 	private Object value;
 
+	/**
+	 * Flag which is <code>true</code> if primitive slots contain a result of some
+	 * operation which is not yet boxed into {@link #value}.
+	 */
+	private boolean valueStale;
+
+	/**
+	 * Numerical interpretation of the stored value currently held in primitive
+	 * slots. {@link NumericKind#UNRESOLVED} if stored value was not yet parsed.
+	 */
+	private NumericKind kind;
+
+	/**
+	 * Stored value as an <code>int</code>, valid if {@link #kind} is
+	 * {@link NumericKind#INTEGER}.
+	 */
+	private int intSlot;
+
+	/**
+	 * Stored value as a <code>double</code>, valid if {@link #kind} is
+	 * {@link NumericKind#DOUBLE}.
+	 */
+	private double doubleSlot;
+
+	/**
+	 * Last <code>String</code> operand that was parsed by this wrapper. Used as
+	 * a single-entry cache, since the same operand (e.g. loop step) is usually
+	 * passed over and over again.
+	 */
+	private String cachedOperand;
+
+	/**
+	 * Parsed value of {@link #cachedOperand}.
+	 */
+	private Number cachedOperandValue;
+
 	/**
 	 * Representation of <code>null</code> value in calculations.
 	 */
@@ -28,7 +69,7 @@ public class ValueWrapper {
 	 * @param value initial value, can be <code>null</code>
 	 */
 	public ValueWrapper(Object value) {
-		this.value = value;
+		setValue(value);
 	}
 
 	/**
@@ -36,14 +77,75 @@ public class ValueWrapper {
 	 *
 	 * @return <code>value</code>, can be <code>null</code>
 	 */
-	public Object getValue() { return value; }
+	public Object getValue() {
+		if (valueStale) {
+			if (kind == NumericKind.INTEGER) {
+				value = Integer.valueOf(intSlot);
+			} else {
+				value = Double.valueOf(doubleSlot);
+			}
+			valueStale = false;
+		}
+		return value;
+	}
 
 	/**
 	 * Setter for <code>value</code>.
 	 *
 	 * @param value the <code>value</code> to set, can be <code>null</code>
 	 */
-	public void setValue(Object value) { this.value = value; }
+	public void setValue(Object value) {
+		this.value = value;
+		this.valueStale = false;
+		if (value instanceof Integer) {
+			setInt(((Integer) value).intValue());
+		} else if (value instanceof Double) {
+			setDouble(((Double) value).doubleValue());
+		} else {
+			// Strings are parsed lazily, invalid types are reported lazily.
+			kind = NumericKind.UNRESOLVED;
+		}
+	}
+
+	/**
+	 * Checks whether the stored value is numerically an integer. Parses stored
+	 * value if necessary, without changing it.
+	 * 
+	 * @return                  <code>true</code> if stored value is treated as an
+	 *                          integer in calculations, <code>false</code> if it
+	 *                          is treated as a double
+	 * @throws RuntimeException if stored value cannot be converted to any of the
+	 *                          supported types
+	 */
+	public boolean isInteger() {
+		resolve();
+		return kind == NumericKind.INTEGER;
+	}
+
+	/**
+	 * Returns the stored value as an <code>int</code>, without boxing it. Double
+	 * values are truncated.
+	 * 
+	 * @return                  stored value as an <code>int</code>
+	 * @throws RuntimeException if stored value cannot be converted to any of the
+	 *                          supported types
+	 */
+	public int intValue() {
+		resolve();
+		return kind == NumericKind.INTEGER ? intSlot : (int) doubleSlot;
+	}
+
+	/**
+	 * Returns the stored value as a <code>double</code>, without boxing it.
+	 * 
+	 * @return                  stored value as a <code>double</code>
+	 * @throws RuntimeException if stored value cannot be converted to any of the
+	 *                          supported types
+	 */
+	public double doubleValue() {
+		resolve();
+		return kind == NumericKind.INTEGER ? intSlot : doubleSlot;
+	}
 
 	/**
 	 * Increases stored value by <code>incValue</code>.
@@ -53,10 +155,29 @@ public class ValueWrapper {
 	 *                          cannot be converted to any of the supported types
 	 */
 	public void add(Object incValue) {
-		this.value = performOperation(
-				value, incValue,
-				Integer::sum,
-				Double::sum);
+		performOperation(incValue, Integer::sum, Double::sum);
+	}
+
+	/**
+	 * Increases stored value by <code>incValue</code> in place.
+	 * 
+	 * @param  incValue         value by which to increase the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void add(int incValue) {
+		performOperation(incValue, Integer::sum, Double::sum);
+	}
+
+	/**
+	 * Increases stored value by <code>incValue</code> in place.
+	 * 
+	 * @param  incValue         value by which to increase the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void add(double incValue) {
+		performOperation(incValue, Double::sum);
 	}
 
 	/**
@@ -67,10 +188,29 @@ public class ValueWrapper {
 	 *                          cannot be converted to any of the supported types
 	 */
 	public void subtract(Object decValue) {
-		this.value = performOperation(
-				value, decValue,
-				(i1, i2) -> i1 - i2,
-				(d1, d2) -> d1 - d2);
+		performOperation(decValue, (i1, i2) -> i1 - i2, (d1, d2) -> d1 - d2);
+	}
+
+	/**
+	 * Decreases stored value by <code>decValue</code> in place.
+	 * 
+	 * @param  decValue         value by which to decrease the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void subtract(int decValue) {
+		performOperation(decValue, (i1, i2) -> i1 - i2, (d1, d2) -> d1 - d2);
+	}
+
+	/**
+	 * Decreases stored value by <code>decValue</code> in place.
+	 * 
+	 * @param  decValue         value by which to decrease the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void subtract(double decValue) {
+		performOperation(decValue, (d1, d2) -> d1 - d2);
 	}
 
 	/**
@@ -81,10 +221,29 @@ public class ValueWrapper {
 	 *                          cannot be converted to any of the supported types
 	 */
 	public void multiply(Object mulValue) {
-		this.value = performOperation(
-				value, mulValue,
-				(i1, i2) -> i1 * i2,
-				(d1, d2) -> d1 * d2);
+		performOperation(mulValue, (i1, i2) -> i1 * i2, (d1, d2) -> d1 * d2);
+	}
+
+	/**
+	 * Multiplies stored value by <code>mulValue</code> in place.
+	 * 
+	 * @param  mulValue         value by which to multiply the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void multiply(int mulValue) {
+		performOperation(mulValue, (i1, i2) -> i1 * i2, (d1, d2) -> d1 * d2);
+	}
+
+	/**
+	 * Multiplies stored value by <code>mulValue</code> in place.
+	 * 
+	 * @param  mulValue         value by which to multiply the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void multiply(double mulValue) {
+		performOperation(mulValue, (d1, d2) -> d1 * d2);
 	}
 
 	/**
@@ -96,10 +255,30 @@ public class ValueWrapper {
 	 *                             cannot be converted to any of the supported types
 	 */
 	public void divide(Object divValue) {
-		this.value = performOperation(
-				value, divValue,
-				(i1, i2) -> i1 / i2,
-				(d1, d2) -> d1 / d2);
+		performOperation(divValue, (i1, i2) -> i1 / i2, (d1, d2) -> d1 / d2);
+	}
+
+	/**
+	 * Divides stored value by <code>divValue</code> in place.
+	 * 
+	 * @param  divValue            value by which to divide the stored value
+	 * @throws ArithmeticException in case of integer division by <code>0</code>
+	 * @throws RuntimeException    if <code>value</code> cannot be converted to any
+	 *                             of the supported types
+	 */
+	public void divide(int divValue) {
+		performOperation(divValue, (i1, i2) -> i1 / i2, (d1, d2) -> d1 / d2);
+	}
+
+	/**
+	 * Divides stored value by <code>divValue</code> in place.
+	 * 
+	 * @param  divValue         value by which to divide the stored value
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public void divide(double divValue) {
+		performOperation(divValue, (d1, d2) -> d1 / d2);
 	}
 
 	/**
@@ -117,41 +296,173 @@ public class ValueWrapper {
 	 *                          cannot be converted to any of the supported types
 	 */
 	public int numCompare(Object withValue) {
-		return performOperation(
-				value, withValue,
-				Integer::compare,
-				Double::compare).intValue();
+		resolve();
+		Number other = prepareOperand(withValue);
+		if (kind == NumericKind.INTEGER && other instanceof Integer) {
+			return Integer.compare(intSlot, other.intValue());
+		}
+		return Double.compare(doubleValue(), other.doubleValue());
+	}
+
+	/**
+	 * Performs numerical comparison between the currently stored value in this
+	 * wrapper and given <code>int</code>, without boxing.
+	 * 
+	 * @param  withValue        the argument that stored value is compared to
+	 * @return                  result as in {@link #numCompare(Object)}
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public int numCompare(int withValue) {
+		resolve();
+		if (kind == NumericKind.INTEGER) {
+			return Integer.compare(intSlot, withValue);
+		}
+		return Double.compare(doubleSlot, withValue);
+	}
+
+	/**
+	 * Performs numerical comparison between the currently stored value in this
+	 * wrapper and given <code>double</code>, without boxing.
+	 * 
+	 * @param  withValue        the argument that stored value is compared to
+	 * @return                  result as in {@link #numCompare(Object)}
+	 * @throws RuntimeException if <code>value</code> cannot be converted to any of
+	 *                          the supported types
+	 */
+	public int numCompare(double withValue) {
+		return Double.compare(doubleValue(), withValue);
 	}
 
 	/**
-	 * Performs either <code>intBinary</code> or <code>doubleBinary</code>,
-	 * depending on argument types.
+	 * Performs either <code>intBinary</code> or <code>doubleBinary</code> on the
+	 * stored value and <code>operand</code>, depending on argument types. Result
+	 * is stored in primitive slots. Stored value is not modified if an exception
+	 * is thrown.
 	 * 
-	 * @param  first            first argument of operation
-	 * @param  second           second argument of operation
+	 * @param  operand          second argument of operation
 	 * @param  intBinary        binary operator that will be used for integer
 	 *                          calculations
 	 * @param  doubleBinary     binary operator that will be used for double
 	 *                          calculations
-	 * @return                  result of performed calculation as a
-	 *                          <code>Number</code>
-	 * @throws RuntimeException if <code>first</code> or <code>second</code> cannot
-	 *                          be converted to any of the supported types
-	 * @see                     #prepareOneArgument(Object)
+	 * @throws RuntimeException if stored value or <code>operand</code> cannot be
+	 *                          converted to any of the supported types
+	 * @see                     #prepareOperand(Object)
+	 */
+	private void performOperation(
+			Object operand,
+			IntBinaryOperator intBinary,
+			DoubleBinaryOperator doubleBinary) {
+
+		resolve();
+		Number other = prepareOperand(operand);
+		if (other instanceof Integer) {
+			performOperation(other.intValue(), intBinary, doubleBinary);
+		} else {
+			performOperation(other.doubleValue(), doubleBinary);
+		}
+	}
+
+	/**
+	 * Performs either <code>intBinary</code> or <code>doubleBinary</code> on the
+	 * stored value and an integer <code>operand</code>, depending on type of the
+	 * stored value.
+	 * 
+	 * @param  operand          second argument of operation
+	 * @param  intBinary        binary operator that will be used for integer
+	 *                          calculations
+	 * @param  doubleBinary     binary operator that will be used for double
+	 *                          calculations
+	 * @throws RuntimeException if stored value cannot be converted to any of the
+	 *                          supported types
 	 */
-	private static Number performOperation(
-			Object first,
-			Object second,
+	private void performOperation(
+			int operand,
 			IntBinaryOperator intBinary,
 			DoubleBinaryOperator doubleBinary) {
 
-		Number n1 = prepareOneArgument(first);
-		Number n2 = prepareOneArgument(second);
-		if ((n1 instanceof Integer) && (n2 instanceof Integer)) {
-			return intBinary.applyAsInt(n1.intValue(), n2.intValue());
+		resolve();
+		if (kind == NumericKind.INTEGER) {
+			setInt(intBinary.applyAsInt(intSlot, operand));
 		} else {
-			return doubleBinary.applyAsDouble(n1.doubleValue(), n2.doubleValue());
+			setDouble(doubleBinary.applyAsDouble(doubleSlot, operand));
 		}
+		valueStale = true;
+	}
+
+	/**
+	 * Performs <code>doubleBinary</code> on the stored value and a double
+	 * <code>operand</code>.
+	 * 
+	 * @param  operand          second argument of operation
+	 * @param  doubleBinary     binary operator that will be used for calculation
+	 * @throws RuntimeException if stored value cannot be converted to any of the
+	 *                          supported types
+	 */
+	private void performOperation(double operand, DoubleBinaryOperator doubleBinary) {
+		setDouble(doubleBinary.applyAsDouble(doubleValue(), operand));
+		valueStale = true;
+	}
+
+	/**
+	 * Parses stored value into primitive slots, if that was not already done.
+	 * Stored value is not modified.
+	 * 
+	 * @throws RuntimeException if stored value cannot be converted to any of the
+	 *                          supported types
+	 */
+	private void resolve() {
+		if (kind != NumericKind.UNRESOLVED) {
+			return;
+		}
+		Number number = prepareOneArgument(value);
+		if (number instanceof Integer) {
+			setInt(number.intValue());
+		} else {
+			setDouble(number.doubleValue());
+		}
+	}
+
+	/**
+	 * Converts <code>operand</code> into a form suitable for performing
+	 * arithmetic or comparison operations. Result of parsing the last
+	 * <code>String</code> operand is cached.
+	 * 
+	 * @param  operand          operand to convert
+	 * @return                  operand as a <code>Number</code>
+	 * @throws RuntimeException if <code>operand</code> cannot be converted to any
+	 *                          of the supported types
+	 * @see                     #prepareOneArgument(Object)
+	 */
+	private Number prepareOperand(Object operand) {
+		if (operand instanceof String) {
+			if (operand != cachedOperand) {
+				cachedOperandValue = parseString((String) operand);
+				cachedOperand = (String) operand;
+			}
+			return cachedOperandValue;
+		}
+		return prepareOneArgument(operand);
+	}
+
+	/**
+	 * Stores <code>number</code> into integer slot.
+	 * 
+	 * @param number value to store
+	 */
+	private void setInt(int number) {
+		intSlot = number;
+		kind = NumericKind.INTEGER;
+	}
+
+	/**
+	 * Stores <code>number</code> into double slot.
+	 * 
+	 * @param number value to store
+	 */
+	private void setDouble(double number) {
+		doubleSlot = number;
+		kind = NumericKind.DOUBLE;
 	}
 
 	/**
@@ -233,7 +544,7 @@ public class ValueWrapper {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(value);
+		return Objects.hash(getValue());
 	}
 
 	@Override
@@ -248,7 +559,25 @@ public class ValueWrapper {
 			return false;
 		}
 		ValueWrapper other = (ValueWrapper) obj;
-		return Objects.equals(value, other.value);
+		return Objects.equals(getValue(), other.getValue());
+	}
+
+	/**
+	 * Numerical interpretation of a value stored in {@link ValueWrapper}.
+	 * 
+	 * @author Luka Mesaric
+	 */
+	private enum NumericKind {
+
+		/** Stored value has not been parsed yet. */
+		UNRESOLVED,
+
+		/** Stored value is an integer. */
+		INTEGER,
+
+		/** Stored value is a double. */
+		DOUBLE
+
 	}
 
 }
@@ -0,0 +1,155 @@
+package hr.fer.zemris.java.custom.scripting.exec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+
+import hr.fer.zemris.java.custom.scripting.exec.ConcurrentObjectMultistack.LocalScope;
+
+/**
+ * @author Luka Mesaric
+ */
+class ConcurrentObjectMultistackTest {
+
+	@Test
+	void testPushingNulls() {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+
+		assertThrows(NullPointerException.class,
+				() -> multistack.push("price", null));
+		assertThrows(NullPointerException.class,
+				() -> multistack.push(null, new ValueWrapper("2")));
+	}
+
+	@Test
+	void testGeneralPerformance() {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+		assertTrue(multistack.isEmpty(null));
+		assertTrue(multistack.isEmpty("year"));
+		assertThrows(EmptyStackException.class, () -> multistack.peek(null));
+
+		multistack.push("year", new ValueWrapper(Integer.valueOf(2000)));
+		multistack.push("year", new ValueWrapper(Integer.valueOf(1900)));
+		assertFalse(multistack.isEmpty("year"));
+		assertEquals(Integer.valueOf(1900), multistack.pop("year").getValue());
+		assertEquals(Integer.valueOf(2000), multistack.peek("year").getValue());
+		assertEquals(Integer.valueOf(2000), multistack.pop("year").getValue());
+
+		assertTrue(multistack.isEmpty("year"));
+		assertThrows(EmptyStackException.class, () -> multistack.pop("year"));
+		assertThrows(EmptyStackException.class, () -> multistack.peek("year"));
+	}
+
+	@Test
+	void testLocalScopeShadowsSharedValues() {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+		ValueWrapper global = new ValueWrapper("global");
+		multistack.push("x", global);
+
+		LocalScope scope = multistack.openLocalScope();
+		try (scope) {
+			assertThrows(IllegalStateException.class, multistack::openLocalScope);
+
+			assertSame(global, multistack.peek("x"));
+			ValueWrapper local = new ValueWrapper("local");
+			multistack.push("x", local);
+			multistack.push("y", new ValueWrapper(null));
+			assertSame(local, multistack.peek("x"));
+			assertFalse(multistack.isEmpty("y"));
+		}
+
+		assertSame(global, multistack.peek("x"));
+		assertTrue(multistack.isEmpty("y"));
+	}
+
+	@Test
+	void testLocalScopeIsNotVisibleToOtherThreads() throws InterruptedException {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+
+		LocalScope scope = multistack.openLocalScope();
+		try (scope) {
+			multistack.push("x", new ValueWrapper(1));
+
+			boolean[] seenEmpty = new boolean[1];
+			Thread other = new Thread(() -> seenEmpty[0] = multistack.isEmpty("x"));
+			other.start();
+			other.join();
+			assertTrue(seenEmpty[0]);
+			assertFalse(multistack.isEmpty("x"));
+		}
+	}
+
+	@Test
+	void testLocalScopeDoesNotPopSharedValues() {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+		ValueWrapper global = new ValueWrapper("global");
+		multistack.push("x", global);
+
+		LocalScope scope = multistack.openLocalScope();
+		try (scope) {
+			ValueWrapper local = new ValueWrapper("local");
+			multistack.push("x", local);
+			assertSame(local, multistack.pop("x"));
+			assertThrows(EmptyStackException.class, () -> multistack.pop("x"));
+			assertSame(global, multistack.peek("x"));
+		}
+		assertSame(global, multistack.pop("x"));
+	}
+
+	@Test
+	void testClosingStaleScopeKeepsNewerScope() {
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+		LocalScope stale = multistack.openLocalScope();
+		stale.close();
+
+		LocalScope scope = multistack.openLocalScope();
+		try (scope) {
+			multistack.push("x", new ValueWrapper(1));
+			stale.close();
+			assertFalse(multistack.isEmpty("x"));
+			assertThrows(IllegalStateException.class, multistack::openLocalScope);
+		}
+		assertTrue(multistack.isEmpty("x"));
+	}
+
+	@Test
+	void testConcurrentPushAndPop() throws InterruptedException {
+		final int threadCount = 8;
+		final int perThread = 50_000;
+		ConcurrentObjectMultistack multistack = new ConcurrentObjectMultistack();
+		ConcurrentLinkedQueue<ValueWrapper> popped = new ConcurrentLinkedQueue<>();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < threadCount; t++) {
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					multistack.push("x", new ValueWrapper(i));
+					popped.add(multistack.pop("x"));
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(multistack.isEmpty("x"));
+		// every pushed wrapper must be popped exactly once
+		Set<ValueWrapper> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+		distinct.addAll(popped);
+		assertEquals(threadCount * perThread, popped.size());
+		assertEquals(threadCount * perThread, distinct.size());
+	}
+
+}
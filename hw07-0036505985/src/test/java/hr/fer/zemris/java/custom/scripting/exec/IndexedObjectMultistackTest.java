@@ -0,0 +1,110 @@
+package hr.fer.zemris.java.custom.scripting.exec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Luka Mesaric
+ */
+class IndexedObjectMultistackTest {
+
+	@Test
+	void testInterning() {
+		IndexedObjectMultistack multistack = new IndexedObjectMultistack();
+		assertThrows(NullPointerException.class, () -> multistack.intern(null));
+
+		int year = multistack.intern("year");
+		int price = multistack.intern("price");
+		assertNotEquals(year, price);
+		assertEquals(year, multistack.intern("year"));
+		assertEquals(price, multistack.intern("price"));
+		assertEquals(2, multistack.slotCount());
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i + 2, multistack.intern("var" + i));
+		}
+		assertEquals(year, multistack.intern("year"));
+	}
+
+	@Test
+	void testPushingNulls() {
+		IndexedObjectMultistack multistack = new IndexedObjectMultistack();
+		int slot = multistack.intern("price");
+
+		assertThrows(NullPointerException.class, () -> multistack.push(slot, null));
+		assertThrows(NullPointerException.class,
+				() -> multistack.push(null, new ValueWrapper("2")));
+	}
+
+	@Test
+	void testInvalidSlot() {
+		IndexedObjectMultistack multistack = new IndexedObjectMultistack();
+		multistack.intern("x");
+
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> multistack.push(1, new ValueWrapper(null)));
+		assertThrows(IndexOutOfBoundsException.class, () -> multistack.peek(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> multistack.pop(5));
+		assertThrows(IndexOutOfBoundsException.class, () -> multistack.isEmpty(1));
+	}
+
+	@Test
+	void testGeneralPerformance() {
+		IndexedObjectMultistack multistack = new IndexedObjectMultistack();
+		assertTrue(multistack.isEmpty(null));
+		assertTrue(multistack.isEmpty("year"));
+
+		int year = multistack.intern("year");
+		int price = multistack.intern("price");
+		assertTrue(multistack.isEmpty(year));
+		assertTrue(multistack.isEmpty(price));
+
+		ValueWrapper first = new ValueWrapper(Integer.valueOf(2000));
+		multistack.push(year, first);
+		multistack.push(price, new ValueWrapper(200.51));
+		assertFalse(multistack.isEmpty(year));
+		assertFalse(multistack.isEmpty("price"));
+
+		multistack.push("year", new ValueWrapper(Integer.valueOf(1900)));
+		assertEquals(Integer.valueOf(1900), multistack.peek(year).getValue());
+
+		multistack.peek(year).add(50);
+		assertEquals(Integer.valueOf(1950), multistack.pop("year").getValue());
+		assertSame(first, multistack.peek(year));
+
+		assertSame(first, multistack.pop(year));
+		assertTrue(multistack.isEmpty(year));
+		assertFalse(multistack.isEmpty(price));
+
+		multistack.pop(price);
+		assertThrows(EmptyStackException.class, () -> multistack.peek(price));
+		assertThrows(EmptyStackException.class, () -> multistack.pop(year));
+		assertThrows(EmptyStackException.class, () -> multistack.peek("unknown"));
+	}
+
+	@Test
+	void testAbuseGeneral() {
+		final int max = 3_000_000;
+		IndexedObjectMultistack multistack = new IndexedObjectMultistack();
+		int x = multistack.intern("x");
+
+		for (int i = 0; i < max; i++) {
+			multistack.push(x, new ValueWrapper(null));
+		}
+
+		for (int i = 0; i < max; i++) {
+			assertFalse(multistack.isEmpty(x));
+			assertNull(multistack.pop(x).getValue());
+		}
+
+		assertTrue(multistack.isEmpty(x));
+	}
+
+}
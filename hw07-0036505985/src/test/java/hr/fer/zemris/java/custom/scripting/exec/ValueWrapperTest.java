@@ -1,6 +1,7 @@
 package hr.fer.zemris.java.custom.scripting.exec;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -302,4 +303,77 @@ class ValueWrapperTest {
 		assertThrows(RuntimeException.class, () -> v.add(Boolean.valueOf(true)));
 	}
 
+	@Test
+	void testInPlaceIntegerOperations() {
+		ValueWrapper v = new ValueWrapper("10");
+		v.add(5);
+		assertEquals(Integer.valueOf(15), v.getValue());
+		v.subtract(3);
+		assertEquals(Integer.valueOf(12), v.getValue());
+		v.multiply(2);
+		assertEquals(Integer.valueOf(24), v.getValue());
+		v.divide(5);  // integer division !!
+		assertEquals(Integer.valueOf(4), v.getValue());
+
+		assertTrue(v.isInteger());
+		assertEquals(4, v.intValue());
+		assertEquals(0, v.numCompare(4));
+		assertTrue(v.numCompare(5) < 0);
+		assertTrue(v.numCompare(3.5) > 0);
+
+		assertThrows(ArithmeticException.class, () -> v.divide(0));
+		assertEquals(Integer.valueOf(4), v.getValue());
+	}
+
+	@Test
+	void testInPlaceDoubleOperations() {
+		ValueWrapper v1 = new ValueWrapper(Integer.valueOf(3));
+		v1.add(0.5);
+		assertEquals(Double.valueOf(3.5), v1.getValue());
+		assertFalse(v1.isInteger());
+
+		ValueWrapper v2 = new ValueWrapper(Double.valueOf(3.5));
+		v2.add(1);
+		assertEquals(Double.valueOf(4.5), v2.getValue());
+		v2.divide(2);
+		assertEquals(Double.valueOf(2.25), v2.getValue());
+		assertEquals(2.25, v2.doubleValue());
+		assertEquals(2, v2.intValue());
+
+		ValueWrapper v3 = new ValueWrapper(null);
+		v3.subtract(1.5);
+		assertEquals(Double.valueOf(-1.5), v3.getValue());
+	}
+
+	@Test
+	void testLoopCounter() {
+		ValueWrapper counter = new ValueWrapper("0");
+		String end = "1000";
+		String step = "1";
+		int iterations = 0;
+		while (counter.numCompare(end) <= 0) {
+			iterations++;
+			counter.add(step);
+		}
+		assertEquals(1001, iterations);
+		assertEquals(Integer.valueOf(1001), counter.getValue());
+	}
+
+	@Test
+	void testEqualityAfterInPlaceOperations() {
+		ValueWrapper v1 = new ValueWrapper(Integer.valueOf(1));
+		v1.add(1);
+		ValueWrapper v2 = new ValueWrapper(Integer.valueOf(2));
+		assertEquals(v2, v1);
+		assertEquals(v2.hashCode(), v1.hashCode());
+	}
+
+	@Test
+	void testInvalidValueTypeInPlace() {
+		ValueWrapper v = new ValueWrapper(Boolean.valueOf(true));
+		assertThrows(RuntimeException.class, () -> v.add(5));
+		assertThrows(RuntimeException.class, () -> v.numCompare(5.0));
+		assertEquals(Boolean.valueOf(true), v.getValue());
+	}
+
 }
@@ -78,6 +78,31 @@ public class Coloring implements
 		return true;
 	}
 
+	/**
+	 * Returns the unique index of <code>position</code>, for visited sets which
+	 * number pixels densely.
+	 * 
+	 * @param  position             position inside <code>picture</code>
+	 * @return                      <code>y * width + x</code>
+	 * @throws NullPointerException if <code>position</code> is <code>null</code>
+	 * @see                         SubspaceExploreUtil#bfsv(Supplier, Consumer,
+	 *                              Function, Predicate,
+	 *                              java.util.function.ToIntFunction, int)
+	 */
+	public int indexOf(Pixel position) {
+		return position.y * picture.getWidth() + position.x;
+	}
+
+	/**
+	 * Returns the number of pixels of <code>picture</code>, which is the number
+	 * of different indices returned by {@link #indexOf(Pixel)}.
+	 * 
+	 * @return <code>width * height</code>
+	 */
+	public int numberOfPixels() {
+		return picture.getWidth() * picture.getHeight();
+	}
+
 	/**
 	 * Returns starting state.
 	 * 
@@ -0,0 +1,522 @@
+package coloring.algorithms;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+import marcupic.opjj.statespace.coloring.Picture;
+
+/**
+ * Labels all regions of a picture at once: every 4-connected region of pixels
+ * of the same color gets its own label, after which any region can be
+ * recolored in time proportional to its size, without searching.
+ * <p>
+ * Labelling is a parallel, tile-based, two-pass union-find over pixel indices
+ * <code>y * width + x</code>:
+ * <ol>
+ * <li>every tile is read and its pixels are united with their left and upper
+ * neighbours inside the tile, by a single thread per tile,</li>
+ * <li>every tile unites its left and top border with neighbouring tiles; these
+ * unions run concurrently and are lock-free, linking roots by compare-and-set
+ * (the larger root always points to the smaller one, so no cycles appear),</li>
+ * <li>every tile resolves the roots of its pixels, and roots are numbered in
+ * tile order, so labels are deterministic.</li>
+ * </ol>
+ * Finally, pixels are sorted by label, so that pixels of every region are
+ * stored contiguously.
+ * <p>
+ * Labels describe the picture at the time of labelling; recoloring does not
+ * merge a region with its new neighbours of the same color.
+ *
+ * @author Luka Mesaric
+ */
+public final class ComponentLabeling {
+
+	/** Default width and height of tiles, in pixels. */
+	private static final int DEFAULT_TILE_SIZE = 128;
+
+	/** Access to elements of <code>parent</code> arrays with atomic updates. */
+	private static final VarHandle PARENT =
+			MethodHandles.arrayElementVarHandle(int[].class);
+
+	/** Labelled picture. */
+	private final Picture picture;
+
+	/** Width of the picture. */
+	private final int width;
+
+	/** Label of every pixel, indexed by <code>y * width + x</code>. */
+	private final int[] labels;
+
+	/** Color of every region, indexed by label. */
+	private final int[] colors;
+
+	/** Start of every region in <code>pixels</code>, followed by their end. */
+	private final int[] offsets;
+
+	/** Pixel indices, sorted by label. */
+	private final int[] pixels;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param picture labelled picture
+	 * @param labels  label of every pixel
+	 * @param colors  color of every region
+	 */
+	private ComponentLabeling(Picture picture, int[] labels, int[] colors) {
+		this.picture = picture;
+		this.width = picture.getWidth();
+		this.labels = labels;
+		this.colors = colors;
+
+		// counting sort of pixels by label
+		int[] offsets = new int[colors.length + 1];
+		for (int label : labels) {
+			offsets[label + 1]++;
+		}
+		for (int i = 0; i < colors.length; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		int[] next = Arrays.copyOf(offsets, colors.length);
+		int[] pixels = new int[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			pixels[next[labels[i]]++] = i;
+		}
+		this.offsets = offsets;
+		this.pixels = pixels;
+	}
+
+	/**
+	 * Labels all regions of <code>picture</code>. Colors of pixels are read
+	 * concurrently by threads of <code>pool</code>, so
+	 * {@link Picture#getPixelColor(int, int)} must be safe for concurrent use.
+	 *
+	 * @param  picture              picture to label
+	 * @param  pool                 pool whose threads label tiles
+	 * @return                      labelling of <code>picture</code>
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static ComponentLabeling label(Picture picture, ForkJoinPool pool) {
+		return label(picture, pool, DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * Labels all regions of <code>picture</code>, using tiles of given size.
+	 *
+	 * @param  picture                  picture to label
+	 * @param  pool                     pool whose threads label tiles
+	 * @param  tileSize                 width and height of tiles
+	 * @return                          labelling of <code>picture</code>
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if <code>tileSize</code> is not positive
+	 */
+	static ComponentLabeling label(Picture picture, ForkJoinPool pool, int tileSize) {
+		Objects.requireNonNull(picture);
+		Objects.requireNonNull(pool);
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+		}
+		return new Labeler(picture, pool, tileSize).run();
+	}
+
+	/**
+	 * Returns the number of regions.
+	 *
+	 * @return number of labels
+	 */
+	public int getComponentCount() {
+		return colors.length;
+	}
+
+	/**
+	 * Returns the label of region which contains pixel <code>(x, y)</code>.
+	 *
+	 * @param  x                         x-coordinate
+	 * @param  y                         y-coordinate
+	 * @return                           label, between <code>0</code> and
+	 *                                   <code>getComponentCount() - 1</code>
+	 * @throws IndexOutOfBoundsException if <code>(x, y)</code> is outside of
+	 *                                   picture
+	 */
+	public int getLabel(int x, int y) {
+		Objects.checkIndex(x, width);
+		return labels[Objects.checkIndex(y * width + x, labels.length)];
+	}
+
+	/**
+	 * Returns the number of pixels of region <code>label</code>.
+	 *
+	 * @param  label                     label of region
+	 * @return                           number of pixels
+	 * @throws IndexOutOfBoundsException if <code>label</code> is invalid
+	 */
+	public int getSize(int label) {
+		Objects.checkIndex(label, colors.length);
+		return offsets[label + 1] - offsets[label];
+	}
+
+	/**
+	 * Returns the color of region <code>label</code>, as it was when labelled
+	 * or last recolored through this object.
+	 *
+	 * @param  label                     label of region
+	 * @return                           color of region
+	 * @throws IndexOutOfBoundsException if <code>label</code> is invalid
+	 */
+	public int getColor(int label) {
+		return colors[Objects.checkIndex(label, colors.length)];
+	}
+
+	/**
+	 * Sets color of all pixels of region <code>label</code> to
+	 * <code>color</code>, in time proportional to the size of region.
+	 *
+	 * @param  label                     label of region
+	 * @param  color                     new color
+	 * @throws IndexOutOfBoundsException if <code>label</code> is invalid
+	 */
+	public void recolor(int label, int color) {
+		Objects.checkIndex(label, colors.length);
+		for (int i = offsets[label], end = offsets[label + 1]; i < end; i++) {
+			int index = pixels[i];
+			picture.setPixelColor(index % width, index / width, color);
+		}
+		colors[label] = color;
+	}
+
+	/**
+	 * Sets color of all pixels of the region which contains pixel
+	 * <code>(x, y)</code> to <code>color</code>; the same as filling from
+	 * <code>(x, y)</code>, if the picture was not changed since labelling.
+	 *
+	 * @param  x                         x-coordinate
+	 * @param  y                         y-coordinate
+	 * @param  color                     new color
+	 * @throws IndexOutOfBoundsException if <code>(x, y)</code> is outside of
+	 *                                   picture
+	 */
+	public void recolor(int x, int y, int color) {
+		recolor(getLabel(x, y), color);
+	}
+
+	/**
+	 * Single run of labelling.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static final class Labeler {
+
+		/** Picture to label. */
+		private final Picture picture;
+
+		/** Pool whose threads label tiles. */
+		private final ForkJoinPool pool;
+
+		/** Width and height of tiles. */
+		private final int tileSize;
+
+		/** Width of the picture. */
+		private final int width;
+
+		/** Height of the picture. */
+		private final int height;
+
+		/** Number of tiles in a row of tiles. */
+		private final int tilesX;
+
+		/** Number of tiles in a column of tiles. */
+		private final int tilesY;
+
+		/** Color of every pixel. */
+		private final int[] colorOf;
+
+		/** Union-find forest, roots are their own parents. */
+		private final int[] parent;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param picture  picture to label
+		 * @param pool     pool whose threads label tiles
+		 * @param tileSize width and height of tiles
+		 */
+		private Labeler(Picture picture, ForkJoinPool pool, int tileSize) {
+			this.picture = picture;
+			this.pool = pool;
+			this.tileSize = tileSize;
+			this.width = picture.getWidth();
+			this.height = picture.getHeight();
+			this.tilesX = (width + tileSize - 1) / tileSize;
+			this.tilesY = (height + tileSize - 1) / tileSize;
+			int size = Math.multiplyExact(width, height);
+			this.colorOf = new int[size];
+			this.parent = new int[size];
+		}
+
+		/**
+		 * Labels the picture.
+		 *
+		 * @return labelling
+		 */
+		private ComponentLabeling run() {
+			forEachTile(this::labelTile);
+			forEachTile(this::mergeBorders);
+			forEachTile(this::flatten);
+
+			// number roots in tile order, counts of earlier tiles are offsets
+			int tiles = tilesX * tilesY;
+			int[] firstLabel = new int[tiles + 1];
+			forEachTile(tile -> firstLabel[tile + 1] = countRoots(tile));
+			for (int t = 0; t < tiles; t++) {
+				firstLabel[t + 1] += firstLabel[t];
+			}
+			int[] labels = new int[parent.length];
+			int[] colors = new int[firstLabel[tiles]];
+			forEachTile(tile -> numberRoots(tile, firstLabel[tile], labels, colors));
+			forEachTile(tile -> assignLabels(tile, labels));
+			return new ComponentLabeling(picture, labels, colors);
+		}
+
+		/**
+		 * Executes <code>action</code> for every tile, in parallel, and waits
+		 * for all of them to finish.
+		 *
+		 * @param action action which receives index of tile
+		 */
+		private void forEachTile(IntConsumer action) {
+			int tiles = tilesX * tilesY;
+			if (tiles == 1) {
+				action.accept(0);
+				return;
+			}
+			List<ForkJoinTask<?>> tasks = new ArrayList<>(tiles);
+			for (int t = 0; t < tiles; t++) {
+				int tile = t;
+				tasks.add(pool.submit(() -> action.accept(tile)));
+			}
+			for (ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+		}
+
+		/**
+		 * Reads colors of a tile and unites its pixels with their left and
+		 * upper neighbours inside the tile. Only this thread accesses the tile.
+		 *
+		 * @param tile index of tile
+		 */
+		private void labelTile(int tile) {
+			int x0 = tile % tilesX * tileSize;
+			int y0 = tile / tilesX * tileSize;
+			int x1 = Math.min(x0 + tileSize, width);
+			int y1 = Math.min(y0 + tileSize, height);
+			for (int y = y0; y < y1; y++) {
+				for (int x = x0, i = y * width + x0; x < x1; x++, i++) {
+					int color = picture.getPixelColor(x, y);
+					colorOf[i] = color;
+					parent[i] = i;
+					if (x > x0 && colorOf[i - 1] == color) {
+						localUnion(i - 1, i);
+					}
+					if (y > y0 && colorOf[i - width] == color) {
+						localUnion(i - width, i);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Unites sets of <code>a</code> and <code>b</code>, while no other
+		 * thread accesses them.
+		 *
+		 * @param a index of pixel
+		 * @param b index of pixel
+		 */
+		private void localUnion(int a, int b) {
+			int ra = localFind(a);
+			int rb = localFind(b);
+			if (ra < rb) {
+				parent[rb] = ra;
+			} else if (rb < ra) {
+				parent[ra] = rb;
+			}
+		}
+
+		/**
+		 * Finds the root of <code>i</code>, halving the path, while no other
+		 * thread accesses it.
+		 *
+		 * @param  i index of pixel
+		 * @return   root
+		 */
+		private int localFind(int i) {
+			while (parent[i] != i) {
+				parent[i] = parent[parent[i]];
+				i = parent[i];
+			}
+			return i;
+		}
+
+		/**
+		 * Unites pixels on the left and top border of a tile with their
+		 * neighbours in adjacent tiles.
+		 *
+		 * @param tile index of tile
+		 */
+		private void mergeBorders(int tile) {
+			int x0 = tile % tilesX * tileSize;
+			int y0 = tile / tilesX * tileSize;
+			int x1 = Math.min(x0 + tileSize, width);
+			int y1 = Math.min(y0 + tileSize, height);
+			if (x0 > 0) {
+				for (int y = y0, i = y0 * width + x0; y < y1; y++, i += width) {
+					if (colorOf[i - 1] == colorOf[i]) {
+						union(i - 1, i);
+					}
+				}
+			}
+			if (y0 > 0) {
+				for (int i = y0 * width + x0, end = y0 * width + x1; i < end; i++) {
+					if (colorOf[i - width] == colorOf[i]) {
+						union(i - width, i);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Unites sets of <code>a</code> and <code>b</code> without locking. The
+		 * larger root is linked to the smaller one by compare-and-set; if
+		 * another thread changed it first, roots are found again.
+		 *
+		 * @param a index of pixel
+		 * @param b index of pixel
+		 */
+		private void union(int a, int b) {
+			while (true) {
+				int ra = find(a);
+				int rb = find(b);
+				if (ra == rb) {
+					return;
+				}
+				int larger = Math.max(ra, rb);
+				if (PARENT.compareAndSet(parent, larger, larger, Math.min(ra, rb))) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Finds the root of <code>i</code>, halving the path. Concurrent
+		 * halving is safe, since replacing a parent with the grandparent keeps
+		 * the pixel in the same set.
+		 *
+		 * @param  i index of pixel
+		 * @return   current root
+		 */
+		private int find(int i) {
+			while (true) {
+				int p = (int) PARENT.getVolatile(parent, i);
+				if (p == i) {
+					return i;
+				}
+				int grandparent = (int) PARENT.getVolatile(parent, p);
+				if (grandparent != p) {
+					PARENT.weakCompareAndSet(parent, i, p, grandparent);
+				}
+				i = grandparent;
+			}
+		}
+
+		/**
+		 * Points every pixel of a tile directly to its root. Roots do not
+		 * change any more, and only pixels of this tile are written, so paths
+		 * through other tiles stay valid while they are being flattened.
+		 *
+		 * @param tile index of tile
+		 */
+		private void flatten(int tile) {
+			forEachPixel(tile, i -> {
+				int root = parent[i];
+				while (parent[root] != root) {
+					root = parent[root];
+				}
+				parent[i] = root;
+			});
+		}
+
+		/**
+		 * Counts roots in a tile.
+		 *
+		 * @param  tile index of tile
+		 * @return      number of roots
+		 */
+		private int countRoots(int tile) {
+			int[] count = new int[1];
+			forEachPixel(tile, i -> {
+				if (parent[i] == i) {
+					count[0]++;
+				}
+			});
+			return count[0];
+		}
+
+		/**
+		 * Gives labels to roots of a tile, in order of pixel indices.
+		 *
+		 * @param tile   index of tile
+		 * @param first  first label of this tile
+		 * @param labels receives labels of roots
+		 * @param colors receives colors of regions
+		 */
+		private void numberRoots(int tile, int first, int[] labels, int[] colors) {
+			int[] next = { first };
+			forEachPixel(tile, i -> {
+				if (parent[i] == i) {
+					labels[i] = next[0];
+					colors[next[0]++] = colorOf[i];
+				}
+			});
+		}
+
+		/**
+		 * Copies labels of roots to all pixels of a tile.
+		 *
+		 * @param tile   index of tile
+		 * @param labels labels of roots, receives labels of pixels
+		 */
+		private void assignLabels(int tile, int[] labels) {
+			forEachPixel(tile, i -> {
+				if (parent[i] != i) {
+					labels[i] = labels[parent[i]];
+				}
+			});
+		}
+
+		/**
+		 * Executes <code>action</code> for every pixel of a tile, row by row.
+		 *
+		 * @param tile   index of tile
+		 * @param action action which receives index of pixel
+		 */
+		private void forEachPixel(int tile, IntConsumer action) {
+			int x0 = tile % tilesX * tileSize;
+			int y0 = tile / tilesX * tileSize;
+			int x1 = Math.min(x0 + tileSize, width);
+			int y1 = Math.min(y0 + tileSize, height);
+			for (int y = y0; y < y1; y++) {
+				for (int i = y * width + x0, end = y * width + x1; i < end; i++) {
+					action.accept(i);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package coloring.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack of primitive <code>int</code> values, used for packed pixel
+ * coordinates so that no object is allocated per pushed pixel.
+ * 
+ * @author Luka Mesaric
+ */
+final class IntStack {
+
+	/** Stored values. */
+	private int[] values = new int[64];
+
+	/** Number of stored values. */
+	private int size;
+
+	/**
+	 * Pushes <code>value</code> on top.
+	 * 
+	 * @param value value to push
+	 */
+	void push(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Removes the value on top.
+	 * 
+	 * @return removed value
+	 */
+	int pop() {
+		return values[--size];
+	}
+
+	/**
+	 * Checks whether stack is empty.
+	 * 
+	 * @return <code>true</code> if empty
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+}
@@ -0,0 +1,107 @@
+package coloring.algorithms;
+
+import java.util.Objects;
+
+import marcupic.opjj.statespace.coloring.Picture;
+
+/**
+ * Scanline (span-based) flood fill. Instead of visiting pixels one by one, it
+ * fills whole horizontal runs of the reference color at once, and pushes a
+ * single seed for every run of the reference color in rows directly above and
+ * below. Seeds are packed as <code>y * width + x</code> into a primitive stack,
+ * so no objects are allocated per pixel and every pixel is read only a few
+ * times.
+ * <p>
+ * Fills the same 4-connected region as
+ * {@link SubspaceExploreUtil#bfs(java.util.function.Supplier,
+ * java.util.function.Consumer, java.util.function.Function,
+ * java.util.function.Predicate) bfs} with {@link Coloring}.
+ * 
+ * @author Luka Mesaric
+ */
+public class ScanlineFill {
+
+	/**
+	 * Fills the region of pixels connected to <code>(x, y)</code> which have the
+	 * same color, with <code>fillColor</code>.
+	 * 
+	 * @param  picture                  picture to fill
+	 * @param  x                        x-coordinate of reference pixel
+	 * @param  y                        y-coordinate of reference pixel
+	 * @param  fillColor                fill color
+	 * @throws NullPointerException     if <code>picture</code> is
+	 *                                  <code>null</code>
+	 * @throws IllegalArgumentException if <code>(x, y)</code> is not a legal
+	 *                                  position inside <code>picture</code>
+	 */
+	public static void fill(Picture picture, int x, int y, int fillColor) {
+		Objects.requireNonNull(picture);
+		int width = picture.getWidth();
+		int height = picture.getHeight();
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IllegalArgumentException("Reference is not a part of picture.");
+		}
+		int refColor = picture.getPixelColor(x, y);
+		if (refColor == fillColor) {
+			return;		// filled pixels could not be told apart from unfilled
+		}
+
+		IntStack seeds = new IntStack();
+		seeds.push(y * width + x);
+		while (!seeds.isEmpty()) {
+			int seed = seeds.pop();
+			int sy = seed / width;
+			int sx = seed - sy * width;
+			if (picture.getPixelColor(sx, sy) != refColor) {
+				continue;	// already filled through another seed
+			}
+
+			int left = sx;
+			while (left > 0 && picture.getPixelColor(left - 1, sy) == refColor) {
+				left--;
+			}
+			int right = sx;
+			while (right < width - 1 && picture.getPixelColor(right + 1, sy) == refColor) {
+				right++;
+			}
+			for (int i = left; i <= right; i++) {
+				picture.setPixelColor(i, sy, fillColor);
+			}
+
+			if (sy > 0) {
+				pushRuns(picture, seeds, left, right, sy - 1, refColor);
+			}
+			if (sy < height - 1) {
+				pushRuns(picture, seeds, left, right, sy + 1, refColor);
+			}
+		}
+	}
+
+	/**
+	 * Pushes a seed for every run of <code>refColor</code> in row
+	 * <code>y</code>, between <code>left</code> and <code>right</code>.
+	 * 
+	 * @param picture  picture to fill
+	 * @param seeds    stack of packed seeds
+	 * @param left     first x-coordinate, inclusive
+	 * @param right    last x-coordinate, inclusive
+	 * @param y        row to scan
+	 * @param refColor reference color
+	 */
+	private static void pushRuns(Picture picture, IntStack seeds,
+			int left, int right, int y, int refColor) {
+		int width = picture.getWidth();
+		boolean inRun = false;
+		for (int i = left; i <= right; i++) {
+			boolean matches = picture.getPixelColor(i, y) == refColor;
+			if (matches && !inRun) {
+				seeds.push(y * width + i);
+			}
+			inRun = matches;
+		}
+	}
+
+	/** Disable creating instances. */
+	private ScanlineFill() {}
+
+}
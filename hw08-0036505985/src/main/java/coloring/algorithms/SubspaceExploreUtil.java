@@ -1,18 +1,25 @@
 package coloring.algorithms;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import searching.algorithms.SearchStatistics;
 
 /**
- * Utility class for searching algorithms.
+ * Utility class for searching algorithms. Every search can record its course
+ * into {@link SearchStatistics}; processed states are counted as expanded.
  * 
  * @author Luka Mesaric
  */
@@ -33,10 +40,31 @@ public class SubspaceExploreUtil {
 			Consumer<S> process,
 			Function<S, List<S>> succ,
 			Predicate<S> acceptable) {
+		bfs(s0, process, succ, acceptable, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of Breadth-First Search (BFS) which records its course into
+	 * <code>statistics</code>.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  process              performs wanted task using given state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  acceptable           test if given state belongs to wanted subspace
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in BFS
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> void bfs(
+			Supplier<S> s0,
+			Consumer<S> process,
+			Function<S, List<S>> succ,
+			Predicate<S> acceptable,
+			SearchStatistics statistics) {
 
 		// add successors to the end
 		performSearch(s0, process, succ, acceptable,
-				(toSearch, successors) -> toSearch.addAll(successors));
+				(toSearch, successors) -> toSearch.addAll(successors), statistics);
 	}
 
 	/**
@@ -54,10 +82,31 @@ public class SubspaceExploreUtil {
 			Consumer<S> process,
 			Function<S, List<S>> succ,
 			Predicate<S> acceptable) {
+		dfs(s0, process, succ, acceptable, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of Depth-First Search (DFS) which records its course into
+	 * <code>statistics</code>.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  process              performs wanted task using given state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  acceptable           test if given state belongs to wanted subspace
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in DFS
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> void dfs(
+			Supplier<S> s0,
+			Consumer<S> process,
+			Function<S, List<S>> succ,
+			Predicate<S> acceptable,
+			SearchStatistics statistics) {
 
 		// add successors to the beginning
 		performSearch(s0, process, succ, acceptable,
-				(toSearch, successors) -> toSearch.addAll(0, successors));
+				(toSearch, successors) -> toSearch.addAll(0, successors), statistics);
 	}
 
 	/**
@@ -71,6 +120,7 @@ public class SubspaceExploreUtil {
 	 * @param  acceptable           test if given state belongs to wanted subspace
 	 * @param  addingSuccs          strategy for adding successors to the list of
 	 *                              states to search
+	 * @param  statistics           statistics of this search
 	 * @param                       <S> type of states used in this search
 	 * @throws NullPointerException if any argument is <code>null</code>
 	 * @see                         #dfs(Supplier, Consumer, Function, Predicate)
@@ -81,23 +131,35 @@ public class SubspaceExploreUtil {
 			Consumer<S> process,
 			Function<S, List<S>> succ,
 			Predicate<S> acceptable,
-			BiConsumer<List<S>, List<S>> addingSuccs) {
+			BiConsumer<List<S>, List<S>> addingSuccs,
+			SearchStatistics statistics) {
 
 		Objects.requireNonNull(s0);
 		Objects.requireNonNull(process);
 		Objects.requireNonNull(succ);
 		Objects.requireNonNull(acceptable);
 		Objects.requireNonNull(addingSuccs);
+		Objects.requireNonNull(statistics);
 
-		List<S> toSearch = new LinkedList<>();
-		toSearch.add(s0.get());
+		statistics.start();
+		try {
+			List<S> toSearch = new LinkedList<>();
+			toSearch.add(s0.get());
+			statistics.generated(1);
 
-		while (!toSearch.isEmpty()) {
-			S current = toSearch.remove(0);	// remove from the beginning
-			if (!acceptable.test(current))
-				continue;
-			process.accept(current);
-			addingSuccs.accept(toSearch, succ.apply(current));
+			while (!toSearch.isEmpty()) {
+				statistics.frontier(toSearch.size());
+				S current = toSearch.remove(0);	// remove from the beginning
+				if (!acceptable.test(current))
+					continue;
+				process.accept(current);
+				statistics.expanded();
+				List<S> children = succ.apply(current);
+				statistics.generated(children.size());
+				addingSuccs.accept(toSearch, children);
+			}
+		} finally {
+			statistics.stop();
 		}
 	}
 
@@ -117,27 +179,166 @@ public class SubspaceExploreUtil {
 			Consumer<S> process,
 			Function<S, List<S>> succ,
 			Predicate<S> acceptable) {
+		bfsv(s0, process, succ, acceptable, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of optimized Breadth-First Search (BFS) which stores visited
+	 * states, and records its course into <code>statistics</code>.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  process              performs wanted task using given state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  acceptable           test if given state belongs to wanted subspace
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in BFS
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> void bfsv(
+			Supplier<S> s0,
+			Consumer<S> process,
+			Function<S, List<S>> succ,
+			Predicate<S> acceptable,
+			SearchStatistics statistics) {
+
+		Objects.requireNonNull(s0);
+		Objects.requireNonNull(process);
+		Objects.requireNonNull(succ);
+		Objects.requireNonNull(acceptable);
+		Objects.requireNonNull(statistics);
+
+		statistics.start();
+		try {
+			List<S> toSearch = new LinkedList<>();
+			Set<S> visited = new HashSet<>();
+			S starting = s0.get();
+			toSearch.add(starting);
+			visited.add(starting);
+			statistics.generated(1);
+
+			while (!toSearch.isEmpty()) {
+				statistics.frontier(toSearch.size());
+				S current = toSearch.remove(0);	// remove from the beginning
+				if (!acceptable.test(current))
+					continue;
+				process.accept(current);
+				statistics.expanded();
+				List<S> children = succ.apply(current);
+				statistics.generated(children.size());
+				children.removeAll(visited);
+				toSearch.addAll(children); 		// add children to the end
+				visited.addAll(children);
+			}
+			statistics.visited(visited.size());
+		} finally {
+			statistics.stop();
+		}
+	}
+
+	/**
+	 * Implementation of optimized Breadth-First Search (BFS) for states which can
+	 * be numbered densely, e.g. pixels by <code>y * width + x</code>. Visited
+	 * states are marked in a {@link BitSet} of <code>capacity</code> bits instead
+	 * of being hashed, and every successor is checked and marked by a single
+	 * lookup.
+	 * 
+	 * @param  s0                        supplier of starting state
+	 * @param  process                   performs wanted task using given state
+	 * @param  succ                      maps state to its direct successors
+	 * @param  acceptable                test if given state belongs to wanted
+	 *                                   subspace
+	 * @param  index                     maps state to its unique index, between
+	 *                                   <code>0</code> and
+	 *                                   <code>capacity - 1</code>
+	 * @param  capacity                  number of possible states
+	 * @param                            <S> type of states used in BFS
+	 * @throws NullPointerException      if any argument is <code>null</code>
+	 * @throws IllegalArgumentException  if <code>capacity</code> is negative
+	 * @throws IndexOutOfBoundsException if a state is mapped outside of
+	 *                                   <code>capacity</code>
+	 */
+	public static <S> void bfsv(
+			Supplier<S> s0,
+			Consumer<S> process,
+			Function<S, List<S>> succ,
+			Predicate<S> acceptable,
+			ToIntFunction<S> index,
+			int capacity) {
+		bfsv(s0, process, succ, acceptable, index, capacity, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of optimized Breadth-First Search (BFS) for densely numbered
+	 * states which records its course into <code>statistics</code>. See
+	 * {@link #bfsv(Supplier, Consumer, Function, Predicate, ToIntFunction, int)}.
+	 * 
+	 * @param  s0                        supplier of starting state
+	 * @param  process                   performs wanted task using given state
+	 * @param  succ                      maps state to its direct successors
+	 * @param  acceptable                test if given state belongs to wanted
+	 *                                   subspace
+	 * @param  index                     maps state to its unique index, between
+	 *                                   <code>0</code> and
+	 *                                   <code>capacity - 1</code>
+	 * @param  capacity                  number of possible states
+	 * @param  statistics                statistics of this search
+	 * @param                            <S> type of states used in BFS
+	 * @throws NullPointerException      if any argument is <code>null</code>
+	 * @throws IllegalArgumentException  if <code>capacity</code> is negative
+	 * @throws IndexOutOfBoundsException if a state is mapped outside of
+	 *                                   <code>capacity</code>
+	 */
+	public static <S> void bfsv(
+			Supplier<S> s0,
+			Consumer<S> process,
+			Function<S, List<S>> succ,
+			Predicate<S> acceptable,
+			ToIntFunction<S> index,
+			int capacity,
+			SearchStatistics statistics) {
 
 		Objects.requireNonNull(s0);
 		Objects.requireNonNull(process);
 		Objects.requireNonNull(succ);
 		Objects.requireNonNull(acceptable);
+		Objects.requireNonNull(index);
+		Objects.requireNonNull(statistics);
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+		}
+
+		statistics.start();
+		try {
+			Queue<S> toSearch = new ArrayDeque<>();
+			BitSet visited = new BitSet(capacity);
+			S starting = s0.get();
+			toSearch.add(starting);
+			visited.set(Objects.checkIndex(index.applyAsInt(starting), capacity));
+			statistics.generated(1);
+			// every marked state is added to the queue exactly once
+			long visitedCount = 1;
 
-		List<S> toSearch = new LinkedList<>();
-		Set<S> visited = new HashSet<>();
-		S starting = s0.get();
-		toSearch.add(starting);
-		visited.add(starting);
-
-		while (!toSearch.isEmpty()) {
-			S current = toSearch.remove(0);	// remove from the beginning
-			if (!acceptable.test(current))
-				continue;
-			process.accept(current);
-			List<S> children = succ.apply(current);
-			children.removeAll(visited);
-			toSearch.addAll(children); 		// add children to the end
-			visited.addAll(children);
+			while (!toSearch.isEmpty()) {
+				statistics.frontier(toSearch.size());
+				S current = toSearch.remove();	// remove from the beginning
+				if (!acceptable.test(current))
+					continue;
+				process.accept(current);
+				statistics.expanded();
+				List<S> children = succ.apply(current);
+				statistics.generated(children.size());
+				for (S child : children) {
+					int i = Objects.checkIndex(index.applyAsInt(child), capacity);
+					if (!visited.get(i)) {
+						visited.set(i);
+						visitedCount++;
+						toSearch.add(child);	// add children to the end
+					}
+				}
+			}
+			statistics.visited(visitedCount);
+		} finally {
+			statistics.stop();
 		}
 	}
 
@@ -0,0 +1,108 @@
+package coloring.demo;
+
+import marcupic.opjj.statespace.coloring.Picture;
+
+/**
+ * Picture stored in an array, without any GUI, for benchmarks of filling
+ * algorithms on large pictures.
+ * 
+ * @author Luka Mesaric
+ */
+public class ArrayPicture implements Picture {
+
+	/** Width of the picture. */
+	private final int width;
+
+	/** Height of the picture. */
+	private final int height;
+
+	/** Colors of pixels, row by row. */
+	private final int[] pixels;
+
+	/**
+	 * Default constructor, creates a picture filled with color <code>0</code>.
+	 * 
+	 * @param  width                    width of the picture
+	 * @param  height                   height of the picture
+	 * @throws IllegalArgumentException if a dimension is not positive
+	 */
+	public ArrayPicture(int width, int height) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException(
+					"Dimensions must be positive: " + width + "x" + height);
+		}
+		this.width = width;
+		this.height = height;
+		this.pixels = new int[Math.multiplyExact(width, height)];
+	}
+
+	/**
+	 * Creates a picture of concentric square rings, <code>ringWidth</code>
+	 * pixels wide, in colors <code>0</code> and <code>1</code>. Every ring has
+	 * a gap, so that regions of color <code>0</code> form one connected spiral
+	 * with long, narrow passages.
+	 * 
+	 * @param  size      width and height of the picture
+	 * @param  ringWidth width of every ring
+	 * @return           new picture
+	 */
+	public static ArrayPicture rings(int size, int ringWidth) {
+		ArrayPicture picture = new ArrayPicture(size, size);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				int ring = Math.min(Math.min(x, y), Math.min(size - 1 - x, size - 1 - y))
+						/ ringWidth;
+				boolean wall = ring % 2 == 1;
+				// gaps alternate between the top and the bottom side
+				boolean middle = Math.abs(x - size / 2) < ringWidth;
+				boolean gap = middle && (ring % 4 == 1 ? y < size / 2 : y > size / 2);
+				picture.pixels[y * size + x] = wall && !gap ? 1 : 0;
+			}
+		}
+		return picture;
+	}
+
+	/**
+	 * Returns a copy of this picture.
+	 * 
+	 * @return new picture with the same pixels
+	 */
+	public ArrayPicture copy() {
+		ArrayPicture copy = new ArrayPicture(width, height);
+		System.arraycopy(pixels, 0, copy.pixels, 0, pixels.length);
+		return copy;
+	}
+
+	/**
+	 * Counts pixels of given color.
+	 * 
+	 * @param  color color to count
+	 * @return       number of pixels
+	 */
+	public long count(int color) {
+		long count = 0;
+		for (int pixel : pixels) {
+			if (pixel == color) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getPixelColor(int x, int y) {
+		return pixels[y * width + x];
+	}
+
+	@Override
+	public void setPixelColor(int x, int y, int color) {
+		pixels[y * width + x] = color;
+	}
+
+	@Override
+	public int getWidth() { return width; }
+
+	@Override
+	public int getHeight() { return height; }
+
+}
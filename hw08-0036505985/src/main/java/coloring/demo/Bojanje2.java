@@ -4,13 +4,17 @@ import java.util.Arrays;
 
 import coloring.algorithms.Coloring;
 import coloring.algorithms.Pixel;
+import coloring.algorithms.ScanlineFill;
 import coloring.algorithms.SubspaceExploreUtil;
 import marcupic.opjj.statespace.coloring.FillAlgorithm;
 import marcupic.opjj.statespace.coloring.FillApp;
 import marcupic.opjj.statespace.coloring.Picture;
+import searching.algorithms.SearchStatistics;
 
 /**
- * Demo program for filling closed parts of an image.
+ * Demo program for filling closed parts of an image. Statistics of searching
+ * algorithms are printed after every fill, and exported over JMX, so they can
+ * also be watched in a JMX client such as JConsole.
  * 
  * @author Luka Mesaric
  */
@@ -22,9 +26,21 @@ public class Bojanje2 {
 	 * @param args ignored
 	 */
 	public static void main(String[] args) {
-		FillApp.run(FillApp.OWL, Arrays.asList(bfs, dfs, bfsv));
+		bfsStatistics.export("bfs");
+		dfsStatistics.export("dfs");
+		bfsvStatistics.export("bfsv");
+		FillApp.run(FillApp.OWL, Arrays.asList(bfs, dfs, bfsv, scanline));
 	}
 
+	/** Statistics of BFS. */
+	private static final SearchStatistics bfsStatistics = new SearchStatistics();
+
+	/** Statistics of DFS. */
+	private static final SearchStatistics dfsStatistics = new SearchStatistics();
+
+	/** Statistics of BFSV. */
+	private static final SearchStatistics bfsvStatistics = new SearchStatistics();
+
 	/**
 	 * BFS implementation.
 	 */
@@ -36,7 +52,8 @@ public class Bojanje2 {
 		@Override
 		public void fill(int x, int y, int color, Picture picture) {
 			Coloring col = new Coloring(new Pixel(x, y), picture, color);
-			SubspaceExploreUtil.bfs(col, col, col, col);
+			SubspaceExploreUtil.bfs(col, col, col, col, bfsStatistics);
+			System.out.println(getAlgorithmTitle() + " " + bfsStatistics);
 		}
 	};
 	
@@ -51,7 +68,8 @@ public class Bojanje2 {
 		@Override
 		public void fill(int x, int y, int color, Picture picture) {
 			Coloring col = new Coloring(new Pixel(x, y), picture, color);
-			SubspaceExploreUtil.dfs(col, col, col, col);
+			SubspaceExploreUtil.dfs(col, col, col, col, dfsStatistics);
+			System.out.println(getAlgorithmTitle() + " " + dfsStatistics);
 		}
 	};
 	
@@ -66,7 +84,23 @@ public class Bojanje2 {
 		@Override
 		public void fill(int x, int y, int color, Picture picture) {
 			Coloring col = new Coloring(new Pixel(x, y), picture, color);
-			SubspaceExploreUtil.bfsv(col, col, col, col);
+			SubspaceExploreUtil.bfsv(col, col, col, col, col::indexOf, col.numberOfPixels(),
+					bfsvStatistics);
+			System.out.println(getAlgorithmTitle() + " " + bfsvStatistics);
+		}
+	};
+
+	/**
+	 * Scanline implementation.
+	 */
+	private static final FillAlgorithm scanline = new FillAlgorithm() {
+
+		@Override
+		public String getAlgorithmTitle() { return "Moj scanline!"; }
+
+		@Override
+		public void fill(int x, int y, int color, Picture picture) {
+			ScanlineFill.fill(picture, x, y, color);
 		}
 	};
 
@@ -0,0 +1,112 @@
+package coloring.demo;
+
+import coloring.algorithms.Coloring;
+import coloring.algorithms.Pixel;
+import coloring.algorithms.ScanlineFill;
+import coloring.algorithms.SubspaceExploreUtil;
+import marcupic.opjj.statespace.coloring.FillAlgorithm;
+import marcupic.opjj.statespace.coloring.Picture;
+
+/**
+ * Measures filling algorithms on large pictures without GUI: an empty picture,
+ * where the whole picture is one region, and a picture of concentric rings,
+ * where the region is a long spiral (see {@link ArrayPicture#rings}).
+ * <p>
+ * Arguments (optional): width and height of pictures (default
+ * <code>2048</code>, i.e. 4 megapixels), and <code>fast</code> to skip the
+ * searches which do not remember visited pixels or hash them.
+ * 
+ * @author Luka Mesaric
+ */
+public class FillBenchmark {
+
+	/** Fill color, which differs from all colors of generated pictures. */
+	private static final int FILL_COLOR = 7;
+
+	/**
+	 * Program entry point.
+	 * 
+	 * @param args size of pictures, and optionally <code>fast</code>
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+		boolean fast = args.length > 1 && args[1].equals("fast");
+
+		ArrayPicture[] pictures = {
+				new ArrayPicture(size, size),
+				ArrayPicture.rings(size, 4),
+		};
+		String[] names = { "empty", "rings" };
+
+		for (int run = 0; run < 3; run++) {
+			for (int i = 0; i < pictures.length; i++) {
+				System.out.format("%s, %dx%d:%n", names[i], size, size);
+				if (!fast) {
+					measure(pictures[i], "bfs", (x, y, c, p) -> {
+						Coloring col = new Coloring(new Pixel(x, y), p, c);
+						SubspaceExploreUtil.bfs(col, col, col, col);
+					});
+					measure(pictures[i], "dfs", (x, y, c, p) -> {
+						Coloring col = new Coloring(new Pixel(x, y), p, c);
+						SubspaceExploreUtil.dfs(col, col, col, col);
+					});
+					measure(pictures[i], "bfsv, hash", (x, y, c, p) -> {
+						Coloring col = new Coloring(new Pixel(x, y), p, c);
+						SubspaceExploreUtil.bfsv(col, col, col, col);
+					});
+				}
+				measure(pictures[i], "bfsv, bits", (x, y, c, p) -> {
+					Coloring col = new Coloring(new Pixel(x, y), p, c);
+					SubspaceExploreUtil.bfsv(col, col, col, col, col::indexOf, col.numberOfPixels());
+				});
+				measure(pictures[i], "scanline", (x, y, c, p) -> ScanlineFill.fill(p, x, y, c));
+			}
+			System.out.println();
+		}
+	}
+
+	/**
+	 * Fills a copy of <code>picture</code> from its top left corner, and prints
+	 * elapsed time and memory used after the fill.
+	 * 
+	 * @param picture   picture to copy and fill
+	 * @param name      name of the algorithm
+	 * @param algorithm filling algorithm
+	 */
+	private static void measure(ArrayPicture picture, String name, Fill algorithm) {
+		ArrayPicture copy = picture.copy();
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+
+		long start = System.nanoTime();
+		algorithm.fill(0, 0, FILL_COLOR, copy);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long after = runtime.totalMemory() - runtime.freeMemory();
+
+		System.out.format("  %-12s %8.3f s %12.0f pixels/s %8d MB allocated (at least)%n",
+				name, seconds, copy.count(FILL_COLOR) / seconds,
+				Math.max(0, after - before) >> 20);
+	}
+
+	/**
+	 * Filling algorithm, with the same arguments as
+	 * {@link FillAlgorithm#fill(int, int, int, Picture)}.
+	 * 
+	 * @author Luka Mesaric
+	 */
+	@FunctionalInterface
+	private interface Fill {
+
+		/**
+		 * Fills the region of <code>(x, y)</code>.
+		 * 
+		 * @param x       x-coordinate of reference pixel
+		 * @param y       y-coordinate of reference pixel
+		 * @param color   fill color
+		 * @param picture picture to fill
+		 */
+		void fill(int x, int y, int color, Picture picture);
+	}
+
+}
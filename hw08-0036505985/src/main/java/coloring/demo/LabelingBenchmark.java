@@ -0,0 +1,89 @@
+package coloring.demo;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import coloring.algorithms.ComponentLabeling;
+import coloring.algorithms.ScanlineFill;
+
+/**
+ * Measures how {@link ComponentLabeling} scales from one thread to the number
+ * of available processors on large pictures, and compares recoloring of a
+ * labelled region to {@link ScanlineFill scanline fill} of the same region.
+ * Pictures are random noise of two colors (a lot of small regions and one
+ * large region), and concentric rings (see {@link ArrayPicture#rings}).
+ * <p>
+ * Argument (optional): width and height of pictures (default
+ * <code>2048</code>, i.e. 4 megapixels).
+ *
+ * @author Luka Mesaric
+ */
+public class LabelingBenchmark {
+
+	/** Color used for recoloring, which differs from all colors of pictures. */
+	private static final int FILL_COLOR = 7;
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args size of pictures
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		ArrayPicture noise = new ArrayPicture(size, size);
+		Random random = new Random(13);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				noise.setPixelColor(x, y, random.nextInt(10) < 4 ? 1 : 0);
+			}
+		}
+		ArrayPicture[] pictures = { noise, ArrayPicture.rings(size, 4) };
+		String[] names = { "noise", "rings" };
+
+		for (int run = 0; run < 3; run++) {
+			for (int i = 0; i < pictures.length; i++) {
+				System.out.format("%s, %dx%d:%n", names[i], size, size);
+				ComponentLabeling labeling = null;
+				for (int threads = 1; threads <= processors; threads <<= 1) {
+					ForkJoinPool pool = new ForkJoinPool(threads);
+					try {
+						long start = System.nanoTime();
+						labeling = ComponentLabeling.label(pictures[i], pool);
+						report("label, " + threads + " thread(s)", start,
+								labeling.getComponentCount() + " regions");
+					} finally {
+						pool.shutdown();
+					}
+				}
+
+				ArrayPicture copy = pictures[i].copy();
+				long start = System.nanoTime();
+				ScanlineFill.fill(copy, 0, 0, FILL_COLOR);
+				report("scanline fill of (0, 0)", start, copy.count(FILL_COLOR) + " pixels");
+
+				int label = labeling.getLabel(0, 0);
+				int color = labeling.getColor(label);
+				start = System.nanoTime();
+				labeling.recolor(label, FILL_COLOR);
+				report("recolor of (0, 0)", start, labeling.getSize(label) + " pixels");
+				labeling.recolor(label, color);
+			}
+			System.out.println();
+		}
+	}
+
+	/**
+	 * Prints duration and result of one measurement.
+	 *
+	 * @param name   name of the measurement
+	 * @param start  start time, in nanoseconds
+	 * @param result description of result
+	 */
+	private static void report(String name, long start, String result) {
+		System.out.format("  %-26s %8.3f ms   %s%n",
+				name, (System.nanoTime() - start) / 1e6, result);
+	}
+
+}
@@ -0,0 +1,389 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Executes a script of shell commands without prompting, writing all output to
+ * the given environment.
+ * <p>
+ * Each line of the script is a single command, or a pipeline of commands
+ * separated by {@value #PIPE_SYMBOL}. Every command of a pipeline reads output
+ * lines of the previous command as its input (e.g. <code>echo yes | copy a b</code>
+ * answers the question asked by <code>copy</code>), and only output of the last
+ * command is written. A command which reports an error stops the pipeline:
+ * its errors are written instead of being passed on as input. Symbol
+ * {@value #PIPE_SYMBOL} inside a quoted string does not separate commands.
+ * Lines ending with the <code>MORELINES</code> symbol are joined with the next
+ * line, and blank lines and lines starting with {@value #COMMENT_SYMBOL} are
+ * skipped. A command which reads more input than it was given fails with a
+ * message; script execution continues.
+ * <p>
+ * Lines executed on the calling thread which consist of a single command
+ * write directly to the environment, so their output is streamed rather than
+ * held in memory; only pipelines and lines executed concurrently are captured.
+ * <p>
+ * With more than one thread, independent lines are executed concurrently, but
+ * their output is still written in script order. Lines containing a command
+ * which {@link ShellCommand#modifiesEnvironment() modifies environment} (e.g.
+ * <code>cd</code>) act as barriers: they are executed alone, after all previous
+ * lines have finished. Lines which work with the same files must not be
+ * executed concurrently.
+ *
+ * @author Luka Mesaric
+ */
+public class BatchRunner implements AutoCloseable {
+
+	/** Symbol which separates commands of a pipeline. */
+	public static final char PIPE_SYMBOL = '|';
+
+	/** Symbol which starts a comment line. */
+	public static final char COMMENT_SYMBOL = '#';
+
+	/** Maximal number of lines executed ahead of written output, per thread. */
+	private static final int PENDING_LINES_PER_THREAD = 4;
+
+	/** Environment used for execution and output. */
+	private final Environment env;
+
+	/** Pool executing independent lines, <code>null</code> if sequential. */
+	private final ExecutorService pool;
+
+	/** Maximal number of lines whose output is not yet written. */
+	private final int maxPending;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  env                      environment used for execution and output
+	 * @param  threads                  number of threads used for executing
+	 *                                  independent lines; <code>1</code>
+	 *                                  executes all lines sequentially, on the
+	 *                                  calling thread
+	 * @throws NullPointerException     if <code>env</code> is <code>null</code>
+	 * @throws IllegalArgumentException if <code>threads</code> is less than
+	 *                                  <code>1</code>
+	 */
+	public BatchRunner(Environment env, int threads) {
+		this.env = ExceptionUtil.validateNotNull(env, "env");
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"Number of threads must be positive, received: " + threads);
+		}
+		this.maxPending = threads * PENDING_LINES_PER_THREAD;
+		this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "batch-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Executes the given script.
+	 *
+	 * @param  script               lines of the script
+	 * @return                      {@link ShellStatus#TERMINATE} if script
+	 *                              executed <code>exit</code>,
+	 *                              {@link ShellStatus#CONTINUE} otherwise
+	 * @throws ShellIOException     if writing output fails, or execution is
+	 *                              interrupted
+	 * @throws NullPointerException if <code>script</code> is <code>null</code>
+	 */
+	public ShellStatus run(List<String> script) throws ShellIOException {
+		ExceptionUtil.validateNotNull(script, "script");
+
+		Deque<Future<LineResult>> pending = new ArrayDeque<>();
+		try {
+			for (ScriptLine line : parse(script)) {
+				if (pool == null || modifiesEnvironment(line)) {
+					writePending(pending, 0);
+					if (executeSequentially(line) == ShellStatus.TERMINATE) {
+						return ShellStatus.TERMINATE;
+					}
+				} else {
+					pending.addLast(pool.submit(() -> execute(line)));
+					writePending(pending, maxPending - 1);
+				}
+			}
+			writePending(pending, 0);
+			return ShellStatus.CONTINUE;
+		} finally {
+			pending.forEach(future -> future.cancel(true));
+		}
+	}
+
+	/**
+	 * Shuts down the worker threads.
+	 */
+	@Override
+	public void close() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Writes output of pending lines, in script order. Waits until at most
+	 * <code>limit</code> lines are pending; output of lines which have already
+	 * finished is written regardless of the limit.
+	 *
+	 * @param  pending          pending lines, in script order
+	 * @param  limit            maximal number of lines left pending
+	 * @throws ShellIOException if writing fails, or waiting is interrupted
+	 */
+	private void writePending(Deque<Future<LineResult>> pending, int limit)
+			throws ShellIOException {
+		boolean written = false;
+		while (!pending.isEmpty()
+				&& (pending.size() > limit || pending.peekFirst().isDone())) {
+			try {
+				pending.peekFirst().get().output.writeOutputTo(env);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ShellIOException("Batch execution interrupted.", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+			pending.removeFirst();
+			written = true;
+		}
+		if (written) {
+			env.flush();
+		}
+	}
+
+	/**
+	 * Checks whether any command of the given line modifies environment.
+	 *
+	 * @param  line line to check
+	 * @return      <code>true</code> if line modifies environment
+	 */
+	private boolean modifiesEnvironment(ScriptLine line) {
+		for (String[] stage : line.stages) {
+			ShellCommand command = env.commands().get(stage[0]);
+			if (command != null && command.modifiesEnvironment()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Executes a single line on the calling thread, and writes its output. A
+	 * single command writes directly to the environment; output of a pipeline
+	 * is captured and written once the pipeline finishes.
+	 *
+	 * @param  line             line to execute
+	 * @return                  status returned by the last executed command
+	 * @throws ShellIOException if writing output fails
+	 */
+	private ShellStatus executeSequentially(ScriptLine line) throws ShellIOException {
+		if (line.stages.size() == 1) {
+			return executeStage(line, line.stages.get(0), new NoInputEnvironment(env));
+		}
+		LineResult result = execute(line);
+		result.output.writeOutputTo(env);
+		return result.status;
+	}
+
+	/**
+	 * Executes all commands of a single line, passing output of each command as
+	 * input of the next one. If a command reports an error, the pipeline stops,
+	 * and only the errors of that command are kept as output of the line.
+	 *
+	 * @param  line             line to execute
+	 * @return                  result of the last executed command
+	 * @throws ShellIOException if writing to a captured environment fails
+	 */
+	private LineResult execute(ScriptLine line) throws ShellIOException {
+		List<String> input = Collections.emptyList();
+		int last = line.stages.size() - 1;
+		for (int i = 0;; i++) {
+			String[] stage = line.stages.get(i);
+			CapturingEnvironment stageEnv = new CapturingEnvironment(env, input);
+			ShellStatus status = executeStage(line, stage, stageEnv);
+			if (i == last || status == ShellStatus.TERMINATE) {
+				return new LineResult(stageEnv, status);
+			}
+			if (!stageEnv.getErrors().isEmpty()) {
+				CapturingEnvironment errorEnv =
+						new CapturingEnvironment(env, Collections.emptyList());
+				stageEnv.getErrors().forEach(errorEnv::writeln);
+				errorEnv.writeError("Line " + line.number + ": command " + stage[0]
+						+ " failed, pipeline stopped.");
+				return new LineResult(errorEnv, ShellStatus.CONTINUE);
+			}
+			input = stageEnv.getOutputLines();
+		}
+	}
+
+	/**
+	 * Executes a single command of a line. Failures are reported to
+	 * <code>stageEnv</code> as errors.
+	 *
+	 * @param  line             line which contains the command
+	 * @param  stage            command, as <code>{name, arguments}</code> pair
+	 * @param  stageEnv         environment used for execution
+	 * @return                  status returned by the command, or
+	 *                          {@link ShellStatus#CONTINUE} if it failed
+	 * @throws ShellIOException if writing to <code>stageEnv</code> fails
+	 */
+	private ShellStatus executeStage(ScriptLine line, String[] stage, Environment stageEnv)
+			throws ShellIOException {
+		if (stage[0].isEmpty()) {
+			stageEnv.writeError("Line " + line.number + ": empty command in pipeline.");
+			return ShellStatus.CONTINUE;
+		}
+		ShellCommand command = env.commands().get(stage[0]);
+		if (command == null) {
+			stageEnv.writeError("Unknown command: " + stage[0]);
+			return ShellStatus.CONTINUE;
+		}
+		try {
+			return command.executeCommand(stageEnv, stage[1]);
+		} catch (ShellIOException e) {
+			stageEnv.writeError("Line " + line.number + ": " + e.getMessage());
+			return ShellStatus.CONTINUE;
+		}
+	}
+
+	/**
+	 * Parses the script into lines of commands. Joins continued lines, skips
+	 * blank lines and comments, and splits pipelines into commands.
+	 *
+	 * @param  script lines of the script
+	 * @return        parsed lines
+	 */
+	private List<ScriptLine> parse(List<String> script) {
+		String moreLines = env.getMorelinesSymbol().toString();
+		List<ScriptLine> lines = new ArrayList<>();
+		StringBuilder sb = new StringBuilder();
+		int first = 0;
+		for (int i = 0; i < script.size(); i++) {
+			String text = script.get(i).strip();
+			if (sb.length() == 0) {
+				first = i + 1;
+			}
+			if (text.endsWith(moreLines)) {
+				sb.append(text, 0, text.length() - moreLines.length());
+				continue;
+			}
+			sb.append(text);
+			String command = sb.toString().strip();
+			sb.setLength(0);
+			if (!command.isEmpty() && command.charAt(0) != COMMENT_SYMBOL) {
+				lines.add(new ScriptLine(first, splitPipeline(command)));
+			}
+		}
+		String command = sb.toString().strip();
+		if (!command.isEmpty() && command.charAt(0) != COMMENT_SYMBOL) {
+			lines.add(new ScriptLine(first, splitPipeline(command)));
+		}
+		return lines;
+	}
+
+	/**
+	 * Splits a pipeline into commands. Each command is split into its name and
+	 * arguments. {@value #PIPE_SYMBOL} inside quoted strings (where quotation
+	 * marks and backslashes may be escaped) does not separate commands.
+	 *
+	 * @param  pipeline pipeline to split
+	 * @return          list of <code>{name, arguments}</code> pairs
+	 */
+	static List<String[]> splitPipeline(String pipeline) {
+		List<String[]> stages = new ArrayList<>();
+		boolean quoted = false;
+		int start = 0;
+		for (int i = 0; i < pipeline.length(); i++) {
+			char c = pipeline.charAt(i);
+			if (quoted && c == '\\') {
+				i++;
+			} else if (c == '"') {
+				quoted = !quoted;
+			} else if (!quoted && c == PIPE_SYMBOL) {
+				stages.add(splitCommand(pipeline.substring(start, i)));
+				start = i + 1;
+			}
+		}
+		stages.add(splitCommand(pipeline.substring(start)));
+		return stages;
+	}
+
+	/**
+	 * Splits a single command into its name and arguments, the same way
+	 * {@link MyShell} does.
+	 *
+	 * @param  command command to split
+	 * @return         <code>{name, arguments}</code> pair
+	 */
+	private static String[] splitCommand(String command) {
+		String[] split = command.strip().split("\\s+", 2);
+		return new String[] { split[0], split.length < 2 ? "" : split[1] };
+	}
+
+	/**
+	 * Parsed line of a script.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class ScriptLine {
+
+		/** Number of the first line in the script, starting from 1. */
+		private final int number;
+
+		/** Commands of the pipeline, as <code>{name, arguments}</code> pairs. */
+		private final List<String[]> stages;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param number number of the first line in the script
+		 * @param stages commands of the pipeline
+		 */
+		private ScriptLine(int number, List<String[]> stages) {
+			this.number = number;
+			this.stages = stages;
+		}
+	}
+
+	/**
+	 * Result of executing a single line.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class LineResult {
+
+		/** Environment holding output of the last command. */
+		private final CapturingEnvironment output;
+
+		/** Status returned by the last command. */
+		private final ShellStatus status;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param output environment holding output of the last command
+		 * @param status status returned by the last command
+		 */
+		private LineResult(CapturingEnvironment output, ShellStatus status) {
+			this.output = output;
+			this.status = status;
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * In-memory environment used by batch mode. All output is captured in memory,
+ * and input is read from a given list of lines (e.g. output of the previous
+ * command in a pipeline). All other state (current directory, symbols, shared
+ * data and commands) is delegated to the parent environment.
+ * <p>
+ * Output is never written to the parent environment by this class; it is
+ * caller's responsibility to copy it using {@link #writeOutputTo(Environment)}.
+ * Error messages are captured in order with the rest of output, and are also
+ * kept separately, so that a pipeline can stop at a failing command.
+ * Each instance is meant to be used by a single thread.
+ *
+ * @author Luka Mesaric
+ */
+public class CapturingEnvironment implements Environment {
+
+	/** Line separator appended by {@link #writeln(String)}. */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/** Environment which holds all state except input and output. */
+	private final Environment parent;
+
+	/** Lines which are yet to be read. */
+	private final Deque<String> input;
+
+	/** Captured output. */
+	private final StringBuilder output = new StringBuilder();
+
+	/** Captured error messages, also contained in {@link #output}. */
+	private final List<String> errors = new ArrayList<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  parent               environment which holds all state except input
+	 *                              and output
+	 * @param  input                lines returned by {@link #readLine()}, in order
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public CapturingEnvironment(Environment parent, List<String> input) {
+		this.parent = ExceptionUtil.validateNotNull(parent, "parent");
+		this.input = new ArrayDeque<>(ExceptionUtil.validateNotNull(input, "input"));
+	}
+
+	/**
+	 * Returns the next line of input.
+	 *
+	 * @throws ShellIOException if there is no more input
+	 */
+	@Override
+	public String readLine() throws ShellIOException {
+		String line = input.pollFirst();
+		if (line == null) {
+			throw new ShellIOException("No more input.");
+		}
+		return line;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public void write(String text) {
+		ExceptionUtil.validateNotNull(text, "text");
+		output.append(text);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public void writeln(String text) {
+		ExceptionUtil.validateNotNull(text, "text");
+		output.append(text).append(LINE_SEPARATOR);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException      {@inheritDoc}
+	 * @throws IndexOutOfBoundsException {@inheritDoc}
+	 */
+	@Override
+	public void write(CharSequence text, int start, int end) {
+		ExceptionUtil.validateNotNull(text, "text");
+		Objects.checkFromToIndex(start, end, text.length());
+		output.append(text, start, end);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public void writeError(String text) {
+		writeln(text);
+		errors.add(text);
+	}
+
+	/**
+	 * Returns error messages captured by {@link #writeError(String)}, in order.
+	 *
+	 * @return unmodifiable list of error messages, empty if command succeeded
+	 */
+	public List<String> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	/**
+	 * Returns all captured output, split into lines. Line terminators are not
+	 * included, and a missing terminator of the last line is tolerated.
+	 *
+	 * @return captured lines, never <code>null</code>
+	 */
+	public List<String> getOutputLines() {
+		List<String> lines = new ArrayList<>();
+		int start = 0;
+		int length = output.length();
+		for (int i = 0; i < length; i++) {
+			char c = output.charAt(i);
+			if (c == '\n' || c == '\r') {
+				lines.add(output.substring(start, i));
+				if (c == '\r' && i + 1 < length && output.charAt(i + 1) == '\n') {
+					i++;
+				}
+				start = i + 1;
+			}
+		}
+		if (start < length) {
+			lines.add(output.substring(start));
+		}
+		return lines;
+	}
+
+	/**
+	 * Writes all captured output to <code>env</code>, with a single write.
+	 *
+	 * @param  env                  environment to write to
+	 * @throws ShellIOException     if writing fails
+	 * @throws NullPointerException if <code>env</code> is <code>null</code>
+	 */
+	public void writeOutputTo(Environment env) throws ShellIOException {
+		ExceptionUtil.validateNotNull(env, "env");
+		env.write(output, 0, output.length());
+	}
+
+	@Override
+	public SortedMap<String, ShellCommand> commands() { return parent.commands(); }
+
+	@Override
+	public Character getMultilineSymbol() { return parent.getMultilineSymbol(); }
+
+	@Override
+	public void setMultilineSymbol(Character symbol) { parent.setMultilineSymbol(symbol); }
+
+	@Override
+	public Character getPromptSymbol() { return parent.getPromptSymbol(); }
+
+	@Override
+	public void setPromptSymbol(Character symbol) { parent.setPromptSymbol(symbol); }
+
+	@Override
+	public Character getMorelinesSymbol() { return parent.getMorelinesSymbol(); }
+
+	@Override
+	public void setMorelinesSymbol(Character symbol) { parent.setMorelinesSymbol(symbol); }
+
+	@Override
+	public Path getCurrentDirectory() { return parent.getCurrentDirectory(); }
+
+	@Override
+	public void setCurrentDirectory(Path path) { parent.setCurrentDirectory(path); }
+
+	@Override
+	public Object getSharedData(String key) { return parent.getSharedData(key); }
+
+	@Override
+	public void setSharedData(String key, Object value) { parent.setSharedData(key, value); }
+
+}
@@ -44,6 +44,51 @@ public interface Environment {
 	 */
 	void writeln(String text) throws ShellIOException;
 
+	/**
+	 * Writes an error message to user, and then terminates the line. Commands
+	 * report failures through this method, so that callers (e.g. pipelines in
+	 * batch mode) can tell errors apart from regular output.<br>
+	 * Default implementation delegates to {@link #writeln(String)}.
+	 * 
+	 * @param  text                 error message to write
+	 * @throws ShellIOException     if writing fails
+	 * @throws NullPointerException if <code>text</code> is <code>null</code>
+	 * @see                         #writeln(String)
+	 */
+	default void writeError(String text) throws ShellIOException {
+		writeln(text);
+	}
+
+	/**
+	 * Writes characters of <code>text</code> from index <code>start</code>
+	 * (inclusive) to index <code>end</code> (exclusive) to user. Meant for bulk
+	 * output, such as large blocks of already formatted lines.<br>
+	 * Default implementation delegates to {@link #write(String)}.
+	 * 
+	 * @param  text                      text to write
+	 * @param  start                     index of the first character to write
+	 * @param  end                       index after the last character to write
+	 * @throws ShellIOException          if writing fails
+	 * @throws NullPointerException      if <code>text</code> is <code>null</code>
+	 * @throws IndexOutOfBoundsException if <code>start</code> or
+	 *                                   <code>end</code> is out of bounds
+	 * @see                              #write(String)
+	 */
+	default void write(CharSequence text, int start, int end) throws ShellIOException {
+		write(text.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Forces any buffered output to be written to user. Environment flushes its
+	 * output before reading user input, so commands only need to call this
+	 * method when they want partial output to be seen while they are still
+	 * running (e.g. progress reports).<br>
+	 * Default implementation does nothing.
+	 * 
+	 * @throws ShellIOException if writing fails
+	 */
+	default void flush() throws ShellIOException {}
+
 	/**
 	 * Returns an unmodifiable map of command names mapped to corresponding
 	 * instances of {@link ShellCommand}.
@@ -1,13 +1,24 @@
 package hr.fer.zemris.java.hw06.shell;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -17,6 +28,7 @@ import hr.fer.zemris.java.hw06.shell.commands.CdShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CharsetsShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.CopyShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.DropdShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.EchoShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.ExitShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HelpShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.HexdumpShellCommand;
@@ -29,6 +41,7 @@ import hr.fer.zemris.java.hw06.shell.commands.PushdShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.PwdShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.SymbolShellCommand;
 import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
+import hr.fer.zemris.java.hw06.shell.util.CommandOptions;
 
 /**
  * Implementation of a shell that uses standard output to write messages and
@@ -39,16 +52,69 @@ import hr.fer.zemris.java.hw06.shell.commands.TreeShellCommand;
 public class MyShell implements Environment {
 
 	/**
-	 * Program entry point
+	 * Program entry point. Usage: <code>MyShell [--threads=N] [SCRIPT]</code>.
+	 * <p>
+	 * Without arguments, shell reads commands interactively. If a script file is
+	 * given, commands from it are executed in batch mode (see
+	 * {@link BatchRunner}), using <code>N</code> threads for independent lines
+	 * (default <code>1</code>).
 	 * 
-	 * @param args ignored
+	 * @param args options and path to script file
 	 */
 	public static void main(String[] args) {
+		CommandOptions options;
+		long threads;
+		try {
+			options = CommandOptions.parse(Arrays.asList(args), Set.of(THREADS_OPTION));
+			threads = options.getNonNegativeLong(THREADS_OPTION, 1);
+			if (threads < 1 || threads > MAX_BATCH_THREADS) {
+				throw new IllegalArgumentException(
+						"Number of threads must be between 1 and " + MAX_BATCH_THREADS);
+			} else if (options.getArguments().size() > 1) {
+				throw new IllegalArgumentException("At most one script can be given.");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: MyShell [--" + THREADS_OPTION + "=N] [SCRIPT]");
+			return;
+		}
+
 		try (Scanner sc = new Scanner(System.in)) {
-			new MyShell(sc).run();
+			if (options.getArguments().isEmpty()) {
+				new MyShell(sc).run();
+				return;
+			}
+			List<String> script;
+			try {
+				script = Files.readAllLines(Paths.get(options.getArguments().get(0)));
+			} catch (IOException | InvalidPathException e) {
+				System.err.println("Cannot read script: " + e.getMessage());
+				return;
+			}
+			new MyShell(sc).runBatch(script, (int) threads);
 		}
 	}
 
+	/**
+	 * Name of the option which sets number of threads in batch mode.
+	 */
+	private static final String THREADS_OPTION = "threads";
+
+	/**
+	 * Maximal number of threads in batch mode.
+	 */
+	private static final int MAX_BATCH_THREADS = 64;
+
+	/**
+	 * Size of output buffer, in characters.
+	 */
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Line separator appended by {@link #writeln(String)}.
+	 */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
 	/**
 	 * Prompt symbol for first line of input.
 	 */
@@ -76,6 +142,11 @@ public class MyShell implements Environment {
 	 */
 	private final Scanner scanner;
 
+	/**
+	 * Buffered writer used to write output. Flushed before reading user input.
+	 */
+	private final Writer out;
+
 	/**
 	 * Map of all supported shell commands.
 	 */
@@ -87,20 +158,29 @@ public class MyShell implements Environment {
 	private final Map<String, Object> sharedData = new HashMap<>();
 
 	/**
-	 * Default constructor.<br>
+	 * Default constructor. Output is written to {@link System#out}.<br>
 	 * It is caller's responsibility to close given scanner.
 	 * 
 	 * @param  sc                   scanner used to read user input
 	 * @throws NullPointerException if <code>sc</code> is <code>null</code>
 	 */
 	public MyShell(Scanner sc) {
-		this.scanner = ExceptionUtil.validateNotNull(sc, "sc");
+		this(sc, new OutputStreamWriter(System.out, Charset.defaultCharset()));
 	}
 
 	/**
-	 * Starts the shell. Reads user input and executes given commands.
+	 * Constructor which writes output to <code>out</code>. Output is buffered, so
+	 * <code>out</code> does not need to be.<br>
+	 * It is caller's responsibility to close given scanner and writer.
+	 * 
+	 * @param  sc                   scanner used to read user input
+	 * @param  out                  writer used to write output
+	 * @throws NullPointerException if any argument is <code>null</code>
 	 */
-	public void run() {
+	public MyShell(Scanner sc, Writer out) {
+		this.scanner = ExceptionUtil.validateNotNull(sc, "sc");
+		this.out = new BufferedWriter(
+				ExceptionUtil.validateNotNull(out, "out"), OUTPUT_BUFFER_SIZE);
 
 		registerShellCommands(
 				new CatShellCommand(),
@@ -108,6 +188,7 @@ public class MyShell implements Environment {
 				new CharsetsShellCommand(),
 				new CopyShellCommand(),
 				new DropdShellCommand(),
+				new EchoShellCommand(),
 				new ExitShellCommand(),
 				new HelpShellCommand(),
 				new HexdumpShellCommand(),
@@ -122,7 +203,12 @@ public class MyShell implements Environment {
 				new TreeShellCommand());
 
 		setCurrentDirectory(Paths.get("."));
+	}
 
+	/**
+	 * Starts the shell. Reads user input and executes given commands.
+	 */
+	public void run() {
 		try {
 			writeln("Welcome to MyShell v 1.0");
 			ShellStatus shellStatus = ShellStatus.CONTINUE;
@@ -143,6 +229,7 @@ public class MyShell implements Environment {
 				shellStatus = command.executeCommand(this, arguments);
 			} while (shellStatus != ShellStatus.TERMINATE);
 
+			flush();
 		} catch (ShellIOException e) {
 			// using 'writeln' might throw another ShellIOException!
 			System.out.format("%nException occured: %s%nTerminating the shell!%n",
@@ -151,6 +238,31 @@ public class MyShell implements Environment {
 
 	}
 
+	/**
+	 * Executes commands from <code>script</code> without prompting, and then
+	 * returns. Output of independent lines is written in script order.
+	 * 
+	 * @param  script                   lines of the script
+	 * @param  threads                  number of threads used for executing
+	 *                                  independent lines
+	 * @throws NullPointerException     if <code>script</code> is <code>null</code>
+	 * @throws IllegalArgumentException if <code>threads</code> is less than
+	 *                                  <code>1</code>
+	 * @see                             BatchRunner
+	 */
+	public void runBatch(List<String> script, int threads) {
+		ExceptionUtil.validateNotNull(script, "script");
+
+		try (BatchRunner runner = new BatchRunner(this, threads)) {
+			runner.run(script);
+			flush();
+		} catch (ShellIOException e) {
+			// using 'writeln' might throw another ShellIOException!
+			System.out.format("%nException occured: %s%nTerminating the shell!%n",
+					e.getMessage());
+		}
+	}
+
 	/**
 	 * Helper method for adding multiple shell commands to the map of all commands.
 	 * 
@@ -176,6 +288,7 @@ public class MyShell implements Environment {
 			StringBuilder sb = new StringBuilder();
 			write(getPromptSymbol().toString());
 			write(" ");
+			flush();
 			do {
 				String line = scanner.nextLine().strip();
 				if (!line.endsWith(getMorelinesSymbol().toString())) {
@@ -184,6 +297,7 @@ public class MyShell implements Environment {
 				sb.append(line, 0, line.length() - 1);
 				write(getMultilineSymbol().toString());
 				write(" ");
+				flush();
 			} while (true);
 		} catch (NoSuchElementException | IllegalStateException e) {
 			throw new ShellIOException(e.getMessage(), e);
@@ -201,7 +315,11 @@ public class MyShell implements Environment {
 		// NPE is deliberately thrown (unmasked) to detect possible bugs in the code.
 		// The code that was written should never actually cause an NPE.
 		ExceptionUtil.validateNotNull(text, "text");
-		System.out.print(text);
+		try {
+			out.write(text);
+		} catch (IOException e) {
+			throw new ShellIOException(e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -215,8 +333,53 @@ public class MyShell implements Environment {
 		// NPE is deliberately thrown (unmasked) to detect possible bugs in the code.
 		// The code that was written should never actually cause an NPE.
 		ExceptionUtil.validateNotNull(text, "text");
-		// %n outputs a platform-specific line separator.
-		write(String.format("%s%n", text));
+		try {
+			out.write(text);
+			out.write(LINE_SEPARATOR);
+		} catch (IOException e) {
+			throw new ShellIOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @throws ShellIOException          {@inheritDoc}
+	 * @throws NullPointerException      {@inheritDoc}
+	 * @throws IndexOutOfBoundsException {@inheritDoc}
+	 */
+	@Override
+	public void write(CharSequence text, int start, int end) throws ShellIOException {
+		ExceptionUtil.validateNotNull(text, "text");
+		Objects.checkFromToIndex(start, end, text.length());
+		try {
+			if (text instanceof String) {
+				out.write((String) text, start, end - start);
+			} else if (text instanceof CharBuffer && ((CharBuffer) text).hasArray()) {
+				// avoids copying the characters into an intermediate string
+				CharBuffer buffer = (CharBuffer) text;
+				int offset = buffer.arrayOffset() + buffer.position();
+				out.write(buffer.array(), offset + start, end - start);
+			} else {
+				out.append(text, start, end);
+			}
+		} catch (IOException e) {
+			throw new ShellIOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @throws ShellIOException {@inheritDoc}
+	 */
+	@Override
+	public void flush() throws ShellIOException {
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new ShellIOException(e.getMessage(), e);
+		}
 	}
 
 	@Override
@@ -0,0 +1,92 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.nio.file.Path;
+import java.util.SortedMap;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Environment used by batch mode for commands whose output is not captured.
+ * Output and all other state are delegated to the parent environment, so
+ * output is streamed as it is written, but there is no input: commands which
+ * ask the user fail, as if a pipeline gave them no input.
+ *
+ * @author Luka Mesaric
+ */
+class NoInputEnvironment implements Environment {
+
+	/** Environment which holds all state except input. */
+	private final Environment parent;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  parent               environment which holds all state except
+	 *                              input
+	 * @throws NullPointerException if <code>parent</code> is <code>null</code>
+	 */
+	NoInputEnvironment(Environment parent) {
+		this.parent = ExceptionUtil.validateNotNull(parent, "parent");
+	}
+
+	/**
+	 * Always fails, since there is no input.
+	 *
+	 * @throws ShellIOException always
+	 */
+	@Override
+	public String readLine() throws ShellIOException {
+		throw new ShellIOException("No more input.");
+	}
+
+	@Override
+	public void write(String text) throws ShellIOException { parent.write(text); }
+
+	@Override
+	public void writeln(String text) throws ShellIOException { parent.writeln(text); }
+
+	@Override
+	public void writeError(String text) throws ShellIOException { parent.writeError(text); }
+
+	@Override
+	public void write(CharSequence text, int start, int end) throws ShellIOException {
+		parent.write(text, start, end);
+	}
+
+	@Override
+	public void flush() throws ShellIOException { parent.flush(); }
+
+	@Override
+	public SortedMap<String, ShellCommand> commands() { return parent.commands(); }
+
+	@Override
+	public Character getMultilineSymbol() { return parent.getMultilineSymbol(); }
+
+	@Override
+	public void setMultilineSymbol(Character symbol) { parent.setMultilineSymbol(symbol); }
+
+	@Override
+	public Character getPromptSymbol() { return parent.getPromptSymbol(); }
+
+	@Override
+	public void setPromptSymbol(Character symbol) { parent.setPromptSymbol(symbol); }
+
+	@Override
+	public Character getMorelinesSymbol() { return parent.getMorelinesSymbol(); }
+
+	@Override
+	public void setMorelinesSymbol(Character symbol) { parent.setMorelinesSymbol(symbol); }
+
+	@Override
+	public Path getCurrentDirectory() { return parent.getCurrentDirectory(); }
+
+	@Override
+	public void setCurrentDirectory(Path path) { parent.setCurrentDirectory(path); }
+
+	@Override
+	public Object getSharedData(String key) { return parent.getSharedData(key); }
+
+	@Override
+	public void setSharedData(String key, Object value) { parent.setSharedData(key, value); }
+
+}
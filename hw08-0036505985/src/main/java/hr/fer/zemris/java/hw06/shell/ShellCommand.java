@@ -34,4 +34,17 @@ public interface ShellCommand {
 	 */
 	List<String> getCommandDescription();
 
+	/**
+	 * Checks whether this command changes state of the environment (e.g. current
+	 * directory, symbols or shared data), or terminates the shell. Batch mode
+	 * never executes such commands concurrently with other commands.<br>
+	 * Default implementation returns <code>false</code>.
+	 * 
+	 * @return <code>true</code> if executing this command changes state of the
+	 *         environment
+	 */
+	default boolean modifiesEnvironment() {
+		return false;
+	}
+
 }
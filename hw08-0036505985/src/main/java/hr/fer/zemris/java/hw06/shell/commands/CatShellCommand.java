@@ -1,25 +1,33 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.stream.Stream;
 
 import hr.fer.zemris.java.hw06.ExceptionUtil;
 import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
 import hr.fer.zemris.java.hw06.shell.ShellStatus;
 import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+import hr.fer.zemris.java.hw06.shell.util.CommandOptions;
 
 /**
  * Opens given file and writes its content to console.<br>
@@ -27,7 +35,16 @@ import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
  * path to some file. The second argument (optional) is name of charset that
  * should be used to read from file. If charset name is not provided, a default
  * platform charset is used.
- * 
+ * <p>
+ * Option <code>--head=N</code> writes only the first <code>N</code> lines, and
+ * option <code>--tail=N</code> writes only the last <code>N</code> lines. Lines
+ * are terminated by <code>'\n'</code>. For charsets in which <code>'\n'</code>
+ * is encoded as a single byte <code>0x0A</code> (e.g. UTF-8 or ISO-8859-2),
+ * tail is found by scanning the file backwards from its end.
+ * <p>
+ * File content is decoded in large chunks and written to the environment
+ * without splitting it into lines. Large files are memory-mapped.
+ *
  * @author Luka Mesaric
  */
 public class CatShellCommand implements ShellCommand {
@@ -38,16 +55,33 @@ public class CatShellCommand implements ShellCommand {
 	/** Description of this command. */
 	private static final List<String> COMMAND_DESCRIPTION = Arrays.asList(
 			"Opens given file and writes its content to console.",
-			"Command takes either one or two arguments.",
+			"Signature is as follows: cat [--head=N | --tail=N] FILE [CHARSET]",
 			"The first argument (mandatory) is path to some file.",
 			"The second argument (optional) is name of charset "
 					+ "that should be used to read from file.",
 			"If charset name is not provided, "
-					+ "a default platform charset is used.");
+					+ "a default platform charset is used.",
+			"Option --head writes only the first N lines, "
+					+ "option --tail only the last N lines.");
+
+	/** Number of characters decoded and written at once. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Files of at least this many bytes are memory-mapped. */
+	private static final long MAP_THRESHOLD = 1 << 20;
+
+	/** Number of bytes mapped at once. */
+	private static final long MAP_WINDOW = 64 << 20;
+
+	/** Name of option which limits output to the first lines. */
+	private static final String OPTION_HEAD = "head";
+
+	/** Name of option which limits output to the last lines. */
+	private static final String OPTION_TAIL = "tail";
 
 	/**
 	 * {@inheritDoc}
-	 * 
+	 *
 	 * @throws NullPointerException {@inheritDoc}
 	 */
 	@Override
@@ -55,14 +89,28 @@ public class CatShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(env, "env");
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
-		List<String> strings = ArgumentChecker.safeParseStrings(arguments, env);
-		if (strings == null) {
+		CommandOptions options = ArgumentChecker.safeParseOptions(
+				arguments, env, OPTION_HEAD, OPTION_TAIL);
+		if (options == null) {
+			return ShellStatus.CONTINUE;
+		}
+		long head, tail;
+		try {
+			head = options.getNonNegativeLong(OPTION_HEAD, Long.MAX_VALUE);
+			tail = options.getNonNegativeLong(OPTION_TAIL, -1);
+		} catch (IllegalArgumentException e) {
+			env.writeError(e.getMessage());
+			return ShellStatus.CONTINUE;
+		}
+		if (options.hasOption(OPTION_HEAD) && options.hasOption(OPTION_TAIL)) {
+			env.writeError("Options head and tail cannot be used together.");
 			return ShellStatus.CONTINUE;
 		}
 
+		List<String> strings = options.getArguments();
 		int size = strings.size();
 		if (size != 1 && size != 2) {
-			env.writeln("Expected one or two arguments. Received: " + size);
+			env.writeError("Expected one or two arguments. Received: " + size);
 			return ShellStatus.CONTINUE;
 		}
 
@@ -70,7 +118,7 @@ public class CatShellCommand implements ShellCommand {
 		try {
 			path = Paths.get(strings.get(0));
 		} catch (InvalidPathException e) {
-			env.writeln("Invalid path: " + e.getMessage());
+			env.writeError("Invalid path: " + e.getMessage());
 			return ShellStatus.CONTINUE;
 		}
 		path = ArgumentChecker.resolveAgainstCurrentDir(path, env);
@@ -85,35 +133,187 @@ public class CatShellCommand implements ShellCommand {
 			try {
 				charset = Charset.forName(strings.get(1));
 			} catch (IllegalArgumentException e) {
-				env.writeln("Unsupported charset: " + e.getMessage());
+				env.writeError("Unsupported charset: " + e.getMessage());
 				return ShellStatus.CONTINUE;
 			}
 		}
 
-		writeToEnvironment(env, path, charset);
+		try {
+			if (tail >= 0 && !isNewlineSingleByte(charset)) {
+				writeTailByLines(env, path, charset, tail);
+			} else {
+				writeToEnvironment(env, path, charset, head, tail);
+			}
+		} catch (IOException | UncheckedIOException | SecurityException e) {
+			env.writeError("Exception occured while reading from file: "
+					+ e.getMessage());
+		}
 
 		return ShellStatus.CONTINUE;
 	}
 
 	/**
-	 * Reads all data from <code>path</code> and writes it to <code>env</code>. If
-	 * any exception occurs, an error message is written.
-	 * 
-	 * @param env     environment used for writing output
-	 * @param path    path to read from, must represent a valid regular file
-	 * @param charset charset to use for reading
+	 * Decodes data from <code>path</code> in chunks and writes it to
+	 * <code>env</code>. Line terminators are written as they appear in the file,
+	 * and the last line is terminated if the file does not end with a line
+	 * terminator.
+	 *
+	 * @param  env         environment used for writing output
+	 * @param  path        path to read from, must represent a valid regular file
+	 * @param  charset     charset to use for reading
+	 * @param  head        maximal number of written lines, <code>Long.MAX_VALUE</code>
+	 *                     for no limit
+	 * @param  tail        number of lines written from the end of file, negative
+	 *                     to write from the start; used only if
+	 *                     {@link #isNewlineSingleByte(Charset)} holds for
+	 *                     <code>charset</code>
+	 * @throws IOException if file cannot be read
 	 */
-	private void writeToEnvironment(Environment env, Path path, Charset charset) {
-		try (BufferedReader br = new BufferedReader(
-				new InputStreamReader(
-						new BufferedInputStream(Files.newInputStream(path)),
-						charset));
-				Stream<String> lines = br.lines()) {
-			lines.forEach(env::writeln);
-		} catch (IOException | UncheckedIOException | SecurityException e) {
-			env.writeln("Exception occured while reading from file: "
-					+ e.getMessage());
+	private void writeToEnvironment(Environment env, Path path, Charset charset,
+			long head, long tail) throws IOException {
+		if (head == 0) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long end = channel.size();
+			long position = tail < 0 ? 0 : findTailStart(channel, end, tail);
+			boolean mapped = end - position >= MAP_THRESHOLD;
+
+			CharsetDecoder decoder = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			ChunkWriter writer = new ChunkWriter(env, head);
+			ByteBuffer readBuffer = mapped ? null : ByteBuffer.allocate(BUFFER_SIZE);
+
+			if (position >= end) {
+				return;
+			}
+			boolean last;
+			do {
+				long requested = Math.min(mapped ? MAP_WINDOW : BUFFER_SIZE, end - position);
+				ByteBuffer bytes = readWindow(channel, position, requested, readBuffer);
+				// a shorter window means that the file was truncated meanwhile
+				last = bytes.remaining() < requested || position + requested >= end;
+				CoderResult result;
+				do {
+					result = decoder.decode(bytes, writer.buffer, last);
+					if (!writer.drain()) {
+						return;
+					}
+				} while (result.isOverflow());
+				// bytes of an incomplete character are decoded with the next window
+				position += bytes.position();
+			} while (!last);
+			while (decoder.flush(writer.buffer).isOverflow()) {
+				if (!writer.drain()) {
+					return;
+				}
+			}
+			writer.drain();
+			writer.finish();
+		}
+	}
+
+	/**
+	 * Writes the last <code>lines</code> lines of <code>path</code> by reading
+	 * it line by line from the start. Used for charsets in which line
+	 * terminators cannot be found by scanning bytes.
+	 *
+	 * @param  env         environment used for writing output
+	 * @param  path        path to read from, must represent a valid regular file
+	 * @param  charset     charset to use for reading
+	 * @param  lines       number of lines to write
+	 * @throws IOException if file cannot be read
+	 */
+	private void writeTailByLines(Environment env, Path path, Charset charset,
+			long lines) throws IOException {
+		Deque<String> last = new ArrayDeque<>();
+		try (BufferedReader br = Files.newBufferedReader(path, charset)) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				last.addLast(line);
+				if (last.size() > lines) {
+					last.removeFirst();
+				}
+			}
 		}
+		last.forEach(env::writeln);
+	}
+
+	/**
+	 * Returns the next window of bytes to decode, either by mapping it or by
+	 * reading it into <code>readBuffer</code>.
+	 *
+	 * @param  channel     channel to read from
+	 * @param  position    position of the first byte
+	 * @param  length      number of bytes to read
+	 * @param  readBuffer  buffer to read into, <code>null</code> to map the
+	 *                     window instead
+	 * @return             window of bytes, shorter than <code>length</code> only
+	 *                     if end of file was reached
+	 * @throws IOException if reading fails
+	 */
+	private static ByteBuffer readWindow(FileChannel channel, long position,
+			long length, ByteBuffer readBuffer) throws IOException {
+		if (readBuffer == null) {
+			return channel.map(MapMode.READ_ONLY, position, length);
+		}
+		readBuffer.clear().limit((int) length);
+		while (readBuffer.hasRemaining()
+				&& channel.read(readBuffer, position + readBuffer.position()) >= 0) {
+			// keep reading until buffer is full or end of file is reached
+		}
+		return readBuffer.flip();
+	}
+
+	/**
+	 * Finds the position of the first byte of the last <code>lines</code> lines
+	 * by scanning the file backwards for byte <code>'\n'</code>. A terminator at
+	 * the very end of the file does not start a new line.
+	 *
+	 * @param  channel     channel to read from
+	 * @param  size        size of the file
+	 * @param  lines       number of lines
+	 * @return             position of the first byte to write
+	 * @throws IOException if reading fails
+	 */
+	private static long findTailStart(FileChannel channel, long size, long lines)
+			throws IOException {
+		if (lines == 0) {
+			return size;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long found = 0;
+		long position = size;
+		while (position > 0) {
+			int length = (int) Math.min(buffer.capacity(), position);
+			position -= length;
+			buffer.clear().limit(length);
+			while (buffer.hasRemaining()
+					&& channel.read(buffer, position + buffer.position()) >= 0) {
+				// keep reading until buffer is full
+			}
+			for (int i = buffer.position() - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n' && position + i != size - 1
+						&& ++found == lines) {
+					return position + i + 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks whether <code>'\n'</code> is encoded as a single byte
+	 * <code>0x0A</code> in given charset, so that line terminators can be found
+	 * without decoding.
+	 *
+	 * @param  charset charset to check
+	 * @return         <code>true</code> if lines can be found by scanning bytes
+	 */
+	private static boolean isNewlineSingleByte(Charset charset) {
+		return charset.canEncode()
+				&& Arrays.equals(new byte[] { '\n' }, "\n".getBytes(charset));
 	}
 
 	@Override
@@ -124,4 +324,70 @@ public class CatShellCommand implements ShellCommand {
 		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
 	}
 
+	/**
+	 * Writes decoded chunks to the environment, stopping after a given number of
+	 * lines.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class ChunkWriter {
+
+		/** Buffer into which characters are decoded. */
+		private final CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+
+		/** Environment used for writing output. */
+		private final Environment env;
+
+		/** Number of lines which may still be written. */
+		private long linesLeft;
+
+		/** Last written character. */
+		private char last = '\n';
+
+		/**
+		 * Constructor.
+		 *
+		 * @param env   environment used for writing output
+		 * @param lines maximal number of written lines
+		 */
+		private ChunkWriter(Environment env, long lines) {
+			this.env = env;
+			this.linesLeft = lines;
+		}
+
+		/**
+		 * Writes all decoded characters and clears the buffer.
+		 *
+		 * @return <code>true</code> if more characters may be written,
+		 *         <code>false</code> if line limit was reached
+		 */
+		private boolean drain() {
+			buffer.flip();
+			int end = buffer.limit();
+			if (linesLeft != Long.MAX_VALUE) {
+				for (int i = 0; i < end; i++) {
+					if (buffer.get(i) == '\n' && --linesLeft == 0) {
+						end = i + 1;
+						break;
+					}
+				}
+			}
+			if (end > 0) {
+				env.write(buffer, 0, end);
+				last = buffer.get(end - 1);
+			}
+			buffer.clear();
+			return linesLeft > 0;
+		}
+
+		/**
+		 * Terminates the last written line if it was not terminated.
+		 */
+		private void finish() {
+			if (last != '\n' && last != '\r') {
+				env.writeln("");
+			}
+		}
+	}
+
 }
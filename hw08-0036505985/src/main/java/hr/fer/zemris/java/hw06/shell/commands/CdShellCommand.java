@@ -54,6 +54,9 @@ public class CdShellCommand implements ShellCommand {
 	@Override
 	public String getCommandName() { return COMMAND_NAME; }
 
+	@Override
+	public boolean modifiesEnvironment() { return true; }
+
 	@Override
 	public List<String> getCommandDescription() {
 		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
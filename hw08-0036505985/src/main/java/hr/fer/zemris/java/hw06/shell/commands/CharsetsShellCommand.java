@@ -39,7 +39,7 @@ public class CharsetsShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
 		if (!arguments.isBlank()) {
-			env.writeln(getCommandName() + " command cannot have any arguments.");
+			env.writeError(getCommandName() + " command cannot have any arguments.");
 			return ShellStatus.CONTINUE;
 		}
 
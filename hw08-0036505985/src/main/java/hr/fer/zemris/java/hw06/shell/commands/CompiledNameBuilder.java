@@ -0,0 +1,200 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.util.Arrays;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * <code>NameBuilder</code> which executes all of its segments from flat arrays,
+ * instead of through a chain of composed lambdas. Adjacent text segments are
+ * merged when compiled.
+ * <p>
+ * Instances are immutable and can be used by multiple threads at once.
+ *
+ * @author Luka Mesaric
+ */
+public final class CompiledNameBuilder implements NameBuilder {
+
+	/** Value of <code>groups</code> for text segments. */
+	private static final int TEXT = -1;
+
+	/** Text of each segment, <code>null</code> for group segments. */
+	private final String[] texts;
+
+	/** Group index of each segment, {@value #TEXT} for text segments. */
+	private final int[] groups;
+
+	/** Padding character of each group segment. */
+	private final char[] paddings;
+
+	/** Minimal width of each group segment. */
+	private final int[] minWidths;
+
+	/** Largest referenced group index, <code>-1</code> if none. */
+	private final int maxGroup;
+
+	/** Total length of all text segments and minimal widths. */
+	private final int minLength;
+
+	/**
+	 * A single segment of a name: either text, or a reference to a group.
+	 *
+	 * @author Luka Mesaric
+	 */
+	public static final class Segment {
+
+		/** Text, <code>null</code> for group references. */
+		private final String text;
+
+		/** Index of referenced group. */
+		private final int group;
+
+		/** Character used for padding the group. */
+		private final char padding;
+
+		/** Minimal width of the group. */
+		private final int minWidth;
+
+		/**
+		 * Default (private) constructor.
+		 *
+		 * @param text     text, <code>null</code> for group references
+		 * @param group    index of referenced group
+		 * @param padding  character used for padding the group
+		 * @param minWidth minimal width of the group
+		 */
+		private Segment(String text, int group, char padding, int minWidth) {
+			this.text = text;
+			this.group = group;
+			this.padding = padding;
+			this.minWidth = minWidth;
+		}
+
+		/**
+		 * Creates a segment which appends <code>text</code>.
+		 *
+		 * @param  text                 text to append
+		 * @return                      new segment
+		 * @throws NullPointerException if <code>text</code> is <code>null</code>
+		 */
+		public static Segment text(String text) {
+			return new Segment(ExceptionUtil.validateNotNull(text, "text"), TEXT, ' ', 0);
+		}
+
+		/**
+		 * Creates a segment which appends group at <code>index</code>, padded with
+		 * <code>padding</code> to be at least as long as <code>minWidth</code>.
+		 *
+		 * @param  index                    index of group to append
+		 * @param  padding                  character used for padding
+		 * @param  minWidth                 minimum width of appended string
+		 * @return                          new segment
+		 * @throws IllegalArgumentException if <code>index</code> or
+		 *                                  <code>minWidth</code> is negative
+		 */
+		public static Segment group(int index, char padding, int minWidth) {
+			if (index < 0 || minWidth < 0) {
+				throw new IllegalArgumentException(
+						"Group index and width must not be negative.");
+			}
+			return new Segment(null, index, padding, minWidth);
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  segments             segments of names, in order
+	 * @throws NullPointerException if <code>segments</code> or any segment is
+	 *                              <code>null</code>
+	 */
+	public CompiledNameBuilder(List<Segment> segments) {
+		ExceptionUtil.validateNotNull(segments, "segments");
+
+		int size = 0;
+		String[] texts = new String[segments.size()];
+		int[] groups = new int[segments.size()];
+		char[] paddings = new char[segments.size()];
+		int[] minWidths = new int[segments.size()];
+		int maxGroup = -1;
+		int minLength = 0;
+		for (Segment segment : segments) {
+			ExceptionUtil.validateNotNull(segment, "segment");
+			if (segment.text != null) {
+				minLength += segment.text.length();
+				if (size > 0 && texts[size - 1] != null) {
+					texts[size - 1] += segment.text;
+					continue;
+				}
+			} else {
+				maxGroup = Math.max(maxGroup, segment.group);
+				minLength += segment.minWidth;
+			}
+			texts[size] = segment.text;
+			groups[size] = segment.group;
+			paddings[size] = segment.padding;
+			minWidths[size] = segment.minWidth;
+			size++;
+		}
+
+		this.texts = Arrays.copyOf(texts, size);
+		this.groups = Arrays.copyOf(groups, size);
+		this.paddings = Arrays.copyOf(paddings, size);
+		this.minWidths = Arrays.copyOf(minWidths, size);
+		this.maxGroup = maxGroup;
+		this.minLength = minLength;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IndexOutOfBoundsException if a referenced group does not exist in
+	 *                                   <code>result</code>
+	 */
+	@Override
+	public void execute(FilterResult result, StringBuilder sb) {
+		for (int i = 0; i < texts.length; i++) {
+			if (groups[i] == TEXT) {
+				sb.append(texts[i]);
+				continue;
+			}
+			String group = result.group(groups[i]);
+			for (int extra = minWidths[i] - group.length(); extra > 0; extra--) {
+				sb.append(paddings[i]);
+			}
+			sb.append(group);
+		}
+	}
+
+	/**
+	 * Builds the whole name for given <code>result</code>.
+	 *
+	 * @param  result                    filter result
+	 * @return                           generated name
+	 * @throws IndexOutOfBoundsException if a referenced group does not exist in
+	 *                                   <code>result</code>
+	 */
+	public String build(FilterResult result) {
+		StringBuilder sb = new StringBuilder(minLength + 16);
+		execute(result, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the largest referenced group index, so that references can be
+	 * validated against a pattern before any name is built.
+	 *
+	 * @return largest referenced group index, <code>-1</code> if no group is
+	 *         referenced
+	 */
+	public int getMaxGroup() { return maxGroup; }
+
+	/**
+	 * Returns the number of segments left after compiling.
+	 *
+	 * @return number of segments
+	 */
+	public int numberOfSegments() { return texts.length; }
+
+}
@@ -1,7 +1,5 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.Files;
@@ -9,6 +7,7 @@ import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import hr.fer.zemris.java.hw06.ExceptionUtil;
 import hr.fer.zemris.java.hw06.shell.Environment;
@@ -16,15 +15,20 @@ import hr.fer.zemris.java.hw06.shell.ShellCommand;
 import hr.fer.zemris.java.hw06.shell.ShellIOException;
 import hr.fer.zemris.java.hw06.shell.ShellStatus;
 import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+import hr.fer.zemris.java.hw06.shell.util.CommandOptions;
+import hr.fer.zemris.java.hw06.shell.util.FileCopier;
 
 /**
- * Copies given file to given destination.<br>
+ * Copies given file or directory to given destination.<br>
  * Expects exactly two arguments: source and destination. Source must be path to
- * an existing file (not directory). Destination must be path to a file or
- * directory. If it is a path to a directory, source is copied into that
- * directory using the original file name.<br>
+ * an existing file or directory. Destination must be path to a file or
+ * directory. If it is a path to an existing directory, source is copied into
+ * that directory using the original name.<br>
+ * Directories are copied recursively, copying multiple files concurrently.
+ * Option <code>--parallel</code> additionally splits large files into chunks
+ * which are copied concurrently.<br>
  * If destination already exists, user is asked for confirmation about
- * overwriting the file.
+ * overwriting it. Progress is reported while copying takes a long time.
  * 
  * @author Luka Mesaric
  */
@@ -35,14 +39,32 @@ public class CopyShellCommand implements ShellCommand {
 
 	/** Description of this command. */
 	private static final List<String> COMMAND_DESCRIPTION = Arrays.asList(
-			"Copies given file to given destination.",
-			"Expects exactly two arguments: source and destination.",
-			"Source must be path to an existing file (not directory).",
+			"Copies given file or directory to given destination.",
+			"Signature is as follows: copy [--parallel] SOURCE DEST",
+			"Source must be path to an existing file or directory.",
 			"Destination must be path to a file or directory.",
-			"If it is a path to a directory, source is copied",
-			"into that directory using the original file name.",
+			"If it is a path to an existing directory, source is copied",
+			"into that directory using the original name.",
+			"Directories are copied recursively, multiple files at once.",
+			"Option --parallel splits large files into chunks",
+			"which are copied concurrently.",
 			"If destination already exists, user is asked",
-			"for confirmation about overwriting the file.");
+			"for confirmation about overwriting it.");
+
+	/** Name of option which enables chunked copying of large files. */
+	private static final String OPTION_PARALLEL = "parallel";
+
+	/** Size of chunks used when option <code>--parallel</code> is given. */
+	private static final long CHUNK_SIZE = 64 << 20;
+
+	/** Maximal number of threads used for copying. */
+	private static final int MAX_THREADS = 8;
+
+	/** Period between two progress reports, in milliseconds. */
+	private static final long PROGRESS_INTERVAL = 1000;
+
+	/** Number of bytes in a mebibyte, used for progress reports. */
+	private static final double MIB = 1 << 20;
 
 	/**
 	 * {@inheritDoc}
@@ -54,75 +76,121 @@ public class CopyShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(env, "env");
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
-		List<Path> argsList = ArgumentChecker.safeParsePaths(arguments, env);
+		CommandOptions options = ArgumentChecker.safeParseOptions(
+				arguments, env, OPTION_PARALLEL);
+		if (options == null) {
+			return ShellStatus.CONTINUE;
+		}
+		List<Path> argsList = ArgumentChecker.safeResolvePaths(options.getArguments(), env);
 		if (argsList == null) {
 			return ShellStatus.CONTINUE;
 		} else if (argsList.size() != 2) {
-			env.writeln("Exactly two arguments expected. Received: " + argsList.size());
+			env.writeError("Exactly two arguments expected. Received: " + argsList.size());
 			return ShellStatus.CONTINUE;
 		}
 
-		Path source = argsList.get(0);
-		Path dest = argsList.get(1);
-		if (!ArgumentChecker.validateIsFile(source, env)) {
+		Path source = argsList.get(0).toAbsolutePath().normalize();
+		Path dest = argsList.get(1).toAbsolutePath().normalize();
+		// toAbsolutePath is needed because of some paths that contain '..'
+		if (!ArgumentChecker.validateExists(source, env)) {
 			return ShellStatus.CONTINUE;
 		}
 
-		// At this point, source exists and it is a file
 		try {
-			if (Files.isDirectory(dest)) {
-				dest = dest.resolve(source.getFileName());
-				// It is possible that there exists a subdirectory
-				// with the same name as source
-				if (Files.isDirectory(dest)) {
-					env.writeln("Subdirectory with the same name already exists.");
-					env.writeln("Aborting execution.");
-					return ShellStatus.CONTINUE;
-				}
-			} else if (Files.notExists(dest.toAbsolutePath().normalize().getParent())) {
-				env.writeln("Destination is located in an unexisting directory.");
+			boolean isDirectory = Files.isDirectory(source);
+			dest = resolveDestination(source, dest, isDirectory, env);
+			if (dest == null) {
 				return ShellStatus.CONTINUE;
 			}
-
-			if (source.toAbsolutePath().normalize()
-					.equals(dest.toAbsolutePath().normalize())) {
-				// toAbsolutePath is needed because of some paths that contain '..'
-				env.writeln("Entered paths represent the same file.");
-				env.writeln("Aborting execution.");
-				return ShellStatus.CONTINUE;
-			} else if (Files.isRegularFile(dest)) {
-				env.writeln("Destination already exists: " + dest);
-				env.writeln("Are you sure you want to overwrite it? Yes/No");
-				if (!getConfirmationFromUser(env)) {
-					return ShellStatus.CONTINUE;
+			int threads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+			long chunkSize = options.hasOption(OPTION_PARALLEL) ? CHUNK_SIZE : 0;
+			try (FileCopier copier = new FileCopier(threads, chunkSize)) {
+				if (isDirectory) {
+					copier.submitDirectory(source, dest);
+				} else {
+					copier.submitFile(source, dest);
+				}
+				while (!copier.awaitCompletion(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS)) {
+					env.writeln(formatProgress(copier));
+					env.flush();
+				}
+				if (isDirectory) {
+					env.writeln(String.format("Copied %d file(s), %.1f MiB.",
+							copier.getSubmittedFiles(), copier.getTotalBytes() / MIB));
 				}
 			}
-			copyFile(source, dest);
 
 		} catch (SecurityException | AccessDeniedException e) {
-			env.writeln("Access denied: " + e.getMessage());
+			env.writeError("Access denied: " + e.getMessage());
 		} catch (IOException e) {
-			env.writeln("Exception occured while reading or writing: "
+			env.writeError("Exception occured while reading or writing: "
 					+ e.getMessage());
+		} catch (InterruptedException e) {
+			env.writeError("Copying was interrupted.");
+			Thread.currentThread().interrupt();
 		}
 		return ShellStatus.CONTINUE;
 	}
 
 	/**
-	 * Copies <code>source</code> do <code>dest</code>, overwriting it if it exists.
+	 * Determines the actual destination of copying and validates it. Asks the
+	 * user for confirmation if destination already exists.
 	 * 
-	 * @param  source            file to copy
-	 * @param  dest              destination to which <code>source</code> is copied
-	 * @throws IOException       if file could not be copied
+	 * @param  source            absolute and normalized path to an existing file
+	 *                           or directory
+	 * @param  dest              absolute and normalized destination given by the
+	 *                           user
+	 * @param  isDirectory       whether <code>source</code> is a directory
+	 * @param  env               environment used to write messages
+	 * @return                   actual destination path, or <code>null</code> if
+	 *                           copying must not proceed
 	 * @throws SecurityException if access to file is denied
 	 */
-	private void copyFile(Path source, Path dest) throws IOException {
-		try (BufferedInputStream bis = new BufferedInputStream(
-				Files.newInputStream(source));
-				BufferedOutputStream bos = new BufferedOutputStream(
-						Files.newOutputStream(dest))) {
-			bis.transferTo(bos);
+	private Path resolveDestination(Path source, Path dest, boolean isDirectory,
+			Environment env) {
+		if (Files.isDirectory(dest)) {
+			dest = dest.resolve(source.getFileName());
+		} else if (dest.getParent() == null || Files.notExists(dest.getParent())) {
+			env.writeError("Destination is located in an unexisting directory.");
+			return null;
+		}
+
+		if (source.equals(dest)) {
+			env.writeError("Entered paths represent the same file.");
+			env.writeError("Aborting execution.");
+			return null;
+		} else if (isDirectory && dest.startsWith(source)) {
+			env.writeError("Directory cannot be copied into itself.");
+			env.writeError("Aborting execution.");
+			return null;
+		} else if (Files.isDirectory(dest) != isDirectory && Files.exists(dest)) {
+			// It is possible that there exists a subdirectory
+			// with the same name as source file, or vice versa
+			env.writeError((isDirectory ? "File" : "Subdirectory")
+					+ " with the same name already exists.");
+			env.writeError("Aborting execution.");
+			return null;
+		} else if (Files.exists(dest)) {
+			env.writeln("Destination already exists: " + dest);
+			env.writeln("Are you sure you want to overwrite it? Yes/No");
+			if (!getConfirmationFromUser(env)) {
+				return null;
+			}
 		}
+		return dest;
+	}
+
+	/**
+	 * Formats a progress report for the given copier.
+	 * 
+	 * @param  copier copier whose progress is reported
+	 * @return        progress report
+	 */
+	private static String formatProgress(FileCopier copier) {
+		long copied = copier.getCopiedBytes();
+		long total = copier.getTotalBytes();
+		return String.format("Copied %.1f of %.1f MiB (%d%%)",
+				copied / MIB, total / MIB, total == 0 ? 100 : copied * 100 / total);
 	}
 
 	/**
@@ -146,7 +214,7 @@ public class CopyShellCommand implements ShellCommand {
 		case "n":
 			return false;
 		default:
-			env.writeln("Answer is not recognized. Aborting execution.");
+			env.writeError("Answer is not recognized. Aborting execution.");
 			return false;
 		}
 	}
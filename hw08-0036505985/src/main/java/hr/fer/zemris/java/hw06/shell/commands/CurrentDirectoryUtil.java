@@ -46,13 +46,13 @@ class CurrentDirectoryUtil {
 		ExceptionUtil.validateNotNull(stackOperation, "stackOperation");
 
 		if (!arguments.isBlank()) {
-			env.writeln(commandName + " command cannot have any arguments.");
+			env.writeError(commandName + " command cannot have any arguments.");
 			return ShellStatus.CONTINUE;
 		}
 		@SuppressWarnings("unchecked")
 		Deque<Path> stack = (Deque<Path>) env.getSharedData(CDSTACK_KEY);
 		if (stack == null || stack.isEmpty()) {
-			env.writeln("Nema pohranjenih direktorija.");
+			env.writeError("Nema pohranjenih direktorija.");
 			return ShellStatus.CONTINUE;
 		}
 		stackOperation.accept(stack);
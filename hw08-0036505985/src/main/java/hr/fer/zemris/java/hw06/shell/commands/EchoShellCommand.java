@@ -0,0 +1,57 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.ShellStatus;
+import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+
+/**
+ * Writes its arguments, separated by single spaces, as a single line.<br>
+ * Arguments may be quoted. Mostly useful in pipelines, for answering questions
+ * asked by other commands (e.g. <code>echo yes | copy a.txt b.txt</code>).
+ *
+ * @author Luka Mesaric
+ */
+public class EchoShellCommand implements ShellCommand {
+
+	/** Name of this command. */
+	private static final String COMMAND_NAME = "echo";
+
+	/** Description of this command. */
+	private static final List<String> COMMAND_DESCRIPTION = Arrays.asList(
+			"Writes its arguments, separated by single spaces, as a single line.",
+			"Arguments may be quoted, e.g. echo \"a | b\".",
+			"In a pipeline, output is used as input of the next command,",
+			"e.g. echo yes | copy a.txt b.txt");
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws NullPointerException {@inheritDoc}
+	 */
+	@Override
+	public ShellStatus executeCommand(Environment env, String arguments) {
+		ExceptionUtil.validateNotNull(env, "env");
+		ExceptionUtil.validateNotNull(arguments, "arguments");
+
+		List<String> strings = ArgumentChecker.safeParseStrings(arguments, env);
+		if (strings != null) {
+			env.writeln(String.join(" ", strings));
+		}
+		return ShellStatus.CONTINUE;
+	}
+
+	@Override
+	public String getCommandName() { return COMMAND_NAME; }
+
+	@Override
+	public List<String> getCommandDescription() {
+		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
+	}
+
+}
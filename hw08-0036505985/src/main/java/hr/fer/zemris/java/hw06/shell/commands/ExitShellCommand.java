@@ -36,7 +36,7 @@ public class ExitShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
 		if (!arguments.isBlank()) {
-			env.writeln(getCommandName() + " command cannot have any arguments.");
+			env.writeError(getCommandName() + " command cannot have any arguments.");
 			return ShellStatus.CONTINUE;
 		}
 		return ShellStatus.TERMINATE;
@@ -45,6 +45,9 @@ public class ExitShellCommand implements ShellCommand {
 	@Override
 	public String getCommandName() { return COMMAND_NAME; }
 
+	@Override
+	public boolean modifiesEnvironment() { return true; }
+
 	@Override
 	public List<String> getCommandDescription() {
 		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
@@ -42,7 +42,7 @@ public class HelpShellCommand implements ShellCommand {
 
 		String[] parts = arguments.strip().split("\\s+");
 		if (parts.length > 1) {
-			env.writeln(getCommandName()
+			env.writeError(getCommandName()
 					+ " command must have exactly 0 or 1 argument.");
 		} else if (parts[0].isEmpty()) {
 			printSupportedCommands(env);
@@ -72,7 +72,7 @@ public class HelpShellCommand implements ShellCommand {
 	private void printHelpForCommand(Environment env, String commandName) {
 		ShellCommand command = env.commands().get(commandName);
 		if (command == null) {
-			env.writeln("Selected command does not exist: " + commandName);
+			env.writeError("Selected command does not exist: " + commandName);
 		} else {
 			env.writeln(String.format(
 					"Description of command '%s':", command.getCommandName()));
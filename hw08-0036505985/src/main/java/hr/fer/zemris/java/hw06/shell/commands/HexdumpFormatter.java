@@ -0,0 +1,156 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Formats bytes into hexdump lines, many lines at once.<br>
+ * Each line starts with the offset of its first byte (at least 8 hex digits),
+ * followed by {@link #BYTES_PER_LINE} bytes in hex and then the same bytes as
+ * characters, where only a standard subset of characters is shown and all other
+ * characters are replaced by <code>'.'</code>. Every line is terminated by
+ * platform's line separator.
+ * <p>
+ * Bytes are converted using precomputed tables and written into a single
+ * reusable <code>char</code> buffer, so formatting a block creates no garbage.
+ *
+ * @author Luka Mesaric
+ */
+final class HexdumpFormatter {
+
+	/** Number of bytes dumped per line. Must be divisible by 2. */
+	static final int BYTES_PER_LINE = 16;
+
+	/** Hex digits, indexed by their value. */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	/** Two hex digits for each unsigned byte value, stored at <code>2*value</code>. */
+	private static final char[] HEX_PAIRS = new char[512];
+
+	/** Character shown for each unsigned byte value. */
+	private static final char[] PRINTABLE = new char[256];
+
+	/** Line separator appended to each line. */
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/** Maximal length of a single line, including the line separator. */
+	private static final int MAX_LINE_LENGTH =
+			16 + 1 + 3 * BYTES_PER_LINE + 3 + BYTES_PER_LINE + LINE_SEPARATOR.length();
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			HEX_PAIRS[i << 1] = HEX_DIGITS[i >>> 4];
+			HEX_PAIRS[(i << 1) + 1] = HEX_DIGITS[i & 0xF];
+			// value 127 is checked because it is mapped
+			// to a 'DEL' char that cannot be rendered
+			PRINTABLE[i] = (i < 32 || i >= 127) ? '.' : (char) i;
+		}
+	}
+
+	/** Buffer into which lines are formatted. */
+	private final char[] buffer;
+
+	/** Maximal number of lines formatted by one call. */
+	private final int maxLines;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  maxLines                 maximal number of lines formatted by one
+	 *                                  call to {@link #format(ByteBuffer, long)}
+	 * @throws IllegalArgumentException if <code>maxLines</code> is less than
+	 *                                  <code>1</code>
+	 */
+	HexdumpFormatter(int maxLines) {
+		if (maxLines < 1) {
+			throw new IllegalArgumentException(
+					"Number of lines must be positive, received: " + maxLines);
+		}
+		this.maxLines = maxLines;
+		this.buffer = new char[maxLines * MAX_LINE_LENGTH];
+	}
+
+	/**
+	 * Returns the maximal number of bytes formatted by one call.
+	 *
+	 * @return maximal number of bytes per block
+	 */
+	int maxBytes() {
+		return maxLines * BYTES_PER_LINE;
+	}
+
+	/**
+	 * Formats remaining bytes of <code>data</code>, but at most
+	 * {@link #maxBytes()} of them, and advances its position accordingly. Only
+	 * the last formatted line can be shorter than {@link #BYTES_PER_LINE}.
+	 *
+	 * @param  data                 bytes to format
+	 * @param  offset               offset of the first remaining byte, printed at
+	 *                              the start of the first line
+	 * @return                      formatted lines, empty if no bytes remain;
+	 *                              returned sequence is a view of internal
+	 *                              buffer and is only valid until the next call
+	 * @throws NullPointerException if <code>data</code> is <code>null</code>
+	 */
+	CharSequence format(ByteBuffer data, long offset) {
+		ExceptionUtil.validateNotNull(data, "data");
+
+		final int mid = BYTES_PER_LINE >> 1;
+		final char[] buf = buffer;	// cache for speed
+		int count = Math.min(data.remaining(), maxBytes());
+		int start = data.position();
+		int p = 0;
+
+		for (int lineStart = 0; lineStart < count; lineStart += BYTES_PER_LINE) {
+			int read = Math.min(BYTES_PER_LINE, count - lineStart);
+			p = writeOffset(offset + lineStart, p);
+			buf[p++] = ':';
+
+			int first = start + lineStart;
+			for (int i = 0; i < BYTES_PER_LINE; i++) {
+				buf[p++] = i == mid ? '|' : ' ';
+				if (i < read) {
+					int pair = (data.get(first + i) & 0xFF) << 1;
+					buf[p++] = HEX_PAIRS[pair];
+					buf[p++] = HEX_PAIRS[pair + 1];
+				} else {
+					buf[p++] = ' ';
+					buf[p++] = ' ';
+				}
+			}
+
+			buf[p++] = ' ';
+			buf[p++] = '|';
+			buf[p++] = ' ';
+			for (int i = 0; i < BYTES_PER_LINE; i++) {
+				buf[p++] = i < read ? PRINTABLE[data.get(first + i) & 0xFF] : ' ';
+			}
+			for (int i = 0, n = LINE_SEPARATOR.length(); i < n; i++) {
+				buf[p++] = LINE_SEPARATOR.charAt(i);
+			}
+		}
+
+		data.position(start + count);
+		return CharBuffer.wrap(buf, 0, p);
+	}
+
+	/**
+	 * Writes <code>offset</code> into the buffer as at least 8 hex digits.
+	 *
+	 * @param  offset offset to write, must not be negative
+	 * @param  p      position in buffer at which writing starts
+	 * @return        position in buffer after the last written digit
+	 */
+	private int writeOffset(long offset, int p) {
+		int bits = Long.SIZE - Long.numberOfLeadingZeros(offset);
+		int digits = Math.max(8, (bits + 3) >> 2);
+		for (int d = digits - 1; d >= 0; d--) {
+			buffer[p + d] = HEX_DIGITS[(int) (offset & 0xF)];
+			offset >>>= 4;
+		}
+		return p + digits;
+	}
+
+}
@@ -1,10 +1,11 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -14,12 +15,17 @@ import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
 import hr.fer.zemris.java.hw06.shell.ShellStatus;
 import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+import hr.fer.zemris.java.hw06.shell.util.CommandOptions;
 
 /**
  * Produces hex-output of a file.<br>
  * When printing characters, only a standard subset of characters is shown. All
  * other characters are replaced by <code>'.'</code>.<br>
- * Expects a single argument: file name.<br>
+ * Expects a single argument: file name. Options <code>--offset=N</code> and
+ * <code>--length=N</code> restrict output to a region of the file; offsets of
+ * printed lines are always relative to the start of the file.<br>
+ * Large regions are memory-mapped, and output is written in blocks of many
+ * lines.
  * 
  * @author Luka Mesaric
  */
@@ -33,10 +39,27 @@ public class HexdumpShellCommand implements ShellCommand {
 			"Produces hex-output of a file.",
 			"When printing characters, only a standard subset of characters is shown.",
 			"All other characters are replaced by '.'.",
-			"Expects a single argument: file name.");
+			"Signature is as follows: hexdump [--offset=N] [--length=N] FILE",
+			"Options restrict output to a region of the file,",
+			"numbers may be decimal or hexadecimal (e.g. 0x1F).");
 
-	/** Number of bytes dumped per line. Must be divisible by 2. */
-	private static final int BYTES_PER_LINE = 16;
+	/** Name of option which sets the first dumped byte. */
+	private static final String OPTION_OFFSET = "offset";
+
+	/** Name of option which sets the number of dumped bytes. */
+	private static final String OPTION_LENGTH = "length";
+
+	/** Number of lines written to the environment at once. */
+	private static final int LINES_PER_BLOCK = 4096;
+
+	/** Regions of at least this many bytes are memory-mapped. */
+	private static final long MAP_THRESHOLD = 1 << 20;
+
+	/**
+	 * Number of bytes mapped at once. Must be divisible by
+	 * {@link HexdumpFormatter#BYTES_PER_LINE}.
+	 */
+	private static final long MAP_WINDOW = 64 << 20;
 
 	/**
 	 * {@inheritDoc}
@@ -48,88 +71,99 @@ public class HexdumpShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(env, "env");
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
-		Path file = ArgumentChecker.expectExactlyOneExistingFile(arguments, env);
+		CommandOptions options = ArgumentChecker.safeParseOptions(
+				arguments, env, OPTION_OFFSET, OPTION_LENGTH);
+		if (options == null) {
+			return ShellStatus.CONTINUE;
+		}
+		long offset, length;
+		try {
+			offset = options.getNonNegativeLong(OPTION_OFFSET, 0);
+			length = options.getNonNegativeLong(OPTION_LENGTH, Long.MAX_VALUE);
+		} catch (IllegalArgumentException e) {
+			env.writeError(e.getMessage());
+			return ShellStatus.CONTINUE;
+		}
+
+		Path file = ArgumentChecker.expectExactlyOnePath(
+				options.getArguments(), env, ArgumentChecker::validateIsFile);
 		if (file == null) {
 			return ShellStatus.CONTINUE;
 		}
 
-		writeHexDump(env, file);
+		writeHexDump(env, file, offset, length);
 
 		return ShellStatus.CONTINUE;
 	}
 
 	/**
-	 * Reads all data from <code>path</code> and writes it to <code>env</code> as
-	 * hex bytes. If any exception occurs, an error message is written.
+	 * Reads the given region of <code>path</code> and writes it to
+	 * <code>env</code> as hex bytes. If any exception occurs, an error message is
+	 * written.
 	 * 
-	 * @param env  environment used for writing output
-	 * @param file path to read from, must represent a valid regular file
+	 * @param env    environment used for writing output
+	 * @param file   path to read from, must represent a valid regular file
+	 * @param offset offset of the first byte to dump
+	 * @param length maximal number of bytes to dump
 	 */
-	private void writeHexDump(Environment env, Path file) {
-		try (InputStream is = new BufferedInputStream(
-				Files.newInputStream(file))) {
-
-			byte[] bytesLine = new byte[BYTES_PER_LINE];
-			StringBuilder sbHex = new StringBuilder(BYTES_PER_LINE << 2); // x4
-			StringBuilder sbChar = new StringBuilder(BYTES_PER_LINE);
-			int lineIndex = 0;
-			String line;
-
-			while ((line = formatLine(is, lineIndex, bytesLine, sbHex, sbChar)) != null) {
-				env.writeln(line);
-				lineIndex += BYTES_PER_LINE;
+	private void writeHexDump(Environment env, Path file, long offset, long length) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (offset > size) {
+				env.writeError("Offset is beyond the end of file. File size: " + size);
+				return;
+			}
+			long end = offset + Math.min(length, size - offset);
+			boolean mapped = end - offset >= MAP_THRESHOLD;
+
+			HexdumpFormatter formatter = new HexdumpFormatter(LINES_PER_BLOCK);
+			ByteBuffer readBuffer = mapped ? null : ByteBuffer.allocate(formatter.maxBytes());
+			long position = offset;
+			while (position < end) {
+				ByteBuffer window;
+				if (mapped) {
+					window = channel.map(MapMode.READ_ONLY,
+							position, Math.min(MAP_WINDOW, end - position));
+				} else {
+					readBuffer.clear().limit((int) Math.min(readBuffer.capacity(), end - position));
+					if (!readFully(channel, readBuffer, position)) {
+						end = position + readBuffer.position();
+					}
+					window = readBuffer.flip();
+				}
+				while (window.hasRemaining()) {
+					int before = window.position();
+					CharSequence lines = formatter.format(window, position);
+					env.write(lines, 0, lines.length());
+					position += window.position() - before;
+				}
 			}
 
 		} catch (IOException | SecurityException e) {
-			env.writeln("Exception occured while reading from file: "
+			env.writeError("Exception occured while reading from file: "
 					+ e.getMessage());
 		}
 	}
 
 	/**
-	 * Reads and formats one line of data used for hex dumping.<br>
-	 * Beware that <code>buffer</code>, <code>sbHex</code> and <code>sbChar</code>
-	 * will lose their previous content after calling this method.
+	 * Fills <code>buffer</code> with bytes read from <code>channel</code>,
+	 * starting at given position.
 	 * 
-	 * @param  is          input stream from which data is read
-	 * @param  lineIndex   ordinal number of the first byte that will be formatted
-	 *                     in this line
-	 * @param  buffer      byte array of size {@link #BYTES_PER_LINE}
-	 * @param  sbHex       string builder, preferably of capacity
-	 *                     <code>4*BYTES_PER_LINE</code>
-	 * @param  sbChar      string builder, preferably of capacity
-	 *                     <code>BYTES_PER_LINE</code>
-	 * @return             formatted line; <code>null</code> if all data was read
-	 * @throws IOException if data cannot be read from <code>is</code> for any
-	 *                     reason
+	 * @param  channel     channel to read from
+	 * @param  buffer      buffer to fill
+	 * @param  position    position in <code>channel</code> of the first byte
+	 * @return             <code>true</code> if buffer was filled,
+	 *                     <code>false</code> if end of file was reached first
+	 * @throws IOException if reading fails
 	 */
-	private String formatLine(InputStream is, int lineIndex,
-			byte[] buffer, StringBuilder sbHex, StringBuilder sbChar)
-			throws IOException {
-		// byte array and string builders are sent to this method so that one instance
-		// can be reused for many calls
-
-		int read = is.readNBytes(buffer, 0, buffer.length);
-		if (read <= 0) {
-			return null;
-		}
-		// clearing string builders takes minimal effort
-		sbHex.setLength(0);
-		sbChar.setLength(0);
-		sbHex.append(String.format("%08X:", lineIndex));
-
-		final int max = BYTES_PER_LINE;	// cache for speed
-		final int mid = max >> 1;		// divide by 2
-		for (int i = 0; i < max; i++) {
-			sbHex.append(i == mid ? '|' : ' ');
-			byte b = buffer[i];
-			boolean r = i >= read;
-			sbHex.append(r ? "  " : String.format("%02X", b));
-			sbChar.append(r ? ' ' : ((b < 32 || b >= 127) ? '.' : (char) b));
-			// value 127 is checked because it is mapped
-			// to a 'DEL' char that cannot be rendered
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				return false;
+			}
 		}
-		return sbHex.append(" | ").append(sbChar).toString();
+		return true;
 	}
 
 	@Override
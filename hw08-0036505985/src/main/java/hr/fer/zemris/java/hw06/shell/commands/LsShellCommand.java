@@ -1,35 +1,38 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
 import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
-import java.nio.file.LinkOption;
 import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
-import java.util.stream.Stream;
 
 import hr.fer.zemris.java.hw06.ExceptionUtil;
 import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
 import hr.fer.zemris.java.hw06.shell.ShellStatus;
 import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+import hr.fer.zemris.java.hw06.shell.util.CommandOptions;
+import hr.fer.zemris.java.hw06.shell.util.FileMetadata;
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker;
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker.Entry;
 
 /**
- * Writes a directory listing (not recursive).<br>
- * Expects a single argument: directory name.
+ * Writes a directory listing.<br>
+ * Expects a single argument: directory name. Listing is not recursive, unless
+ * option <code>--depth=N</code> is given, in which case entries at most
+ * <code>N</code> levels below the directory are listed.
  * <p>
  * The output consists of 4 columns. First column indicates if current object is
  * directory (<code>d</code>), readable (<code>r</code>), writable
  * (<code>w</code>) and executable (<code>x</code>). Second column contains file
  * size in bytes, right aligned and occupying 10 characters. Third column
- * contains creation date/time. Fourth column contains file name.
+ * contains creation date/time. Fourth column contains file name, relative to
+ * the listed directory.<br>
+ * Attributes of each file are read only once; see {@link FileMetadata}.
  * 
  * @author Luka Mesaric
  */
@@ -40,8 +43,10 @@ public class LsShellCommand implements ShellCommand {
 
 	/** Description of this command. */
 	private static final List<String> COMMAND_DESCRIPTION = Arrays.asList(
-			"Writes a directory listing (not recursive).",
-			"Expects a single argument: directory name.",
+			"Writes a directory listing.",
+			"Signature is as follows: ls [--depth=N] DIR",
+			"Listing is not recursive, unless option --depth is given,",
+			"in which case entries at most N levels below DIR are listed.",
 			"The output consists of 4 columns.",
 			"First column indicates if current object is directory (d),",
 			"readable (r), writable (w) and executable (x).",
@@ -53,8 +58,15 @@ public class LsShellCommand implements ShellCommand {
 	/** Format of creation time. */
 	private static final String FORMAT = "yyyy-MM-dd HH:mm:ss";
 
-	/** Date formatter for formatting creation time. */
-	private static final SimpleDateFormat SDF = new SimpleDateFormat(FORMAT);
+	/**
+	 * Formatter for creation time. Immutable and thread-safe, since batch mode
+	 * may run several <code>ls</code> commands concurrently.
+	 */
+	private static final DateTimeFormatter FORMATTER =
+			DateTimeFormatter.ofPattern(FORMAT).withZone(ZoneId.systemDefault());
+
+	/** Name of option which sets listing depth. */
+	private static final String OPTION_DEPTH = "depth";
 
 	/**
 	 * {@inheritDoc}
@@ -66,16 +78,39 @@ public class LsShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(env, "env");
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
-		Path dir = ArgumentChecker.expectExactlyOneExistingDirectory(arguments, env);
+		CommandOptions options = ArgumentChecker.safeParseOptions(
+				arguments, env, OPTION_DEPTH);
+		if (options == null) {
+			return ShellStatus.CONTINUE;
+		}
+		int maxDepth;
+		try {
+			maxDepth = (int) Math.min(Integer.MAX_VALUE,
+					options.getNonNegativeLong(OPTION_DEPTH, 1));
+		} catch (IllegalArgumentException e) {
+			env.writeError(e.getMessage());
+			return ShellStatus.CONTINUE;
+		}
+		Path dir = ArgumentChecker.expectExactlyOnePath(
+				options.getArguments(), env, ArgumentChecker::validateIsDirectory);
 		if (dir == null) {
 			return ShellStatus.CONTINUE;
 		}
 
-		try (Stream<Path> stream = Files.list(dir)) {
-			stream.map(this::formatFileMetadata)
-					.forEach(env::writeln);
-		} catch (IOException | UncheckedIOException | SecurityException e) {
-			env.writeln("Exception occured while accessing file data: "
+		try {
+			ParallelTreeWalker walker =
+					new ParallelTreeWalker(ParallelTreeWalker.sharedPool(), maxDepth);
+			Entry tree = walker.walk(dir);
+			if (tree.getError() != null) {
+				throw tree.getError();
+			}
+			ParallelTreeWalker.visit(tree, entry -> {
+				if (entry.getDepth() > 0) {
+					env.writeln(formatFileMetadata(dir, entry.getMetadata()));
+				}
+			});
+		} catch (IOException | SecurityException e) {
+			env.writeError("Exception occured while accessing file data: "
 					+ e.getMessage());
 		}
 		return ShellStatus.CONTINUE;
@@ -85,65 +120,36 @@ public class LsShellCommand implements ShellCommand {
 	 * Formats a single line of output for this command, containing file metadata
 	 * (properties).
 	 * 
-	 * @param  file                 file whose metadata is accessed
-	 * @return                      formatted output containing wanted metadata
-	 * @throws UncheckedIOException if file could not be read for any reason
-	 * @throws SecurityException    if access to file is denied
+	 * @param  dir      listed directory, file name is shown relative to it
+	 * @param  metadata metadata of the file
+	 * @return          formatted output containing wanted metadata
 	 */
-	private String formatFileMetadata(Path file)
-			throws UncheckedIOException, SecurityException {
+	private String formatFileMetadata(Path dir, FileMetadata metadata) {
+		BasicFileAttributes attributes = metadata.getAttributes();
 
-		BasicFileAttributes attributes = getFileAttributes(file);
-
-		String permissions = formatFilePermissions(file);
+		String permissions = formatFilePermissions(metadata);
 		long fileSize = attributes.size();
 		String formattedTime = formatCreationDateTime(attributes);
-		String fileName = file.getFileName().toString();
+		String fileName = dir.relativize(metadata.getPath()).toString();
 
 		return String.format("%s %10d %s %s",
 				permissions, fileSize, formattedTime, fileName);
 	}
 
 	/**
-	 * Gets file attributes without throwing checked exceptions.
-	 * 
-	 * @param  file                 file whose attributes are needed
-	 * @return                      file attributes, never <code>null</code>
-	 * @throws UncheckedIOException if file could not be read for any reason
-	 * @throws SecurityException    if access to file is denied
-	 */
-	private BasicFileAttributes getFileAttributes(Path file)
-			throws UncheckedIOException, SecurityException {
-
-		BasicFileAttributeView faView = Files.getFileAttributeView(
-				file, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
-		try {
-			return faView.readAttributes();
-		} catch (IOException e) {
-			throw new UncheckedIOException(e.getMessage(), e);
-		}
-	}
-
-	/**
-	 * Tests file's permissions and returns a formatted string.
+	 * Returns file's permissions as a formatted string.
 	 * 
-	 * @param  file              file to test
-	 * @return                   formatted string
-	 * @throws SecurityException if access to file is denied
+	 * @param  metadata metadata of the file
+	 * @return          formatted string
 	 */
-	private String formatFilePermissions(Path file) throws SecurityException {
-		boolean isD = Files.isDirectory(file);
-		boolean isR = Files.isReadable(file);
-		boolean isW = Files.isWritable(file);
-		boolean isX = Files.isExecutable(file);
-
-		String permissions = String.format("%c%c%c%c",
-				isD ? 'd' : '-',
-				isR ? 'r' : '-',
-				isW ? 'w' : '-',
-				isX ? 'x' : '-');
-
-		return permissions;
+	private String formatFilePermissions(FileMetadata metadata) {
+		char[] permissions = {
+				metadata.isDirectory() ? 'd' : '-',
+				metadata.isReadable() ? 'r' : '-',
+				metadata.isWritable() ? 'w' : '-',
+				metadata.isExecutable() ? 'x' : '-'
+		};
+		return new String(permissions);
 	}
 
 	/**
@@ -152,11 +158,11 @@ public class LsShellCommand implements ShellCommand {
 	 * @param  attributes attributes from which time is read
 	 * @return            formatted creation date and time
 	 * @see               #FORMAT
-	 * @see               #SDF
+	 * @see               #FORMATTER
 	 */
 	private String formatCreationDateTime(BasicFileAttributes attributes) {
 		FileTime fileCreationTime = attributes.creationTime();
-		return SDF.format(new Date(fileCreationTime.toMillis()));
+		return FORMATTER.format(fileCreationTime.toInstant());
 	}
 
 	@Override
@@ -7,7 +7,6 @@ import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -34,7 +33,10 @@ import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
  * <code>groups</code>, <code>show</code> or <code>execute</code>).
  * <code>MASK</code> is a regex used for filtering files in <code>DIR1</code>.
  * <code>other</code> is used for <code>show</code> or <code>execute</code> and
- * represents an expression used for generating new file names.
+ * represents an expression used for generating new file names.<br>
+ * Renaming is planned as a whole before anything is moved (see
+ * {@link RenamePlan}), so <code>show</code> also reports all conflicts which
+ * would prevent <code>execute</code>.
  * 
  * @author Luka Mesaric
  */
@@ -57,6 +59,9 @@ public class MassrenameShellCommand implements ShellCommand {
 	/** Flags used for regex matching. */
 	private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
 
+	/** Number of threads used for moving files. */
+	private static final int THREADS = Math.min(8, Runtime.getRuntime().availableProcessors());
+
 	@Override
 	public String getCommandName() { return COMMAND_NAME; }
 
@@ -102,7 +107,7 @@ public class MassrenameShellCommand implements ShellCommand {
 
 		final int size = strings.size();
 		if (size < 4) {
-			env.writeln("Expected at least 4 arguments. Received: " + size);
+			env.writeError("Expected at least 4 arguments. Received: " + size);
 			return ShellStatus.CONTINUE;
 		}
 
@@ -125,14 +130,14 @@ public class MassrenameShellCommand implements ShellCommand {
 			break;
 		case "show":
 			cleanSubcommandExecution(env, "show", 2, extraArgs,
-					(e, l) -> subcommandShow(dirSourceAbs, l, e));
+					(e, l) -> subcommandShow(dirSourceAbs, dirDestAbs, l, e));
 			break;
 		case "execute":
 			cleanSubcommandExecution(env, "show", 2, extraArgs,
 					(e, l) -> subcommandExecute(dirSourceAbs, dirDestAbs, l, e));
 			break;
 		default:
-			env.writeln("Unknown subcommand: " + strings.get(2));
+			env.writeError("Unknown subcommand: " + strings.get(2));
 			break;
 		}
 
@@ -156,10 +161,10 @@ public class MassrenameShellCommand implements ShellCommand {
 		try {
 			path = Paths.get(string);
 		} catch (InvalidPathException e) {
-			env.writeln("Invalid path: " + e.getMessage());
+			env.writeError("Invalid path: " + e.getMessage());
 			return null;
 		}
-		path = ArgumentChecker.resolveAgainstCurrentDir(path, env);
+		path = ArgumentChecker.resolveAgainstCurrentDir(path, env).normalize();
 		if (!ArgumentChecker.validateIsDirectory(path, env)) {
 			return null;
 		}
@@ -200,17 +205,17 @@ public class MassrenameShellCommand implements ShellCommand {
 		try {
 			subcommand.execute(env, args);
 		} catch (PatternSyntaxException e) {
-			env.writeln("Invalid mask: " + e.getMessage());
+			env.writeError("Invalid mask: " + e.getMessage());
 		} catch (InvalidPathException e) {
-			env.writeln("Generated name is invalid: " + e.getMessage());
+			env.writeError("Generated name is invalid: " + e.getMessage());
 		} catch (IndexOutOfBoundsException e) {
-			env.writeln("Invalid group reference: " + e.getMessage());
+			env.writeError("Invalid group reference: " + e.getMessage());
 		} catch (IllegalArgumentException e) {
-			env.writeln("Could not parse: " + e.getMessage());
+			env.writeError("Could not parse: " + e.getMessage());
 		} catch (FileAlreadyExistsException e) {
-			env.writeln("File already exists: " + e.getMessage());
+			env.writeError("File already exists: " + e.getMessage());
 		} catch (IOException e) {
-			env.writeln("Could not read: " + e.getMessage());
+			env.writeError("Could not read: " + e.getMessage());
 		}
 	}
 
@@ -294,10 +299,13 @@ public class MassrenameShellCommand implements ShellCommand {
 	/**
 	 * Filters files from <code>dirSource</code> that satisfy the filter from
 	 * <code>pattern</code> and writes new names to <code>env</code> , generated
-	 * according to the second element of <code>pattern</code>.
+	 * according to the second element of <code>pattern</code>. Nothing is moved,
+	 * but all problems which would prevent <code>execute</code> are written too.
 	 * 
 	 * @param  dirSource                 absolute path to directory whose children
 	 *                                   are filtered
+	 * @param  dirDest                   absolute path to an existing directory to
+	 *                                   which files would be moved
 	 * @param  pattern                   list containing exactly two elements: a
 	 *                                   regex and a pattern for generating the new
 	 *                                   file name
@@ -312,68 +320,74 @@ public class MassrenameShellCommand implements ShellCommand {
 	 *                                   parsed for any reason
 	 */
 	private static void subcommandShow(
-			Path dirSource, List<String> pattern, Environment env)
+			Path dirSource, Path dirDest, List<String> pattern, Environment env)
 			throws IOException {
-		String patternFind = pattern.get(0);
-		String patternCreate = pattern.get(1);
-		for (RenamePair pair : renamingHelper(dirSource, patternFind, patternCreate)) {
-			String line = pair.oldName + " => " + pair.newName;
-			env.writeln(line);
+		RenamePlan plan = createPlan(dirSource, dirDest, pattern);
+		for (RenamePlan.Move move : plan.getMoves()) {
+			env.writeln(move.getSource().getFileName() + " => "
+					+ dirDest.relativize(move.getTarget()));
 		}
+		writeProblems(plan, env);
 	}
 
 	/**
 	 * Moves (or renames) files from <code>dirSource</code> that satisfy the filter
 	 * from <code>pattern</code> to <code>dirDest</code> under a new name, generated
-	 * according to the second element of <code>pattern</code>.
+	 * according to the second element of <code>pattern</code>.<br>
+	 * The whole plan is checked first; if any target already exists, two files
+	 * would get the same name, or a generated name is invalid, nothing is moved.
+	 * Files are moved concurrently, and files whose new names are swapped (or
+	 * rotated) are moved through a temporary name.
 	 * 
-	 * @param  dirSource                  absolute path to directory whose children
-	 *                                    are filtered
-	 * @param  dirDest                    absolute path to an existing directory to
-	 *                                    which files will be moved, may be the same
-	 *                                    as <code>dirSource</code>
-	 * @param  pattern                    list containing exactly two elements: a
-	 *                                    regex and a pattern for generating the new
-	 *                                    file name
-	 * @param  env                        environment used for writing output
-	 * @throws FileAlreadyExistsException if any target file already exists
-	 * @throws IOException                if directory cannot be read for any reason
-	 * @throws PatternSyntaxException     if syntax of <code>patternFind</code> is
-	 *                                    invalid
-	 * @throws IndexOutOfBoundsException  if there is no group in
-	 *                                    <code>patternFind</code> that is
-	 *                                    referenced in <code>patternCreate</code>
-	 * @throws InvalidPathException       if name generated using patterns from
-	 *                                    <code>pattern</code> does not represent a
-	 *                                    valid path, or valid file name
-	 * @throws IllegalArgumentException   if <code>patternCreate</code> cannot be
-	 *                                    parsed for any reason
+	 * @param  dirSource                 absolute path to directory whose children
+	 *                                   are filtered
+	 * @param  dirDest                   absolute path to an existing directory to
+	 *                                   which files will be moved, may be the same
+	 *                                   as <code>dirSource</code>
+	 * @param  pattern                   list containing exactly two elements: a
+	 *                                   regex and a pattern for generating the new
+	 *                                   file name
+	 * @param  env                       environment used for writing output
+	 * @throws IOException               if directory cannot be read for any reason
+	 * @throws PatternSyntaxException    if syntax of <code>patternFind</code> is
+	 *                                   invalid
+	 * @throws IndexOutOfBoundsException if there is no group in
+	 *                                   <code>patternFind</code> that is referenced
+	 *                                   in <code>patternCreate</code>
+	 * @throws IllegalArgumentException  if <code>patternCreate</code> cannot be
+	 *                                   parsed for any reason
 	 */
 	private static void subcommandExecute(
 			Path dirSource, Path dirDest, List<String> pattern, Environment env)
 			throws IOException {
-		String patternFind = pattern.get(0);
-		String patternCreate = pattern.get(1);
-		for (RenamePair pair : renamingHelper(dirSource, patternFind, patternCreate)) {
-			Path oldFile = dirSource.resolve(pair.oldName);
-			Path newFile = dirDest.resolve(pair.newName);
-			Files.move(oldFile, newFile);
-			env.writeln(oldFile + " => " + newFile);
+		RenamePlan plan = createPlan(dirSource, dirDest, pattern);
+		if (writeProblems(plan, env)) {
+			env.writeln("Nothing was renamed.");
+			return;
+		}
+		try {
+			plan.execute(THREADS,
+					move -> env.writeln(move.toString()),
+					(move, e) -> env.writeError("Could not move " + move.getSource()
+							+ ": " + e.getMessage()));
+		} catch (InterruptedException e) {
+			env.writeError("Renaming was interrupted.");
+			Thread.currentThread().interrupt();
 		}
 	}
 
 	/**
-	 * Helper method for generating new file names based on old names and given
-	 * patterns.
+	 * Helper method for planning renames based on old names and given patterns.
 	 * 
-	 * @param  dir                       absolute path to directory whose children
+	 * @param  dirSource                 absolute path to directory whose children
 	 *                                   are filtered according to
 	 *                                   <code>patternFind</code>
-	 * @param  patternFind               regex for filtering files
-	 * @param  patternCreate             expression used for generating new file
-	 *                                   names through referencing groups in
-	 *                                   <code>patternFind</code>
-	 * @return                           list of pairs of old and new file names
+	 * @param  dirDest                   absolute path to destination directory
+	 * @param  pattern                   list containing exactly two elements: a
+	 *                                   regex for filtering files, and expression
+	 *                                   used for generating new file names through
+	 *                                   referencing groups in the regex
+	 * @return                           created plan
 	 * @throws IOException               if directory cannot be read for any reason
 	 * @throws PatternSyntaxException    if syntax of <code>patternFind</code> is
 	 *                                   invalid
@@ -383,37 +397,27 @@ public class MassrenameShellCommand implements ShellCommand {
 	 * @throws IllegalArgumentException  if <code>patternCreate</code> cannot be
 	 *                                   parsed for any reason
 	 */
-	private static List<RenamePair> renamingHelper(
-			Path dir, String patternFind, String patternCreate)
+	private static RenamePlan createPlan(
+			Path dirSource, Path dirDest, List<String> pattern)
 			throws IOException {
-		List<RenamePair> pairs = new ArrayList<>();
-		NameBuilderParser parser = new NameBuilderParser(patternCreate);
-		NameBuilder builder = parser.getNameBuilder();
-		for (FilterResult file : filter(dir, patternFind)) {
-			StringBuilder sb = new StringBuilder();
-			builder.execute(file, sb);
-			pairs.add(new RenamePair(file.toString(), sb.toString()));
-		}
-		return pairs;
+		Pattern patternFind = Pattern.compile(pattern.get(0), FLAGS);
+		CompiledNameBuilder builder = new NameBuilderParser(pattern.get(1)).getNameBuilder();
+		return RenamePlan.create(dirSource, dirDest, patternFind, builder);
 	}
 
-	/** Helper class for storing pairs of old file names and new files names. */
-	private static class RenamePair {
-		/** Old file name. */
-		private final String oldName;
-		/** New file name. */
-		private final String newName;
-
-		/**
-		 * Default constructor.
-		 * 
-		 * @param oldName old file name
-		 * @param newName new file name
-		 */
-		private RenamePair(String oldName, String newName) {
-			this.oldName = oldName;
-			this.newName = newName;
+	/**
+	 * Writes all problems of given <code>plan</code> to <code>env</code>.
+	 * 
+	 * @param  plan plan whose problems are written
+	 * @param  env  environment used for writing output
+	 * @return      <code>true</code> if plan has any problems
+	 */
+	private static boolean writeProblems(RenamePlan plan, Environment env) {
+		List<String> problems = plan.getProblems();
+		for (String problem : problems) {
+			env.writeError("Conflict: " + problem);
 		}
+		return !problems.isEmpty();
 	}
 
 }
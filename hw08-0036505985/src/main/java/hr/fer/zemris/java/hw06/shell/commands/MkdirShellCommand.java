@@ -48,9 +48,9 @@ public class MkdirShellCommand implements ShellCommand {
 		try {
 			Files.createDirectories(dir);
 		} catch (IOException | SecurityException e) {
-			env.writeln("Exception occured while creating directories: "
+			env.writeError("Exception occured while creating directories: "
 					+ e.getMessage());
-			env.writeln("Please note that some of the parent directories "
+			env.writeError("Please note that some of the parent directories "
 					+ "may have been created.");
 		}
 		return ShellStatus.CONTINUE;
@@ -1,7 +1,5 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
-import hr.fer.zemris.java.hw06.ExceptionUtil;
-
 /**
  * Generates a part of names and appends it to given <code>StringBuilder</code>.
  * 
@@ -18,20 +16,4 @@ public interface NameBuilder {
 	 */
 	void execute(FilterResult result, StringBuilder sb);
 
-	/**
-	 * Returns a composed <code>NameBuilder</code> that executes, in sequence, this
-	 * operation followed by the <code>next</code> operation.
-	 *
-	 * @param  next                 the operation to execute after this operation
-	 * @return                      a composed <code>NameBuilder</code>
-	 * @throws NullPointerException if <code>next</code> is <code>null</code>
-	 */
-	default NameBuilder then(NameBuilder next) {
-		ExceptionUtil.validateNotNull(next, "next");
-		return (result, sb) -> {
-			execute(result, sb);
-			next.execute(result, sb);
-		};
-	}
-
 }
@@ -1,9 +1,14 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import hr.fer.zemris.java.hw06.ExceptionUtil;
+import hr.fer.zemris.java.hw06.shell.commands.CompiledNameBuilder.Segment;
 
 /**
- * Parser for strings that allow referencing to groups and padding.
+ * Parser for strings that allow referencing to groups and padding.<br>
+ * Parsed segments are compiled into a single {@link CompiledNameBuilder}.
  * 
  * @author Luka Mesaric
  */
@@ -15,8 +20,11 @@ public class NameBuilderParser {
 	/** Constant representing a single space character. */
 	private static final char SPACE = ' ';
 
-	/** Constructed composite name builder. */
-	private NameBuilder nameBuilder = null;
+	/** Constructed name builder. */
+	private final CompiledNameBuilder nameBuilder;
+
+	/** Segments parsed so far. */
+	private final List<Segment> segments = new ArrayList<>();
 
 	/** Data to parse. */
 	private final char[] data;
@@ -44,33 +52,15 @@ public class NameBuilderParser {
 				parsePlainText();
 			}
 		}
+		nameBuilder = new CompiledNameBuilder(segments);
 	}
 
 	/**
 	 * Getter for <code>nameBuilder</code> constructed by parsing input.
 	 *
-	 * @return <code>nameBuilder</code>
-	 */
-	public NameBuilder getNameBuilder() { return nameBuilder; }
-
-	/**
-	 * Changes stored <code>nameBuilder</code> to a composite of current
-	 * <code>nameBuilder</code> and <code>another</code>. If
-	 * <code>nameBuilder</code> is <code>null</code>, it is directly replaced with
-	 * <code>another</code>.
-	 * 
-	 * @param  another              the operation to execute after executing
-	 *                              <code>nameBuilder</code>
-	 * @throws NullPointerException if <code>another</code> is <code>null</code>
+	 * @return <code>nameBuilder</code>, never <code>null</code>
 	 */
-	private void appendBuiler(NameBuilder another) {
-		ExceptionUtil.validateNotNull(another, "another");
-		if (nameBuilder == null) {
-			nameBuilder = another;
-		} else {
-			nameBuilder = nameBuilder.then(another);
-		}
-	}
+	public CompiledNameBuilder getNameBuilder() { return nameBuilder; }
 
 	/**
 	 * Parses plain text. Increases <code>index</code> until it no longer points any
@@ -86,7 +76,7 @@ public class NameBuilderParser {
 			index++;
 		}
 		String extracted = new String(data, startIndex, index - startIndex);
-		appendBuiler(DefaultNameBuilders.text(extracted));
+		segments.add(Segment.text(extracted));
 	}
 
 	/**
@@ -132,7 +122,7 @@ public class NameBuilderParser {
 		int groupNumber = parseNonNegativeInteger(parts[0].strip());
 
 		if (parts.length == 1) {
-			appendBuiler(DefaultNameBuilders.group(groupNumber));
+			segments.add(Segment.group(groupNumber, SPACE, 0));
 			return;
 		}
 
@@ -144,7 +134,7 @@ public class NameBuilderParser {
 		}
 
 		int minWidth = parseNonNegativeInteger(widthModifier);
-		appendBuiler(DefaultNameBuilders.group(groupNumber, padding, minWidth));
+		segments.add(Segment.group(groupNumber, padding, minWidth));
 	}
 
 	/**
@@ -46,7 +46,7 @@ public class PopdShellCommand implements ShellCommand {
 			try {
 				env.setCurrentDirectory(stack.pop());
 			} catch (IllegalArgumentException e) {
-				env.writeln("Previously stored path no longer "
+				env.writeError("Previously stored path no longer "
 						+ "represents an existing directory.");
 			}
 		};
@@ -59,6 +59,9 @@ public class PopdShellCommand implements ShellCommand {
 	@Override
 	public String getCommandName() { return COMMAND_NAME; }
 
+	@Override
+	public boolean modifiesEnvironment() { return true; }
+
 	@Override
 	public List<String> getCommandDescription() {
 		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
@@ -69,6 +69,9 @@ public class PushdShellCommand implements ShellCommand {
 	@Override
 	public String getCommandName() { return COMMAND_NAME; }
 
+	@Override
+	public boolean modifiesEnvironment() { return true; }
+
 	@Override
 	public List<String> getCommandDescription() {
 		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
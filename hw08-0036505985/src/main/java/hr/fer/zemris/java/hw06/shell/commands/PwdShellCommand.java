@@ -36,7 +36,7 @@ public class PwdShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
 		if (!arguments.isBlank()) {
-			env.writeln(getCommandName() + " command cannot have any arguments.");
+			env.writeError(getCommandName() + " command cannot have any arguments.");
 			return ShellStatus.CONTINUE;
 		}
 
@@ -0,0 +1,459 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Plan of a mass rename: for every regular file in a directory whose name
+ * matches a pattern, the file it will be moved to.
+ * <p>
+ * Names are generated and targets are checked in parallel when the plan is
+ * created, so that problems (two files with the same target, a target which
+ * already exists, an invalid generated name) are known before anything is
+ * moved. A plan with problems cannot be executed.
+ * <p>
+ * A move whose target is the source of another move must wait for that move,
+ * so moves form independent chains (e.g. <code>a =&gt; b</code>,
+ * <code>b =&gt; c</code>) and cycles (e.g. swapping <code>a</code> and
+ * <code>b</code>). Chains and cycles are executed concurrently; moves within
+ * one of them are executed in order, and every cycle is broken by first
+ * moving one of its files to a temporary name.
+ *
+ * @author Luka Mesaric
+ */
+public final class RenamePlan {
+
+	/**
+	 * A single planned move.
+	 *
+	 * @author Luka Mesaric
+	 */
+	public static final class Move {
+
+		/** Absolute path of the moved file. */
+		private final Path source;
+
+		/** Absolute path to which the file is moved. */
+		private final Path target;
+
+		/** Whether target exists and is not the source itself. */
+		private final boolean targetExists;
+
+		/**
+		 * Default (private) constructor.
+		 *
+		 * @param source       absolute path of the moved file
+		 * @param target       absolute path to which the file is moved
+		 * @param targetExists whether target exists and is not the source itself
+		 */
+		private Move(Path source, Path target, boolean targetExists) {
+			this.source = source;
+			this.target = target;
+			this.targetExists = targetExists;
+		}
+
+		/**
+		 * Getter for <code>source</code>.
+		 *
+		 * @return absolute path of the moved file, never <code>null</code>
+		 */
+		public Path getSource() { return source; }
+
+		/**
+		 * Getter for <code>target</code>.
+		 *
+		 * @return absolute path to which the file is moved, never
+		 *         <code>null</code>
+		 */
+		public Path getTarget() { return target; }
+
+		@Override
+		public String toString() {
+			return source + " => " + target;
+		}
+	}
+
+	/** Planned moves, in the order in which files were listed. */
+	private final List<Move> moves;
+
+	/** Problems which prevent execution, empty if there are none. */
+	private final List<String> problems;
+
+	/**
+	 * Default (private) constructor.
+	 *
+	 * @param moves    planned moves
+	 * @param problems problems which prevent execution
+	 */
+	private RenamePlan(List<Move> moves, List<String> problems) {
+		this.moves = moves;
+		this.problems = problems;
+	}
+
+	/**
+	 * Creates a plan for moving every regular file in <code>dirSource</code>
+	 * whose name matches <code>pattern</code> into <code>dirDest</code>, under
+	 * the name generated by <code>builder</code>.
+	 *
+	 * @param  dirSource                 absolute path to directory whose children
+	 *                                   are filtered
+	 * @param  dirDest                   absolute path to an existing directory to
+	 *                                   which files will be moved, may be the
+	 *                                   same as <code>dirSource</code>
+	 * @param  pattern                   pattern which whole file names must match
+	 * @param  builder                   builder of new names
+	 * @return                           created plan, possibly with problems
+	 * @throws IOException               if directory cannot be read for any
+	 *                                   reason
+	 * @throws IndexOutOfBoundsException if <code>builder</code> references a
+	 *                                   group which does not exist in
+	 *                                   <code>pattern</code>
+	 * @throws NullPointerException      if any argument is <code>null</code>
+	 */
+	public static RenamePlan create(Path dirSource, Path dirDest, Pattern pattern,
+			CompiledNameBuilder builder) throws IOException {
+		ExceptionUtil.validateNotNull(dirSource, "dirSource");
+		ExceptionUtil.validateNotNull(dirDest, "dirDest");
+		ExceptionUtil.validateNotNull(pattern, "pattern");
+		ExceptionUtil.validateNotNull(builder, "builder");
+		Path source = dirSource.toAbsolutePath().normalize();
+		Path dest = dirDest.toAbsolutePath().normalize();
+
+		int groupCount = pattern.matcher("").groupCount();
+		if (builder.getMaxGroup() > groupCount) {
+			throw new IndexOutOfBoundsException("No group " + builder.getMaxGroup());
+		}
+
+		List<Path> children;
+		try (Stream<Path> stream = Files.list(source)) {
+			children = stream.collect(Collectors.toList());
+		} catch (UncheckedIOException | SecurityException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+
+		List<String> problems = Collections.synchronizedList(new ArrayList<>());
+		// matching is done first because it is much cheaper than reading attributes
+		List<Move> moves = children.parallelStream()
+				.map(path -> plan(path, dest, pattern, builder, problems))
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+
+		Map<Path, Move> byTarget = new HashMap<>();
+		Map<Path, Move> bySource = new HashMap<>();
+		for (Move move : moves) {
+			bySource.put(move.source, move);
+		}
+		for (Move move : moves) {
+			Move previous = byTarget.putIfAbsent(move.target, move);
+			if (previous != null) {
+				problems.add(String.format("Both %s and %s would be renamed to %s.",
+						previous.source.getFileName(), move.source.getFileName(),
+						move.target));
+			} else if (move.targetExists && !bySource.containsKey(move.target)) {
+				problems.add("Target already exists: " + move.target);
+			}
+		}
+		return new RenamePlan(moves, new ArrayList<>(problems));
+	}
+
+	/**
+	 * Plans the move of a single directory entry. Called concurrently.
+	 *
+	 * @param  path     entry of the source directory
+	 * @param  dirDest  destination directory
+	 * @param  pattern  pattern which file name must match
+	 * @param  builder  builder of new names
+	 * @param  problems synchronized list of problems, updated if generated name
+	 *                  is invalid
+	 * @return          planned move, <code>null</code> if entry is not moved
+	 */
+	private static Move plan(Path path, Path dirDest, Pattern pattern,
+			CompiledNameBuilder builder, List<String> problems) {
+		Matcher matcher = pattern.matcher(path.getFileName().toString());
+		if (!matcher.matches() || !Files.isRegularFile(path)) {
+			return null;
+		}
+		String name = builder.build(new FilterResult(matcher));
+		Path target;
+		try {
+			if (name.isBlank()) {
+				throw new InvalidPathException(name, "Generated name is blank");
+			}
+			target = dirDest.resolve(name).normalize();
+			if (!target.startsWith(dirDest) || target.equals(dirDest)) {
+				throw new InvalidPathException(name, "Generated name leaves directory");
+			}
+		} catch (InvalidPathException e) {
+			problems.add("Generated name is invalid: " + e.getMessage());
+			return null;
+		}
+
+		boolean targetExists = false;
+		if (!target.equals(path) && Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+			try {
+				// on case-insensitive file systems, target may be the source itself
+				targetExists = !Files.isSameFile(path, target);
+			} catch (IOException e) {
+				targetExists = true;
+			}
+		}
+		return new Move(path, target, targetExists);
+	}
+
+	/**
+	 * Returns planned moves.
+	 *
+	 * @return unmodifiable list of moves, in the order in which files were listed
+	 */
+	public List<Move> getMoves() { return Collections.unmodifiableList(moves); }
+
+	/**
+	 * Returns problems which prevent execution of this plan.
+	 *
+	 * @return unmodifiable list of problems, empty if there are none
+	 */
+	public List<String> getProblems() { return Collections.unmodifiableList(problems); }
+
+	/**
+	 * Executes all planned moves, using up to <code>threads</code> threads.
+	 * Callbacks are called on the current thread after all moves have finished,
+	 * in the order of {@link #getMoves()}. If a move fails, moves which depend on
+	 * it are not executed and are reported as failed too.
+	 *
+	 * @param  threads                  maximal number of threads, including the
+	 *                                  current one
+	 * @param  onMoved                  called with every executed move
+	 * @param  onError                  called with every failed move, and the
+	 *                                  reason
+	 * @throws IllegalStateException    if this plan has problems
+	 * @throws IllegalArgumentException if <code>threads</code> is less than
+	 *                                  <code>1</code>
+	 * @throws InterruptedException     if current thread was interrupted while
+	 *                                  waiting
+	 * @throws NullPointerException     if any callback is <code>null</code>
+	 */
+	public void execute(int threads, Consumer<Move> onMoved,
+			BiConsumer<Move, IOException> onError) throws InterruptedException {
+		ExceptionUtil.validateNotNull(onMoved, "onMoved");
+		ExceptionUtil.validateNotNull(onError, "onError");
+		if (!problems.isEmpty()) {
+			throw new IllegalStateException("Plan has problems and cannot be executed.");
+		} else if (threads < 1) {
+			throw new IllegalArgumentException(
+					"Number of threads must be positive, received: " + threads);
+		}
+
+		Map<Move, IOException> errors = new ConcurrentHashMap<>();
+		List<List<Move>> units = orderedUnits();
+		AtomicInteger next = new AtomicInteger();
+		Runnable worker = () -> {
+			for (int i; (i = next.getAndIncrement()) < units.size();) {
+				executeUnit(units.get(i), errors);
+			}
+		};
+
+		int poolSize = Math.min(threads, units.size()) - 1;
+		if (poolSize > 0) {
+			ExecutorService pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+				Thread thread = new Thread(runnable, "rename-worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for (int i = 0; i < poolSize; i++) {
+					futures.add(pool.submit(worker));
+				}
+				worker.run();
+				for (Future<?> future : futures) {
+					await(future);
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		} else {
+			worker.run();
+		}
+
+		for (Move move : moves) {
+			IOException error = errors.get(move);
+			if (error == null) {
+				onMoved.accept(move);
+			} else {
+				onError.accept(move, error);
+			}
+		}
+	}
+
+	/**
+	 * Splits moves into independent units: chains and cycles. Moves of every unit
+	 * are ordered so that the target of each move is free when it is executed;
+	 * a cycle is marked by repeating its first move at its end, see
+	 * {@link #executeUnit(List, Map)}.
+	 *
+	 * @return list of units
+	 */
+	private List<List<Move>> orderedUnits() {
+		Map<Path, Move> bySource = new HashMap<>();
+		Map<Path, Move> byTarget = new HashMap<>();
+		for (Move move : moves) {
+			bySource.put(move.source, move);
+			byTarget.put(move.target, move);
+		}
+
+		List<List<Move>> units = new ArrayList<>();
+		Set<Move> visited = new HashSet<>();
+		// chains start with a move whose source is not the target of another move
+		for (Move move : moves) {
+			Move waiting = byTarget.get(move.source);
+			if (waiting != null && waiting != move) {
+				continue;
+			}
+			List<Move> chain = new ArrayList<>();
+			for (Move m = move; m != null; m = blocker(m, bySource)) {
+				chain.add(m);
+				visited.add(m);
+			}
+			Collections.reverse(chain);
+			units.add(chain);
+		}
+		// all remaining moves are in cycles
+		for (Move move : moves) {
+			if (visited.contains(move)) {
+				continue;
+			}
+			List<Move> cycle = new ArrayList<>();
+			for (Move m = move; !visited.contains(m); m = blocker(m, bySource)) {
+				cycle.add(m);
+				visited.add(m);
+			}
+			Collections.reverse(cycle.subList(1, cycle.size()));
+			cycle.add(move);
+			units.add(cycle);
+		}
+		return units;
+	}
+
+	/**
+	 * Returns the move which must be executed before <code>move</code>, because
+	 * it moves away the file at its target.
+	 *
+	 * @param  move     move to check
+	 * @param  bySource moves mapped by their sources
+	 * @return          move blocking <code>move</code>, <code>null</code> if none
+	 */
+	private static Move blocker(Move move, Map<Path, Move> bySource) {
+		Move blocker = bySource.get(move.target);
+		return blocker == move ? null : blocker;
+	}
+
+	/**
+	 * Executes moves of a single unit in order. If the first move of the unit is
+	 * repeated at its end, the unit is a cycle: the first file is moved to a
+	 * temporary name first, and to its target last.
+	 *
+	 * @param unit   moves to execute
+	 * @param errors map of failed moves, updated by this method
+	 */
+	private static void executeUnit(List<Move> unit, Map<Move, IOException> errors) {
+		Move first = unit.get(0);
+		boolean cycle = unit.size() > 1 && unit.get(unit.size() - 1) == first;
+		Path temporary = null;
+		int i = 0;
+		try {
+			if (cycle) {
+				temporary = Files.createTempFile(first.source.getParent(), ".massrename", ".tmp");
+				Files.move(first.source, temporary, StandardCopyOption.REPLACE_EXISTING);
+				i++;
+			}
+			for (; i < unit.size(); i++) {
+				Move move = unit.get(i);
+				Files.move(move == first && cycle ? temporary : move.source, move.target);
+			}
+		} catch (IOException | SecurityException e) {
+			IOException cause = e instanceof IOException
+					? (IOException) e
+					: new IOException(e.getMessage(), e);
+			Move failed = unit.get(Math.min(i, unit.size() - 1));
+			errors.put(failed, cause);
+			for (int j = i + 1; j < unit.size(); j++) {
+				Move skipped = unit.get(j);
+				if (skipped != failed) {
+					errors.putIfAbsent(skipped, new IOException(
+							"Not moved because " + failed.source + " could not be moved."));
+				}
+			}
+			if (cycle && i > 0) {
+				errors.put(first, new IOException(
+						"File was left under temporary name " + temporary, cause));
+			} else if (cycle) {
+				deleteQuietly(temporary);
+			}
+		}
+	}
+
+	/**
+	 * Deletes given file if it exists, ignoring any errors.
+	 *
+	 * @param file file to delete, may be <code>null</code>
+	 */
+	private static void deleteQuietly(Path file) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException | SecurityException e) {
+			// nothing more can be done, file is empty
+		}
+	}
+
+	/**
+	 * Waits for given worker to finish.
+	 *
+	 * @param  future               worker to wait for
+	 * @throws InterruptedException if current thread was interrupted while
+	 *                              waiting
+	 */
+	private static void await(Future<?> future) throws InterruptedException {
+		try {
+			future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+}
@@ -48,19 +48,19 @@ public class SymbolShellCommand implements ShellCommand {
 
 		String[] parts = arguments.strip().split("\\s+");
 		if (parts[0].isEmpty() || parts.length > 2) {
-			env.writeln(getCommandName()
+			env.writeError(getCommandName()
 					+ " command must have exactly 1 or 2 arguments.");
 			return ShellStatus.CONTINUE;
 		}
 
 		SymbolUpdater symbolUpdater = chooseSymbolUpdater(env, parts[0]);
 		if (symbolUpdater == null) {
-			env.writeln("Unknown symbol name: " + parts[0]);
+			env.writeError("Unknown symbol name: " + parts[0]);
 		} else if (parts.length == 1) {
 			env.writeln(String.format("Symbol for %s is '%s'",
 					parts[0], symbolUpdater.supplier.get()));
 		} else if (parts[1].length() != 1) {
-			env.writeln("New symbol must be a single character.");
+			env.writeError("New symbol must be a single character.");
 		} else {
 			char oldSymbol = symbolUpdater.supplier.get();
 			symbolUpdater.consumer.accept(parts[1].charAt(0));
@@ -114,6 +114,9 @@ public class SymbolShellCommand implements ShellCommand {
 	@Override
 	public String getCommandName() { return COMMAND_NAME; }
 
+	@Override
+	public boolean modifiesEnvironment() { return true; }
+
 	@Override
 	public List<String> getCommandDescription() {
 		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
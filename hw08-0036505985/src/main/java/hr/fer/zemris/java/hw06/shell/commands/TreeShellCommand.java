@@ -1,12 +1,7 @@
 package hr.fer.zemris.java.hw06.shell.commands;
 
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.FileVisitor;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -16,11 +11,17 @@ import hr.fer.zemris.java.hw06.shell.Environment;
 import hr.fer.zemris.java.hw06.shell.ShellCommand;
 import hr.fer.zemris.java.hw06.shell.ShellStatus;
 import hr.fer.zemris.java.hw06.shell.util.ArgumentChecker;
+import hr.fer.zemris.java.hw06.shell.util.CommandOptions;
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker;
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker.Entry;
 
 /**
  * Prints a tree-like structure of all files and directories, from given root.
  * Each directory level shifts output two characters to the right.<br>
- * Expects a single argument: directory name.
+ * Expects a single argument: directory name. Option <code>--depth=N</code>
+ * limits output to entries at most <code>N</code> levels below the root.<br>
+ * Directories are read in parallel; output order is the same as if they were
+ * read one by one.
  * 
  * @author Luka Mesaric
  */
@@ -35,11 +36,16 @@ public class TreeShellCommand implements ShellCommand {
 					+ "and directories, from given root.",
 			"Each directory level shifts output "
 					+ "two characters to the right.",
-			"Expects a single argument: directory name.");
+			"Signature is as follows: tree [--depth=N] DIR",
+			"Option --depth limits output to entries "
+					+ "at most N levels below the root.");
 
 	/** Constant for indenting each level (two spaces). */
 	private static final String INDENTATION_PER_LEVEL = "  ";
 
+	/** Name of option which limits depth. */
+	private static final String OPTION_DEPTH = "depth";
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -50,78 +56,69 @@ public class TreeShellCommand implements ShellCommand {
 		ExceptionUtil.validateNotNull(env, "env");
 		ExceptionUtil.validateNotNull(arguments, "arguments");
 
-		Path root = ArgumentChecker.expectExactlyOneExistingDirectory(arguments, env);
+		CommandOptions options = ArgumentChecker.safeParseOptions(
+				arguments, env, OPTION_DEPTH);
+		if (options == null) {
+			return ShellStatus.CONTINUE;
+		}
+		int maxDepth;
+		try {
+			maxDepth = (int) Math.min(Integer.MAX_VALUE,
+					options.getNonNegativeLong(OPTION_DEPTH, Integer.MAX_VALUE));
+		} catch (IllegalArgumentException e) {
+			env.writeError(e.getMessage());
+			return ShellStatus.CONTINUE;
+		}
+		Path root = ArgumentChecker.expectExactlyOnePath(
+				options.getArguments(), env, ArgumentChecker::validateIsDirectory);
 		if (root == null) {
 			return ShellStatus.CONTINUE;
 		}
+
 		try {
-			Files.walkFileTree(root, new TreeFileVisitor(env));
+			ParallelTreeWalker walker =
+					new ParallelTreeWalker(ParallelTreeWalker.sharedPool(), maxDepth);
+			Entry tree = walker.walk(root);
+			ParallelTreeWalker.visit(tree, entry -> writeEntry(env, entry));
 		} catch (IOException | SecurityException e) {
-			env.writeln("Exception occured while traversing directories: "
+			env.writeError("Exception occured while traversing directories: "
 					+ e.getMessage());
 		}
 		return ShellStatus.CONTINUE;
 	}
 
-	@Override
-	public String getCommandName() { return COMMAND_NAME; }
-
-	@Override
-	public List<String> getCommandDescription() {
-		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
-	}
-
 	/**
-	 * Implementation of {@link FileVisitor} used for writing a tree like output.
+	 * Writes a single line of output for the given entry.
+	 * 
+	 * @param env   environment used for writing output
+	 * @param entry entry to write
 	 */
-	private static class TreeFileVisitor extends SimpleFileVisitor<Path> {
-
-		/** Current depth (level). */
-		private int depth = 0;
-
-		/** Environment used for writing output. */
-		private final Environment env;
-
-		/**
-		 * Default constructor.
-		 * 
-		 * @param env environment used for writing output
-		 */
-		private TreeFileVisitor(Environment env) {
-			this.env = env;
-		}
-
-		@Override
-		public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-			String output;
-			if (depth == 0) {
-				Path fileName = dir.toAbsolutePath().normalize().getFileName();
-				if (fileName == null) {
-					// e.g. when dir was "C:/"
-					output = dir.toString();
-				} else {
-					output = fileName.toString();
-				}
+	private static void writeEntry(Environment env, Entry entry) {
+		Path path = entry.getPath();
+		String output;
+		if (entry.getDepth() == 0) {
+			Path fileName = path.toAbsolutePath().normalize().getFileName();
+			if (fileName == null) {
+				// e.g. when dir was "C:/"
+				output = path.toString();
 			} else {
-				output = INDENTATION_PER_LEVEL.repeat(depth) + dir.getFileName();
+				output = fileName.toString();
 			}
-			env.writeln(output);
-			depth++;
-			return FileVisitResult.CONTINUE;
+		} else {
+			output = INDENTATION_PER_LEVEL.repeat(entry.getDepth()) + path.getFileName();
 		}
-
-		@Override
-		public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-			env.writeln(INDENTATION_PER_LEVEL.repeat(depth) + file.getFileName());
-			return FileVisitResult.CONTINUE;
+		if (entry.getError() != null) {
+			output += " (cannot be read)";
 		}
+		env.writeln(output);
+	}
 
-		@Override
-		public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
-			depth--;
-			return FileVisitResult.CONTINUE;
-		}
+	@Override
+	public String getCommandName() { return COMMAND_NAME; }
 
+	@Override
+	public List<String> getCommandDescription() {
+		return Collections.unmodifiableList(COMMAND_DESCRIPTION);
 	}
 
 }
@@ -0,0 +1,182 @@
+package hr.fer.zemris.java.hw06.shell.demo;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.Scanner;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.MyShell;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.CatShellCommand;
+
+/**
+ * Measures how long <code>cat</code> of a large file takes with the original,
+ * unbuffered shell output and with the buffered output of {@link MyShell}.
+ * <p>
+ * {@link System#out} is replaced by a stream that is set up the same way as
+ * the console stream (small buffer, flushed on every write), but writes to a
+ * sink file, so that per-line system calls are measured without flooding the
+ * terminal.<br>
+ * Arguments (all optional): number of lines (default <code>2000000</code>) and
+ * sink file (default is a temporary file, deleted afterwards; on Unix
+ * <code>/dev/null</code> can be used).
+ *
+ * @author Luka Mesaric
+ */
+public class CatBenchmark {
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args        number of lines, sink file
+	 * @throws IOException if files cannot be created
+	 */
+	public static void main(String[] args) throws IOException {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Path sink = args.length > 1 ? Paths.get(args[1]) : null;
+		Path file = Files.createTempFile("cat-benchmark", ".txt");
+		Path tempSink = sink == null ? Files.createTempFile("cat-benchmark", ".out") : null;
+
+		PrintStream console = System.out;
+		try (BufferedWriter bw = Files.newBufferedWriter(file)) {
+			Random random = new Random(lines);
+			for (int i = 0; i < lines; i++) {
+				bw.write(Integer.toString(i));
+				bw.write(" lorem ipsum dolor sit amet ");
+				bw.write(Long.toHexString(random.nextLong()));
+				bw.newLine();
+			}
+		}
+		long bytes = Files.size(file);
+		String argument = "\"" + file + "\"";
+		Path out = sink != null ? sink : tempSink;
+
+		try (PrintStream sinkStream = new PrintStream(new BufferedOutputStream(
+				new FileOutputStream(out.toFile()), 128), true)) {
+			System.setOut(sinkStream);
+			console.format("File: %d lines, %.1f MiB%n", lines, bytes / 1048576.0);
+
+			for (int run = 0; run < 3; run++) {
+				Environment legacy = new LegacyShell();
+				long start = System.nanoTime();
+				legacyCat(legacy, file);
+				report(console, "Legacy shell, line cat", start, bytes);
+
+				MyShell buffered = newShell();
+				start = System.nanoTime();
+				legacyCat(buffered, file);
+				buffered.flush();
+				report(console, "Buffered shell, line cat", start, bytes);
+
+				ShellCommand cat = new CatShellCommand();
+				buffered = newShell();
+				start = System.nanoTime();
+				cat.executeCommand(buffered, argument);
+				buffered.flush();
+				report(console, "Buffered shell, bulk cat", start, bytes);
+			}
+
+			MyShell shell = newShell();
+			long start = System.nanoTime();
+			new CatShellCommand().executeCommand(shell, "--tail=10 " + argument);
+			shell.flush();
+			report(console, "Bulk cat --tail=10", start, bytes);
+		} finally {
+			System.setOut(console);
+			Files.delete(file);
+			if (tempSink != null) {
+				Files.delete(tempSink);
+			}
+		}
+	}
+
+	/**
+	 * Creates a shell which writes to {@link System#out}.
+	 *
+	 * @return new shell
+	 */
+	private static MyShell newShell() {
+		MyShell shell = new MyShell(new Scanner(""),
+				new OutputStreamWriter(System.out, Charset.defaultCharset()));
+		shell.setCurrentDirectory(Paths.get("."));
+		return shell;
+	}
+
+	/**
+	 * Prints duration and throughput of one measurement.
+	 *
+	 * @param console stream to print to
+	 * @param name    name of the measurement
+	 * @param start   start time, in nanoseconds
+	 * @param bytes   size of the file
+	 */
+	private static void report(PrintStream console, String name, long start, long bytes) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		console.format("%-26s %8.3f s %9.1f MiB/s%n",
+				name, seconds, bytes / seconds / 1048576);
+	}
+
+	/**
+	 * Writes <code>file</code> to <code>env</code> the way <code>cat</code>
+	 * command used to, one <code>writeln</code> per line.
+	 *
+	 * @param  env         environment to write to
+	 * @param  file        file to write
+	 * @throws IOException if file cannot be read
+	 */
+	private static void legacyCat(Environment env, Path file) throws IOException {
+		try (BufferedReader br = Files.newBufferedReader(file)) {
+			br.lines().forEach(env::writeln);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Shell with the original output implementation: every write goes directly
+	 * to {@link System#out}, and <code>writeln</code> formats its line with
+	 * <code>String.format</code>.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class LegacyShell extends MyShell {
+
+		/**
+		 * Default constructor.
+		 */
+		LegacyShell() {
+			super(new Scanner(""));
+			setCurrentDirectory(Paths.get("."));
+		}
+
+		@Override
+		public void write(String text) {
+			System.out.print(text);
+		}
+
+		@Override
+		public void writeln(String text) {
+			write(String.format("%s%n", text));
+		}
+
+		@Override
+		public void write(CharSequence text, int start, int end) {
+			write(text.subSequence(start, end).toString());
+		}
+
+		@Override
+		public void flush() {}
+	}
+
+}
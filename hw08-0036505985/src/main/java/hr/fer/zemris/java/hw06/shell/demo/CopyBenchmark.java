@@ -0,0 +1,177 @@
+package hr.fer.zemris.java.hw06.shell.demo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import hr.fer.zemris.java.hw06.shell.util.FileCopier;
+
+/**
+ * Measures throughput of different ways of copying a large file and a
+ * directory with many small files.
+ * <p>
+ * Arguments (all optional): size of the large file in MiB (default
+ * <code>2048</code>), number of small files (default <code>2000</code>) and
+ * directory in which test files are created (default is system's temporary
+ * directory). All created files are deleted afterwards.<br>
+ * Note that the second read of a file is usually served from the page cache,
+ * so the file is copied once before measuring.
+ *
+ * @author Luka Mesaric
+ */
+public class CopyBenchmark {
+
+	/** Number of bytes in a mebibyte. */
+	private static final int MIB = 1 << 20;
+
+	/** Size of each small file, in bytes. */
+	private static final int SMALL_FILE_SIZE = 64 << 10;
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args        file size in MiB, number of small files, working
+	 *                     directory
+	 * @throws IOException if test files cannot be created or copied
+	 */
+	public static void main(String[] args) throws Exception {
+		long sizeMib = args.length > 0 ? Long.parseLong(args[0]) : 2048;
+		int smallFiles = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		Path parent = args.length > 2
+				? Paths.get(args[2])
+				: Paths.get(System.getProperty("java.io.tmpdir"));
+		Path work = Files.createTempDirectory(parent, "copy-benchmark");
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		try {
+			Path source = createFile(work.resolve("large.bin"), sizeMib * MIB);
+			Path dest = work.resolve("large-copy.bin");
+			long bytes = Files.size(source);
+			System.out.format("Large file: %d MiB, %d threads%n", sizeMib, threads);
+
+			FileCopier.copy(source, dest); // warm up page cache
+			report("Buffered streams", bytes, () -> streamCopy(source, dest));
+			report("FileChannel.transferTo", bytes, () -> FileCopier.copy(source, dest));
+			for (int t = 2; t <= threads; t <<= 1) {
+				final int n = t;
+				report("Chunked, " + t + " threads", bytes,
+						() -> copierCopy(source, dest, n, 64L * MIB, false));
+			}
+
+			Path tree = work.resolve("tree");
+			for (int i = 0; i < smallFiles; i++) {
+				Path dir = Files.createDirectories(tree.resolve("d" + (i % 50)));
+				createFile(dir.resolve("f" + i + ".bin"), SMALL_FILE_SIZE);
+			}
+			long treeBytes = (long) smallFiles * SMALL_FILE_SIZE;
+			System.out.format("%nDirectory: %d files of %d KiB%n",
+					smallFiles, SMALL_FILE_SIZE >> 10);
+			for (int t = 1; t <= threads; t <<= 1) {
+				final int n = t;
+				report("Directory, " + t + " thread(s)", treeBytes,
+						() -> copierCopy(tree, work.resolve("tree-copy"), n, 0, true));
+			}
+		} finally {
+			try (Stream<Path> walk = Files.walk(work)) {
+				walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+			}
+		}
+	}
+
+	/**
+	 * Operation whose duration is measured.
+	 */
+	@FunctionalInterface
+	private interface Measured {
+		/**
+		 * Runs the operation.
+		 *
+		 * @throws Exception if operation fails
+		 */
+		void run() throws Exception;
+	}
+
+	/**
+	 * Runs the given operation once and prints its throughput.
+	 *
+	 * @param  name      name of the operation
+	 * @param  bytes     number of bytes processed by the operation
+	 * @param  operation operation to measure
+	 * @throws Exception if operation fails
+	 */
+	private static void report(String name, long bytes, Measured operation)
+			throws Exception {
+		long start = System.nanoTime();
+		operation.run();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-26s %9.3f s %10.1f MiB/s%n",
+				name, seconds, bytes / seconds / MIB);
+	}
+
+	/**
+	 * Copies a file the way <code>copy</code> command used to, moving all data
+	 * through the Java heap.
+	 *
+	 * @param  source      file to copy
+	 * @param  dest        destination file
+	 * @throws IOException if copying fails
+	 */
+	private static void streamCopy(Path source, Path dest) throws IOException {
+		try (BufferedInputStream bis = new BufferedInputStream(
+				Files.newInputStream(source));
+				BufferedOutputStream bos = new BufferedOutputStream(
+						Files.newOutputStream(dest))) {
+			bis.transferTo(bos);
+		}
+	}
+
+	/**
+	 * Copies a file or directory using {@link FileCopier}.
+	 *
+	 * @param  source      file or directory to copy
+	 * @param  dest        destination
+	 * @param  threads     number of worker threads
+	 * @param  chunkSize   chunk size, <code>0</code> disables chunking
+	 * @param  directory   whether <code>source</code> is a directory
+	 * @throws Exception   if copying fails
+	 */
+	private static void copierCopy(Path source, Path dest, int threads,
+			long chunkSize, boolean directory) throws Exception {
+		try (FileCopier copier = new FileCopier(threads, chunkSize)) {
+			if (directory) {
+				copier.submitDirectory(source, dest);
+			} else {
+				copier.submitFile(source, dest);
+			}
+			copier.awaitCompletion(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Creates a file of given size filled with pseudo-random data.
+	 *
+	 * @param  file        file to create
+	 * @param  size        size in bytes
+	 * @return             <code>file</code>
+	 * @throws IOException if file cannot be written
+	 */
+	private static Path createFile(Path file, long size) throws IOException {
+		byte[] block = new byte[(int) Math.min(size, MIB)];
+		new Random(size).nextBytes(block);
+		try (OutputStream os = Files.newOutputStream(file)) {
+			for (long written = 0; written < size; written += block.length) {
+				os.write(block, 0, (int) Math.min(block.length, size - written));
+			}
+		}
+		return file;
+	}
+
+}
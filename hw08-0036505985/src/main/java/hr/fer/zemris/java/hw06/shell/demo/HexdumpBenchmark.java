@@ -0,0 +1,201 @@
+package hr.fer.zemris.java.hw06.shell.demo;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.SortedMap;
+
+import hr.fer.zemris.java.hw06.shell.Environment;
+import hr.fer.zemris.java.hw06.shell.ShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.HexdumpShellCommand;
+
+/**
+ * Compares the original line-by-line hexdump implementation with
+ * {@link HexdumpShellCommand}. Output is discarded, only its length is counted.
+ * <p>
+ * Arguments (all optional): file size in MiB (default <code>64</code>), offset
+ * and length of the region dumped in the last measurement (default: last MiB of
+ * the file).
+ *
+ * @author Luka Mesaric
+ */
+public class HexdumpBenchmark {
+
+	/** Number of bytes in a mebibyte. */
+	private static final int MIB = 1 << 20;
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args        file size in MiB, region offset, region length
+	 * @throws IOException if test file cannot be created or read
+	 */
+	public static void main(String[] args) throws IOException {
+		long size = (args.length > 0 ? Long.parseLong(args[0]) : 64) * MIB;
+		long offset = args.length > 1 ? Long.parseLong(args[1]) : Math.max(0, size - MIB);
+		long length = args.length > 2 ? Long.parseLong(args[2]) : MIB;
+
+		Path file = Files.createTempFile("hexdump-benchmark", ".bin");
+		try {
+			byte[] block = new byte[MIB];
+			new Random(size).nextBytes(block);
+			try (OutputStream os = Files.newOutputStream(file)) {
+				for (long written = 0; written < size; written += block.length) {
+					os.write(block, 0, (int) Math.min(block.length, size - written));
+				}
+			}
+			System.out.format("File: %d MiB%n", size / MIB);
+
+			ShellCommand hexdump = new HexdumpShellCommand();
+			for (int run = 0; run < 3; run++) {
+				CountingEnvironment legacy = new CountingEnvironment();
+				long start = System.nanoTime();
+				legacyDump(legacy, file);
+				report("Legacy (String.format)", start, size, legacy);
+
+				CountingEnvironment engine = new CountingEnvironment();
+				start = System.nanoTime();
+				hexdump.executeCommand(engine, "\"" + file + "\"");
+				report("Lookup tables, blocks", start, size, engine);
+			}
+
+			CountingEnvironment region = new CountingEnvironment();
+			long start = System.nanoTime();
+			hexdump.executeCommand(region, String.format(
+					"--offset=%d --length=%d \"%s\"", offset, length, file));
+			report("Region --offset/--length", start, length, region);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Prints duration and throughput of one measurement.
+	 *
+	 * @param name  name of the measurement
+	 * @param start start time, in nanoseconds
+	 * @param bytes number of dumped bytes
+	 * @param env   environment which received the output
+	 */
+	private static void report(String name, long start, long bytes,
+			CountingEnvironment env) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-26s %8.3f s %9.1f MiB/s  (%d writes, %d chars)%n",
+				name, seconds, bytes / seconds / MIB, env.writes, env.chars);
+	}
+
+	/**
+	 * Dumps <code>file</code> the way <code>hexdump</code> command used to, one
+	 * <code>writeln</code> per line and one <code>String.format</code> per byte.
+	 *
+	 * @param  env         environment to write to
+	 * @param  file        file to dump
+	 * @throws IOException if file cannot be read
+	 */
+	private static void legacyDump(Environment env, Path file) throws IOException {
+		try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+			byte[] buffer = new byte[16];
+			StringBuilder sbHex = new StringBuilder(64);
+			StringBuilder sbChar = new StringBuilder(16);
+			int lineIndex = 0;
+			int read;
+			while ((read = is.readNBytes(buffer, 0, buffer.length)) > 0) {
+				sbHex.setLength(0);
+				sbChar.setLength(0);
+				sbHex.append(String.format("%08X:", lineIndex));
+				for (int i = 0; i < 16; i++) {
+					sbHex.append(i == 8 ? '|' : ' ');
+					byte b = buffer[i];
+					boolean r = i >= read;
+					sbHex.append(r ? "  " : String.format("%02X", b));
+					sbChar.append(r ? ' ' : ((b < 32 || b >= 127) ? '.' : (char) b));
+				}
+				env.writeln(sbHex.append(" | ").append(sbChar).toString());
+				lineIndex += 16;
+			}
+		}
+	}
+
+	/**
+	 * Environment which discards output and only counts it. All other operations
+	 * are unsupported.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static class CountingEnvironment implements Environment {
+
+		/** Number of calls to write methods. */
+		private long writes;
+
+		/** Total number of written characters. */
+		private long chars;
+
+		@Override
+		public void write(String text) {
+			writes++;
+			chars += text.length();
+		}
+
+		@Override
+		public void writeln(String text) {
+			write(text);
+			chars += System.lineSeparator().length();
+		}
+
+		@Override
+		public String readLine() { throw new UnsupportedOperationException(); }
+
+		@Override
+		public SortedMap<String, ShellCommand> commands() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Character getMultilineSymbol() { throw new UnsupportedOperationException(); }
+
+		@Override
+		public void setMultilineSymbol(Character symbol) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Character getPromptSymbol() { throw new UnsupportedOperationException(); }
+
+		@Override
+		public void setPromptSymbol(Character symbol) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Character getMorelinesSymbol() { throw new UnsupportedOperationException(); }
+
+		@Override
+		public void setMorelinesSymbol(Character symbol) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Path getCurrentDirectory() {
+			return Path.of("").toAbsolutePath();
+		}
+
+		@Override
+		public void setCurrentDirectory(Path path) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Object getSharedData(String key) { return null; }
+
+		@Override
+		public void setSharedData(String key, Object value) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+package hr.fer.zemris.java.hw06.shell.demo;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker;
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker.Entry;
+
+/**
+ * Compares a sequential {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)}
+ * which reads metadata the way <code>ls</code> used to (four access checks and
+ * an attribute read per file) with {@link ParallelTreeWalker}.
+ * <p>
+ * Arguments (all optional): fan-out of directories (default <code>6</code>),
+ * depth of the generated tree (default <code>4</code>), files per directory
+ * (default <code>20</code>) and an existing tree to walk instead of a generated
+ * one (e.g. on a network mount). A generated tree is deleted afterwards.<br>
+ * Results on a local disk are dominated by the page cache; the difference is
+ * much larger on network file systems, where every metadata read is a round
+ * trip.
+ *
+ * @author Luka Mesaric
+ */
+public class TreeBenchmark {
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args        fan-out, depth, files per directory, existing tree
+	 * @throws IOException if tree cannot be created or walked
+	 */
+	public static void main(String[] args) throws IOException {
+		int fanOut = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int files = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		boolean generated = args.length < 4;
+		Path root = generated ? Files.createTempDirectory("tree-benchmark") : Paths.get(args[3]);
+
+		try {
+			if (generated) {
+				generate(root, fanOut, depth, files);
+			}
+			for (int run = 0; run < 3; run++) {
+				long start = System.nanoTime();
+				long count = sequentialWalk(root);
+				report("Sequential, 5 reads/entry", start, count);
+
+				for (int threads = 1; threads <= ParallelTreeWalker.DEFAULT_PARALLELISM;
+						threads <<= 1) {
+					ForkJoinPool pool = new ForkJoinPool(threads);
+					try {
+						start = System.nanoTime();
+						Entry tree = new ParallelTreeWalker(pool, Integer.MAX_VALUE).walk(root);
+						LongAdder entries = new LongAdder();
+						ParallelTreeWalker.visit(tree, e -> entries.increment());
+						report("Parallel, " + threads + " thread(s)", start, entries.sum());
+					} finally {
+						pool.shutdown();
+					}
+				}
+				System.out.println();
+			}
+		} finally {
+			if (generated) {
+				try (Stream<Path> walk = Files.walk(root)) {
+					walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prints duration and rate of one measurement.
+	 *
+	 * @param name    name of the measurement
+	 * @param start   start time, in nanoseconds
+	 * @param entries number of visited entries
+	 */
+	private static void report(String name, long start, long entries) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-26s %8.3f s %12.0f entries/s (%d entries)%n",
+				name, seconds, entries / seconds, entries);
+	}
+
+	/**
+	 * Walks the tree on the current thread, reading metadata of every entry the
+	 * way <code>ls</code> used to.
+	 *
+	 * @param  root        root of the tree
+	 * @return             number of visited entries
+	 * @throws IOException if tree cannot be walked
+	 */
+	private static long sequentialWalk(Path root) throws IOException {
+		LongAdder count = new LongAdder();
+		Files.walkFileTree(root, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+					throws IOException {
+				return visitFile(dir, attrs);
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+					throws IOException {
+				boolean flags = Files.isDirectory(file) | Files.isReadable(file)
+						| Files.isWritable(file) | Files.isExecutable(file);
+				BasicFileAttributes read = Files.readAttributes(file,
+						BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				if (flags || read.size() >= 0) {
+					count.increment();
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		return count.sum();
+	}
+
+	/**
+	 * Generates a tree of directories and empty files.
+	 *
+	 * @param  dir         directory in which tree is generated
+	 * @param  fanOut      number of subdirectories per directory
+	 * @param  depth       remaining depth
+	 * @param  files       number of files per directory
+	 * @throws IOException if files cannot be created
+	 */
+	private static void generate(Path dir, int fanOut, int depth, int files)
+			throws IOException {
+		for (int i = 0; i < files; i++) {
+			Files.createFile(dir.resolve("file" + i + ".txt"));
+		}
+		if (depth == 0) {
+			return;
+		}
+		for (int i = 0; i < fanOut; i++) {
+			generate(Files.createDirectory(dir.resolve("dir" + i)), fanOut, depth - 1, files);
+		}
+	}
+
+}
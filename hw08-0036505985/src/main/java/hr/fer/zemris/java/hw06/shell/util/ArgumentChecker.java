@@ -1,9 +1,12 @@
 package hr.fer.zemris.java.hw06.shell.util;
 
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -50,7 +53,7 @@ public final class ArgumentChecker {
 					.map(path -> resolveAgainstCurrentDir(path, env))
 					.collect(Collectors.toList());
 		} catch (IllegalArgumentException e) {
-			env.writeln("Invalid path: " + e.getMessage());
+			env.writeError("Invalid path: " + e.getMessage());
 			return null;
 		}
 	}
@@ -79,7 +82,68 @@ public final class ArgumentChecker {
 		try {
 			return ArgumentParser.parseToStrings(paths);
 		} catch (IllegalArgumentException e) {
-			env.writeln("Invalid input: " + e.getMessage());
+			env.writeError("Invalid input: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Parses given argument into options and positional arguments. Escaping
+	 * quotation marks and backslashes inside strings is allowed.
+	 * <p>
+	 * If <code>arguments</code> cannot be parsed for any reason (e.g. string is
+	 * never terminated, or an unsupported option is given), an appropriate message
+	 * is written to <code>env</code>.
+	 * 
+	 * @param  arguments            arguments to be parsed
+	 * @param  env                  environment used to write a message
+	 * @param  allowed              names of all supported options, without the
+	 *                              leading <code>--</code>
+	 * @return                      parsed options, <code>null</code> if
+	 *                              <code>arguments</code> could not be parsed
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 * @see                         CommandOptions#parse(List, Set)
+	 */
+	public static CommandOptions safeParseOptions(
+			String arguments, Environment env, String... allowed) {
+		ExceptionUtil.validateNotNull(allowed, "allowed");
+
+		List<String> strings = safeParseStrings(arguments, env);
+		if (strings == null) {
+			return null;
+		}
+		try {
+			return CommandOptions.parse(strings, Set.of(allowed));
+		} catch (IllegalArgumentException e) {
+			env.writeError(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Converts given strings into <code>Paths</code> and resolves them against the
+	 * current directory from <code>env</code>.<br>
+	 * If any string cannot be converted to a <code>Path</code>, an appropriate
+	 * message is written to <code>env</code>.
+	 * 
+	 * @param  strings              strings to convert
+	 * @param  env                  environment used to write a message
+	 * @return                      list of resolved <code>Paths</code>,
+	 *                              <code>null</code> if any string could not be
+	 *                              converted
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static List<Path> safeResolvePaths(List<String> strings, Environment env) {
+		ExceptionUtil.validateNotNull(strings, "strings");
+		ExceptionUtil.validateNotNull(env, "env");
+
+		try {
+			return strings.stream()
+					.map(Paths::get)
+					.map(path -> resolveAgainstCurrentDir(path, env))
+					.collect(Collectors.toList());
+		} catch (InvalidPathException e) {
+			env.writeError("Invalid path: " + e.getMessage());
 			return null;
 		}
 	}
@@ -209,7 +273,7 @@ public final class ArgumentChecker {
 
 		int listSize = pathList.size();
 		if (listSize != 1) {
-			env.writeln("Exactly one argument expected. Received: " + listSize);
+			env.writeError("Exactly one argument expected. Received: " + listSize);
 			return null;
 		}
 
@@ -221,6 +285,45 @@ public final class ArgumentChecker {
 		return dirPath;
 	}
 
+	/**
+	 * Converts given already parsed arguments into a single <code>Path</code>
+	 * and tests if it satisfies the given predicate. The path is resolved against
+	 * the current directory from <code>env</code>.
+	 * <p>
+	 * If there is not exactly one argument, it cannot be converted to a
+	 * <code>Path</code>, or parsed path does not satisfy the given predicate, an
+	 * appropriate message is written to <code>env</code>.
+	 * 
+	 * @param  strings              already parsed arguments
+	 * @param  env                  environment used to write messages
+	 * @param  predicate            predicate that needs to be satisfied
+	 * @return                      resolved <code>Path</code> that satisfies the
+	 *                              given predicate; <code>null</code> otherwise
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 * @see                         ArgumentChecker#safeResolvePaths(List,
+	 *                              Environment)
+	 */
+	public static Path expectExactlyOnePath(
+			List<String> strings, Environment env,
+			BiPredicate<? super Path, ? super Environment> predicate) {
+
+		ExceptionUtil.validateNotNull(predicate, "predicate");
+
+		List<Path> pathList = safeResolvePaths(strings, env);
+		if (pathList == null) {
+			return null;
+		}
+
+		int listSize = pathList.size();
+		if (listSize != 1) {
+			env.writeError("Exactly one argument expected. Received: " + listSize);
+			return null;
+		}
+
+		Path path = pathList.get(0);
+		return predicate.test(path, env) ? path : null;
+	}
+
 	/**
 	 * Tests whether a file or directory exists. Writes a message to the environment
 	 * if it does not exist, or it could not be read due to a
@@ -327,11 +430,11 @@ public final class ArgumentChecker {
 		try {
 			boolean satisfied = predicate.test(path);
 			if (!satisfied && message != null) {
-				env.writeln(message);
+				env.writeError(message);
 			}
 			return satisfied;
 		} catch (SecurityException e) {
-			env.writeln("Security exception while accessing file: " + path);
+			env.writeError("Security exception while accessing file: " + path);
 			return false;
 		}
 	}
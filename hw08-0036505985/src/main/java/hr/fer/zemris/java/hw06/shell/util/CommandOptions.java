@@ -0,0 +1,152 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Command arguments separated into options and positional arguments.<br>
+ * An option is an argument that starts with <code>--</code>. It is either a
+ * flag (<code>--name</code>) or carries a value (<code>--name=value</code>).
+ * Options may be mixed with positional arguments in any order. Argument
+ * <code>--</code> marks the end of options; everything after it is treated as a
+ * positional argument.
+ *
+ * @author Luka Mesaric
+ */
+public final class CommandOptions {
+
+	/** Prefix which marks an option. */
+	private static final String PREFIX = "--";
+
+	/** Parsed options, mapped to their values (<code>null</code> for flags). */
+	private final Map<String, String> options;
+
+	/** Positional arguments, in order of appearance. */
+	private final List<String> arguments;
+
+	/**
+	 * Default (private) constructor.
+	 *
+	 * @param options   parsed options
+	 * @param arguments positional arguments
+	 */
+	private CommandOptions(Map<String, String> options, List<String> arguments) {
+		this.options = options;
+		this.arguments = Collections.unmodifiableList(arguments);
+	}
+
+	/**
+	 * Separates given <code>tokens</code> into options and positional arguments.
+	 *
+	 * @param  tokens                   already parsed command arguments
+	 * @param  allowed                  names of all supported options, without the
+	 *                                  leading <code>--</code>
+	 * @return                          parsed options, never <code>null</code>
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if an unsupported option is encountered,
+	 *                                  or an option is given more than once
+	 * @see                             ArgumentParser#parseToStrings(String)
+	 */
+	public static CommandOptions parse(List<String> tokens, Set<String> allowed) {
+		ExceptionUtil.validateNotNull(tokens, "tokens");
+		ExceptionUtil.validateNotNull(allowed, "allowed");
+
+		Map<String, String> options = new HashMap<>();
+		List<String> arguments = new ArrayList<>();
+		boolean endOfOptions = false;
+		for (String token : tokens) {
+			if (endOfOptions || !token.startsWith(PREFIX)) {
+				arguments.add(token);
+				continue;
+			} else if (token.equals(PREFIX)) {
+				endOfOptions = true;
+				continue;
+			}
+
+			int split = token.indexOf('=');
+			String name = token.substring(PREFIX.length(),
+					split < 0 ? token.length() : split);
+			String value = split < 0 ? null : token.substring(split + 1);
+			if (!allowed.contains(name)) {
+				throw new IllegalArgumentException("Unsupported option: " + token);
+			} else if (options.containsKey(name)) {
+				throw new IllegalArgumentException("Option given more than once: " + name);
+			}
+			options.put(name, value);
+		}
+		return new CommandOptions(options, arguments);
+	}
+
+	/**
+	 * Checks whether option with given <code>name</code> was given, either as a
+	 * flag or with a value.
+	 *
+	 * @param  name option name, without the leading <code>--</code>
+	 * @return      <code>true</code> if option is present, <code>false</code>
+	 *              otherwise
+	 */
+	public boolean hasOption(String name) {
+		return options.containsKey(name);
+	}
+
+	/**
+	 * Returns the value of option with given <code>name</code>.
+	 *
+	 * @param  name option name, without the leading <code>--</code>
+	 * @return      option value, <code>null</code> if option is not present or if
+	 *              it was given as a flag
+	 */
+	public String getOption(String name) {
+		return options.get(name);
+	}
+
+	/**
+	 * Returns the value of option with given <code>name</code> as a non-negative
+	 * <code>long</code>.
+	 *
+	 * @param  name                     option name, without the leading
+	 *                                  <code>--</code>
+	 * @param  defaultValue             value returned if option is not present
+	 * @return                          parsed option value, or
+	 *                                  <code>defaultValue</code>
+	 * @throws IllegalArgumentException if option is present, but its value is
+	 *                                  missing, is not a number or is negative
+	 */
+	public long getNonNegativeLong(String name, long defaultValue) {
+		if (!hasOption(name)) {
+			return defaultValue;
+		}
+		String value = getOption(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Option requires a value: " + name);
+		}
+		long parsed;
+		try {
+			parsed = Long.decode(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(
+					"Option " + name + " expects a number, received: " + value);
+		}
+		if (parsed < 0) {
+			throw new IllegalArgumentException(
+					"Option " + name + " must not be negative, received: " + value);
+		}
+		return parsed;
+	}
+
+	/**
+	 * Returns positional arguments, in order of appearance.
+	 *
+	 * @return unmodifiable list of positional arguments, never <code>null</code>
+	 */
+	public List<String> getArguments() {
+		return arguments;
+	}
+
+}
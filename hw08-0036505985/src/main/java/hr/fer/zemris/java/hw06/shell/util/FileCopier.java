@@ -0,0 +1,360 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Copies files and directory trees using {@link FileChannel#transferTo(long,
+ * long, java.nio.channels.WritableByteChannel) transferTo}, which lets the
+ * operating system move the data without passing it through the Java heap.
+ * <p>
+ * Copying is done on a bounded pool of worker threads: files of a directory
+ * tree are copied concurrently, and files larger than {@link #getChunkSize()
+ * chunk size} are split into chunks which are written to their positions in the
+ * destination file independently.<br>
+ * Copy operations are only submitted by the <code>submit</code> methods; the
+ * caller then waits for them using {@link #awaitCompletion(long, TimeUnit)},
+ * and can query progress in the meantime.
+ * <p>
+ * Instances are not thread-safe: submitting and waiting must be done from a
+ * single thread. Instances must be closed after use.
+ *
+ * @author Luka Mesaric
+ */
+public class FileCopier implements AutoCloseable {
+
+	/**
+	 * Maximal number of bytes moved by a single call to <code>transferTo</code>,
+	 * so that progress is updated regularly. Value is {@value}.
+	 */
+	private static final long STEP_SIZE = 8 << 20;
+
+	/** Pool that executes submitted copy operations. */
+	private final ExecutorService pool;
+
+	/**
+	 * Size of chunks in which large files are copied in parallel.
+	 * <code>0</code> disables chunked copying.
+	 */
+	private final long chunkSize;
+
+	/** Copy operations which have not been awaited yet. */
+	private final Deque<Future<?>> pending = new ArrayDeque<>();
+
+	/** Number of bytes copied so far. Updated by worker threads. */
+	private final LongAdder copiedBytes = new LongAdder();
+
+	/** Total size of all submitted files. */
+	private final AtomicLong totalBytes = new AtomicLong();
+
+	/** Number of submitted files. */
+	private int submittedFiles;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  threads                  number of worker threads
+	 * @param  chunkSize                size of chunks in which large files are
+	 *                                  copied in parallel; <code>0</code> copies
+	 *                                  each file as a whole
+	 * @throws IllegalArgumentException if <code>threads</code> is less than
+	 *                                  <code>1</code>, or <code>chunkSize</code>
+	 *                                  is negative
+	 */
+	public FileCopier(int threads, long chunkSize) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"Number of threads must be positive, received: " + threads);
+		} else if (chunkSize < 0) {
+			throw new IllegalArgumentException(
+					"Chunk size must not be negative, received: " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "copy-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Submits copying of <code>source</code> file to <code>dest</code>,
+	 * overwriting it if it exists.<br>
+	 * If chunked copying is enabled and <code>source</code> is larger than one
+	 * chunk, <code>dest</code> is created and sized immediately and each chunk is
+	 * submitted as a separate task.
+	 *
+	 * @param  source               regular file to copy
+	 * @param  dest                 destination file, its parent must exist
+	 * @throws IOException          if size of <code>source</code> cannot be read,
+	 *                              or <code>dest</code> cannot be created
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public void submitFile(Path source, Path dest) throws IOException {
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(dest, "dest");
+
+		long size = Files.size(source);
+		totalBytes.addAndGet(size);
+		submittedFiles++;
+
+		if (chunkSize == 0 || size <= chunkSize) {
+			submit(() -> copyRange(source, dest, 0, size, true));
+			return;
+		}
+
+		// Every chunk is written positionally, so destination must already
+		// have its final size before chunks are submitted.
+		try (FileChannel out = FileChannel.open(dest, CREATE, WRITE, TRUNCATE_EXISTING)) {
+			out.write(ByteBuffer.allocate(1), size - 1);
+		}
+		for (long position = 0; position < size; position += chunkSize) {
+			long start = position;
+			long count = Math.min(chunkSize, size - position);
+			submit(() -> copyRange(source, dest, start, count, false));
+		}
+	}
+
+	/**
+	 * Submits recursive copying of <code>source</code> directory into
+	 * <code>dest</code> directory. All subdirectories are created immediately,
+	 * while files are submitted using {@link #submitFile(Path, Path)}.<br>
+	 * Existing files in <code>dest</code> are overwritten.
+	 *
+	 * @param  source               directory to copy
+	 * @param  dest                 destination directory, created if it does not
+	 *                              exist
+	 * @throws IOException          if <code>source</code> cannot be walked, or
+	 *                              any directory cannot be created
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public void submitDirectory(Path source, Path dest) throws IOException {
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(dest, "dest");
+
+		Files.walkFileTree(source, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(
+					Path dir, BasicFileAttributes attrs) throws IOException {
+				Files.createDirectories(dest.resolve(source.relativize(dir)));
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(
+					Path file, BasicFileAttributes attrs) throws IOException {
+				if (attrs.isRegularFile()) {
+					submitFile(file, dest.resolve(source.relativize(file)));
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * Waits for all submitted copy operations to finish, at most the given time.
+	 *
+	 * @param  timeout              maximal time to wait
+	 * @param  unit                 unit of <code>timeout</code>
+	 * @return                      <code>true</code> if all submitted operations
+	 *                              finished, <code>false</code> if the waiting
+	 *                              time elapsed
+	 * @throws IOException          if any copy operation failed
+	 * @throws InterruptedException if current thread was interrupted while
+	 *                              waiting
+	 */
+	public boolean awaitCompletion(long timeout, TimeUnit unit)
+			throws IOException, InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!pending.isEmpty()) {
+			try {
+				pending.peekFirst().get(
+						Math.max(0, deadline - System.nanoTime()),
+						TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				return false;
+			} catch (ExecutionException e) {
+				pending.clear();
+				throw unwrap(e.getCause());
+			}
+			pending.pollFirst();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of bytes copied so far.
+	 *
+	 * @return number of copied bytes
+	 */
+	public long getCopiedBytes() {
+		return copiedBytes.sum();
+	}
+
+	/**
+	 * Returns the total size of all submitted files.
+	 *
+	 * @return number of bytes to copy
+	 */
+	public long getTotalBytes() {
+		return totalBytes.get();
+	}
+
+	/**
+	 * Returns the number of submitted files.
+	 *
+	 * @return number of submitted files
+	 */
+	public int getSubmittedFiles() {
+		return submittedFiles;
+	}
+
+	/**
+	 * Getter for <code>chunkSize</code>.
+	 *
+	 * @return <code>chunkSize</code>, <code>0</code> if chunked copying is
+	 *         disabled
+	 */
+	public long getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Stops all worker threads. Copy operations that are still running are
+	 * interrupted.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Copies <code>source</code> to <code>dest</code> on the current thread,
+	 * using {@link FileChannel#transferTo(long, long,
+	 * java.nio.channels.WritableByteChannel) transferTo}. Overwrites
+	 * <code>dest</code> if it exists.
+	 *
+	 * @param  source               regular file to copy
+	 * @param  dest                 destination file, its parent must exist
+	 * @return                      number of copied bytes
+	 * @throws IOException          if file could not be copied
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static long copy(Path source, Path dest) throws IOException {
+		ExceptionUtil.validateNotNull(source, "source");
+		ExceptionUtil.validateNotNull(dest, "dest");
+
+		long size = Files.size(source);
+		transfer(source, dest, 0, size, true, null);
+		return size;
+	}
+
+	/**
+	 * Submits given task to the pool and remembers it as pending.
+	 *
+	 * @param task task to submit
+	 */
+	private void submit(Callable<Void> task) {
+		pending.addLast(pool.submit(task));
+	}
+
+	/**
+	 * Task body which copies a range of bytes and updates progress.
+	 *
+	 * @param  source      file to copy from
+	 * @param  dest        file to copy to
+	 * @param  position    position of the first byte to copy
+	 * @param  count       number of bytes to copy
+	 * @param  truncate    whether <code>dest</code> is truncated when opened
+	 * @return             always <code>null</code>
+	 * @throws IOException if copying fails
+	 */
+	private Void copyRange(Path source, Path dest, long position, long count,
+			boolean truncate) throws IOException {
+		transfer(source, dest, position, count, truncate, copiedBytes);
+		return null;
+	}
+
+	/**
+	 * Copies <code>count</code> bytes starting at <code>position</code> from
+	 * <code>source</code> to the same position in <code>dest</code>.
+	 *
+	 * @param  source      file to copy from
+	 * @param  dest        file to copy to
+	 * @param  position    position of the first byte to copy
+	 * @param  count       number of bytes to copy
+	 * @param  truncate    whether <code>dest</code> is truncated when opened
+	 * @param  progress    counter of copied bytes, may be <code>null</code>
+	 * @throws IOException if copying fails, or <code>source</code> is shorter
+	 *                     than expected
+	 */
+	private static void transfer(Path source, Path dest, long position, long count,
+			boolean truncate, LongAdder progress) throws IOException {
+		try (FileChannel in = FileChannel.open(source, READ);
+				FileChannel out = truncate
+						? FileChannel.open(dest, CREATE, WRITE, TRUNCATE_EXISTING)
+						: FileChannel.open(dest, WRITE)) {
+
+			out.position(position);
+			long end = position + count;
+			while (position < end) {
+				// transferTo may move fewer bytes than requested
+				long moved = in.transferTo(position,
+						Math.min(STEP_SIZE, end - position), out);
+				if (moved <= 0) {
+					throw new IOException("Source file was shortened while copying: "
+							+ source);
+				}
+				position += moved;
+				if (progress != null) {
+					progress.add(moved);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts cause of a failed task into an exception thrown to the caller.
+	 *
+	 * @param  cause cause of failure
+	 * @return       <code>IOException</code> to throw
+	 */
+	private static IOException unwrap(Throwable cause) {
+		if (cause instanceof IOException) {
+			return (IOException) cause;
+		} else if (cause instanceof UncheckedIOException) {
+			return ((UncheckedIOException) cause).getCause();
+		} else if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		} else if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new IOException(cause);
+	}
+
+}
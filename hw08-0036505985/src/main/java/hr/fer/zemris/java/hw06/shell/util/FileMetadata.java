@@ -0,0 +1,138 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Metadata of a single file, read once so that it can be shown and used for
+ * walking without further file system access.
+ * <p>
+ * Type, size and times are taken from a single {@link BasicFileAttributes}
+ * read which does not follow symbolic links. Whether the file is a directory,
+ * and whether current user may read, write or execute it, are determined the
+ * same way as {@link Files#isDirectory(Path, LinkOption...)} and
+ * {@link Files#isReadable(Path)} do: symbolic links are followed, and access
+ * is checked by the operating system, so group membership, effective user and
+ * read-only file systems are all taken into account.
+ *
+ * @author Luka Mesaric
+ */
+public final class FileMetadata {
+
+	/** Path of the file. */
+	private final Path path;
+
+	/** Attributes of the file, symbolic links are not followed. */
+	private final BasicFileAttributes attributes;
+
+	/** Whether the file is a directory, or a symbolic link to one. */
+	private final boolean directory;
+
+	/** Whether current user may read the file. */
+	private final boolean readable;
+
+	/** Whether current user may write to the file. */
+	private final boolean writable;
+
+	/** Whether current user may execute the file. */
+	private final boolean executable;
+
+	/**
+	 * Default (private) constructor.
+	 *
+	 * @param path       path of the file
+	 * @param attributes attributes of the file
+	 * @param directory  whether the file is a directory, or a link to one
+	 * @param readable   whether current user may read the file
+	 * @param writable   whether current user may write to the file
+	 * @param executable whether current user may execute the file
+	 */
+	private FileMetadata(Path path, BasicFileAttributes attributes, boolean directory,
+			boolean readable, boolean writable, boolean executable) {
+		this.path = path;
+		this.attributes = attributes;
+		this.directory = directory;
+		this.readable = readable;
+		this.writable = writable;
+		this.executable = executable;
+	}
+
+	/**
+	 * Reads metadata of the given file.
+	 *
+	 * @param  file                 file whose metadata is read
+	 * @return                      metadata, never <code>null</code>
+	 * @throws IOException          if attributes cannot be read
+	 * @throws SecurityException    if access to file is denied
+	 * @throws NullPointerException if <code>file</code> is <code>null</code>
+	 */
+	public static FileMetadata read(Path file) throws IOException {
+		ExceptionUtil.validateNotNull(file, "file");
+
+		BasicFileAttributes attributes = Files.readAttributes(
+				file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		boolean directory = attributes.isSymbolicLink()
+				? Files.isDirectory(file)
+				: attributes.isDirectory();
+		return new FileMetadata(file, attributes, directory,
+				Files.isReadable(file),
+				Files.isWritable(file),
+				Files.isExecutable(file));
+	}
+
+	/**
+	 * Getter for <code>path</code>.
+	 *
+	 * @return <code>path</code>, never <code>null</code>
+	 */
+	public Path getPath() { return path; }
+
+	/**
+	 * Getter for <code>attributes</code>.
+	 *
+	 * @return <code>attributes</code>, never <code>null</code>
+	 */
+	public BasicFileAttributes getAttributes() { return attributes; }
+
+	/**
+	 * Checks whether the file is a directory. Symbolic links are followed.
+	 *
+	 * @return <code>true</code> if file is a directory, or a symbolic link to
+	 *         one
+	 */
+	public boolean isDirectory() { return directory; }
+
+	/**
+	 * Checks whether the file is a symbolic link.
+	 *
+	 * @return <code>true</code> if file is a symbolic link
+	 */
+	public boolean isSymbolicLink() { return attributes.isSymbolicLink(); }
+
+	/**
+	 * Checks whether current user may read the file.
+	 *
+	 * @return <code>true</code> if file is readable
+	 */
+	public boolean isReadable() { return readable; }
+
+	/**
+	 * Checks whether current user may write to the file.
+	 *
+	 * @return <code>true</code> if file is writable
+	 */
+	public boolean isWritable() { return writable; }
+
+	/**
+	 * Checks whether current user may execute the file.
+	 *
+	 * @return <code>true</code> if file is executable
+	 */
+	public boolean isExecutable() { return executable; }
+
+}
@@ -0,0 +1,245 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import hr.fer.zemris.java.hw06.ExceptionUtil;
+
+/**
+ * Walks a directory tree in parallel, using one fork/join task per directory.
+ * Metadata of every entry is read once, using {@link FileMetadata}.
+ * <p>
+ * The whole tree is read into memory first and then visited in the same order
+ * in which {@link Files#walkFileTree(Path, java.nio.file.FileVisitor)} would
+ * visit it: a directory is followed by its entries, in the order in which they
+ * were returned by the file system. Symbolic links are not followed.
+ *
+ * @author Luka Mesaric
+ */
+public final class ParallelTreeWalker {
+
+	/**
+	 * Recommended parallelism of the pool used for walking. Reading directories
+	 * mostly waits for I/O (especially on network file systems), so more threads
+	 * than processors are used.
+	 */
+	public static final int DEFAULT_PARALLELISM =
+			Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Returns the pool shared by shell commands which walk directory trees,
+	 * with {@link #DEFAULT_PARALLELISM} threads. The pool is created on first
+	 * use; its worker threads are daemon threads, so it never needs to be shut
+	 * down.
+	 *
+	 * @return shared pool, never <code>null</code>
+	 */
+	public static ForkJoinPool sharedPool() {
+		return SharedPoolHolder.POOL;
+	}
+
+	/**
+	 * Holder of the shared pool, initialized on first access.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static final class SharedPoolHolder {
+
+		/** Shared pool. */
+		private static final ForkJoinPool POOL = new ForkJoinPool(DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * A single file or directory found by the walker.
+	 *
+	 * @author Luka Mesaric
+	 */
+	public static final class Entry {
+
+		/** Metadata of this entry. */
+		private final FileMetadata metadata;
+
+		/** Depth of this entry, <code>0</code> for root. */
+		private final int depth;
+
+		/** Entries of this directory, empty for files and unexpanded directories. */
+		private List<Entry> children = Collections.emptyList();
+
+		/** Exception thrown while reading this directory, if any. */
+		private IOException error;
+
+		/**
+		 * Default (private) constructor.
+		 *
+		 * @param metadata metadata of this entry
+		 * @param depth    depth of this entry
+		 */
+		private Entry(FileMetadata metadata, int depth) {
+			this.metadata = metadata;
+			this.depth = depth;
+		}
+
+		/**
+		 * Getter for <code>metadata</code>.
+		 *
+		 * @return <code>metadata</code>, never <code>null</code>
+		 */
+		public FileMetadata getMetadata() { return metadata; }
+
+		/**
+		 * Getter for <code>path</code>.
+		 *
+		 * @return path of this entry, never <code>null</code>
+		 */
+		public Path getPath() { return metadata.getPath(); }
+
+		/**
+		 * Getter for <code>depth</code>.
+		 *
+		 * @return depth of this entry, <code>0</code> for root
+		 */
+		public int getDepth() { return depth; }
+
+		/**
+		 * Returns an exception thrown while reading entries of this directory.
+		 *
+		 * @return exception, or <code>null</code> if there was none
+		 */
+		public IOException getError() { return error; }
+
+		/**
+		 * Returns entries of this directory, in order returned by the file system.
+		 *
+		 * @return unmodifiable list of entries, empty for files and for directories
+		 *         at maximal depth
+		 */
+		public List<Entry> getChildren() { return children; }
+	}
+
+	/** Pool that executes the walk. */
+	private final ForkJoinPool pool;
+
+	/** Maximal depth of visited entries. */
+	private final int maxDepth;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  pool                     pool that executes the walk
+	 * @param  maxDepth                 maximal depth of visited entries; root
+	 *                                  is at depth <code>0</code>
+	 * @throws NullPointerException     if <code>pool</code> is <code>null</code>
+	 * @throws IllegalArgumentException if <code>maxDepth</code> is negative
+	 */
+	public ParallelTreeWalker(ForkJoinPool pool, int maxDepth) {
+		this.pool = ExceptionUtil.validateNotNull(pool, "pool");
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException(
+					"Depth must not be negative, received: " + maxDepth);
+		}
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Reads the tree starting at <code>root</code>. Directories which cannot be
+	 * read are not expanded; the exception is stored in their entry instead.
+	 *
+	 * @param  root                 root of the tree
+	 * @return                      root entry
+	 * @throws IOException          if metadata of <code>root</code> cannot be read
+	 * @throws NullPointerException if <code>root</code> is <code>null</code>
+	 */
+	public Entry walk(Path root) throws IOException {
+		ExceptionUtil.validateNotNull(root, "root");
+
+		Entry rootEntry = new Entry(FileMetadata.read(root), 0);
+		if (rootEntry.getMetadata().isDirectory() && maxDepth > 0) {
+			pool.invoke(new DirectoryTask(rootEntry));
+		}
+		return rootEntry;
+	}
+
+	/**
+	 * Visits <code>root</code> and all of its descendants in pre-order.
+	 *
+	 * @param  root                 root entry
+	 * @param  visitor              action performed for each entry
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static void visit(Entry root, Consumer<? super Entry> visitor) {
+		ExceptionUtil.validateNotNull(root, "root");
+		ExceptionUtil.validateNotNull(visitor, "visitor");
+
+		Deque<Entry> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			Entry entry = stack.pop();
+			visitor.accept(entry);
+			List<Entry> children = entry.getChildren();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				stack.push(children.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Task which reads entries of a single directory and forks a task for each
+	 * subdirectory which is not at maximal depth.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private class DirectoryTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** Directory whose entries are read. */
+		private final Entry directory;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param directory directory whose entries are read
+		 */
+		private DirectoryTask(Entry directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		protected void compute() {
+			int depth = directory.getDepth() + 1;
+			List<Entry> children = new ArrayList<>();
+			List<DirectoryTask> subtasks = new ArrayList<>();
+
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.getPath())) {
+				for (Path path : stream) {
+					Entry child = new Entry(FileMetadata.read(path), depth);
+					children.add(child);
+					FileMetadata metadata = child.getMetadata();
+					// like Files.walkFileTree, links to directories are not expanded
+					if (depth < maxDepth && metadata.isDirectory() && !metadata.isSymbolicLink()) {
+						subtasks.add(new DirectoryTask(child));
+					}
+				}
+			} catch (IOException e) {
+				directory.error = e;
+			} catch (DirectoryIteratorException e) {
+				directory.error = e.getCause();
+			}
+
+			directory.children = Collections.unmodifiableList(children);
+			invokeAll(subtasks);
+		}
+	}
+
+}
@@ -0,0 +1,161 @@
+package searching.algorithms;
+
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Visited set which stores states as primitive <code>long</code> keys in an
+ * open-addressing hash table with linear probing, instead of storing state
+ * objects in a {@link java.util.HashSet}. Needs no entry objects, and keys of
+ * all visited states occupy a single array.
+ * <p>
+ * Key function must be injective over the searched states, e.g. a packed
+ * representation of the state.
+ *
+ * @param  <S> type of states
+ * @author Luka Mesaric
+ */
+public final class LongVisitedSet<S> implements VisitedSet<S> {
+
+	/** Default expected number of visited states. */
+	private static final int DEFAULT_EXPECTED_SIZE = 1 << 10;
+
+	/** Key which marks empty slots. */
+	private static final long EMPTY = 0;
+
+	/** Maps states to their keys. */
+	private final ToLongFunction<S> key;
+
+	/** Hash table of keys, its length is always a power of two. */
+	private long[] table;
+
+	/** Whether key {@value #EMPTY}, which cannot be stored in the table, was added. */
+	private boolean containsEmpty;
+
+	/** Number of stored keys. */
+	private int size;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  key                  maps states to their unique keys
+	 * @throws NullPointerException if <code>key</code> is <code>null</code>
+	 */
+	public LongVisitedSet(ToLongFunction<S> key) {
+		this(key, DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  key                      maps states to their unique keys
+	 * @param  expectedSize             expected number of visited states
+	 * @throws NullPointerException     if <code>key</code> is <code>null</code>
+	 * @throws IllegalArgumentException if <code>expectedSize</code> is negative
+	 */
+	public LongVisitedSet(ToLongFunction<S> key, int expectedSize) {
+		this.key = Objects.requireNonNull(key);
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException(
+					"Expected size must not be negative: " + expectedSize);
+		}
+		int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+		this.table = new long[capacity];
+	}
+
+	@Override
+	public boolean add(S state) {
+		return addKey(key.applyAsLong(state));
+	}
+
+	/**
+	 * Adds given key to this set.
+	 *
+	 * @param  k key to add
+	 * @return   <code>true</code> if key was not present before
+	 */
+	public boolean addKey(long k) {
+		if (k == EMPTY) {
+			if (containsEmpty) {
+				return false;
+			}
+			containsEmpty = true;
+			size++;
+			return true;
+		}
+		int mask = table.length - 1;
+		for (int i = mix(k) & mask;; i = (i + 1) & mask) {
+			long stored = table[i];
+			if (stored == k) {
+				return false;
+			} else if (stored == EMPTY) {
+				table[i] = k;
+				if (++size * 2 > table.length) {
+					grow();
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether given key was added.
+	 *
+	 * @param  k key to check
+	 * @return   <code>true</code> if key is present
+	 */
+	public boolean containsKey(long k) {
+		if (k == EMPTY) {
+			return containsEmpty;
+		}
+		int mask = table.length - 1;
+		for (int i = mix(k) & mask;; i = (i + 1) & mask) {
+			long stored = table[i];
+			if (stored == k) {
+				return true;
+			} else if (stored == EMPTY) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of visited states.
+	 *
+	 * @return number of stored keys
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Doubles the capacity of the table and reinserts all keys.
+	 */
+	private void grow() {
+		long[] old = table;
+		table = new long[old.length * 2];
+		int mask = table.length - 1;
+		for (long k : old) {
+			if (k != EMPTY) {
+				int i = mix(k) & mask;
+				while (table[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				table[i] = k;
+			}
+		}
+	}
+
+	/**
+	 * Spreads bits of given key, so that keys which differ only in high bits do
+	 * not collide.
+	 *
+	 * @param  k key
+	 * @return   hash of key
+	 */
+	private static int mix(long k) {
+		long h = k * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ h >>> 32);
+	}
+
+}
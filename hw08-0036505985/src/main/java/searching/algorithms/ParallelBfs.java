@@ -0,0 +1,265 @@
+package searching.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Level-synchronous parallel breadth-first search, used by
+ * {@link SearchUtil#parallelBfsv}.
+ * <p>
+ * Every level of the frontier is split into contiguous chunks which are
+ * processed by a {@link ForkJoinPool} in two phases:
+ * <ol>
+ * <li><b>expand</b>: successors of every node are generated, and each new state
+ * is claimed with its <i>rank</i>, the position of the generating transition in
+ * breadth-first order. Concurrent claims of the same state keep the smallest
+ * rank, while states claimed on earlier levels keep their claims.</li>
+ * <li><b>collect</b>: every transition which holds the claim of its state
+ * creates a node of the next level, and goal is tested on it.</li>
+ * </ol>
+ * Chunk results are concatenated in order, so the next level, its parents, and
+ * the first goal node found are exactly those of the sequential
+ * {@link SearchUtil#bfsv(java.util.function.Supplier, Function, Predicate)
+ * bfsv}, regardless of scheduling.
+ * <p>
+ * Claims are kept in a {@link ConcurrentHashMap}, whose reads are lock-free and
+ * whose updates lock only the bin of the state's hash.
+ *
+ * @param  <S> type of states
+ * @author Luka Mesaric
+ */
+final class ParallelBfs<S> {
+
+	/** Number of low rank bits which hold the index of a transition. */
+	private static final int TRANSITION_BITS = 16;
+
+	/** Minimal number of frontier nodes processed by a single chunk. */
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	/** Number of chunks per thread, for balancing uneven chunks. */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** Pool which executes chunks. */
+	private final ForkJoinPool pool;
+
+	/** Maps state to its direct successors. */
+	private final Function<S, List<Transition<S>>> succ;
+
+	/** Test if given state is acceptable. */
+	private final Predicate<S> goal;
+
+	/** Smallest rank of every reached state. */
+	private final ConcurrentHashMap<S, Long> ranks = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pool pool which executes chunks
+	 * @param succ maps state to its direct successors, must be thread-safe
+	 * @param goal test if given state is acceptable, must be thread-safe
+	 */
+	ParallelBfs(ForkJoinPool pool, Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal) {
+		this.pool = pool;
+		this.succ = succ;
+		this.goal = goal;
+	}
+
+	/**
+	 * Searches from <code>starting</code> state.
+	 *
+	 * @param  starting starting state
+	 * @return          final node in search tree, <code>null</code> if none
+	 */
+	Node<S> search(S starting) {
+		Node<S> root = new Node<>(null, starting, 0);
+		if (goal.test(starting)) {
+			return root;
+		}
+		ranks.put(starting, 0L);
+		long levelBase = 1;
+
+		List<Node<S>> frontier = List.of(root);
+		while (!frontier.isEmpty()) {
+			List<Chunk> chunks = split(frontier, levelBase);
+			run(chunks, Chunk::expand);
+			run(chunks, Chunk::collect);
+			levelBase += (long) frontier.size() << TRANSITION_BITS;
+
+			List<Node<S>> next = new ArrayList<>();
+			for (Chunk chunk : chunks) {
+				if (chunk.found != null) {
+					return chunk.found;
+				}
+				next.addAll(chunk.next);
+			}
+			frontier = next;
+		}
+		return null;
+	}
+
+	/**
+	 * Splits <code>frontier</code> into contiguous chunks.
+	 *
+	 * @param  frontier  nodes of the current level
+	 * @param  levelBase smallest rank of the next level
+	 * @return           list of chunks, in order
+	 */
+	private List<Chunk> split(List<Node<S>> frontier, long levelBase) {
+		int size = frontier.size();
+		int count = Math.max(1, Math.min(
+				pool.getParallelism() * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE));
+		List<Chunk> chunks = new ArrayList<>(count);
+		for (int c = 0; c < count; c++) {
+			int from = (int) ((long) size * c / count);
+			int to = (int) ((long) size * (c + 1) / count);
+			chunks.add(new Chunk(frontier, from, to, levelBase));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Executes a phase on all chunks and waits for it to finish. A single chunk
+	 * is executed by the calling thread.
+	 *
+	 * @param chunks chunks to process
+	 * @param phase  phase to execute
+	 */
+	private void run(List<Chunk> chunks, Consumer<Chunk> phase) {
+		if (chunks.size() == 1) {
+			phase.accept(chunks.get(0));
+			return;
+		}
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+		for (Chunk chunk : chunks) {
+			tasks.add(pool.submit(() -> phase.accept(chunk)));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Contiguous part of a frontier level.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private final class Chunk {
+
+		/** Nodes of the current level. */
+		private final List<Node<S>> frontier;
+
+		/** Index of the first node of this chunk, inclusive. */
+		private final int from;
+
+		/** Index of the last node of this chunk, exclusive. */
+		private final int to;
+
+		/** Smallest rank of the next level. */
+		private final long levelBase;
+
+		/** Transitions of every node of this chunk, set by {@link #expand()}. */
+		private List<List<Transition<S>>> transitions;
+
+		/** Nodes of the next level, set by {@link #collect()}. */
+		private List<Node<S>> next;
+
+		/** First acceptable node of the next level, <code>null</code> if none. */
+		private Node<S> found;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param frontier  nodes of the current level
+		 * @param from      index of the first node, inclusive
+		 * @param to        index of the last node, exclusive
+		 * @param levelBase smallest rank of the next level
+		 */
+		private Chunk(List<Node<S>> frontier, int from, int to, long levelBase) {
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.levelBase = levelBase;
+		}
+
+		/**
+		 * Generates successors and claims their states.
+		 *
+		 * @throws IllegalStateException if a state has more than 65,536
+		 *                               successors
+		 */
+		private void expand() {
+			transitions = new ArrayList<>(to - from);
+			for (int i = from; i < to; i++) {
+				List<Transition<S>> list = succ.apply(frontier.get(i).getState());
+				if (list.size() > 1 << TRANSITION_BITS) {
+					throw new IllegalStateException(
+							"Too many successors for parallel search: " + list.size());
+				}
+				transitions.add(list);
+				for (int j = 0, n = list.size(); j < n; j++) {
+					S state = list.get(j).getState();
+					Long claimed = ranks.get(state);
+					if (claimed == null || claimed >= levelBase) {
+						ranks.merge(state, rank(i, j), this::keepClaim);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Creates nodes for claimed states, and tests them.
+		 */
+		private void collect() {
+			next = new ArrayList<>();
+			for (int i = from; i < to; i++) {
+				Node<S> parent = frontier.get(i);
+				List<Transition<S>> list = transitions.get(i - from);
+				for (int j = 0, n = list.size(); j < n; j++) {
+					Transition<S> t = list.get(j);
+					S state = t.getState();
+					if (ranks.get(state) != rank(i, j)) {
+						continue;
+					}
+					Node<S> node = new Node<>(parent, state, parent.getCost() + t.getCost());
+					next.add(node);
+					if (found == null && goal.test(state)) {
+						found = node;
+					}
+				}
+			}
+			transitions = null;
+		}
+
+		/**
+		 * Returns the rank of <code>j</code>-th transition of <code>i</code>-th
+		 * node of the current level.
+		 *
+		 * @param  i index of the node in the level
+		 * @param  j index of the transition
+		 * @return   rank of the transition
+		 */
+		private long rank(int i, int j) {
+			return levelBase + ((long) i << TRANSITION_BITS | j);
+		}
+
+		/**
+		 * Resolves concurrent claims of a state.
+		 *
+		 * @param  old     existing claim
+		 * @param  claimed new claim
+		 * @return         claim of an earlier level if there is one, smaller claim
+		 *                 otherwise
+		 */
+		private Long keepClaim(Long old, Long claimed) {
+			return old < levelBase ? old : Math.min(old, claimed);
+		}
+	}
+
+}
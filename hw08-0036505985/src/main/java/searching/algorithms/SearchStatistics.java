@@ -0,0 +1,226 @@
+package searching.algorithms;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Collects statistics of a single search: numbers of generated and expanded
+ * states, peak sizes of frontier and visited set, elapsed time, and bytes
+ * allocated by the searching thread. Searches which accept statistics record
+ * into it, and searches which do not use a throwaway instance, so recording
+ * costs only a few field updates per expanded state.
+ * <p>
+ * Values are recorded by the searching thread without synchronization, and
+ * published by {@link #stop()}; getters return values of the last finished
+ * search, so an instance can be reused, and read by other threads, e.g. by JMX
+ * clients after {@link #export(String)}.
+ * 
+ * @author Luka Mesaric
+ */
+public final class SearchStatistics implements SearchStatisticsMXBean {
+
+	/** Number of generated states in the current search. */
+	private long generated;
+
+	/** Number of expanded states in the current search. */
+	private long expanded;
+
+	/** Peak size of frontier in the current search. */
+	private long peakFrontier;
+
+	/** Peak size of visited set in the current search. */
+	private long peakVisited;
+
+	/** Start of the current search, in nanoseconds. */
+	private long startNanos;
+
+	/** Allocated bytes of the searching thread at the start, or <code>-1</code>. */
+	private long startAllocated;
+
+	/** Values of the last finished search, published by {@link #stop()}. */
+	private volatile Snapshot last = new Snapshot(0, 0, 0, 0, 0, -1, 0);
+
+	/**
+	 * Marks the start of a search, and resets all values.
+	 */
+	public void start() {
+		generated = 0;
+		expanded = 0;
+		peakFrontier = 0;
+		peakVisited = 0;
+		startAllocated = allocatedBytes();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of a search, and publishes its values.
+	 */
+	public void stop() {
+		long elapsedNanos = System.nanoTime() - startNanos;
+		long allocated = allocatedBytes();
+		long allocatedBytes = startAllocated < 0 || allocated < 0 ? -1 : allocated - startAllocated;
+		last = new Snapshot(generated, expanded, peakFrontier, peakVisited,
+				elapsedNanos, allocatedBytes, last.searches + 1);
+	}
+
+	/**
+	 * Records generated states.
+	 * 
+	 * @param count number of generated states
+	 */
+	public void generated(int count) {
+		generated += count;
+	}
+
+	/**
+	 * Records an expanded state.
+	 */
+	public void expanded() {
+		expanded++;
+	}
+
+	/**
+	 * Records the current size of frontier.
+	 * 
+	 * @param size size of frontier
+	 */
+	public void frontier(long size) {
+		if (size > peakFrontier) {
+			peakFrontier = size;
+		}
+	}
+
+	/**
+	 * Records the current size of visited set.
+	 * 
+	 * @param size size of visited set
+	 */
+	public void visited(long size) {
+		if (size > peakVisited) {
+			peakVisited = size;
+		}
+	}
+
+	@Override
+	public long getGenerated() { return last.generated; }
+
+	@Override
+	public long getExpanded() { return last.expanded; }
+
+	@Override
+	public long getPeakFrontier() { return last.peakFrontier; }
+
+	@Override
+	public long getPeakVisited() { return last.peakVisited; }
+
+	@Override
+	public long getElapsedNanos() { return last.elapsedNanos; }
+
+	@Override
+	public long getAllocatedBytes() { return last.allocatedBytes; }
+
+	@Override
+	public long getSearches() { return last.searches; }
+
+	/**
+	 * Registers this object with the platform MBean server, under name
+	 * <code>searching:type=SearchStatistics,name=</code><i>name</i>.
+	 * 
+	 * @param  name                  name which distinguishes this object
+	 * @return                       name under which this object is registered
+	 * @throws IllegalStateException if registration fails, e.g. because name is
+	 *                               invalid or already registered
+	 */
+	public ObjectName export(String name) {
+		try {
+			ObjectName objectName = new ObjectName(
+					"searching:type=SearchStatistics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot export statistics: " + name, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		Snapshot s = last;
+		return String.format(
+				"generated %d, expanded %d, peak frontier %d, peak visited %d, "
+						+ "%.3f ms, %s allocated",
+				s.generated, s.expanded, s.peakFrontier, s.peakVisited, s.elapsedNanos / 1e6,
+				s.allocatedBytes < 0 ? "unknown bytes" : (s.allocatedBytes >> 10) + " KiB");
+	}
+
+	/**
+	 * Returns total number of bytes allocated by current thread, if supported by
+	 * the JVM.
+	 * 
+	 * @return allocated bytes, or <code>-1</code> if not supported
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Values of a finished search.
+	 * 
+	 * @author Luka Mesaric
+	 */
+	private static final class Snapshot {
+
+		/** Number of generated states. */
+		private final long generated;
+
+		/** Number of expanded states. */
+		private final long expanded;
+
+		/** Peak size of frontier. */
+		private final long peakFrontier;
+
+		/** Peak size of visited set. */
+		private final long peakVisited;
+
+		/** Duration of the search, in nanoseconds. */
+		private final long elapsedNanos;
+
+		/** Bytes allocated during the search, or <code>-1</code>. */
+		private final long allocatedBytes;
+
+		/** Number of finished searches. */
+		private final long searches;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param generated      number of generated states
+		 * @param expanded       number of expanded states
+		 * @param peakFrontier   peak size of frontier
+		 * @param peakVisited    peak size of visited set
+		 * @param elapsedNanos   duration of the search
+		 * @param allocatedBytes bytes allocated during the search
+		 * @param searches       number of finished searches
+		 */
+		private Snapshot(long generated, long expanded, long peakFrontier,
+				long peakVisited, long elapsedNanos, long allocatedBytes, long searches) {
+			this.generated = generated;
+			this.expanded = expanded;
+			this.peakFrontier = peakFrontier;
+			this.peakVisited = peakVisited;
+			this.elapsedNanos = elapsedNanos;
+			this.allocatedBytes = allocatedBytes;
+			this.searches = searches;
+		}
+	}
+
+}
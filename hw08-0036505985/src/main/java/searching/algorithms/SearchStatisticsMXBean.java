@@ -0,0 +1,63 @@
+package searching.algorithms;
+
+/**
+ * Management interface of {@link SearchStatistics}, through which statistics
+ * of the last search are visible to JMX clients such as JConsole.
+ * 
+ * @author Luka Mesaric
+ */
+public interface SearchStatisticsMXBean {
+
+	/**
+	 * Returns the number of generated states, including the starting state.
+	 * 
+	 * @return number of generated states
+	 */
+	long getGenerated();
+
+	/**
+	 * Returns the number of expanded states, i.e. states whose successors were
+	 * generated.
+	 * 
+	 * @return number of expanded states
+	 */
+	long getExpanded();
+
+	/**
+	 * Returns the largest number of states waiting to be searched.
+	 * 
+	 * @return peak size of frontier
+	 */
+	long getPeakFrontier();
+
+	/**
+	 * Returns the largest number of remembered visited states, <code>0</code>
+	 * for searches which do not remember them.
+	 * 
+	 * @return peak size of visited set
+	 */
+	long getPeakVisited();
+
+	/**
+	 * Returns the duration of the search.
+	 * 
+	 * @return elapsed time, in nanoseconds
+	 */
+	long getElapsedNanos();
+
+	/**
+	 * Returns the number of bytes allocated by the searching thread during the
+	 * search, if supported by the JVM.
+	 * 
+	 * @return allocated bytes, <code>-1</code> if not supported
+	 */
+	long getAllocatedBytes();
+
+	/**
+	 * Returns the number of finished searches recorded by this object.
+	 * 
+	 * @return number of searches
+	 */
+	long getSearches();
+
+}
@@ -1,17 +1,30 @@
 package searching.algorithms;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.function.ToDoubleFunction;
 
 /**
- * Utility class for searching algorithms.
+ * Utility class for searching algorithms.<br>
+ * Offers uninformed breadth-first search (also from both ends, when the goal
+ * state is known, or in parallel, level by level), and informed searches (A*,
+ * IDA*) which are guided by a heuristic. Frontiers are kept in array-based
+ * queues and heaps, and children are created directly from the list of
+ * transitions, so that no intermediate collections are allocated per expanded
+ * state. Sequential searches can record their course into
+ * {@link SearchStatistics}.
  * 
  * @author Luka Mesaric
  */
@@ -31,34 +44,63 @@ public class SearchUtil {
 			Supplier<S> s0,
 			Function<S, List<Transition<S>>> succ,
 			Predicate<S> goal) {
+		return bfs(s0, succ, goal, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of Breadth-First Search (BFS) which records its course
+	 * into <code>statistics</code>.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in BFS
+	 * @return                      final node in search tree
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> bfs(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			SearchStatistics statistics) {
 
 		Objects.requireNonNull(s0);
 		Objects.requireNonNull(succ);
 		Objects.requireNonNull(goal);
+		Objects.requireNonNull(statistics);
 
-		List<Node<S>> toSearch = new LinkedList<>();
-		toSearch.add(new Node<>(null, s0.get(), 0));
+		statistics.start();
+		try {
+			Queue<Node<S>> toSearch = new ArrayDeque<>();
+			toSearch.add(new Node<>(null, s0.get(), 0));
+			statistics.generated(1);
 
-		while (!toSearch.isEmpty()) {
-			Node<S> current = toSearch.remove(0);	// remove from the beginning
-			S currentState = current.getState();
-			if (goal.test(currentState)) {
-				return current;
+			while (!toSearch.isEmpty()) {
+				statistics.frontier(toSearch.size());
+				Node<S> current = toSearch.remove();	// remove from the beginning
+				S currentState = current.getState();
+				if (goal.test(currentState)) {
+					return current;
+				}
+				statistics.expanded();
+				List<Transition<S>> transitions = succ.apply(currentState);
+				statistics.generated(transitions.size());
+				for (Transition<S> t : transitions) {
+					// add children to the end
+					toSearch.add(new Node<>(current, t.getState(), current.getCost() + t.getCost()));
+				}
 			}
-			List<Node<S>> children = succ.apply(currentState)
-					.stream()
-					.map(t -> new Node<S>(current, t.getState(),
-							current.getCost() + t.getCost()))
-					.collect(Collectors.toList());
-			toSearch.addAll(children);				// add children to the end
-		}
 
-		return null;
+			return null;
+		} finally {
+			statistics.stop();
+		}
 	}
 
 	/**
 	 * Implementation of optimized Breadth-First Search (BFS) which stores visited
-	 * states.
+	 * states in a {@link VisitedSet#hashed() hash set}.
 	 * 
 	 * @param  s0                   supplier of starting state
 	 * @param  succ                 maps state to its direct successors
@@ -71,35 +113,671 @@ public class SearchUtil {
 			Supplier<S> s0,
 			Function<S, List<Transition<S>>> succ,
 			Predicate<S> goal) {
+		return bfsv(s0, succ, goal, VisitedSet.hashed());
+	}
+
+	/**
+	 * Implementation of optimized Breadth-First Search (BFS) which stores visited
+	 * states in the given <code>visited</code> set. Every generated state is
+	 * checked and marked as visited by a single call.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  visited              empty set which remembers visited states
+	 * @param                       <S> type of states used in BFS
+	 * @return                      final node in search tree
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> bfsv(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			VisitedSet<S> visited) {
+		return bfsv(s0, succ, goal, visited, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of optimized Breadth-First Search (BFS) which stores visited
+	 * states in the given <code>visited</code> set, and records its course into
+	 * <code>statistics</code>.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  visited              empty set which remembers visited states
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in BFS
+	 * @return                      final node in search tree
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> bfsv(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			VisitedSet<S> visited,
+			SearchStatistics statistics) {
+
+		Objects.requireNonNull(s0);
+		Objects.requireNonNull(succ);
+		Objects.requireNonNull(goal);
+		Objects.requireNonNull(visited);
+		Objects.requireNonNull(statistics);
+
+		statistics.start();
+		try {
+			Queue<Node<S>> toSearch = new ArrayDeque<>();
+			S starting = s0.get();
+			toSearch.add(new Node<>(null, starting, 0));
+			visited.add(starting);
+			statistics.generated(1);
+			// visited set only grows, by one for every successful add
+			long visitedCount = 1;
+			statistics.visited(visitedCount);
+
+			while (!toSearch.isEmpty()) {
+				statistics.frontier(toSearch.size());
+				Node<S> current = toSearch.remove();	// remove from the beginning
+				S currentState = current.getState();
+				if (goal.test(currentState)) {
+					return current;
+				}
+				statistics.expanded();
+				List<Transition<S>> transitions = succ.apply(currentState);
+				statistics.generated(transitions.size());
+				for (Transition<S> t : transitions) {
+					S state = t.getState();
+					if (visited.add(state)) {
+						statistics.visited(++visitedCount);
+						// add children to the end
+						toSearch.add(new Node<>(current, state, current.getCost() + t.getCost()));
+					}
+				}
+			}
+
+			return null;
+		} finally {
+			statistics.stop();
+		}
+	}
+
+	/**
+	 * Implementation of level-synchronous parallel Breadth-First Search. Every
+	 * level of the frontier is expanded concurrently by threads of
+	 * <code>pool</code>, and visited states are kept in a concurrent hash map.
+	 * Result is deterministic: returned node and its whole chain of parents are
+	 * the same as those returned by
+	 * {@link #bfsv(Supplier, Function, Predicate) bfsv}.
+	 * <p>
+	 * <code>succ</code> and <code>goal</code> are called concurrently, so they
+	 * must be thread-safe.
+	 * 
+	 * @param  s0                    supplier of starting state
+	 * @param  succ                  maps state to its direct successors
+	 * @param  goal                  test if given state is acceptable
+	 * @param  pool                  pool whose threads expand the frontier
+	 * @param                        <S> type of states used in BFS
+	 * @return                       final node in search tree, <code>null</code>
+	 *                               if no acceptable state is reachable
+	 * @throws NullPointerException  if any argument is <code>null</code>
+	 * @throws IllegalStateException if a state has more than 65,536 successors
+	 */
+	public static <S> Node<S> parallelBfsv(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			ForkJoinPool pool) {
 
 		Objects.requireNonNull(s0);
 		Objects.requireNonNull(succ);
 		Objects.requireNonNull(goal);
+		Objects.requireNonNull(pool);
+
+		return new ParallelBfs<>(pool, succ, goal).search(s0.get());
+	}
+
+	/**
+	 * Implementation of bidirectional Breadth-First Search, for problems with a
+	 * single known goal state. Searches forward from the starting state and
+	 * backward from the goal state, always expanding the whole layer of the
+	 * smaller frontier, until the two searches meet. Among all meetings found
+	 * while expanding a layer, the cheapest one is chosen, so for transitions of
+	 * equal cost the found path is as short as the one found by
+	 * {@link #bfsv(Supplier, Function, Predicate) bfsv}, while both searches
+	 * reach only about half of its depth, exploring far fewer states.
+	 * <p>
+	 * <code>reverseSucc</code> maps a state to its direct predecessors: every
+	 * transition from <code>s</code> to <code>p</code> must correspond to a
+	 * transition from <code>p</code> to <code>s</code> with the same cost. For
+	 * problems with reversible moves it can be the same function as
+	 * <code>succ</code>.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  g0                   supplier of goal state
+	 * @param  reverseSucc          maps state to its direct predecessors
+	 * @param                       <S> type of states used in BFS
+	 * @return                      final node in search tree, whose chain of
+	 *                              parents leads to the starting state,
+	 *                              <code>null</code> if goal is not reachable
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> bidirectionalBfs(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Supplier<S> g0,
+			Function<S, List<Transition<S>>> reverseSucc) {
+		return bidirectionalBfs(s0, succ, g0, reverseSucc, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of bidirectional Breadth-First Search which records its
+	 * course into <code>statistics</code>. Frontier is the sum of both layers,
+	 * and visited states are those reached in either direction. See
+	 * {@link #bidirectionalBfs(Supplier, Function, Supplier, Function)}.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  g0                   supplier of goal state
+	 * @param  reverseSucc          maps state to its direct predecessors
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in BFS
+	 * @return                      final node in search tree, whose chain of
+	 *                              parents leads to the starting state,
+	 *                              <code>null</code> if goal is not reachable
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> bidirectionalBfs(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Supplier<S> g0,
+			Function<S, List<Transition<S>>> reverseSucc,
+			SearchStatistics statistics) {
+
+		Objects.requireNonNull(s0);
+		Objects.requireNonNull(succ);
+		Objects.requireNonNull(g0);
+		Objects.requireNonNull(reverseSucc);
+		Objects.requireNonNull(statistics);
+
+		statistics.start();
+		try {
+			S starting = s0.get();
+			S goalState = g0.get();
+			Node<S> start = new Node<>(null, starting, 0);
+			statistics.generated(1);
+			if (starting.equals(goalState)) {
+				return start;
+			}
+			Node<S> end = new Node<>(null, goalState, 0);
+			statistics.generated(1);
+
+			// backward nodes point towards the goal, their cost is remaining cost
+			Map<S, Node<S>> forward = new HashMap<>();
+			Map<S, Node<S>> backward = new HashMap<>();
+			forward.put(starting, start);
+			backward.put(goalState, end);
+			List<Node<S>> forwardLayer = List.of(start);
+			List<Node<S>> backwardLayer = List.of(end);
+
+			while (!forwardLayer.isEmpty() && !backwardLayer.isEmpty()) {
+				statistics.frontier(forwardLayer.size() + backwardLayer.size());
+				Meeting<S> meeting = new Meeting<>();
+				if (forwardLayer.size() <= backwardLayer.size()) {
+					forwardLayer = expandLayer(forwardLayer, succ, forward, backward,
+							meeting, statistics);
+					if (meeting.own != null) {
+						return join(meeting.own, meeting.other);
+					}
+				} else {
+					backwardLayer = expandLayer(backwardLayer, reverseSucc, backward, forward,
+							meeting, statistics);
+					if (meeting.own != null) {
+						return join(meeting.other, meeting.own);
+					}
+				}
+			}
+
+			return null;
+		} finally {
+			statistics.stop();
+		}
+	}
 
-		List<Node<S>> toSearch = new LinkedList<>();
-		Set<S> visited = new HashSet<>();
-		S starting = s0.get();
-		toSearch.add(new Node<>(null, starting, 0));
-		visited.add(starting);
+	/**
+	 * Expands all nodes of <code>layer</code> in one direction of bidirectional
+	 * search, and records the cheapest meeting with the other direction.
+	 * 
+	 * @param  layer      nodes to expand
+	 * @param  succ       maps state to its neighbours in this direction
+	 * @param  own        nodes reached in this direction
+	 * @param  other      nodes reached in the other direction
+	 * @param  meeting    cheapest meeting found so far
+	 * @param  statistics statistics of the search
+	 * @param  <S>        type of states
+	 * @return            next layer of this direction
+	 */
+	private static <S> List<Node<S>> expandLayer(
+			List<Node<S>> layer,
+			Function<S, List<Transition<S>>> succ,
+			Map<S, Node<S>> own,
+			Map<S, Node<S>> other,
+			Meeting<S> meeting,
+			SearchStatistics statistics) {
+
+		List<Node<S>> next = new ArrayList<>();
+		for (Node<S> current : layer) {
+			statistics.expanded();
+			List<Transition<S>> transitions = succ.apply(current.getState());
+			statistics.generated(transitions.size());
+			for (Transition<S> t : transitions) {
+				S state = t.getState();
+				if (own.containsKey(state)) {
+					continue;
+				}
+				Node<S> node = new Node<>(current, state, current.getCost() + t.getCost());
+				own.put(state, node);
+				next.add(node);
+				Node<S> reached = other.get(state);
+				if (reached != null) {
+					meeting.offer(node, reached);
+				}
+			}
+		}
+		statistics.visited(own.size() + other.size());
+		return next;
+	}
 
-		while (!toSearch.isEmpty()) {
-			Node<S> current = toSearch.remove(0);	// remove from the beginning
+	/**
+	 * Joins a forward and a backward node of the same state into a single chain
+	 * of nodes, leading from the starting state to the goal state.
+	 * 
+	 * @param  forward  node whose parents lead to the starting state
+	 * @param  backward node of the same state, whose parents lead to the goal
+	 * @param  <S>      type of states
+	 * @return          node of the goal state
+	 */
+	private static <S> Node<S> join(Node<S> forward, Node<S> backward) {
+		Node<S> current = forward;
+		for (Node<S> next = backward.getParent(); next != null;
+				backward = next, next = next.getParent()) {
+			double cost = backward.getCost() - next.getCost();
+			current = new Node<>(current, next.getState(), current.getCost() + cost);
+		}
+		return current;
+	}
+
+	/**
+	 * Implementation of A* search. Open states are kept in a binary heap ordered
+	 * by <code>cost + heuristic</code>; when a cheaper path to an open state is
+	 * found, it is added again and the outdated entry is skipped when removed
+	 * (lazy deletion). The cheapest known cost is kept for every reached state;
+	 * a closed state is expanded again only if a cheaper path to it is found,
+	 * which cannot happen if <code>heuristic</code> is consistent.
+	 * <p>
+	 * Found path is optimal if <code>heuristic</code> never overestimates the
+	 * remaining cost.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  heuristic            estimate of remaining cost from given state to
+	 *                              the nearest acceptable state
+	 * @param                       <S> type of states used in search
+	 * @return                      final node in search tree, <code>null</code> if
+	 *                              no acceptable state is reachable
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> astar(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			ToDoubleFunction<S> heuristic) {
+		return astar(s0, succ, goal, heuristic, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of A* search which records its course into
+	 * <code>statistics</code>. Frontier is the open set, including outdated
+	 * entries, and visited states are all reached states. See
+	 * {@link #astar(Supplier, Function, Predicate, ToDoubleFunction)}.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  heuristic            estimate of remaining cost from given state to
+	 *                              the nearest acceptable state
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in search
+	 * @return                      final node in search tree, <code>null</code> if
+	 *                              no acceptable state is reachable
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> astar(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			ToDoubleFunction<S> heuristic,
+			SearchStatistics statistics) {
+
+		Objects.requireNonNull(s0);
+		Objects.requireNonNull(succ);
+		Objects.requireNonNull(goal);
+		Objects.requireNonNull(heuristic);
+		Objects.requireNonNull(statistics);
+
+		statistics.start();
+		try {
+			PriorityQueue<OpenEntry<S>> open = new PriorityQueue<>();
+			// closed and open states, with the cost of the cheapest known path
+			Map<S, Double> bestCosts = new HashMap<>();
+			long sequence = 0;
+
+			S starting = s0.get();
+			open.add(new OpenEntry<>(new Node<>(null, starting, 0),
+					heuristic.applyAsDouble(starting), sequence++));
+			bestCosts.put(starting, 0.0);
+			statistics.generated(1);
+
+			while (!open.isEmpty()) {
+				statistics.frontier(open.size());
+				statistics.visited(bestCosts.size());
+				Node<S> current = open.remove().node;
+				S currentState = current.getState();
+				if (current.getCost() > bestCosts.get(currentState)) {
+					continue;	// outdated entry, state was reached more cheaply
+				}
+				if (goal.test(currentState)) {
+					return current;
+				}
+				statistics.expanded();
+				List<Transition<S>> transitions = succ.apply(currentState);
+				statistics.generated(transitions.size());
+				for (Transition<S> t : transitions) {
+					S state = t.getState();
+					double cost = current.getCost() + t.getCost();
+					Double best = bestCosts.get(state);
+					if (best == null || cost < best) {
+						bestCosts.put(state, cost);
+						open.add(new OpenEntry<>(new Node<>(current, state, cost),
+								cost + heuristic.applyAsDouble(state), sequence++));
+					}
+				}
+			}
+			statistics.visited(bestCosts.size());
+
+			return null;
+		} finally {
+			statistics.stop();
+		}
+	}
+
+	/**
+	 * Implementation of Iterative Deepening A* (IDA*). Performs depth-first
+	 * searches bounded by <code>cost + heuristic</code>, raising the bound after
+	 * every unsuccessful iteration to the smallest value which exceeded it.
+	 * Only states on the current path are remembered, so memory is proportional
+	 * to the length of the path.
+	 * <p>
+	 * If no acceptable state is reachable, this search returns <code>null</code>
+	 * only once an iteration prunes nothing, i.e. after all paths without
+	 * repeated states were explored, which does not happen in reasonable time
+	 * for large state spaces; use {@link #idaStar(Supplier, Function,
+	 * Predicate, ToDoubleFunction, double)} to limit it.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  heuristic            estimate of remaining cost from given state to
+	 *                              the nearest acceptable state
+	 * @param                       <S> type of states used in search
+	 * @return                      final node in search tree
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> idaStar(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			ToDoubleFunction<S> heuristic) {
+		return idaStar(s0, succ, goal, heuristic, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Implementation of Iterative Deepening A* (IDA*) which gives up once the
+	 * bound exceeds <code>maxCost</code>. See
+	 * {@link #idaStar(Supplier, Function, Predicate, ToDoubleFunction)}.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  heuristic            estimate of remaining cost from given state to
+	 *                              the nearest acceptable state
+	 * @param  maxCost              maximal cost of a path
+	 * @param                       <S> type of states used in search
+	 * @return                      final node in search tree, <code>null</code> if
+	 *                              there is no path cheaper than
+	 *                              <code>maxCost</code>
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> idaStar(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			ToDoubleFunction<S> heuristic,
+			double maxCost) {
+		return idaStar(s0, succ, goal, heuristic, maxCost, new SearchStatistics());
+	}
+
+	/**
+	 * Implementation of Iterative Deepening A* (IDA*) which gives up once the
+	 * bound exceeds <code>maxCost</code>, and records its course into
+	 * <code>statistics</code>. States are counted over all iterations; both
+	 * frontier and visited set are the states on the current path. See
+	 * {@link #idaStar(Supplier, Function, Predicate, ToDoubleFunction)}.
+	 * 
+	 * @param  s0                   supplier of starting state
+	 * @param  succ                 maps state to its direct successors
+	 * @param  goal                 test if given state is acceptable
+	 * @param  heuristic            estimate of remaining cost from given state to
+	 *                              the nearest acceptable state
+	 * @param  maxCost              maximal cost of a path
+	 * @param  statistics           statistics of this search
+	 * @param                       <S> type of states used in search
+	 * @return                      final node in search tree, <code>null</code> if
+	 *                              there is no path cheaper than
+	 *                              <code>maxCost</code>
+	 * @throws NullPointerException if any argument is <code>null</code>
+	 */
+	public static <S> Node<S> idaStar(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal,
+			ToDoubleFunction<S> heuristic,
+			double maxCost,
+			SearchStatistics statistics) {
+
+		Objects.requireNonNull(s0);
+		Objects.requireNonNull(succ);
+		Objects.requireNonNull(goal);
+		Objects.requireNonNull(heuristic);
+		Objects.requireNonNull(statistics);
+
+		statistics.start();
+		try {
+			IdaStar<S> search = new IdaStar<>(succ, goal, heuristic, statistics);
+			Node<S> root = new Node<>(null, s0.get(), 0);
+			search.onPath.add(root.getState());
+			statistics.generated(1);
+			statistics.frontier(1);
+			statistics.visited(1);
+			double bound = heuristic.applyAsDouble(root.getState());
+			while (bound <= maxCost) {
+				search.nextBound = Double.POSITIVE_INFINITY;
+				Node<S> found = search.search(root, bound);
+				if (found != null) {
+					return found;
+				}
+				if (search.nextBound == Double.POSITIVE_INFINITY) {
+					return null;	// nothing was pruned, all paths were explored
+				}
+				bound = search.nextBound;
+			}
+			return null;
+		} finally {
+			statistics.stop();
+		}
+	}
+
+	/**
+	 * Entry of the open set used by A*.
+	 * 
+	 * @param  <S> type of states
+	 * @author     Luka Mesaric
+	 */
+	private static class OpenEntry<S> implements Comparable<OpenEntry<S>> {
+
+		/** Node of this entry. */
+		private final Node<S> node;
+
+		/** Estimated total cost of paths through this node. */
+		private final double estimate;
+
+		/** Insertion order, used for deterministic ordering of ties. */
+		private final long sequence;
+
+		/**
+		 * Default constructor.
+		 * 
+		 * @param node     node of this entry
+		 * @param estimate estimated total cost of paths through <code>node</code>
+		 * @param sequence insertion order
+		 */
+		private OpenEntry(Node<S> node, double estimate, long sequence) {
+			this.node = node;
+			this.estimate = estimate;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(OpenEntry<S> other) {
+			int r = Double.compare(estimate, other.estimate);
+			if (r == 0) {
+				// among equal estimates, deeper nodes are closer to a goal
+				r = Double.compare(other.node.getCost(), node.getCost());
+			}
+			return r != 0 ? r : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	/**
+	 * Cheapest meeting of two directions of bidirectional search.
+	 * 
+	 * @param  <S> type of states
+	 * @author     Luka Mesaric
+	 */
+	private static class Meeting<S> {
+
+		/** Node in the expanded direction, <code>null</code> if none. */
+		private Node<S> own;
+
+		/** Node of the same state in the other direction. */
+		private Node<S> other;
+
+		/**
+		 * Records the meeting of <code>own</code> and <code>other</code> if it is
+		 * cheaper than the current one.
+		 * 
+		 * @param own   node in the expanded direction
+		 * @param other node of the same state in the other direction
+		 */
+		private void offer(Node<S> own, Node<S> other) {
+			if (this.own == null || own.getCost() + other.getCost()
+					< this.own.getCost() + this.other.getCost()) {
+				this.own = own;
+				this.other = other;
+			}
+		}
+	}
+
+	/**
+	 * State of a single IDA* search.
+	 * 
+	 * @param  <S> type of states
+	 * @author     Luka Mesaric
+	 */
+	private static class IdaStar<S> {
+
+		/** Maps state to its direct successors. */
+		private final Function<S, List<Transition<S>>> succ;
+
+		/** Test if given state is acceptable. */
+		private final Predicate<S> goal;
+
+		/** Estimate of remaining cost. */
+		private final ToDoubleFunction<S> heuristic;
+
+		/** States on the current path, which must not be visited again. */
+		private final Set<S> onPath = new HashSet<>();
+
+		/** Statistics of the search. */
+		private final SearchStatistics statistics;
+
+		/** Smallest estimate which exceeded the current bound. */
+		private double nextBound;
+
+		/**
+		 * Default constructor.
+		 * 
+		 * @param succ       maps state to its direct successors
+		 * @param goal       test if given state is acceptable
+		 * @param heuristic  estimate of remaining cost
+		 * @param statistics statistics of the search
+		 */
+		private IdaStar(Function<S, List<Transition<S>>> succ, Predicate<S> goal,
+				ToDoubleFunction<S> heuristic, SearchStatistics statistics) {
+			this.succ = succ;
+			this.goal = goal;
+			this.heuristic = heuristic;
+			this.statistics = statistics;
+		}
+
+		/**
+		 * Searches depth-first below <code>current</code>, within
+		 * <code>bound</code>.
+		 * 
+		 * @param  current node to search from, its state is on the path
+		 * @param  bound   maximal estimate of expanded nodes
+		 * @return         final node, <code>null</code> if not found within bound
+		 */
+		private Node<S> search(Node<S> current, double bound) {
 			S currentState = current.getState();
 			if (goal.test(currentState)) {
 				return current;
 			}
-			List<Node<S>> children = succ.apply(currentState)
-					.stream()
-					.map(t -> new Node<S>(current, t.getState(),
-							current.getCost() + t.getCost()))
-					.collect(Collectors.toList());
-
-			children.removeIf(node -> visited.contains(node.getState()));
-			children.forEach(node -> visited.add(node.getState()));
-			toSearch.addAll(children);				// add children to the end
+			statistics.expanded();
+			List<Transition<S>> transitions = succ.apply(currentState);
+			statistics.generated(transitions.size());
+			for (Transition<S> t : transitions) {
+				S state = t.getState();
+				double cost = current.getCost() + t.getCost();
+				double estimate = cost + heuristic.applyAsDouble(state);
+				if (estimate > bound) {
+					nextBound = Math.min(nextBound, estimate);
+					continue;
+				}
+				if (!onPath.add(state)) {
+					continue;
+				}
+				statistics.frontier(onPath.size());
+				statistics.visited(onPath.size());
+				Node<S> found = search(new Node<>(current, state, cost), bound);
+				onPath.remove(state);
+				if (found != null) {
+					return found;
+				}
+			}
+			return null;
 		}
-
-		return null;
 	}
 
 	/** Disable creating instances. */
@@ -0,0 +1,40 @@
+package searching.algorithms;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strategy for remembering states which were already visited during a search.
+ * <p>
+ * Adding and checking is a single operation, so that every generated state is
+ * looked up only once. Implementations may trade generality for memory and
+ * speed, e.g. by packing states into primitive keys.
+ *
+ * @param  <S> type of states
+ * @author Luka Mesaric
+ */
+@FunctionalInterface
+public interface VisitedSet<S> {
+
+	/**
+	 * Marks <code>state</code> as visited.
+	 *
+	 * @param  state state to mark
+	 * @return       <code>true</code> if <code>state</code> was not visited
+	 *               before, <code>false</code> otherwise
+	 */
+	boolean add(S state);
+
+	/**
+	 * Returns a visited set backed by a {@link HashSet}, which relies on
+	 * <code>hashCode</code> and <code>equals</code> of states.
+	 *
+	 * @param  <S> type of states
+	 * @return     new empty visited set
+	 */
+	static <S> VisitedSet<S> hashed() {
+		Set<S> set = new HashSet<>();
+		return set::add;
+	}
+
+}
@@ -0,0 +1,101 @@
+package searching.demo;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import searching.algorithms.Node;
+import searching.algorithms.SearchUtil;
+import searching.algorithms.Transition;
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.Slagalica;
+import searching.slagalica.SlagalicaHeuristics;
+
+/**
+ * Compares {@link SearchUtil#bfsv}, {@link SearchUtil#astar} and
+ * {@link SearchUtil#idaStar} on the solvable instances of the
+ * {@link SearchBenchmark} corpus, with Manhattan distance and linear conflict
+ * heuristics. Wall time and number of expansions (calls of the successor
+ * function) are written for every algorithm.
+ * <p>
+ * Argument (optional): number of random instances (default <code>10</code>).
+ *
+ * @author Luka Mesaric
+ */
+public class HeuristicSearchBenchmark {
+
+	/** Number of moves of the hardest 8-puzzle instances. */
+	private static final double MAX_MOVES = 31;
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args number of random instances
+	 */
+	public static void main(String[] args) {
+		int randomInstances = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		List<KonfiguracijaSlagalice> corpus = SearchBenchmark.corpus(randomInstances);
+		// IDA* cannot prove that an instance is unsolvable in reasonable time
+		corpus.removeIf(k -> SearchUtil.astar(new Slagalica(k), new Slagalica(k),
+				new Slagalica(k), SlagalicaHeuristics::manhattan) == null);
+
+		for (int run = 0; run < 3; run++) {
+			measure("bfsv", corpus, (s, succ) -> SearchUtil.bfsv(s, succ, s));
+			measure("A*, Manhattan", corpus, (s, succ) -> SearchUtil.astar(
+					s, succ, s, SlagalicaHeuristics::manhattan));
+			measure("A*, linear conflict", corpus, (s, succ) -> SearchUtil.astar(
+					s, succ, s, SlagalicaHeuristics::linearConflict));
+			measure("IDA*, Manhattan", corpus, (s, succ) -> SearchUtil.idaStar(
+					s, succ, s, SlagalicaHeuristics::manhattan, MAX_MOVES));
+			measure("IDA*, linear conflict", corpus, (s, succ) -> SearchUtil.idaStar(
+					s, succ, s, SlagalicaHeuristics::linearConflict, MAX_MOVES));
+			System.out.println();
+		}
+	}
+
+	/**
+	 * Solves all instances of <code>corpus</code> and prints elapsed time and
+	 * number of expansions.
+	 *
+	 * @param name   name of the measurement
+	 * @param corpus instances to solve
+	 * @param solver search algorithm
+	 */
+	private static void measure(String name, List<KonfiguracijaSlagalice> corpus,
+			Solver solver) {
+		LongAdder expansions = new LongAdder();
+		long start = System.nanoTime();
+		double moves = 0;
+		for (KonfiguracijaSlagalice configuration : corpus) {
+			Slagalica slagalica = new Slagalica(configuration);
+			Node<KonfiguracijaSlagalice> solution = solver.solve(slagalica, k -> {
+				expansions.increment();
+				return slagalica.apply(k);
+			});
+			moves += solution.getCost();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-22s %8.3f s %12d expansions (%.0f moves in total)%n",
+				name, seconds, expansions.sum(), moves);
+	}
+
+	/**
+	 * Search algorithm under measurement.
+	 *
+	 * @author Luka Mesaric
+	 */
+	@FunctionalInterface
+	private interface Solver {
+
+		/**
+		 * Solves a puzzle.
+		 *
+		 * @param  slagalica puzzle, used as starting state and goal test
+		 * @param  succ      successor function to use
+		 * @return           final node in search tree
+		 */
+		Node<KonfiguracijaSlagalice> solve(Slagalica slagalica,
+				Function<KonfiguracijaSlagalice, List<Transition<KonfiguracijaSlagalice>>> succ);
+	}
+
+}
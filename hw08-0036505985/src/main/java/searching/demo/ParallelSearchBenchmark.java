@@ -0,0 +1,98 @@
+package searching.demo;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import searching.algorithms.Node;
+import searching.algorithms.SearchUtil;
+import searching.algorithms.Transition;
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.Slagalica;
+
+/**
+ * Measures how {@link SearchUtil#parallelBfsv} scales from one thread to the
+ * number of available processors, compared to the sequential
+ * {@link SearchUtil#bfsv}. Searched instances are an unsolvable 8-puzzle,
+ * which exhausts all 181,440 reachable states, and a 15-puzzle generated by a
+ * seeded random walk from the goal.
+ * <p>
+ * Arguments (optional): number of rounds (default <code>3</code>) and length
+ * of the random walk (default <code>60</code>).
+ *
+ * @author Luka Mesaric
+ */
+public class ParallelSearchBenchmark {
+
+	/** Unsolvable 8-puzzle instance. */
+	private static final int[] UNSOLVABLE = { 1, 6, 4, 5, 0, 2, 8, 7, 3 };
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args number of rounds and length of the random walk
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		int walk = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		Slagalica[] instances = {
+				new Slagalica(new KonfiguracijaSlagalice(UNSOLVABLE)),
+				new Slagalica(randomWalk(KonfiguracijaSlagalice.solved(4), walk, 7)),
+		};
+
+		for (int round = 0; round < rounds; round++) {
+			for (Slagalica s : instances) {
+				long start = System.nanoTime();
+				Node<KonfiguracijaSlagalice> expected = SearchUtil.bfsv(s, s, s);
+				report("bfsv", start, expected);
+
+				for (int threads = 1; threads <= processors; threads <<= 1) {
+					ForkJoinPool pool = new ForkJoinPool(threads);
+					try {
+						start = System.nanoTime();
+						Node<KonfiguracijaSlagalice> node = SearchUtil.parallelBfsv(s, s, s, pool);
+						report("parallelBfsv, " + threads + " thread(s)", start, node);
+					} finally {
+						pool.shutdown();
+					}
+				}
+				System.out.println();
+			}
+		}
+	}
+
+	/**
+	 * Prints duration and result of one measurement.
+	 *
+	 * @param name  name of the measurement
+	 * @param start start time, in nanoseconds
+	 * @param node  found node, <code>null</code> if none
+	 */
+	private static void report(String name, long start, Node<?> node) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-28s %8.3f s   %s%n", name, seconds,
+				node == null ? "no solution" : (int) node.getCost() + " moves");
+	}
+
+	/**
+	 * Makes <code>steps</code> random moves from <code>configuration</code>.
+	 *
+	 * @param  configuration starting configuration
+	 * @param  steps         number of moves
+	 * @param  seed          seed of the random generator
+	 * @return               reached configuration
+	 */
+	private static KonfiguracijaSlagalice randomWalk(
+			KonfiguracijaSlagalice configuration, int steps, long seed) {
+		Slagalica slagalica = new Slagalica(configuration);
+		Random random = new Random(seed);
+		for (int i = 0; i < steps; i++) {
+			List<Transition<KonfiguracijaSlagalice>> moves = slagalica.apply(configuration);
+			configuration = moves.get(random.nextInt(moves.size())).getState();
+		}
+		return configuration;
+	}
+
+}
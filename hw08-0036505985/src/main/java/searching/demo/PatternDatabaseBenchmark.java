@@ -0,0 +1,163 @@
+package searching.demo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import searching.algorithms.Node;
+import searching.algorithms.SearchUtil;
+import searching.algorithms.Transition;
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.PatternDatabaseHeuristic;
+import searching.slagalica.Slagalica;
+import searching.slagalica.SlagalicaHeuristics;
+
+/**
+ * Measures pattern databases of the default partitions: time to build them,
+ * time to load saved databases by mapping files into memory, time of a single
+ * lookup, and time of A* on 15-puzzle instances generated by seeded random
+ * walks, compared to the linear conflict heuristic.
+ * <p>
+ * Arguments (optional): directory for database files (default: a temporary
+ * directory, deleted at the end), number of instances (default <code>5</code>)
+ * and length of random walks (default <code>120</code>).
+ *
+ * @author Luka Mesaric
+ */
+public class PatternDatabaseBenchmark {
+
+	/** Number of configurations used to measure lookups. */
+	private static final int LOOKUPS = 1_000_000;
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param  args        directory, number of instances and length of walks
+	 * @throws IOException if databases cannot be saved or loaded
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean temporary = args.length < 1;
+		Path directory = temporary
+				? Files.createTempDirectory("pdb-benchmark") : Paths.get(args[0]);
+		int instances = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int walk = args.length > 2 ? Integer.parseInt(args[2]) : 120;
+
+		try {
+			for (int width = 3; width <= 4; width++) {
+				int[][] partition = PatternDatabaseHeuristic.defaultPartition(width);
+
+				long start = System.nanoTime();
+				PatternDatabaseHeuristic built = PatternDatabaseHeuristic.build(width, partition);
+				report(width + "x" + width + " build", start);
+
+				PatternDatabaseHeuristic.loadOrBuild(directory, width, partition);
+				start = System.nanoTime();
+				PatternDatabaseHeuristic loaded =
+						PatternDatabaseHeuristic.loadOrBuild(directory, width, partition);
+				report(width + "x" + width + " load (mapped)", start);
+
+				List<KonfiguracijaSlagalice> states = new ArrayList<>(LOOKUPS);
+				KonfiguracijaSlagalice state = KonfiguracijaSlagalice.solved(width);
+				Random random = new Random(1);
+				for (int i = 0; i < LOOKUPS; i++) {
+					state = randomMove(state, random);
+					states.add(state);
+				}
+				for (int run = 0; run < 3; run++) {
+					lookups(width + "x" + width + " lookup, built", built, states);
+					lookups(width + "x" + width + " lookup, mapped", loaded, states);
+					lookups(width + "x" + width + " linear conflict",
+							SlagalicaHeuristics::linearConflict, states);
+				}
+				System.out.println();
+
+				if (width == 4) {
+					solve(loaded, instances, walk);
+				}
+			}
+		} finally {
+			if (temporary) {
+				try (Stream<Path> files = Files.walk(directory)) {
+					files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves 15-puzzle instances with A*, using pattern databases and linear
+	 * conflict heuristic.
+	 *
+	 * @param pdb       pattern database heuristic
+	 * @param instances number of instances
+	 * @param walk      length of random walks which generate instances
+	 */
+	private static void solve(PatternDatabaseHeuristic pdb, int instances, int walk) {
+		Random random = new Random(42);
+		for (int i = 0; i < instances; i++) {
+			KonfiguracijaSlagalice state = KonfiguracijaSlagalice.solved(4);
+			for (int step = 0; step < walk; step++) {
+				state = randomMove(state, random);
+			}
+			Slagalica s = new Slagalica(state);
+
+			long start = System.nanoTime();
+			Node<KonfiguracijaSlagalice> node = SearchUtil.astar(s, s, s, pdb);
+			report("A*, pattern databases (" + (int) node.getCost() + " moves)", start);
+			start = System.nanoTime();
+			node = SearchUtil.astar(s, s, s, SlagalicaHeuristics::linearConflict);
+			report("A*, linear conflict (" + (int) node.getCost() + " moves)", start);
+		}
+	}
+
+	/**
+	 * Evaluates <code>heuristic</code> on all <code>states</code> and prints the
+	 * time of a single evaluation.
+	 *
+	 * @param name      name of the measurement
+	 * @param heuristic heuristic to evaluate
+	 * @param states    states to evaluate
+	 */
+	private static void lookups(String name, ToDoubleFunction<KonfiguracijaSlagalice> heuristic,
+			List<KonfiguracijaSlagalice> states) {
+		long start = System.nanoTime();
+		double sum = 0;
+		for (KonfiguracijaSlagalice state : states) {
+			sum += heuristic.applyAsDouble(state);
+		}
+		double nanos = (System.nanoTime() - start) / (double) states.size();
+		System.out.format("%-40s %8.1f ns/lookup (average %.2f)%n",
+				name, nanos, sum / states.size());
+	}
+
+	/**
+	 * Prints duration of one measurement.
+	 *
+	 * @param name  name of the measurement
+	 * @param start start time, in nanoseconds
+	 */
+	private static void report(String name, long start) {
+		System.out.format("%-40s %10.3f ms%n", name, (System.nanoTime() - start) / 1e6);
+	}
+
+	/**
+	 * Makes a random move.
+	 *
+	 * @param  state  current state
+	 * @param  random random generator
+	 * @return        next state
+	 */
+	private static KonfiguracijaSlagalice randomMove(KonfiguracijaSlagalice state,
+			Random random) {
+		List<Transition<KonfiguracijaSlagalice>> moves = new Slagalica(state).apply(state);
+		return moves.get(random.nextInt(moves.size())).getState();
+	}
+
+}
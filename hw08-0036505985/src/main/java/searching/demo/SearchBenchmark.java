@@ -0,0 +1,178 @@
+package searching.demo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import searching.algorithms.Node;
+import searching.algorithms.SearchUtil;
+import searching.algorithms.Transition;
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.Slagalica;
+
+/**
+ * Solves a fixed corpus of hard 8-puzzle instances with the
+ * <code>LinkedList</code> and stream based BFS which <code>SearchUtil</code>
+ * used to implement, with the current {@link SearchUtil#bfsv}, and with
+ * {@link SearchUtil#bidirectionalBfs}.
+ * <p>
+ * Corpus contains both 31-move instances (the hardest ones), an unsolvable
+ * instance which exhausts all 181,440 reachable states, and instances
+ * generated by seeded random walks from the goal. Argument (optional): number
+ * of random instances (default <code>10</code>).
+ *
+ * @author Luka Mesaric
+ */
+public class SearchBenchmark {
+
+	/** Instances which need 31 moves, and an unsolvable instance. */
+	private static final int[][] HARD = {
+			{ 8, 6, 7, 2, 5, 4, 3, 0, 1 },
+			{ 6, 4, 7, 8, 5, 0, 3, 2, 1 },
+			{ 1, 6, 4, 5, 0, 2, 8, 7, 3 },
+	};
+
+	/** Goal of all instances. */
+	private static final KonfiguracijaSlagalice SOLVED = KonfiguracijaSlagalice.solved(3);
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args number of random instances
+	 */
+	public static void main(String[] args) {
+		int randomInstances = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		List<KonfiguracijaSlagalice> corpus = corpus(randomInstances);
+
+		for (int run = 0; run < 3; run++) {
+			measure("LinkedList + streams", corpus, SearchBenchmark::legacyBfsv);
+			measure("ArrayDeque, bfsv", corpus, SearchUtil::bfsv);
+			measure("bidirectional BFS", corpus, (s0, succ, goal) ->
+					SearchUtil.bidirectionalBfs(s0, succ, () -> SOLVED, succ));
+			System.out.println();
+		}
+	}
+
+	/**
+	 * Creates the corpus of instances.
+	 *
+	 * @param  randomInstances number of instances generated by random walks
+	 * @return                 list of instances
+	 */
+	static List<KonfiguracijaSlagalice> corpus(int randomInstances) {
+		List<KonfiguracijaSlagalice> corpus = new ArrayList<>();
+		for (int[] configuration : HARD) {
+			corpus.add(new KonfiguracijaSlagalice(configuration));
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < randomInstances; i++) {
+			int[] configuration = { 1, 2, 3, 4, 5, 6, 7, 8, 0 };
+			int space = 8;
+			for (int step = 0; step < 1000; step++) {
+				int next;
+				do {
+					next = space + new int[] { -3, 3, -1, 1 }[random.nextInt(4)];
+				} while (next < 0 || next > 8 || (next / 3 != space / 3 && next % 3 != space % 3));
+				configuration[space] = configuration[next];
+				configuration[next] = 0;
+				space = next;
+			}
+			corpus.add(new KonfiguracijaSlagalice(configuration));
+		}
+		return corpus;
+	}
+
+	/**
+	 * Solves all instances of <code>corpus</code> and prints elapsed time.
+	 *
+	 * @param name   name of the measurement
+	 * @param corpus instances to solve
+	 * @param solver search algorithm
+	 */
+	private static void measure(String name, List<KonfiguracijaSlagalice> corpus,
+			Solver solver) {
+		long start = System.nanoTime();
+		double moves = 0;
+		for (KonfiguracijaSlagalice configuration : corpus) {
+			Slagalica slagalica = new Slagalica(configuration);
+			Node<KonfiguracijaSlagalice> solution = solver.solve(
+					slagalica, slagalica, slagalica);
+			moves += solution == null ? 0 : solution.getCost();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-24s %8.3f s %10.1f ms/instance (%.0f moves in total)%n",
+				name, seconds, seconds * 1000 / corpus.size(), moves);
+	}
+
+	/**
+	 * Search algorithm under measurement.
+	 *
+	 * @author Luka Mesaric
+	 */
+	@FunctionalInterface
+	private interface Solver {
+
+		/**
+		 * Solves a puzzle.
+		 *
+		 * @param  s0   supplier of starting state
+		 * @param  succ maps state to its direct successors
+		 * @param  goal test if given state is acceptable
+		 * @return      final node in search tree, <code>null</code> if none
+		 */
+		Node<KonfiguracijaSlagalice> solve(
+				Supplier<KonfiguracijaSlagalice> s0,
+				Function<KonfiguracijaSlagalice, List<Transition<KonfiguracijaSlagalice>>> succ,
+				Predicate<KonfiguracijaSlagalice> goal);
+	}
+
+	/**
+	 * Breadth-first search with visited states, as <code>SearchUtil</code>
+	 * implemented it before: <code>LinkedList</code> frontier, children collected
+	 * through a stream, and two passes over them for the visited check.
+	 *
+	 * @param  s0   supplier of starting state
+	 * @param  succ maps state to its direct successors
+	 * @param  goal test if given state is acceptable
+	 * @param  <S>  type of states
+	 * @return      final node in search tree, <code>null</code> if none
+	 */
+	private static <S> Node<S> legacyBfsv(
+			Supplier<S> s0,
+			Function<S, List<Transition<S>>> succ,
+			Predicate<S> goal) {
+
+		List<Node<S>> toSearch = new LinkedList<>();
+		Set<S> visited = new HashSet<>();
+		S starting = s0.get();
+		toSearch.add(new Node<>(null, starting, 0));
+		visited.add(starting);
+
+		while (!toSearch.isEmpty()) {
+			Node<S> current = toSearch.remove(0);
+			S currentState = current.getState();
+			if (goal.test(currentState)) {
+				return current;
+			}
+			List<Node<S>> children = succ.apply(currentState)
+					.stream()
+					.map(t -> new Node<S>(current, t.getState(),
+							current.getCost() + t.getCost()))
+					.collect(Collectors.toList());
+
+			children.removeIf(node -> visited.contains(node.getState()));
+			children.forEach(node -> visited.add(node.getState()));
+			toSearch.addAll(children);
+		}
+
+		return null;
+	}
+
+}
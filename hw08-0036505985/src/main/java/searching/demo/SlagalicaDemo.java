@@ -5,7 +5,9 @@ import java.util.Collections;
 import java.util.List;
 
 import searching.algorithms.Node;
+import searching.algorithms.SearchStatistics;
 import searching.algorithms.SearchUtil;
+import searching.algorithms.VisitedSet;
 import searching.slagalica.KonfiguracijaSlagalice;
 import searching.slagalica.Slagalica;
 
@@ -31,10 +33,12 @@ public class SlagalicaDemo {
 		Slagalica slagalica = new Slagalica(
 				new KonfiguracijaSlagalice(new int[] { 1, 6, 4, 5, 0, 2, 8, 7, 3 }));
 
+		SearchStatistics statistics = new SearchStatistics();
 //		Node<KonfiguracijaSlagalice> rjesenje = SearchUtil.bfs(
-//				slagalica, slagalica, slagalica);
+//				slagalica, slagalica, slagalica, statistics);
 		Node<KonfiguracijaSlagalice> rjesenje = SearchUtil.bfsv(
-				slagalica, slagalica, slagalica);
+				slagalica, slagalica, slagalica, VisitedSet.hashed(), statistics);
+		System.out.println("Pretraživanje: " + statistics);
 
 		if (rjesenje == null) {
 			System.out.println("Nisam uspio pronaći rješenje.");
@@ -5,15 +5,20 @@ import java.util.Collections;
 import java.util.List;
 
 import searching.algorithms.Node;
+import searching.algorithms.SearchStatistics;
 import searching.algorithms.SearchUtil;
+import searching.algorithms.VisitedSet;
 import searching.slagalica.KonfiguracijaSlagalice;
 import searching.slagalica.Slagalica;
 import searching.slagalica.gui.SlagalicaViewer;
 
 /**
  * Demo program for solving puzzles. Shows results in GUI.<br>
- * Program takes exactly one command line argument: starting puzzle
- * configuration.
+ * Program takes one command line argument: starting puzzle configuration,
+ * optionally preceded by flag {@value #BIDIRECTIONAL_FLAG}, which solves the
+ * puzzle by searching from both ends instead of only forward. Unsolvable
+ * configurations are recognized without searching. Statistics of the search
+ * are printed after it finishes.
  * 
  * @author Luka Mesaric
  */
@@ -29,6 +34,11 @@ public class SlagalicaMain {
 	 */
 	private static final int DIGIT_SHIFT = 48;
 
+	/**
+	 * Flag which selects bidirectional search.
+	 */
+	private static final String BIDIRECTIONAL_FLAG = "--bidirectional";
+
 	/**
 	 * Converts <code>input</code> to an array of integers. Throws an exception
 	 * input does not represent a valid puzzle configuration.
@@ -66,27 +76,38 @@ public class SlagalicaMain {
 	/**
 	 * Program entry point.
 	 * 
-	 * @param args starting puzzle configuration
+	 * @param args optional flag and starting puzzle configuration
 	 */
 	public static void main(String[] args) {
 
-		if (args.length != 1) {
-			System.out.println("Expected exactly one argument.");
+		boolean bidirectional = args.length == 2 && BIDIRECTIONAL_FLAG.equals(args[0]);
+		if (args.length != 1 && !bidirectional) {
+			System.out.println("Expected one argument, optionally preceded by "
+					+ BIDIRECTIONAL_FLAG + ".");
 			return;
 		}
 
 		int[] configuration;
 		try {
-			configuration = sanitizeInput(args[0].toCharArray());
+			configuration = sanitizeInput(args[args.length - 1].toCharArray());
 		} catch (IllegalArgumentException e) {
 			System.out.println(e.getMessage());
 			return;
 		}
 
 		Slagalica slagalica = new Slagalica(new KonfiguracijaSlagalice(configuration));
+		if (!slagalica.isSolvable()) {
+			System.out.println("Slagalica nije rješiva.");
+			return;
+		}
 
-		Node<KonfiguracijaSlagalice> rjesenje = SearchUtil.bfsv(
-				slagalica, slagalica, slagalica);
+		SearchStatistics statistics = new SearchStatistics();
+		Node<KonfiguracijaSlagalice> rjesenje = bidirectional
+				? SearchUtil.bidirectionalBfs(slagalica, slagalica,
+						slagalica::getFinalConfiguration, slagalica, statistics)
+				: SearchUtil.bfsv(slagalica, slagalica, slagalica,
+						VisitedSet.hashed(), statistics);
+		System.out.println("Pretraživanje: " + statistics);
 
 		if (rjesenje == null) {
 			System.out.println("Nisam uspio pronaći rješenje.");
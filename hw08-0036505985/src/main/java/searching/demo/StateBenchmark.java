@@ -0,0 +1,197 @@
+package searching.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import searching.algorithms.LongVisitedSet;
+import searching.algorithms.SearchUtil;
+import searching.algorithms.Transition;
+import searching.algorithms.VisitedSet;
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.Slagalica;
+
+/**
+ * Measures how many states per second {@link SearchUtil#bfsv} expands when
+ * exhausting all 181,440 states reachable from an unsolvable 8-puzzle instance,
+ * with three state representations:
+ * <ul>
+ * <li>the previous one: a cloned <code>int[]</code> per state, copied by
+ * <code>getPolje()</code> and hashed with <code>Arrays.hashCode</code>,</li>
+ * <li>packed {@link KonfiguracijaSlagalice} in a <code>HashSet</code>,</li>
+ * <li>packed {@link KonfiguracijaSlagalice} in a {@link LongVisitedSet}.</li>
+ * </ul>
+ * Argument (optional): number of rounds (default <code>5</code>).
+ *
+ * @author Luka Mesaric
+ */
+public class StateBenchmark {
+
+	/** Unsolvable instance, every reachable state is expanded. */
+	private static final int[] UNSOLVABLE = { 1, 6, 4, 5, 0, 2, 8, 7, 3 };
+
+	/** Number of states reachable from {@link #UNSOLVABLE}. */
+	private static final int REACHABLE = 181_440;
+
+	/**
+	 * Program entry point.
+	 *
+	 * @param args number of rounds
+	 */
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+		LegacyPuzzle legacy = new LegacyPuzzle(new LegacyState(UNSOLVABLE));
+		Slagalica packed = new Slagalica(new KonfiguracijaSlagalice(UNSOLVABLE));
+
+		for (int round = 0; round < rounds; round++) {
+			measure("int[] + HashSet", legacy, VisitedSet.hashed());
+			measure("packed + HashSet", packed, VisitedSet.hashed());
+			measure("packed + LongVisitedSet", packed,
+					new LongVisitedSet<>(KonfiguracijaSlagalice::getPacked, REACHABLE));
+			System.out.println();
+		}
+	}
+
+	/**
+	 * Exhausts the state space of <code>puzzle</code> and prints the throughput.
+	 *
+	 * @param name    name of the measurement
+	 * @param puzzle  starting state, successors and goal test
+	 * @param visited visited set to use
+	 * @param <S>     type of states
+	 * @param <P>     type of puzzle
+	 */
+	private static <S, P extends Supplier<S> & Function<S, List<Transition<S>>> & Predicate<S>>
+			void measure(String name, P puzzle, VisitedSet<S> visited) {
+		long start = System.nanoTime();
+		if (SearchUtil.bfsv(puzzle, puzzle, puzzle, visited) != null) {
+			throw new IllegalStateException("Instance should be unsolvable.");
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.format("%-24s %8.3f s %12.0f states/s%n",
+				name, seconds, REACHABLE / seconds);
+	}
+
+	/**
+	 * Previous representation of puzzle state, kept for comparison.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static final class LegacyState {
+
+		/** Tiles, row by row. */
+		private final int[] configuration;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param configuration tiles, copied
+		 */
+		LegacyState(int[] configuration) {
+			this.configuration = configuration.clone();
+		}
+
+		/**
+		 * Returns a copy of tiles.
+		 *
+		 * @return copy of tiles
+		 */
+		int[] getPolje() {
+			return configuration.clone();
+		}
+
+		/**
+		 * Finds the space by linear search.
+		 *
+		 * @return index of the space
+		 */
+		int indexOfSpace() {
+			for (int i = 0; i < configuration.length; i++) {
+				if (configuration[i] == 0) {
+					return i;
+				}
+			}
+			throw new IllegalStateException();
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(configuration);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof LegacyState
+					&& Arrays.equals(configuration, ((LegacyState) obj).configuration);
+		}
+	}
+
+	/**
+	 * Previous implementation of 3x3 puzzle strategies, kept for comparison.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static final class LegacyPuzzle implements
+			Supplier<LegacyState>,
+			Function<LegacyState, List<Transition<LegacyState>>>,
+			Predicate<LegacyState> {
+
+		/** Final configuration. */
+		private static final int[] FINAL = { 1, 2, 3, 4, 5, 6, 7, 8, 0 };
+
+		/** Starting state. */
+		private final LegacyState initial;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param initial starting state
+		 */
+		LegacyPuzzle(LegacyState initial) {
+			this.initial = initial;
+		}
+
+		@Override
+		public LegacyState get() {
+			return initial;
+		}
+
+		@Override
+		public boolean test(LegacyState state) {
+			return Arrays.equals(FINAL, state.getPolje());
+		}
+
+		@Override
+		public List<Transition<LegacyState>> apply(LegacyState state) {
+			int space = state.indexOfSpace();
+			List<Transition<LegacyState>> list = new ArrayList<>(4);
+			if (space % 3 != 2) addSucc(list, state, space, space + 1);
+			if (space % 3 != 0) addSucc(list, state, space, space - 1);
+			if (space >= 3) addSucc(list, state, space, space - 3);
+			if (space < 6) addSucc(list, state, space, space + 3);
+			return list;
+		}
+
+		/**
+		 * Swaps space with the tile at <code>index</code> in a copy of
+		 * <code>state</code>, and adds the transition to <code>list</code>.
+		 *
+		 * @param list  list of transitions
+		 * @param state state
+		 * @param space index of the space
+		 * @param index index of the moved tile
+		 */
+		private static void addSucc(List<Transition<LegacyState>> list,
+				LegacyState state, int space, int index) {
+			int[] configuration = state.getPolje();
+			configuration[space] = configuration[index];
+			configuration[index] = 0;
+			list.add(new Transition<>(new LegacyState(configuration), 1.0));
+		}
+	}
+
+}
@@ -1,96 +1,223 @@
 package searching.slagalica;
 
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
- * Represents the state of a puzzle.
- * 
+ * Represents the state of a puzzle: a square board of width 2, 3 or 4 (the
+ * 15-puzzle), holding tiles <code>1</code> to <code>width * width - 1</code>
+ * and the space, which is represented by <code>0</code>.
+ * <p>
+ * The whole board is packed into a single <code>long</code>, using 4 bits per
+ * position (position <code>i</code> is stored in bits <code>4i</code> to
+ * <code>4i + 3</code>). Index of the space is cached, so successors are
+ * created by moving a single tile's bits, without copying any arrays.
+ *
  * @author Luka Mesaric
  */
 public class KonfiguracijaSlagalice {
 
-	/**
-	 * Configuration array of length 9, storing every integer from 0 to 8. Never
-	 * <code>null</code>.
-	 */
-	private final int[] configuration;
+	/** Number of bits used for a single position. */
+	private static final int BITS = 4;
 
-	/**
-	 * Length of configuration array.
-	 */
-	private static final int CONFIGURATION_LENGTH = 9;
+	/** Mask of bits of a single position. */
+	private static final long MASK = (1L << BITS) - 1;
+
+	/** Smallest supported width of the board. */
+	private static final int MIN_WIDTH = 2;
+
+	/** Largest supported width of the board, limited by the packed size. */
+	private static final int MAX_WIDTH = 4;
+
+	/** Packed tiles, 4 bits per position. */
+	private final long packed;
+
+	/** Width of the board. */
+	private final int width;
+
+	/** Index of the space, between <code>0</code> and <code>size() - 1</code>. */
+	private final int space;
 
 	/**
 	 * Default constructor.
-	 * 
-	 * @param  configuration            configuration of this puzzle
+	 *
+	 * @param  configuration            configuration of this puzzle, row by row
 	 * @throws NullPointerException     if <code>configuration</code> is
 	 *                                  <code>null</code>
-	 * @throws IllegalArgumentException if <code>configuration</code> length is not
-	 *                                  9, or <code>0</code> is not found in
-	 *                                  <code>configuration</code>
+	 * @throws IllegalArgumentException if length of <code>configuration</code>
+	 *                                  is not 4, 9 or 16, or
+	 *                                  <code>configuration</code> is not a
+	 *                                  permutation of numbers from <code>0</code>
+	 *                                  to <code>length - 1</code>
 	 */
 	public KonfiguracijaSlagalice(int[] configuration) {
 		Objects.requireNonNull(configuration);
-		if (configuration.length != CONFIGURATION_LENGTH) {
+		int width = (int) Math.round(Math.sqrt(configuration.length));
+		if (width * width != configuration.length
+				|| width < MIN_WIDTH || width > MAX_WIDTH) {
 			throw new IllegalArgumentException(
-					"Configuration must have length " + CONFIGURATION_LENGTH);
+					"Configuration must have length 4, 9 or 16, but has "
+							+ configuration.length);
 		}
-		this.configuration = Arrays.copyOf(configuration, configuration.length);
-		if (indexOfSpace() < 0) {
-			throw new IllegalArgumentException("Missing 0 in configuration!");
+
+		long packed = 0;
+		int seen = 0;
+		int space = -1;
+		for (int i = 0; i < configuration.length; i++) {
+			int tile = configuration[i];
+			if (tile < 0 || tile >= configuration.length || (seen & 1 << tile) != 0) {
+				throw new IllegalArgumentException(
+						"Configuration must be a permutation of 0 to "
+								+ (configuration.length - 1));
+			}
+			seen |= 1 << tile;
+			packed |= (long) tile << BITS * i;
+			if (tile == 0) {
+				space = i;
+			}
 		}
+		this.packed = packed;
+		this.width = width;
+		this.space = space;
 	}
 
 	/**
-	 * Getter for <code>configuration</code>, an array of length 9.
+	 * Constructor used for successors, whose validity is already known.
 	 *
-	 * @return a copy of <code>configuration</code>, never <code>null</code>
+	 * @param packed packed tiles
+	 * @param width  width of the board
+	 * @param space  index of the space
+	 */
+	private KonfiguracijaSlagalice(long packed, int width, int space) {
+		this.packed = packed;
+		this.width = width;
+		this.space = space;
+	}
+
+	/**
+	 * Returns the solved configuration of given width: tiles in ascending order,
+	 * followed by the space.
+	 *
+	 * @param  width                    width of the board
+	 * @return                          solved configuration
+	 * @throws IllegalArgumentException if <code>width</code> is not supported
+	 */
+	public static KonfiguracijaSlagalice solved(int width) {
+		int[] configuration = new int[width * width];
+		for (int i = 0; i < configuration.length - 1; i++) {
+			configuration[i] = i + 1;
+		}
+		return new KonfiguracijaSlagalice(configuration);
+	}
+
+	/**
+	 * Getter for <code>configuration</code>, an array of length
+	 * <code>size()</code>.
+	 *
+	 * @return a new array with all tiles, row by row, never <code>null</code>
 	 */
 	public int[] getPolje() {
-		return Arrays.copyOf(configuration, configuration.length);
+		int[] configuration = new int[size()];
+		for (int i = 0; i < configuration.length; i++) {
+			configuration[i] = getTile(i);
+		}
+		return configuration;
+	}
+
+	/**
+	 * Returns the tile at given <code>index</code>, without unpacking the whole
+	 * configuration.
+	 *
+	 * @param  index                     index of position, row by row
+	 * @return                           tile at <code>index</code>,
+	 *                                   <code>0</code> for the space
+	 * @throws IndexOutOfBoundsException if <code>index</code> is not a valid
+	 *                                   position
+	 */
+	public int getTile(int index) {
+		Objects.checkIndex(index, size());
+		return (int) (packed >>> BITS * index & MASK);
 	}
 
 	/**
 	 * Returns the index of element <code>0</code> in internal array.
-	 * 
-	 * @return index of element <code>0</code>, always between 0 and 8
+	 *
+	 * @return index of element <code>0</code>, always between 0 and
+	 *         <code>size() - 1</code>
 	 */
 	public int indexOfSpace() {
-		for (int i = 0, max = configuration.length; i < max; i++) {
-			if (configuration[i] == 0) {
-				return i;
-			}
-		}
-		return -1;	// This can only be returned during checks in the constructor.
+		return space;
+	}
+
+	/**
+	 * Getter for <code>width</code>.
+	 *
+	 * @return width of the board
+	 */
+	public int getWidth() { return width; }
+
+	/**
+	 * Returns the number of positions on the board, including the space.
+	 *
+	 * @return <code>width * width</code>
+	 */
+	public int size() {
+		return width * width;
+	}
+
+	/**
+	 * Returns the packed representation of this configuration, which is unique
+	 * among configurations of the same width. Useful as a primitive key of
+	 * visited sets.
+	 *
+	 * @return packed tiles, 4 bits per position
+	 */
+	public long getPacked() { return packed; }
+
+	/**
+	 * Returns the configuration in which the tile at <code>index</code> is moved
+	 * into the space. Only bits of the moved tile are changed, since the space is
+	 * represented by zero bits.
+	 *
+	 * @param  index                     index of the moved tile, should be next
+	 *                                   to the space
+	 * @return                           new configuration
+	 * @throws IndexOutOfBoundsException if <code>index</code> is not a valid
+	 *                                   position
+	 */
+	public KonfiguracijaSlagalice moveToSpace(int index) {
+		long tile = getTile(index);
+		long moved = packed & ~(MASK << BITS * index) | tile << BITS * space;
+		return new KonfiguracijaSlagalice(moved, width, index);
 	}
 
 	/**
 	 * Return string representation of wanted position.
-	 * 
+	 *
 	 * @param  index index
 	 * @return       <code>*</code> if <code>0</code> is at <code>index</code>,
 	 *               stored number otherwise
 	 */
 	private String getValue(int index) {
-		int n = configuration[index];
+		int n = getTile(index);
 		return n == 0 ? "*" : Integer.toString(n);
 	}
 
 	@Override
 	public String toString() {
-		// Since there are not rules on how the output should look if
-		// the puzzle was larger, using for loops would just overcomplicate the code.
-		return String.format("%s %s %s%n%s %s %s%n%s %s %s",
-				getValue(0), getValue(1), getValue(2),
-				getValue(3), getValue(4), getValue(5),
-				getValue(6), getValue(7), getValue(8));
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0, size = size(); i < size; i++) {
+			if (i > 0) {
+				sb.append(i % width == 0 ? System.lineSeparator() : " ");
+			}
+			sb.append(getValue(i));
+		}
+		return sb.toString();
 	}
 
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode(configuration);
+		// multiplication spreads the low bits, which differ the most
+		return Long.hashCode(packed * 0x9E3779B97F4A7C15L) ^ width;
 	}
 
 	@Override
@@ -105,7 +232,7 @@ public class KonfiguracijaSlagalice {
 			return false;
 		}
 		KonfiguracijaSlagalice other = (KonfiguracijaSlagalice) obj;
-		return Arrays.equals(configuration, other.configuration);
+		return packed == other.packed && width == other.width;
 	}
 
 }
@@ -0,0 +1,440 @@
+package searching.slagalica;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Pattern database of a puzzle: for every placement of a chosen subset of
+ * tiles (the <i>pattern</i>), it holds the smallest number of moves of pattern
+ * tiles needed to bring them to their final positions. Moves of other tiles are
+ * free, so databases of disjoint patterns can be added together without
+ * overestimating the number of moves (see {@link PatternDatabaseHeuristic}).
+ * <p>
+ * Database is built by a breadth-first search backward from the final
+ * configuration, in the abstract space of pattern tiles and the space. Free
+ * moves stay on the same level of the search (a 0-1 BFS). Placements are
+ * indexed by their rank among all partial permutations, so the table has
+ * exactly <code>size! / (size - k)!</code> entries of one byte each, where
+ * <code>k</code> is the number of pattern tiles.
+ * <p>
+ * Database can be saved to a file and loaded by mapping the file into memory,
+ * which takes no time regardless of its size.
+ *
+ * @author Luka Mesaric
+ */
+public final class PatternDatabase {
+
+	/** Marks files which hold a pattern database. */
+	private static final int MAGIC = 0x50444231;
+
+	/** Distance of states which were not reached yet. */
+	private static final int UNKNOWN = 0xFF;
+
+	/** Width of the board. */
+	private final int width;
+
+	/** Tiles of the pattern. */
+	private final int[] tiles;
+
+	/** Number of moves for every placement rank, as unsigned bytes. */
+	private final ByteBuffer table;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param width width of the board
+	 * @param tiles tiles of the pattern
+	 * @param table table of distances, positioned at its first entry
+	 */
+	private PatternDatabase(int width, int[] tiles, ByteBuffer table) {
+		this.width = width;
+		this.tiles = tiles;
+		this.table = table;
+	}
+
+	/**
+	 * Builds the pattern database of given <code>tiles</code>.
+	 *
+	 * @param  width                    width of the board, between 2 and 4
+	 * @param  tiles                    tiles of the pattern, distinct, between
+	 *                                  <code>1</code> and
+	 *                                  <code>width * width - 1</code>
+	 * @return                          built pattern database
+	 * @throws NullPointerException     if <code>tiles</code> is <code>null</code>
+	 * @throws IllegalArgumentException if <code>width</code> or
+	 *                                  <code>tiles</code> are invalid, or the
+	 *                                  search space is too large
+	 */
+	public static PatternDatabase build(int width, int... tiles) {
+		tiles = validate(width, tiles);
+		int size = width * width;
+		int k = tiles.length;
+		long states = (long) count(size, k) * size;
+		if (states > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Pattern is too large: " + k + " tiles.");
+		}
+
+		// distances of (rank of placement, index of space) pairs
+		byte[] distances = new byte[(int) states];
+		Arrays.fill(distances, (byte) UNKNOWN);
+		int[] positions = new int[k];
+		for (int i = 0; i < k; i++) {
+			positions[i] = tiles[i] - 1;
+		}
+		LongStack current = new LongStack();
+		LongStack next = new LongStack();
+		long start = pack(positions, size - 1);
+		distances[index(positions, size - 1, size)] = 0;
+		current.push(start);
+
+		int[][] neighbours = neighbours(width);
+		int[] occupant = new int[size];
+		for (int level = 0; !current.isEmpty(); level++) {
+			if (level + 1 >= UNKNOWN) {
+				throw new IllegalStateException("Distance does not fit in a byte.");
+			}
+			while (!current.isEmpty()) {
+				long state = current.pop();
+				int space = unpack(state, positions);
+				if (distance(distances, index(positions, space, size)) != level) {
+					continue;	// reached more cheaply after it was pushed
+				}
+				Arrays.fill(occupant, -1);
+				for (int i = 0; i < k; i++) {
+					occupant[positions[i]] = i;
+				}
+				for (int neighbour : neighbours[space]) {
+					int tile = occupant[neighbour];
+					if (tile < 0) {
+						// another tile moves into the space, which is free
+						int index = index(positions, neighbour, size);
+						if (distance(distances, index) > level) {
+							distances[index] = (byte) level;
+							current.push(pack(positions, neighbour));
+						}
+					} else {
+						positions[tile] = space;
+						int index = index(positions, neighbour, size);
+						if (distance(distances, index) > level + 1) {
+							distances[index] = (byte) (level + 1);
+							next.push(pack(positions, neighbour));
+						}
+						positions[tile] = neighbour;
+					}
+				}
+			}
+			LongStack swap = current;
+			current = next;
+			next = swap;
+		}
+
+		// smallest distance over all positions of the space
+		byte[] table = new byte[count(size, k)];
+		for (int rank = 0; rank < table.length; rank++) {
+			int best = UNKNOWN;
+			for (int space = 0, base = rank * size; space < size; space++) {
+				best = Math.min(best, distance(distances, base + space));
+			}
+			table[rank] = (byte) best;
+		}
+		return new PatternDatabase(width, tiles, ByteBuffer.wrap(table));
+	}
+
+	/**
+	 * Loads a pattern database saved by {@link #save(Path)}, by mapping the file
+	 * into memory.
+	 *
+	 * @param  file                 file to load
+	 * @return                      loaded pattern database
+	 * @throws IOException          if file cannot be read or is not a valid
+	 *                              pattern database
+	 * @throws NullPointerException if <code>file</code> is <code>null</code>
+	 */
+	public static PatternDatabase load(Path file) throws IOException {
+		Objects.requireNonNull(file);
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a pattern database: " + file);
+			}
+			int width = buffer.get();
+			int[] tiles = new int[buffer.get()];
+			for (int i = 0; i < tiles.length; i++) {
+				tiles[i] = buffer.get();
+			}
+			tiles = validate(width, tiles);
+			ByteBuffer table = buffer.slice();
+			if (table.remaining() != count(width * width, tiles.length)) {
+				throw new IOException("Pattern database is truncated: " + file);
+			}
+			return new PatternDatabase(width, tiles, table);
+		} catch (RuntimeException e) {
+			throw new IOException("Invalid pattern database: " + file, e);
+		}
+	}
+
+	/**
+	 * Saves this pattern database to <code>file</code>, replacing it if it
+	 * exists. Data is written to a temporary file in the same directory, which
+	 * then atomically replaces <code>file</code>, so an interrupted save never
+	 * leaves a truncated database behind.
+	 *
+	 * @param  file                 destination file
+	 * @throws IOException          if file cannot be written
+	 * @throws NullPointerException if <code>file</code> is <code>null</code>
+	 */
+	public void save(Path file) throws IOException {
+		Objects.requireNonNull(file);
+		ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 2 + tiles.length);
+		header.putInt(MAGIC).put((byte) width).put((byte) tiles.length);
+		for (int tile : tiles) {
+			header.put((byte) tile);
+		}
+		header.flip();
+		ByteBuffer content = table.duplicate();
+		Path directory = file.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				while (content.hasRemaining()) {
+					channel.write(content);
+				}
+				channel.force(false);
+			}
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Returns the smallest number of moves of pattern tiles needed to bring them
+	 * to their final positions.
+	 *
+	 * @param  positionOfTile position of every tile, indexed by tile
+	 * @return                number of moves
+	 */
+	public int lookup(int[] positionOfTile) {
+		int rank = 0;
+		for (int i = 0, size = width * width; i < tiles.length; i++) {
+			int position = positionOfTile[tiles[i]];
+			int digit = position;
+			for (int j = 0; j < i; j++) {
+				if (positionOfTile[tiles[j]] < position) {
+					digit--;
+				}
+			}
+			rank = rank * (size - i) + digit;
+		}
+		return Byte.toUnsignedInt(table.get(rank));
+	}
+
+	/**
+	 * Getter for <code>width</code>.
+	 *
+	 * @return width of the board
+	 */
+	public int getWidth() { return width; }
+
+	/**
+	 * Returns tiles of the pattern.
+	 *
+	 * @return a new array of tiles
+	 */
+	public int[] getTiles() { return tiles.clone(); }
+
+	/**
+	 * Returns the number of entries, one byte each.
+	 *
+	 * @return number of placements of pattern tiles
+	 */
+	public int size() {
+		return table.remaining();
+	}
+
+	/**
+	 * Checks arguments of a pattern.
+	 *
+	 * @param  width                    width of the board
+	 * @param  tiles                    tiles of the pattern
+	 * @return                          a copy of <code>tiles</code>
+	 * @throws NullPointerException     if <code>tiles</code> is <code>null</code>
+	 * @throws IllegalArgumentException if arguments are invalid
+	 */
+	private static int[] validate(int width, int[] tiles) {
+		Objects.requireNonNull(tiles);
+		if (width < 2 || width > 4) {
+			throw new IllegalArgumentException("Width must be 2, 3 or 4, but is " + width);
+		}
+		int size = width * width;
+		if (tiles.length == 0 || tiles.length >= size) {
+			throw new IllegalArgumentException(
+					"Pattern must have between 1 and " + (size - 1) + " tiles.");
+		}
+		int seen = 0;
+		for (int tile : tiles) {
+			if (tile < 1 || tile >= size || (seen & 1 << tile) != 0) {
+				throw new IllegalArgumentException("Invalid or repeated tile: " + tile);
+			}
+			seen |= 1 << tile;
+		}
+		return tiles.clone();
+	}
+
+	/**
+	 * Returns the number of placements of <code>k</code> tiles on
+	 * <code>size</code> positions.
+	 *
+	 * @param  size number of positions
+	 * @param  k    number of tiles
+	 * @return      <code>size! / (size - k)!</code>
+	 */
+	private static int count(int size, int k) {
+		long count = 1;
+		for (int i = 0; i < k; i++) {
+			count *= size - i;
+		}
+		return (int) Math.min(count, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the index of the pair of a placement and a position of the space.
+	 *
+	 * @param  positions positions of pattern tiles
+	 * @param  space     position of the space
+	 * @param  size      number of positions
+	 * @return           index into the table of distances
+	 */
+	private static int index(int[] positions, int space, int size) {
+		int rank = 0;
+		for (int i = 0; i < positions.length; i++) {
+			int digit = positions[i];
+			for (int j = 0; j < i; j++) {
+				if (positions[j] < positions[i]) {
+					digit--;
+				}
+			}
+			rank = rank * (size - i) + digit;
+		}
+		return rank * size + space;
+	}
+
+	/**
+	 * Reads a distance as an unsigned value.
+	 *
+	 * @param  distances table of distances
+	 * @param  index     index of the entry
+	 * @return           distance, {@link #UNKNOWN} if not reached
+	 */
+	private static int distance(byte[] distances, int index) {
+		return Byte.toUnsignedInt(distances[index]);
+	}
+
+	/**
+	 * Returns positions next to every position of the board.
+	 *
+	 * @param  width width of the board
+	 * @return       array of neighbours, indexed by position
+	 */
+	private static int[][] neighbours(int width) {
+		int size = width * width;
+		int[][] neighbours = new int[size][];
+		for (int space = 0; space < size; space++) {
+			int[] candidates = new int[4];
+			int n = 0;
+			if (space % width != width - 1) candidates[n++] = space + 1;
+			if (space % width != 0) candidates[n++] = space - 1;
+			if (space >= width) candidates[n++] = space - width;
+			if (space < size - width) candidates[n++] = space + width;
+			neighbours[space] = Arrays.copyOf(candidates, n);
+		}
+		return neighbours;
+	}
+
+	/**
+	 * Packs positions of pattern tiles and of the space, 4 bits each.
+	 *
+	 * @param  positions positions of pattern tiles
+	 * @param  space     position of the space
+	 * @return           packed state
+	 */
+	private static long pack(int[] positions, int space) {
+		long state = space;
+		for (int i = 0; i < positions.length; i++) {
+			state |= (long) positions[i] << 4 * (i + 1);
+		}
+		return state;
+	}
+
+	/**
+	 * Unpacks a state created by {@link #pack(int[], int)}.
+	 *
+	 * @param  state     packed state
+	 * @param  positions array which receives positions of pattern tiles
+	 * @return           position of the space
+	 */
+	private static int unpack(long state, int[] positions) {
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = (int) (state >>> 4 * (i + 1) & 0xF);
+		}
+		return (int) (state & 0xF);
+	}
+
+	/**
+	 * Growable stack of primitive <code>long</code> values.
+	 *
+	 * @author Luka Mesaric
+	 */
+	private static final class LongStack {
+
+		/** Stored values. */
+		private long[] values = new long[1024];
+
+		/** Number of stored values. */
+		private int size;
+
+		/**
+		 * Pushes <code>value</code> on top.
+		 *
+		 * @param value value to push
+		 */
+		private void push(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * Removes the value on top.
+		 *
+		 * @return removed value
+		 */
+		private long pop() {
+			return values[--size];
+		}
+
+		/**
+		 * Checks whether stack is empty.
+		 *
+		 * @return <code>true</code> if empty
+		 */
+		private boolean isEmpty() {
+			return size == 0;
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+package searching.slagalica;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Heuristic which adds values of disjoint {@link PatternDatabase pattern
+ * databases}. Every database counts only moves of its own tiles, so their sum
+ * never overestimates the number of moves, and A* and IDA* find optimal
+ * solutions when using it. It dominates Manhattan distance, since every
+ * database counts at least Manhattan distances of its tiles.
+ *
+ * @author Luka Mesaric
+ */
+public final class PatternDatabaseHeuristic implements ToDoubleFunction<KonfiguracijaSlagalice> {
+
+	/** Databases whose values are added, all of the same width. */
+	private final List<PatternDatabase> databases;
+
+	/** Width of the board. */
+	private final int width;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param  databases                databases of disjoint patterns
+	 * @throws NullPointerException     if <code>databases</code> or any of its
+	 *                                  elements is <code>null</code>
+	 * @throws IllegalArgumentException if <code>databases</code> is empty, or
+	 *                                  databases differ in width or share tiles
+	 */
+	public PatternDatabaseHeuristic(List<PatternDatabase> databases) {
+		this.databases = List.copyOf(databases);
+		if (this.databases.isEmpty()) {
+			throw new IllegalArgumentException("At least one database is needed.");
+		}
+		this.width = this.databases.get(0).getWidth();
+		int seen = 0;
+		for (PatternDatabase database : this.databases) {
+			if (database.getWidth() != width) {
+				throw new IllegalArgumentException("Databases differ in width.");
+			}
+			for (int tile : database.getTiles()) {
+				if ((seen & 1 << tile) != 0) {
+					throw new IllegalArgumentException("Patterns share tile " + tile);
+				}
+				seen |= 1 << tile;
+			}
+		}
+	}
+
+	/**
+	 * Returns the default partition of tiles into patterns: two patterns of four
+	 * tiles for width 3, and three patterns of five tiles for width 4.
+	 *
+	 * @param  width                    width of the board
+	 * @return                          disjoint patterns which cover all tiles
+	 * @throws IllegalArgumentException if <code>width</code> is not supported
+	 */
+	public static int[][] defaultPartition(int width) {
+		switch (width) {
+		case 2:
+			return new int[][] { { 1, 2, 3 } };
+		case 3:
+			return new int[][] { { 1, 2, 3, 4 }, { 5, 6, 7, 8 } };
+		case 4:
+			return new int[][] {
+					{ 1, 2, 3, 4, 7 }, { 5, 6, 9, 10, 13 }, { 8, 11, 12, 14, 15 } };
+		default:
+			throw new IllegalArgumentException("Width must be 2, 3 or 4, but is " + width);
+		}
+	}
+
+	/**
+	 * Builds databases of given <code>patterns</code>.
+	 *
+	 * @param  width                    width of the board
+	 * @param  patterns                 disjoint patterns
+	 * @return                          heuristic which adds built databases
+	 * @throws NullPointerException     if <code>patterns</code> is
+	 *                                  <code>null</code>
+	 * @throws IllegalArgumentException if patterns are invalid
+	 */
+	public static PatternDatabaseHeuristic build(int width, int[]... patterns) {
+		return new PatternDatabaseHeuristic(Arrays.stream(patterns)
+				.map(tiles -> PatternDatabase.build(width, tiles))
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Loads databases of given <code>patterns</code> from
+	 * <code>directory</code>, and builds and saves those which are missing or
+	 * cannot be loaded (e.g. truncated files), so that later runs load all of
+	 * them by mapping files into memory.
+	 *
+	 * @param  directory                directory with database files
+	 * @param  width                    width of the board
+	 * @param  patterns                 disjoint patterns
+	 * @return                          heuristic which adds the databases
+	 * @throws IOException              if files cannot be read or written
+	 * @throws NullPointerException     if any argument is <code>null</code>
+	 * @throws IllegalArgumentException if patterns are invalid
+	 */
+	public static PatternDatabaseHeuristic loadOrBuild(Path directory, int width,
+			int[]... patterns) throws IOException {
+		Objects.requireNonNull(directory);
+		Files.createDirectories(directory);
+		List<PatternDatabase> databases = new ArrayList<>(patterns.length);
+		for (int[] tiles : patterns) {
+			Path file = directory.resolve(fileName(width, tiles));
+			if (Files.isRegularFile(file)) {
+				try {
+					databases.add(PatternDatabase.load(file));
+					continue;
+				} catch (IOException e) {
+					// invalid file, it is replaced by a new build
+				}
+			}
+			PatternDatabase database = PatternDatabase.build(width, tiles);
+			database.save(file);
+			databases.add(database);
+		}
+		return new PatternDatabaseHeuristic(databases);
+	}
+
+	/**
+	 * Returns the sum of values of all databases.
+	 *
+	 * @throws NullPointerException     if <code>configuration</code> is
+	 *                                  <code>null</code>
+	 * @throws IllegalArgumentException if width of <code>configuration</code>
+	 *                                  differs from width of databases
+	 */
+	@Override
+	public double applyAsDouble(KonfiguracijaSlagalice configuration) {
+		if (Objects.requireNonNull(configuration).getWidth() != width) {
+			throw new IllegalArgumentException("Configuration has width "
+					+ configuration.getWidth() + ", but databases have " + width);
+		}
+		int size = configuration.size();
+		int[] positionOfTile = new int[size];
+		for (int i = 0; i < size; i++) {
+			positionOfTile[configuration.getTile(i)] = i;
+		}
+		int sum = 0;
+		for (PatternDatabase database : databases) {
+			sum += database.lookup(positionOfTile);
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the name of the file which holds the database of a pattern.
+	 *
+	 * @param  width width of the board
+	 * @param  tiles tiles of the pattern
+	 * @return       file name
+	 */
+	private static String fileName(int width, int[] tiles) {
+		return Arrays.stream(tiles)
+				.mapToObj(Integer::toString)
+				.collect(Collectors.joining("-", "pdb-" + width + "x" + width + "-", ".bin"));
+	}
+
+}
@@ -1,6 +1,6 @@
 package searching.slagalica;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
@@ -10,7 +10,8 @@ import java.util.function.Supplier;
 import searching.algorithms.Transition;
 
 /**
- * Concrete strategies for solving 3x3 puzzles by moving pieces.
+ * Concrete strategies for solving square puzzles (3x3 by default, but also
+ * 2x2 and 4x4) by moving pieces.
  * 
  * @author Luka Mesaric
  */
@@ -29,6 +30,11 @@ public class Slagalica implements
 	 */
 	private final KonfiguracijaSlagalice initialConfiguration;
 
+	/**
+	 * Final puzzle configuration of the same width, never <code>null</code>
+	 */
+	private final KonfiguracijaSlagalice finalConfiguration;
+
 	/**
 	 * Default constructor.
 	 * 
@@ -38,6 +44,8 @@ public class Slagalica implements
 	 */
 	public Slagalica(KonfiguracijaSlagalice initialConfiguration) {
 		this.initialConfiguration = Objects.requireNonNull(initialConfiguration);
+		this.finalConfiguration = KonfiguracijaSlagalice.solved(
+				initialConfiguration.getWidth());
 	}
 
 	/**
@@ -50,9 +58,53 @@ public class Slagalica implements
 		return initialConfiguration;
 	}
 
+	/**
+	 * Returns final configuration, which is the only acceptable one.
+	 * 
+	 * @return final configuration, never <code>null</code>
+	 */
+	public KonfiguracijaSlagalice getFinalConfiguration() {
+		return finalConfiguration;
+	}
+
+	/**
+	 * Checks whether the final configuration is reachable from the initial one,
+	 * without searching. Moving the space sideways does not change the order of
+	 * tiles, and moving it up or down moves one tile over <code>width - 1</code>
+	 * others. For odd widths, parity of the number of inversions (pairs of tiles
+	 * in reverse order) is therefore invariant. For even widths, every vertical
+	 * move changes both that parity and the row of the space, so parity of their
+	 * sum is invariant. Configuration is solvable if and only if the invariant
+	 * matches the final configuration.
+	 * 
+	 * @return <code>true</code> if puzzle can be solved, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean isSolvable() {
+		KonfiguracijaSlagalice configuration = initialConfiguration;
+		int size = configuration.size();
+		int width = configuration.getWidth();
+		int inversions = 0;
+		for (int i = 0; i < size; i++) {
+			int tile = configuration.getTile(i);
+			for (int j = i + 1; j < size && tile != 0; j++) {
+				int other = configuration.getTile(j);
+				if (other != 0 && other < tile) {
+					inversions++;
+				}
+			}
+		}
+		if (width % 2 == 0) {
+			// space is in the last row of the final configuration
+			inversions += width - 1 - configuration.indexOfSpace() / width;
+		}
+		return inversions % 2 == 0;
+	}
+
 	/**
 	 * Tests if given configuration represents the correct final configuration. The
-	 * only acceptable state is <code>{1,2,3,4,5,6,7,8,0}</code>.
+	 * only acceptable state is <code>{1,2,3,4,5,6,7,8,0}</code> (or the equivalent
+	 * configuration of another width).
 	 * 
 	 * @param  configuration        the configuration to test
 	 * @return                      <code>true</code> if the configuration
@@ -63,13 +115,7 @@ public class Slagalica implements
 	 */
 	@Override
 	public boolean test(KonfiguracijaSlagalice configuration) {
-		final int[] conf = Objects.requireNonNull(configuration).getPolje();
-		final int last = conf.length - 1;
-		for (int i = 0; i < last; i++) {
-			if (conf[i] != i + 1) return false;
-		}
-		if (conf[last] != 0) return false;
-		return true;
+		return finalConfiguration.equals(Objects.requireNonNull(configuration));
 	}
 
 	/**
@@ -87,54 +133,36 @@ public class Slagalica implements
 			KonfiguracijaSlagalice configuration) {
 
 		int space = Objects.requireNonNull(configuration).indexOfSpace();
-		List<Transition<KonfiguracijaSlagalice>> list = new LinkedList<>();
+		int width = configuration.getWidth();
+		List<Transition<KonfiguracijaSlagalice>> list = new ArrayList<>(4);
 
 		// move space right
-		if (space % 3 != 2) addSucc(list, configuration, space, space + 1);
+		if (space % width != width - 1) addSucc(list, configuration, space + 1);
 		// move space left
-		if (space % 3 != 0) addSucc(list, configuration, space, space - 1);
+		if (space % width != 0) addSucc(list, configuration, space - 1);
 		// move space up
-		if (space >= 3) addSucc(list, configuration, space, space - 3);
+		if (space >= width) addSucc(list, configuration, space - width);
 		// move space down
-		if (space <= 5) addSucc(list, configuration, space, space + 3);
+		if (space < configuration.size() - width) addSucc(list, configuration, space + width);
 
 		return list;
 	}
 
 	/**
-	 * Swaps elements at indices <code>i1</code> and <code>i2</code> in copy of
-	 * <code>configuration</code>'s array, and then uses that array to construct a
-	 * new transition that will be added to <code>list</code>.
+	 * Moves the tile at <code>index</code> into the space of
+	 * <code>configuration</code>, and adds the transition to the resulting
+	 * configuration to <code>list</code>.
 	 * 
 	 * @param  list                 list to which new transition is appended
 	 * @param  configuration        configuration
-	 * @param  i1                   first index
-	 * @param  i2                   second index
+	 * @param  index                index of the moved tile
 	 * @throws NullPointerException if any argument is <code>null</code>
 	 */
 	private static void addSucc(
 			List<Transition<KonfiguracijaSlagalice>> list,
 			KonfiguracijaSlagalice configuration,
-			int i1, int i2) {
-
-		int[] array = configuration.getPolje();
-		inplaceSwap(array, i1, i2);
-		list.add(new Transition<>(new KonfiguracijaSlagalice(array), COST));
-	}
-
-	/**
-	 * Helper method for in-place swapping of elements at indices <code>i1</code>
-	 * and <code>i2</code>.
-	 * 
-	 * @param  array                array whose elements are swapped
-	 * @param  i1                   first index
-	 * @param  i2                   second index
-	 * @throws NullPointerException if <code>array</code> is <code>null</code>
-	 */
-	private static void inplaceSwap(int[] array, int i1, int i2) {
-		int tmp = array[i1];
-		array[i1] = array[i2];
-		array[i2] = tmp;
+			int index) {
+		list.add(new Transition<>(configuration.moveToSpace(index), COST));
 	}
 
 }
@@ -0,0 +1,108 @@
+package searching.slagalica;
+
+import java.util.Objects;
+
+/**
+ * Heuristics which estimate the number of moves needed to solve a puzzle, for
+ * use with informed searches such as
+ * {@link searching.algorithms.SearchUtil#astar A*}. Final configuration is the
+ * one accepted by {@link Slagalica#test(KonfiguracijaSlagalice)}: tiles in
+ * ascending order, followed by the space.
+ * <p>
+ * Neither heuristic overestimates the number of moves, so A* and IDA* find
+ * optimal solutions when using them.
+ *
+ * @author Luka Mesaric
+ */
+public class SlagalicaHeuristics {
+
+	/**
+	 * Returns the sum of Manhattan distances of all tiles (but not the space)
+	 * from their final positions.
+	 *
+	 * @param  configuration        configuration to estimate
+	 * @return                      sum of Manhattan distances
+	 * @throws NullPointerException if <code>configuration</code> is
+	 *                              <code>null</code>
+	 */
+	public static double manhattan(KonfiguracijaSlagalice configuration) {
+		int width = Objects.requireNonNull(configuration).getWidth();
+		int distance = 0;
+		for (int i = 0, size = configuration.size(); i < size; i++) {
+			int tile = configuration.getTile(i);
+			if (tile != 0) {
+				int target = tile - 1;
+				distance += Math.abs(i / width - target / width)
+						+ Math.abs(i % width - target % width);
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Returns the Manhattan distance increased by linear conflicts. Two tiles are
+	 * in conflict if both are in their final row (or column), but in reverse
+	 * order; at least one of them has to leave the line and return, which costs
+	 * two more moves. For every line, the smallest number of tiles which have to
+	 * leave it is counted.
+	 *
+	 * @param  configuration        configuration to estimate
+	 * @return                      Manhattan distance with linear conflicts
+	 * @throws NullPointerException if <code>configuration</code> is
+	 *                              <code>null</code>
+	 */
+	public static double linearConflict(KonfiguracijaSlagalice configuration) {
+		int width = Objects.requireNonNull(configuration).getWidth();
+		int conflicts = 0;
+		int[] line = new int[width];
+		for (int row = 0; row < width; row++) {
+			int size = 0;
+			for (int col = 0; col < width; col++) {
+				int tile = configuration.getTile(row * width + col);
+				if (tile != 0 && (tile - 1) / width == row) {
+					line[size++] = (tile - 1) % width;
+				}
+			}
+			conflicts += size - longestIncreasing(line, size);
+		}
+		for (int col = 0; col < width; col++) {
+			int size = 0;
+			for (int row = 0; row < width; row++) {
+				int tile = configuration.getTile(row * width + col);
+				if (tile != 0 && (tile - 1) % width == col) {
+					line[size++] = (tile - 1) / width;
+				}
+			}
+			conflicts += size - longestIncreasing(line, size);
+		}
+		return manhattan(configuration) + 2 * conflicts;
+	}
+
+	/**
+	 * Returns the length of the longest increasing subsequence of the first
+	 * <code>size</code> elements of <code>values</code>. Lines are short, so a
+	 * quadratic algorithm is used.
+	 *
+	 * @param  values array of values
+	 * @param  size   number of values to consider
+	 * @return        length of the longest increasing subsequence
+	 */
+	private static int longestIncreasing(int[] values, int size) {
+		int[] lengths = new int[size];
+		int longest = 0;
+		for (int i = 0; i < size; i++) {
+			lengths[i] = 1;
+			for (int j = 0; j < i; j++) {
+				if (values[j] < values[i]) {
+					lengths[i] = Math.max(lengths[i], lengths[j] + 1);
+				}
+			}
+			longest = Math.max(longest, lengths[i]);
+		}
+		return longest;
+	}
+
+	/** Disable creating instances. */
+	private SlagalicaHeuristics() {}
+
+}
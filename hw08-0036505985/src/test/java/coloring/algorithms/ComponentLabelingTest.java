@@ -0,0 +1,120 @@
+package coloring.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import coloring.algorithms.ScanlineFillTest.TestPicture;
+
+/**
+ * @author Luka Mesaric
+ */
+class ComponentLabelingTest {
+
+	private static ForkJoinPool pool;
+
+	@BeforeAll
+	static void createPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterAll
+	static void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Test
+	void testRegionsMatchFloodFill() {
+		Random random = new Random(11);
+		for (int i = 0; i < 40; i++) {
+			int width = 1 + random.nextInt(40);
+			int height = 1 + random.nextInt(40);
+			int[] pixels = new int[width * height];
+			for (int j = 0; j < pixels.length; j++) {
+				pixels[j] = random.nextInt(3);
+			}
+			TestPicture picture = new TestPicture(width, height, pixels.clone());
+			ComponentLabeling labeling = ComponentLabeling.label(
+					picture, pool, 1 + random.nextInt(8));
+
+			// every flood fill must cover exactly one region
+			int regions = 0;
+			int[] filled = pixels.clone();
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					if (filled[y * width + x] < 0) {
+						continue;
+					}
+					regions++;
+					int label = labeling.getLabel(x, y);
+					assertEquals(pixels[y * width + x], labeling.getColor(label));
+					TestPicture copy = new TestPicture(width, height, filled);
+					ScanlineFill.fill(copy, x, y, -1 - label);
+					int size = 0;
+					for (int j = 0; j < filled.length; j++) {
+						if (filled[j] == -1 - label) {
+							assertEquals(label, labeling.getLabel(j % width, j / width));
+							size++;
+						}
+					}
+					assertEquals(size, labeling.getSize(label));
+				}
+			}
+			assertEquals(regions, labeling.getComponentCount());
+		}
+	}
+
+	@Test
+	void testLabelsDoNotDependOnTiles() {
+		int[] pixels = new int[64 * 48];
+		Random random = new Random(2);
+		for (int j = 0; j < pixels.length; j++) {
+			pixels[j] = random.nextInt(10) < 4 ? 1 : 0;
+		}
+		ComponentLabeling single = ComponentLabeling.label(
+				new TestPicture(64, 48, pixels), pool, 1000);
+		for (int tileSize : new int[] { 1, 3, 16 }) {
+			ComponentLabeling tiled = ComponentLabeling.label(
+					new TestPicture(64, 48, pixels), pool, tileSize);
+			assertEquals(single.getComponentCount(), tiled.getComponentCount());
+			for (int j = 0; j < pixels.length; j++) {
+				// the same partition of pixels, labels may be numbered differently
+				int x = j % 64;
+				int y = j / 64;
+				int other = random.nextInt(pixels.length);
+				assertEquals(
+						single.getLabel(x, y) == single.getLabel(other % 64, other / 64),
+						tiled.getLabel(x, y) == tiled.getLabel(other % 64, other / 64));
+			}
+		}
+	}
+
+	@Test
+	void testRecolorMatchesFill() {
+		int[] pixels = {
+				0, 0, 1, 0,
+				1, 0, 1, 0,
+				0, 0, 1, 1,
+		};
+		TestPicture picture = new TestPicture(4, 3, pixels.clone());
+		ComponentLabeling labeling = ComponentLabeling.label(picture, pool);
+		assertEquals(4, labeling.getComponentCount());
+		labeling.recolor(1, 1, 5);
+
+		TestPicture expected = new TestPicture(4, 3, pixels.clone());
+		ScanlineFill.fill(expected, 1, 1, 5);
+		assertArrayEquals(expected.pixels, picture.pixels);
+		assertEquals(5, labeling.getColor(labeling.getLabel(0, 0)));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> labeling.getLabel(4, 0));
+		assertThrows(IndexOutOfBoundsException.class, () -> labeling.recolor(5, 1));
+	}
+
+}
@@ -0,0 +1,85 @@
+package coloring.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import marcupic.opjj.statespace.coloring.Picture;
+
+/**
+ * @author Luka Mesaric
+ */
+class ScanlineFillTest {
+
+	@Test
+	void testMatchesBfsvOnRandomPictures() {
+		Random random = new Random(3);
+		for (int i = 0; i < 50; i++) {
+			int width = 1 + random.nextInt(30);
+			int height = 1 + random.nextInt(30);
+			int[] pixels = new int[width * height];
+			for (int j = 0; j < pixels.length; j++) {
+				pixels[j] = random.nextInt(10) < 4 ? 1 : 0;
+			}
+			int x = random.nextInt(width);
+			int y = random.nextInt(height);
+
+			TestPicture expected = new TestPicture(width, height, pixels.clone());
+			Coloring coloring = new Coloring(new Pixel(x, y), expected, 7);
+			SubspaceExploreUtil.bfsv(coloring, coloring, coloring, coloring);
+
+			TestPicture actual = new TestPicture(width, height, pixels.clone());
+			ScanlineFill.fill(actual, x, y, 7);
+			assertArrayEquals(expected.pixels, actual.pixels);
+		}
+	}
+
+	@Test
+	void testFillWithSameColorDoesNothing() {
+		int[] pixels = { 0, 1, 0, 0 };
+		TestPicture picture = new TestPicture(2, 2, pixels.clone());
+		ScanlineFill.fill(picture, 0, 0, 0);
+		assertArrayEquals(pixels, picture.pixels);
+	}
+
+	@Test
+	void testInvalidReference() {
+		TestPicture picture = new TestPicture(2, 2, new int[4]);
+		assertThrows(IllegalArgumentException.class, () -> ScanlineFill.fill(picture, 2, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> ScanlineFill.fill(picture, 0, -1, 1));
+		assertThrows(NullPointerException.class, () -> ScanlineFill.fill(null, 0, 0, 1));
+	}
+
+	static class TestPicture implements Picture {
+
+		final int width;
+		final int height;
+		final int[] pixels;
+
+		TestPicture(int width, int height, int[] pixels) {
+			this.width = width;
+			this.height = height;
+			this.pixels = pixels;
+		}
+
+		@Override
+		public int getPixelColor(int x, int y) {
+			return pixels[y * width + x];
+		}
+
+		@Override
+		public void setPixelColor(int x, int y, int color) {
+			pixels[y * width + x] = color;
+		}
+
+		@Override
+		public int getWidth() { return width; }
+
+		@Override
+		public int getHeight() { return height; }
+	}
+
+}
@@ -0,0 +1,57 @@
+package coloring.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import coloring.algorithms.ScanlineFillTest.TestPicture;
+
+/**
+ * @author Luka Mesaric
+ */
+class SubspaceExploreUtilTest {
+
+	@Test
+	void testBitSetBfsvMatchesHashedBfsv() {
+		Random random = new Random(5);
+		for (int i = 0; i < 30; i++) {
+			int width = 1 + random.nextInt(25);
+			int height = 1 + random.nextInt(25);
+			int[] pixels = new int[width * height];
+			for (int j = 0; j < pixels.length; j++) {
+				pixels[j] = random.nextInt(10) < 3 ? 1 : 0;
+			}
+			Pixel reference = new Pixel(random.nextInt(width), random.nextInt(height));
+
+			TestPicture expected = new TestPicture(width, height, pixels.clone());
+			Coloring hashed = new Coloring(reference, expected, 9);
+			List<Pixel> expectedOrder = new ArrayList<>();
+			SubspaceExploreUtil.bfsv(hashed,
+					p -> { expectedOrder.add(p); hashed.accept(p); }, hashed, hashed);
+
+			TestPicture actual = new TestPicture(width, height, pixels.clone());
+			Coloring bits = new Coloring(reference, actual, 9);
+			List<Pixel> actualOrder = new ArrayList<>();
+			SubspaceExploreUtil.bfsv(bits, p -> { actualOrder.add(p); bits.accept(p); },
+					bits, bits, bits::indexOf, bits.numberOfPixels());
+
+			assertArrayEquals(expected.pixels, actual.pixels);
+			assertEquals(expectedOrder, actualOrder);
+		}
+	}
+
+	@Test
+	void testBitSetBfsvRejectsInvalidIndices() {
+		assertThrows(IndexOutOfBoundsException.class, () -> SubspaceExploreUtil.bfsv(
+				() -> 0, s -> {}, s -> List.of(s + 1), s -> true, s -> s, 10));
+		assertThrows(IllegalArgumentException.class, () -> SubspaceExploreUtil.bfsv(
+				() -> 0, s -> {}, s -> List.of(), s -> true, s -> s, -1));
+	}
+
+}
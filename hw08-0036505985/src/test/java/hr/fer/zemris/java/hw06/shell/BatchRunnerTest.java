@@ -0,0 +1,147 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.hw06.shell.commands.CatShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.CdShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.CopyShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.EchoShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.ExitShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.LsShellCommand;
+import hr.fer.zemris.java.hw06.shell.commands.PwdShellCommand;
+
+/**
+ * @author Luka Mesaric
+ */
+class BatchRunnerTest {
+
+	private static final String NL = System.lineSeparator();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testCommentsBlankLinesAndContinuation() {
+		assertEquals("a b" + NL + "c" + NL, run(1,
+				"# comment", "", "  echo a \\", "b", "echo c"));
+	}
+
+	@Test
+	void testPipeAnswersQuestion() throws IOException {
+		Files.writeString(dir.resolve("a.txt"), "new");
+		Files.writeString(dir.resolve("b.txt"), "old");
+		run(1, "echo yes | copy a.txt b.txt");
+		assertEquals("new", Files.readString(dir.resolve("b.txt")));
+
+		Files.writeString(dir.resolve("a.txt"), "newer");
+		String output = run(1, "copy a.txt b.txt", "echo after");
+		assertTrue(output.contains("Line 1: No more input."), output);
+		assertTrue(output.endsWith("after" + NL), output);
+		assertEquals("new", Files.readString(dir.resolve("b.txt")));
+	}
+
+	@Test
+	void testQuotedPipe() {
+		assertEquals("a | b" + NL, run(1, "echo \"a | b\""));
+		assertEquals("Unknown command: nope" + NL, run(1, "echo x | nope"));
+		assertTrue(run(1, "echo x |").contains("empty command"));
+	}
+
+	@Test
+	void testFailingStageStopsPipeline() throws IOException {
+		Files.writeString(dir.resolve("a.txt"), "new");
+		Files.writeString(dir.resolve("b.txt"), "old");
+		String output = run(1, "cat missing.txt | copy a.txt b.txt");
+		assertTrue(output.startsWith("Specified file or directory does not exist."), output);
+		assertTrue(output.contains("Line 1: command cat failed, pipeline stopped."), output);
+		assertEquals("old", Files.readString(dir.resolve("b.txt")));
+
+		assertEquals("Unknown command: nope" + NL
+				+ "Line 1: command nope failed, pipeline stopped." + NL,
+				run(1, "nope | echo x"));
+	}
+
+	@Test
+	void testSequentialCommandIsNotCaptured() {
+		RecordingEnvironment env = new RecordingEnvironment(dir);
+		env.register(new ShellCommand() {
+			@Override
+			public ShellStatus executeCommand(Environment env, String arguments) {
+				env.writeln(env instanceof CapturingEnvironment ? "captured" : "direct");
+				return ShellStatus.CONTINUE;
+			}
+
+			@Override
+			public String getCommandName() { return "probe"; }
+
+			@Override
+			public List<String> getCommandDescription() { return List.of(); }
+		});
+		try (BatchRunner runner = new BatchRunner(env, 1)) {
+			runner.run(List.of("probe", "probe | probe"));
+		}
+		assertEquals("direct" + NL + "captured" + NL, env.getOutput());
+	}
+
+	@Test
+	void testConcurrentOutputIsOrdered() {
+		List<String> script = new ArrayList<>();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			script.add("echo " + i);
+			expected.append(i).append(NL);
+		}
+		assertEquals(expected.toString(), run(4, script.toArray(new String[0])));
+	}
+
+	@Test
+	void testConcurrentLsMatchesSequential() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			Files.writeString(dir.resolve("file" + i + ".txt"), "x".repeat(i));
+			Path sub = Files.createDirectory(dir.resolve("sub" + i));
+			Files.writeString(sub.resolve("inner.txt"), "y".repeat(i));
+		}
+		List<String> script = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			script.add("ls .");
+			script.add("ls --depth=2 .");
+		}
+		String[] lines = script.toArray(new String[0]);
+		String sequential = run(1, lines);
+		assertTrue(sequential.contains("inner.txt"), sequential);
+		assertEquals(sequential, run(4, lines));
+	}
+
+	@Test
+	void testBarrierAndExit() throws IOException {
+		Path sub = Files.createDirectory(dir.resolve("sub"));
+		String output = run(4, "pwd", "cd sub", "pwd", "exit", "echo never");
+		assertEquals(dir.toAbsolutePath().normalize() + NL
+				+ sub.toAbsolutePath().normalize() + NL, output);
+	}
+
+	private String run(int threads, String... script) {
+		RecordingEnvironment env = new RecordingEnvironment(dir);
+		for (ShellCommand command : Arrays.asList(new CatShellCommand(), new CdShellCommand(),
+				new CopyShellCommand(), new EchoShellCommand(),
+				new ExitShellCommand(), new LsShellCommand(), new PwdShellCommand())) {
+			env.register(command);
+		}
+		try (BatchRunner runner = new BatchRunner(env, threads)) {
+			runner.run(Arrays.asList(script));
+		}
+		return env.getOutput();
+	}
+
+}
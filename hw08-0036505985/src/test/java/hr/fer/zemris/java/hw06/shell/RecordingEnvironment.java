@@ -0,0 +1,91 @@
+package hr.fer.zemris.java.hw06.shell;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Environment used in tests. Records all output, reads input from a given list
+ * of lines and keeps its state in memory.
+ *
+ * @author Luka Mesaric
+ */
+public class RecordingEnvironment implements Environment {
+
+	private final StringBuilder output = new StringBuilder();
+	private final Deque<String> input;
+	private final SortedMap<String, ShellCommand> commands = new TreeMap<>();
+	private final Map<String, Object> sharedData = new HashMap<>();
+	private Path currentDirectory;
+	private Character multilineSymbol = '|';
+	private Character promptSymbol = '>';
+	private Character morelinesSymbol = '\\';
+
+	public RecordingEnvironment(Path currentDirectory, String... input) {
+		this.currentDirectory = currentDirectory.toAbsolutePath().normalize();
+		this.input = new ArrayDeque<>(Arrays.asList(input));
+	}
+
+	public void register(ShellCommand command) {
+		commands.put(command.getCommandName(), command);
+	}
+
+	public String getOutput() { return output.toString(); }
+
+	public void clearOutput() { output.setLength(0); }
+
+	@Override
+	public String readLine() throws ShellIOException {
+		if (input.isEmpty()) {
+			throw new ShellIOException("No more input.");
+		}
+		return input.removeFirst();
+	}
+
+	@Override
+	public void write(String text) { output.append(text); }
+
+	@Override
+	public void writeln(String text) {
+		output.append(text).append(System.lineSeparator());
+	}
+
+	@Override
+	public SortedMap<String, ShellCommand> commands() { return commands; }
+
+	@Override
+	public Character getMultilineSymbol() { return multilineSymbol; }
+
+	@Override
+	public void setMultilineSymbol(Character symbol) { multilineSymbol = symbol; }
+
+	@Override
+	public Character getPromptSymbol() { return promptSymbol; }
+
+	@Override
+	public void setPromptSymbol(Character symbol) { promptSymbol = symbol; }
+
+	@Override
+	public Character getMorelinesSymbol() { return morelinesSymbol; }
+
+	@Override
+	public void setMorelinesSymbol(Character symbol) { morelinesSymbol = symbol; }
+
+	@Override
+	public Path getCurrentDirectory() { return currentDirectory; }
+
+	@Override
+	public void setCurrentDirectory(Path path) { currentDirectory = path; }
+
+	@Override
+	public Object getSharedData(String key) { return sharedData.get(key); }
+
+	@Override
+	public void setSharedData(String key, Object value) { sharedData.put(key, value); }
+
+}
@@ -0,0 +1,84 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.hw06.shell.RecordingEnvironment;
+
+/**
+ * @author Luka Mesaric
+ */
+class CatShellCommandTest {
+
+	private static final String NL = System.lineSeparator();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testWholeFile() throws IOException {
+		assertEquals("a\nb\n", cat("a\nb\n", StandardCharsets.UTF_8, ""));
+		assertEquals("a\r\nb" + NL, cat("a\r\nb", StandardCharsets.UTF_8, ""));
+		assertEquals("", cat("", StandardCharsets.UTF_8, ""));
+	}
+
+	@Test
+	void testMultibyteAcrossBuffers() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; sb.length() < 300_000; i++) {
+			sb.append("čćžšđ € ").append(i).append('\n');
+		}
+		String text = sb.toString();
+		assertEquals(text, cat(text, StandardCharsets.UTF_8, ""));
+		assertEquals(text, cat(text, StandardCharsets.UTF_16LE, ""));
+	}
+
+	@Test
+	void testHead() throws IOException {
+		assertEquals("a\nb\n", cat("a\nb\nc\n", StandardCharsets.UTF_8, "--head=2"));
+		assertEquals("a\nb" + NL, cat("a\nb", StandardCharsets.UTF_8, "--head=5"));
+		assertEquals("", cat("a\nb\n", StandardCharsets.UTF_8, "--head=0"));
+	}
+
+	@Test
+	void testTail() throws IOException {
+		for (Charset charset : new Charset[] {
+				StandardCharsets.UTF_8, StandardCharsets.UTF_16 }) {
+			boolean bytes = charset == StandardCharsets.UTF_8;
+			assertEquals(bytes ? "c\nd\n" : "c" + NL + "d" + NL,
+					cat("a\nb\nc\nd\n", charset, "--tail=2"));
+			assertEquals(bytes ? "c\nd" + NL : "c" + NL + "d" + NL,
+					cat("a\nb\nc\nd", charset, "--tail=2"));
+			assertEquals(bytes ? "a\nb\n" : "a" + NL + "b" + NL,
+					cat("a\nb\n", charset, "--tail=10"));
+			assertEquals("", cat("a\nb\n", charset, "--tail=0"));
+		}
+	}
+
+	@Test
+	void testInvalidOptions() throws IOException {
+		assertTrue(cat("a", StandardCharsets.UTF_8, "--head=1 --tail=1")
+				.startsWith("Options head and tail"));
+		assertTrue(cat("a", StandardCharsets.UTF_8, "--head=-1")
+				.startsWith("Option head must not be negative"));
+	}
+
+	private String cat(String content, Charset charset, String options)
+			throws IOException {
+		Files.writeString(dir.resolve("file.txt"), content, charset);
+		RecordingEnvironment env = new RecordingEnvironment(dir);
+		new CatShellCommand().executeCommand(env,
+				options + " file.txt " + charset.name());
+		return env.getOutput();
+	}
+
+}
@@ -0,0 +1,88 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Luka Mesaric
+ */
+class HexdumpFormatterTest {
+
+	@Test
+	void testMatchesLegacyFormat() {
+		byte[] data = new byte[1000];
+		new Random(42).nextBytes(data);
+		data[0] = 31;
+		data[1] = 32;
+		data[2] = 126;
+		data[3] = 127;
+
+		HexdumpFormatter formatter = new HexdumpFormatter(5);
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		StringBuilder actual = new StringBuilder();
+		long offset = 0x1234;
+		while (buffer.hasRemaining()) {
+			int before = buffer.position();
+			actual.append(formatter.format(buffer, offset));
+			offset += buffer.position() - before;
+		}
+
+		assertEquals(legacyFormat(data, 0x1234), actual.toString());
+	}
+
+	@Test
+	void testBlockSize() {
+		HexdumpFormatter formatter = new HexdumpFormatter(2);
+		ByteBuffer buffer = ByteBuffer.allocate(100);
+		assertEquals(32, formatter.maxBytes());
+
+		formatter.format(buffer, 0);
+		assertEquals(32, buffer.position());
+		buffer.position(95);
+		formatter.format(buffer, 0);
+		assertEquals(100, buffer.position());
+		assertEquals("", formatter.format(buffer, 0).toString());
+	}
+
+	@Test
+	void testLongOffset() {
+		String line = new HexdumpFormatter(1)
+				.format(ByteBuffer.allocate(1), 0x123456789L).toString();
+		assertEquals("123456789: 00", line.substring(0, 13));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new HexdumpFormatter(0));
+		assertThrows(NullPointerException.class,
+				() -> new HexdumpFormatter(1).format(null, 0));
+	}
+
+	/**
+	 * Formats <code>data</code> the way <code>hexdump</code> command used to,
+	 * one line at a time using <code>String.format</code>.
+	 */
+	private static String legacyFormat(byte[] data, long offset) {
+		StringBuilder sb = new StringBuilder();
+		int perLine = HexdumpFormatter.BYTES_PER_LINE;
+		for (int line = 0; line < data.length; line += perLine) {
+			StringBuilder sbChar = new StringBuilder();
+			sb.append(String.format("%08X:", offset + line));
+			for (int i = 0; i < perLine; i++) {
+				sb.append(i == perLine / 2 ? '|' : ' ');
+				boolean r = line + i >= data.length;
+				byte b = r ? 0 : data[line + i];
+				sb.append(r ? "  " : String.format("%02X", b));
+				sbChar.append(r ? ' ' : ((b < 32 || b >= 127) ? '.' : (char) b));
+			}
+			sb.append(" | ").append(sbChar).append(System.lineSeparator());
+		}
+		return sb.toString();
+	}
+
+}
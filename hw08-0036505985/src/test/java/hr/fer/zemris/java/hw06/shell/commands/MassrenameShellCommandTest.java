@@ -0,0 +1,109 @@
+package hr.fer.zemris.java.hw06.shell.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.hw06.shell.RecordingEnvironment;
+
+/**
+ * @author Luka Mesaric
+ */
+class MassrenameShellCommandTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testCompiledNameBuilder() {
+		CompiledNameBuilder builder = new NameBuilderParser(
+				"a-${1}-b${ 2 , 03 }${1,4}c").getNameBuilder();
+		Matcher matcher = Pattern.compile("(x+)-(\\d+)").matcher("xx-7");
+		assertTrue(matcher.matches());
+		assertEquals("a-xx-b007  xxc", builder.build(new FilterResult(matcher)));
+		assertEquals(2, builder.getMaxGroup());
+		assertEquals(6, builder.numberOfSegments());
+	}
+
+	@Test
+	void testSwapsRotationsAndChains() throws IOException {
+		// a_b_c, b_c_a and c_a_b form a cycle; x_y_z and y_z_x form a chain
+		String[] names = { "a_b_c", "b_c_a", "c_a_b", "x_y_z", "y_z_x", "other" };
+		for (String name : names) {
+			Files.writeString(dir.resolve(name), name);
+		}
+
+		String output = massrename("show", "(.)_(.)_(.) ${2}_${3}_${1}");
+		assertTrue(output.contains("a_b_c => b_c_a"), output);
+		assertFalse(output.contains("Conflict"), output);
+
+		output = massrename("execute", "(.)_(.)_(.) ${2}_${3}_${1}");
+		assertFalse(output.contains("Could not"), output);
+		assertEquals(5, output.lines().count());
+		assertEquals("a_b_c", Files.readString(dir.resolve("b_c_a")));
+		assertEquals("b_c_a", Files.readString(dir.resolve("c_a_b")));
+		assertEquals("c_a_b", Files.readString(dir.resolve("a_b_c")));
+		assertEquals("x_y_z", Files.readString(dir.resolve("y_z_x")));
+		assertEquals("y_z_x", Files.readString(dir.resolve("z_x_y")));
+		assertEquals(List.of("a_b_c", "b_c_a", "c_a_b", "other", "y_z_x", "z_x_y"),
+				listDir());
+
+		// swap of two files, and a file renamed to itself
+		output = massrename("execute", "(.)_(.)_(.) ${3}_${2}_${1}");
+		assertFalse(output.contains("Could not"), output);
+		assertEquals("c_a_b", Files.readString(dir.resolve("c_b_a")));
+		assertEquals("b_c_a", Files.readString(dir.resolve("b_a_c")));
+		assertEquals("a_b_c", Files.readString(dir.resolve("a_c_b")));
+		assertEquals("x_y_z", Files.readString(dir.resolve("x_z_y")));
+		assertEquals("y_z_x", Files.readString(dir.resolve("y_x_z")));
+	}
+
+	@Test
+	void testConflictsPreventExecution() throws IOException {
+		Files.writeString(dir.resolve("a1.txt"), "1");
+		Files.writeString(dir.resolve("a2.txt"), "2");
+		Files.writeString(dir.resolve("b.txt"), "3");
+
+		String output = massrename("show", "a\\d.txt b.txt");
+		assertTrue(output.contains("Conflict: Both"), output);
+		assertTrue(output.contains("Conflict: Target already exists"), output);
+
+		output = massrename("execute", "a(\\d).txt c.txt");
+		assertTrue(output.contains("Nothing was renamed."), output);
+		assertEquals(List.of("a1.txt", "a2.txt", "b.txt"), listDir());
+
+		output = massrename("execute", "a(\\d).txt ${2}.txt");
+		assertTrue(output.startsWith("Invalid group reference"), output);
+		output = massrename("execute", "a(\\d).txt ../${1}.txt");
+		assertTrue(output.contains("Generated name is invalid"), output);
+		assertEquals(List.of("a1.txt", "a2.txt", "b.txt"), listDir());
+	}
+
+	private String massrename(String subcommand, String rest) {
+		RecordingEnvironment env = new RecordingEnvironment(dir);
+		String[] parts = rest.split(" ", 2);
+		new MassrenameShellCommand().executeCommand(env,
+				". . " + subcommand + " " + parts[0] + " " + parts[1]);
+		return env.getOutput();
+	}
+
+	private List<String> listDir() throws IOException {
+		try (Stream<Path> stream = Files.list(dir)) {
+			return stream.map(p -> p.getFileName().toString()).sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Luka Mesaric
+ */
+class CommandOptionsTest {
+
+	private static final Set<String> ALLOWED = Set.of("parallel", "offset");
+
+	@Test
+	void testMixedOptionsAndArguments() {
+		CommandOptions options = CommandOptions.parse(
+				Arrays.asList("a.txt", "--parallel", "b.txt", "--offset=0x10"),
+				ALLOWED);
+
+		assertEquals(List.of("a.txt", "b.txt"), options.getArguments());
+		assertTrue(options.hasOption("parallel"));
+		assertNull(options.getOption("parallel"));
+		assertEquals("0x10", options.getOption("offset"));
+		assertEquals(16, options.getNonNegativeLong("offset", 0));
+	}
+
+	@Test
+	void testEndOfOptions() {
+		CommandOptions options = CommandOptions.parse(
+				Arrays.asList("--parallel", "--", "--offset"), ALLOWED);
+
+		assertEquals(List.of("--offset"), options.getArguments());
+		assertFalse(options.hasOption("offset"));
+		assertEquals(7, options.getNonNegativeLong("offset", 7));
+	}
+
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class,
+				() -> CommandOptions.parse(List.of("--unknown"), ALLOWED));
+		assertThrows(IllegalArgumentException.class,
+				() -> CommandOptions.parse(List.of("--offset=1", "--offset=2"), ALLOWED));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> CommandOptions.parse(List.of("--offset"), ALLOWED)
+						.getNonNegativeLong("offset", 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> CommandOptions.parse(List.of("--offset=abc"), ALLOWED)
+						.getNonNegativeLong("offset", 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> CommandOptions.parse(List.of("--offset=-1"), ALLOWED)
+						.getNonNegativeLong("offset", 0));
+	}
+
+}
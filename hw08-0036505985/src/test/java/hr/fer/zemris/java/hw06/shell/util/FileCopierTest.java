@@ -0,0 +1,89 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Luka Mesaric
+ */
+class FileCopierTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testChunkedCopy() throws Exception {
+		byte[] data = randomBytes(10_000);
+		Path source = Files.write(dir.resolve("source.bin"), data);
+		Files.write(dir.resolve("dest.bin"), randomBytes(20_000));
+
+		try (FileCopier copier = new FileCopier(3, 999)) {
+			copier.submitFile(source, dir.resolve("dest.bin"));
+			assertTrue(copier.awaitCompletion(10, TimeUnit.SECONDS));
+			assertEquals(data.length, copier.getCopiedBytes());
+		}
+		assertArrayEquals(data, Files.readAllBytes(dir.resolve("dest.bin")));
+	}
+
+	@Test
+	void testDirectoryCopy() throws Exception {
+		Path source = Files.createDirectories(dir.resolve("src/a/b"));
+		Files.createDirectories(dir.resolve("src/empty"));
+		byte[] first = randomBytes(5000);
+		byte[] second = new byte[0];
+		Files.write(dir.resolve("src/one.bin"), first);
+		Files.write(source.resolve("two.bin"), second);
+
+		try (FileCopier copier = new FileCopier(2, 1024)) {
+			copier.submitDirectory(dir.resolve("src"), dir.resolve("dest"));
+			assertTrue(copier.awaitCompletion(10, TimeUnit.SECONDS));
+			assertEquals(2, copier.getSubmittedFiles());
+			assertEquals(first.length, copier.getTotalBytes());
+		}
+		assertArrayEquals(first, Files.readAllBytes(dir.resolve("dest/one.bin")));
+		assertArrayEquals(second, Files.readAllBytes(dir.resolve("dest/a/b/two.bin")));
+		assertTrue(Files.isDirectory(dir.resolve("dest/empty")));
+	}
+
+	@Test
+	void testSequentialCopy() throws IOException {
+		byte[] data = randomBytes(3000);
+		Path source = Files.write(dir.resolve("source.bin"), data);
+		assertEquals(data.length, FileCopier.copy(source, dir.resolve("dest.bin")));
+		assertArrayEquals(data, Files.readAllBytes(dir.resolve("dest.bin")));
+	}
+
+	@Test
+	void testFailure() throws IOException {
+		Path source = Files.write(dir.resolve("source.bin"), randomBytes(10));
+		try (FileCopier copier = new FileCopier(1, 0)) {
+			copier.submitFile(source, dir.resolve("missing/dest.bin"));
+			assertThrows(IOException.class,
+					() -> copier.awaitCompletion(10, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new FileCopier(0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new FileCopier(1, -1));
+	}
+
+	private static byte[] randomBytes(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+
+}
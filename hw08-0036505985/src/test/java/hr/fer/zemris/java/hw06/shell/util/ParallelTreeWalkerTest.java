@@ -0,0 +1,122 @@
+package hr.fer.zemris.java.hw06.shell.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import hr.fer.zemris.java.hw06.shell.util.ParallelTreeWalker.Entry;
+
+/**
+ * @author Luka Mesaric
+ */
+class ParallelTreeWalkerTest {
+
+	@TempDir
+	Path root;
+
+	private ForkJoinPool pool;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		pool = new ForkJoinPool(4);
+		for (int i = 0; i < 5; i++) {
+			Path dir = Files.createDirectories(root.resolve("d" + i + "/e" + i + "/f"));
+			for (int j = 0; j <= i; j++) {
+				Files.write(dir.resolve("file" + j), new byte[j]);
+				Files.createFile(dir.getParent().resolve("g" + j));
+			}
+		}
+		Files.createFile(root.resolve("top.txt"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void testSameOrderAsWalkFileTree() throws IOException {
+		for (int depth = 0; depth <= 4; depth++) {
+			List<Path> expected;
+			try (Stream<Path> walk = Files.walk(root, depth,
+					new FileVisitOption[0])) {
+				expected = walk.collect(Collectors.toList());
+			}
+			assertEquals(expected, walkPaths(depth));
+		}
+	}
+
+	@Test
+	void testDepthsAndMetadata() throws IOException {
+		Entry tree = new ParallelTreeWalker(pool, Integer.MAX_VALUE).walk(root);
+		List<Entry> entries = new ArrayList<>();
+		ParallelTreeWalker.visit(tree, entries::add);
+
+		assertEquals(2 + 3 * 5 + 15 + 15, entries.size());
+		for (Entry entry : entries) {
+			Path path = entry.getPath();
+			int depth = path.equals(root) ? 0 : root.relativize(path).getNameCount();
+			assertEquals(depth, entry.getDepth());
+			assertEquals(Files.isDirectory(path), entry.getMetadata().isDirectory());
+			assertEquals(Files.size(path), entry.getMetadata().getAttributes().size());
+			assertTrue(entry.getMetadata().isReadable());
+			if (!entry.getMetadata().isDirectory()) {
+				assertTrue(entry.getChildren().isEmpty());
+			}
+		}
+	}
+
+	@Test
+	void testSymbolicLinkToDirectory() throws IOException {
+		Path link = Files.createSymbolicLink(root.resolve("link"), root.resolve("d0"));
+		Entry tree = new ParallelTreeWalker(pool, Integer.MAX_VALUE).walk(root);
+		Entry entry = tree.getChildren().stream()
+				.filter(e -> e.getPath().equals(link))
+				.findFirst()
+				.orElseThrow();
+
+		assertTrue(entry.getMetadata().isSymbolicLink());
+		assertTrue(entry.getMetadata().isDirectory());
+		assertEquals(Files.isExecutable(link), entry.getMetadata().isExecutable());
+		assertTrue(entry.getChildren().isEmpty());
+	}
+
+	@Test
+	void testFileAsRoot() throws IOException {
+		Entry tree = new ParallelTreeWalker(pool, 3).walk(root.resolve("top.txt"));
+		assertFalse(tree.getMetadata().isDirectory());
+		assertTrue(tree.getChildren().isEmpty());
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new ParallelTreeWalker(pool, -1));
+		assertThrows(IOException.class,
+				() -> new ParallelTreeWalker(pool, 1).walk(root.resolve("missing")));
+	}
+
+	private List<Path> walkPaths(int depth) throws IOException {
+		Entry tree = new ParallelTreeWalker(pool, depth).walk(root);
+		List<Path> paths = new ArrayList<>();
+		ParallelTreeWalker.visit(tree, entry -> paths.add(entry.getPath()));
+		return paths;
+	}
+
+}
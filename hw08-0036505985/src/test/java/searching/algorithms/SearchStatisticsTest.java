@@ -0,0 +1,86 @@
+package searching.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.Slagalica;
+import searching.slagalica.SlagalicaHeuristics;
+
+/**
+ * @author Luka Mesaric
+ */
+class SearchStatisticsTest {
+
+	private static final KonfiguracijaSlagalice HARDEST =
+			new KonfiguracijaSlagalice(new int[] { 8, 6, 7, 2, 5, 4, 3, 0, 1 });
+
+	private static final KonfiguracijaSlagalice UNSOLVABLE =
+			new KonfiguracijaSlagalice(new int[] { 1, 6, 4, 5, 0, 2, 8, 7, 3 });
+
+	@Test
+	void testExhaustiveBfsvCountsAllStates() {
+		Slagalica s = new Slagalica(UNSOLVABLE);
+		SearchStatistics statistics = new SearchStatistics();
+		assertNull(SearchUtil.bfsv(s, s, s, VisitedSet.hashed(), statistics));
+
+		assertEquals(181_440, statistics.getExpanded());
+		assertEquals(181_440, statistics.getPeakVisited());
+		// space is equally often in each of 9 fields: 4 corners, 4 edges, center
+		assertEquals(1 + 181_440 / 9 * (4 * 2 + 4 * 3 + 4), statistics.getGenerated());
+		assertTrue(statistics.getPeakFrontier() > 0);
+		assertTrue(statistics.getElapsedNanos() > 0);
+		assertEquals(1, statistics.getSearches());
+	}
+
+	@Test
+	void testReusedStatisticsHoldLastSearch() {
+		SearchStatistics statistics = new SearchStatistics();
+		Slagalica s = new Slagalica(HARDEST);
+		SearchUtil.bfsv(s, s, s, VisitedSet.hashed(), statistics);
+		long bfsvExpanded = statistics.getExpanded();
+
+		Node<KonfiguracijaSlagalice> node =
+				SearchUtil.astar(s, s, s, SlagalicaHeuristics::manhattan, statistics);
+		assertEquals(31, node.getCost());
+		assertTrue(statistics.getExpanded() < bfsvExpanded);
+		assertTrue(statistics.getPeakVisited() >= statistics.getExpanded());
+		assertEquals(2, statistics.getSearches());
+
+		// numbers, where n can go to n + 1 or 2n
+		SearchUtil.bfs(() -> 1,
+				n -> List.of(new Transition<>(n + 1, 1), new Transition<>(2 * n, 1)),
+				n -> n == 10, statistics);
+		assertEquals(1 + 2 * statistics.getExpanded(), statistics.getGenerated());
+		assertEquals(0, statistics.getPeakVisited());
+		assertEquals(3, statistics.getSearches());
+	}
+
+	@Test
+	void testExport() throws JMException {
+		SearchStatistics statistics = new SearchStatistics();
+		ObjectName name = statistics.export("test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			Slagalica s = new Slagalica(HARDEST);
+			SearchUtil.bidirectionalBfs(s, s, s::getFinalConfiguration, s, statistics);
+			assertEquals(statistics.getExpanded(), server.getAttribute(name, "Expanded"));
+			assertEquals(1L, server.getAttribute(name, "Searches"));
+			assertThrows(IllegalStateException.class, () -> statistics.export("test"));
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+
+}
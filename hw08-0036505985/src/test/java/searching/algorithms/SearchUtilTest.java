@@ -0,0 +1,164 @@
+package searching.algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import searching.slagalica.KonfiguracijaSlagalice;
+import searching.slagalica.Slagalica;
+import searching.slagalica.SlagalicaHeuristics;
+
+/**
+ * @author Luka Mesaric
+ */
+class SearchUtilTest {
+
+	private static final KonfiguracijaSlagalice SIX_MOVES =
+			new KonfiguracijaSlagalice(new int[] { 2, 3, 0, 1, 4, 6, 7, 5, 8 });
+
+	private static final KonfiguracijaSlagalice HARDEST =
+			new KonfiguracijaSlagalice(new int[] { 8, 6, 7, 2, 5, 4, 3, 0, 1 });
+
+	private static final KonfiguracijaSlagalice UNSOLVABLE =
+			new KonfiguracijaSlagalice(new int[] { 1, 6, 4, 5, 0, 2, 8, 7, 3 });
+
+	@Test
+	void testBfsFindsShortestPath() {
+		// numbers, where n can go to n + 1 (cost 1) or 2n (cost 1)
+		Node<Integer> node = SearchUtil.bfs(() -> 1,
+				n -> List.of(new Transition<>(n + 1, 1), new Transition<>(2 * n, 1)),
+				n -> n == 10);
+		assertEquals(4, node.getCost());	// 1, 2, 4, 5, 10
+		assertEquals(5, node.getParent().getState());
+
+		Slagalica slagalica = new Slagalica(SIX_MOVES);
+		assertEquals(6, SearchUtil.bfs(slagalica, slagalica, slagalica).getCost());
+	}
+
+	@Test
+	void testBfsvWithVisitedSets() {
+		Slagalica slagalica = new Slagalica(SIX_MOVES);
+		assertEquals(6, SearchUtil.bfsv(slagalica, slagalica, slagalica).getCost());
+
+		Set<KonfiguracijaSlagalice> seen = new HashSet<>();
+		Slagalica unsolvable = new Slagalica(UNSOLVABLE);
+		assertNull(SearchUtil.bfsv(unsolvable, unsolvable, unsolvable, seen::add));
+		assertEquals(181_440, seen.size());
+	}
+
+	@Test
+	void testBidirectionalBfsFindsShortestPath() {
+		for (KonfiguracijaSlagalice start : new KonfiguracijaSlagalice[] {
+				SIX_MOVES, HARDEST, KonfiguracijaSlagalice.solved(3) }) {
+			Slagalica s = new Slagalica(start);
+			Node<KonfiguracijaSlagalice> node = SearchUtil.bidirectionalBfs(
+					s, s, s::getFinalConfiguration, s);
+			assertEquals(SearchUtil.bfsv(s, s, s).getCost(), node.getCost());
+			assertTrue(s.test(node.getState()));
+
+			// every node is a successor of its parent, and costs grow by one
+			int length = 0;
+			for (; node.getParent() != null; node = node.getParent(), length++) {
+				Node<KonfiguracijaSlagalice> parent = node.getParent();
+				assertEquals(parent.getCost() + 1, node.getCost());
+				KonfiguracijaSlagalice state = node.getState();
+				assertTrue(s.apply(parent.getState()).stream()
+						.anyMatch(t -> t.getState().equals(state)));
+			}
+			assertEquals(start, node.getState());
+			assertEquals(0, node.getCost());
+		}
+
+		Slagalica unsolvable = new Slagalica(UNSOLVABLE);
+		assertNull(SearchUtil.bidirectionalBfs(unsolvable, unsolvable,
+				unsolvable::getFinalConfiguration, unsolvable));
+
+		// directed graph: n goes to n + 1 and 2n, reverse edges are given separately
+		Node<Integer> node = SearchUtil.bidirectionalBfs(() -> 1,
+				n -> List.of(new Transition<>(n + 1, 1), new Transition<>(2 * n, 1)),
+				() -> 10,
+				n -> n % 2 == 0
+						? List.of(new Transition<>(n - 1, 1), new Transition<>(n / 2, 1))
+						: List.of(new Transition<>(n - 1, 1)));
+		assertEquals(4, node.getCost());
+		assertEquals(10, node.getState());
+	}
+
+	@Test
+	void testParallelBfsvMatchesBfsv() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (KonfiguracijaSlagalice start : new KonfiguracijaSlagalice[] {
+					SIX_MOVES, HARDEST, KonfiguracijaSlagalice.solved(3) }) {
+				Slagalica s = new Slagalica(start);
+				Node<KonfiguracijaSlagalice> expected = SearchUtil.bfsv(s, s, s);
+				Node<KonfiguracijaSlagalice> actual = SearchUtil.parallelBfsv(s, s, s, pool);
+				for (; expected != null; expected = expected.getParent(),
+						actual = actual.getParent()) {
+					assertEquals(expected.getState(), actual.getState());
+					assertEquals(expected.getCost(), actual.getCost());
+				}
+				assertNull(actual);
+			}
+
+			Slagalica unsolvable = new Slagalica(UNSOLVABLE);
+			assertNull(SearchUtil.parallelBfsv(unsolvable, unsolvable, unsolvable, pool));
+
+			// 6 (from 3) and 5 (from 4) are on the same level, 6 is generated first
+			Node<Integer> node = SearchUtil.parallelBfsv(() -> 1,
+					n -> List.of(new Transition<>(n + 1, 1), new Transition<>(2 * n, 1)),
+					n -> n == 5 || n == 6, pool);
+			assertEquals(6, node.getState());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testInformedSearchesAreOptimal() {
+		for (KonfiguracijaSlagalice start : new KonfiguracijaSlagalice[] {
+				SIX_MOVES, HARDEST }) {
+			Slagalica s = new Slagalica(start);
+			double expected = SearchUtil.bfsv(s, s, s).getCost();
+			assertEquals(expected,
+					SearchUtil.astar(s, s, s, SlagalicaHeuristics::manhattan).getCost());
+			assertEquals(expected,
+					SearchUtil.astar(s, s, s, SlagalicaHeuristics::linearConflict).getCost());
+			Node<KonfiguracijaSlagalice> ida = SearchUtil.idaStar(
+					s, s, s, SlagalicaHeuristics::linearConflict);
+			assertEquals(expected, ida.getCost());
+			assertTrue(s.test(ida.getState()));
+		}
+		assertEquals(31, SearchUtil.astar(new Slagalica(HARDEST), new Slagalica(HARDEST),
+				new Slagalica(HARDEST), SlagalicaHeuristics::manhattan).getCost());
+	}
+
+	@Test
+	void testInformedSearchesWithoutSolution() {
+		Slagalica s = new Slagalica(UNSOLVABLE);
+		assertNull(SearchUtil.astar(s, s, s, SlagalicaHeuristics::manhattan));
+		assertNull(SearchUtil.idaStar(s, s, s, SlagalicaHeuristics::manhattan, 12));
+
+		// unbounded search terminates once every path was explored
+		Slagalica small = new Slagalica(new KonfiguracijaSlagalice(new int[] { 2, 1, 3, 0 }));
+		assertFalse(small.isSolvable());
+		assertNull(SearchUtil.idaStar(small, small, small, SlagalicaHeuristics::manhattan));
+
+		// cheaper path through more expensive first step must be found
+		Node<String> node = SearchUtil.astar(() -> "a",
+				k -> k.equals("a")
+						? List.of(new Transition<>("goal", 10), new Transition<>("b", 1))
+						: k.equals("b") ? List.of(new Transition<>("goal", 1)) : List.of(),
+				k -> k.equals("goal"), k -> 0);
+		assertEquals(2, node.getCost());
+	}
+
+}
@@ -0,0 +1,141 @@
+package searching.slagalica;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import searching.algorithms.LongVisitedSet;
+import searching.algorithms.SearchUtil;
+import searching.algorithms.Transition;
+
+/**
+ * @author Luka Mesaric
+ */
+class KonfiguracijaSlagaliceTest {
+
+	@Test
+	void testPackingRoundTrip() {
+		int[] tiles = { 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0 };
+		KonfiguracijaSlagalice configuration = new KonfiguracijaSlagalice(tiles);
+		assertArrayEquals(tiles, configuration.getPolje());
+		assertEquals(4, configuration.getWidth());
+		assertEquals(15, configuration.indexOfSpace());
+		assertEquals(15, configuration.getTile(0));
+	}
+
+	@Test
+	void testInvalidConfigurations() {
+		assertThrows(NullPointerException.class,
+				() -> new KonfiguracijaSlagalice(null));
+		assertThrows(IllegalArgumentException.class,
+				() -> new KonfiguracijaSlagalice(new int[] { 0, 1, 2 }));
+		assertThrows(IllegalArgumentException.class,
+				() -> new KonfiguracijaSlagalice(new int[] { 1, 1, 2, 0 }));
+		assertThrows(IllegalArgumentException.class,
+				() -> new KonfiguracijaSlagalice(new int[] { 1, 4, 2, 0 }));
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> KonfiguracijaSlagalice.solved(3).getTile(9));
+	}
+
+	@Test
+	void testSuccessorsOf15Puzzle() {
+		KonfiguracijaSlagalice solved = KonfiguracijaSlagalice.solved(4);
+		Slagalica slagalica = new Slagalica(solved);
+		assertTrue(slagalica.test(solved));
+
+		List<Transition<KonfiguracijaSlagalice>> successors = slagalica.apply(solved);
+		assertEquals(2, successors.size());
+		assertArrayEquals(
+				new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 0, 15 },
+				successors.get(0).getState().getPolje());
+		assertArrayEquals(
+				new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 0, 13, 14, 15, 12 },
+				successors.get(1).getState().getPolje());
+
+		KonfiguracijaSlagalice middle = new KonfiguracijaSlagalice(
+				new int[] { 1, 2, 3, 4, 5, 0, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 });
+		Set<KonfiguracijaSlagalice> states = new HashSet<>();
+		for (Transition<KonfiguracijaSlagalice> t : slagalica.apply(middle)) {
+			states.add(t.getState());
+			assertEquals(middle, t.getState().moveToSpace(middle.indexOfSpace()));
+		}
+		assertEquals(4, states.size());
+	}
+
+	@Test
+	void testSolvabilityMatchesSearch() {
+		// all arrangements of the 2x2 board, half of them are solvable
+		int solvable = 0;
+		for (int a = 0; a < 4; a++) {
+			for (int b = 0; b < 4; b++) {
+				for (int c = 0; c < 4; c++) {
+					int d = 6 - a - b - c;
+					if (a == b || a == c || b == c || d == a || d == b || d == c) {
+						continue;
+					}
+					Slagalica s = new Slagalica(
+							new KonfiguracijaSlagalice(new int[] { a, b, c, d }));
+					assertEquals(SearchUtil.bfsv(s, s, s) != null, s.isSolvable());
+					solvable += s.isSolvable() ? 1 : 0;
+				}
+			}
+		}
+		assertEquals(12, solvable);
+
+		assertTrue(new Slagalica(new KonfiguracijaSlagalice(
+				new int[] { 8, 6, 7, 2, 5, 4, 3, 0, 1 })).isSolvable());
+		assertFalse(new Slagalica(new KonfiguracijaSlagalice(
+				new int[] { 1, 6, 4, 5, 0, 2, 8, 7, 3 })).isSolvable());
+
+		KonfiguracijaSlagalice solved = KonfiguracijaSlagalice.solved(4);
+		assertTrue(new Slagalica(solved).isSolvable());
+		assertTrue(new Slagalica(solved.moveToSpace(11).moveToSpace(10)).isSolvable());
+		assertFalse(new Slagalica(new KonfiguracijaSlagalice(
+				new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 15, 14, 0 }))
+						.isSolvable());
+	}
+
+	@Test
+	void testEqualsAndPacked() {
+		KonfiguracijaSlagalice a = new KonfiguracijaSlagalice(new int[] { 1, 2, 3, 0 });
+		KonfiguracijaSlagalice b = KonfiguracijaSlagalice.solved(2);
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(a.getPacked(), b.getPacked());
+		assertNotEquals(a, a.moveToSpace(2));
+		assertEquals("1 2" + System.lineSeparator() + "3 *", a.toString());
+	}
+
+	@Test
+	void testLongVisitedSetExhaustsReachableStates() {
+		// unsolvable instance, all 181,440 reachable states are visited
+		Slagalica slagalica = new Slagalica(new KonfiguracijaSlagalice(
+				new int[] { 1, 6, 4, 5, 0, 2, 8, 7, 3 }));
+		LongVisitedSet<KonfiguracijaSlagalice> visited =
+				new LongVisitedSet<>(KonfiguracijaSlagalice::getPacked);
+		assertNull(SearchUtil.bfsv(slagalica, slagalica, slagalica, visited));
+		assertEquals(181_440, visited.size());
+	}
+
+	@Test
+	void testLongVisitedSetWithZeroKey() {
+		LongVisitedSet<Long> visited = new LongVisitedSet<>(Long::longValue, 0);
+		assertTrue(visited.add(0L));
+		assertTrue(visited.add(-1L));
+		assertTrue(visited.containsKey(0));
+		assertEquals(false, visited.add(0L));
+		assertEquals(false, visited.add(-1L));
+		assertEquals(2, visited.size());
+	}
+
+}
@@ -0,0 +1,144 @@
+package searching.slagalica;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import searching.algorithms.Node;
+import searching.algorithms.SearchUtil;
+
+/**
+ * @author Luka Mesaric
+ */
+class PatternDatabaseTest {
+
+	private static final int[][] INSTANCES = {
+			{ 2, 3, 0, 1, 4, 6, 7, 5, 8 },
+			{ 8, 6, 7, 2, 5, 4, 3, 0, 1 },
+			{ 6, 4, 7, 8, 5, 0, 3, 2, 1 },
+			{ 4, 1, 3, 7, 2, 6, 0, 5, 8 },
+	};
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testHeuristicIsAdmissibleAndDominatesManhattan() {
+		PatternDatabaseHeuristic pdb = PatternDatabaseHeuristic.build(
+				3, PatternDatabaseHeuristic.defaultPartition(3));
+		assertEquals(0, pdb.applyAsDouble(KonfiguracijaSlagalice.solved(3)));
+
+		for (int[] tiles : INSTANCES) {
+			Slagalica s = new Slagalica(new KonfiguracijaSlagalice(tiles));
+			double optimal = SearchUtil.bfsv(s, s, s).getCost();
+			double h = pdb.applyAsDouble(s.get());
+			assertTrue(h <= optimal);
+			assertTrue(h >= SlagalicaHeuristics.manhattan(s.get()));
+
+			Node<KonfiguracijaSlagalice> node = SearchUtil.astar(s, s, s, pdb);
+			assertEquals(optimal, node.getCost());
+		}
+	}
+
+	@Test
+	void testCompletePatternIsExact() {
+		PatternDatabaseHeuristic pdb = PatternDatabaseHeuristic.build(
+				2, PatternDatabaseHeuristic.defaultPartition(2));
+		KonfiguracijaSlagalice configuration = KonfiguracijaSlagalice.solved(2);
+		for (int moves = 0; moves < 6; moves++) {
+			Slagalica s = new Slagalica(configuration);
+			assertEquals(SearchUtil.bfsv(s, s, s).getCost(), pdb.applyAsDouble(configuration));
+			// moving the space around the board clockwise
+			configuration = configuration.moveToSpace(
+					new int[] { 1, 3, 0, 2 }[configuration.indexOfSpace()]);
+		}
+	}
+
+	@Test
+	void testSaveAndLoad() throws IOException {
+		PatternDatabase built = PatternDatabase.build(3, 5, 6, 7, 8);
+		Path file = directory.resolve("pdb.bin");
+		built.save(file);
+		assertEquals(9 * 8 * 7 * 6 + 10, Files.size(file));
+
+		PatternDatabase loaded = PatternDatabase.load(file);
+		assertEquals(3, loaded.getWidth());
+		assertArrayEquals(new int[] { 5, 6, 7, 8 }, loaded.getTiles());
+		assertEquals(built.size(), loaded.size());
+		for (int[] tiles : INSTANCES) {
+			int[] positionOfTile = new int[tiles.length];
+			for (int i = 0; i < tiles.length; i++) {
+				positionOfTile[tiles[i]] = i;
+			}
+			assertEquals(built.lookup(positionOfTile), loaded.lookup(positionOfTile));
+		}
+
+		Files.write(file, new byte[] { 1, 2, 3, 4, 5 });
+		assertThrows(IOException.class, () -> PatternDatabase.load(file));
+	}
+
+	@Test
+	void testLoadOrBuildCreatesFiles() throws IOException {
+		int[][] partition = PatternDatabaseHeuristic.defaultPartition(3);
+		PatternDatabaseHeuristic built =
+				PatternDatabaseHeuristic.loadOrBuild(directory, 3, partition);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+		PatternDatabaseHeuristic loaded =
+				PatternDatabaseHeuristic.loadOrBuild(directory, 3, partition);
+
+		for (int[] tiles : INSTANCES) {
+			KonfiguracijaSlagalice configuration = new KonfiguracijaSlagalice(tiles);
+			assertEquals(built.applyAsDouble(configuration),
+					loaded.applyAsDouble(configuration));
+		}
+	}
+
+	@Test
+	void testLoadOrBuildReplacesTruncatedFile() throws IOException {
+		int[][] partition = PatternDatabaseHeuristic.defaultPartition(3);
+		PatternDatabaseHeuristic built =
+				PatternDatabaseHeuristic.loadOrBuild(directory, 3, partition);
+		try (Stream<Path> files = Files.list(directory)) {
+			Path file = files.findFirst().orElseThrow();
+			Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 100));
+		}
+
+		PatternDatabaseHeuristic rebuilt =
+				PatternDatabaseHeuristic.loadOrBuild(directory, 3, partition);
+		PatternDatabaseHeuristic.loadOrBuild(directory, 3, partition);
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+		for (int[] tiles : INSTANCES) {
+			KonfiguracijaSlagalice configuration = new KonfiguracijaSlagalice(tiles);
+			assertEquals(built.applyAsDouble(configuration),
+					rebuilt.applyAsDouble(configuration));
+		}
+	}
+
+	@Test
+	void testInvalidPatterns() {
+		assertThrows(IllegalArgumentException.class, () -> PatternDatabase.build(5, 1));
+		assertThrows(IllegalArgumentException.class, () -> PatternDatabase.build(3));
+		assertThrows(IllegalArgumentException.class, () -> PatternDatabase.build(3, 0));
+		assertThrows(IllegalArgumentException.class, () -> PatternDatabase.build(3, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new PatternDatabaseHeuristic(
+				List.of(PatternDatabase.build(2, 1, 2), PatternDatabase.build(2, 2))));
+		assertThrows(IllegalArgumentException.class, () -> new PatternDatabaseHeuristic(
+				List.of(PatternDatabase.build(2, 1), PatternDatabase.build(3, 2))));
+	}
+
+}
@@ -0,0 +1,41 @@
+package searching.slagalica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Luka Mesaric
+ */
+class SlagalicaHeuristicsTest {
+
+	@Test
+	void testGoalIsZero() {
+		KonfiguracijaSlagalice goal = of(1, 2, 3, 4, 5, 6, 7, 8, 0);
+		assertEquals(0, SlagalicaHeuristics.manhattan(goal));
+		assertEquals(0, SlagalicaHeuristics.linearConflict(goal));
+	}
+
+	@Test
+	void testKnownValues() {
+		// 2 and 1 are swapped in the first row
+		KonfiguracijaSlagalice swapped = of(2, 1, 3, 4, 5, 6, 7, 8, 0);
+		assertEquals(2, SlagalicaHeuristics.manhattan(swapped));
+		assertEquals(4, SlagalicaHeuristics.linearConflict(swapped));
+
+		// whole first row reversed: two tiles have to leave it
+		KonfiguracijaSlagalice reversed = of(3, 2, 1, 4, 5, 6, 7, 8, 0);
+		assertEquals(4, SlagalicaHeuristics.manhattan(reversed));
+		assertEquals(8, SlagalicaHeuristics.linearConflict(reversed));
+
+		KonfiguracijaSlagalice hard = of(8, 6, 7, 2, 5, 4, 3, 0, 1);
+		assertEquals(21, SlagalicaHeuristics.manhattan(hard));
+		assertTrue(SlagalicaHeuristics.linearConflict(hard) <= 31);
+	}
+
+	private static KonfiguracijaSlagalice of(int... tiles) {
+		return new KonfiguracijaSlagalice(tiles);
+	}
+
+}